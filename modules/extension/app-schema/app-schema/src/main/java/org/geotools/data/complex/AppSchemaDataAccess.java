@@ -627,6 +627,9 @@ public class AppSchemaDataAccess implements DataAccess<FeatureType, Feature> {
         // dispose all the source data stores
         for (FeatureTypeMapping mapping : mappings.values()) {
             mapping.getSource().getDataStore().dispose();
+            if (mapping.getFeatureCache() != null) {
+                mapping.getFeatureCache().invalidate();
+            }
         }
         mappings.clear();
     }
@@ -0,0 +1,246 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.data.complex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.feature.FeatureCollection;
+import org.geotools.feature.FeatureIterator;
+import org.opengis.feature.Feature;
+import org.opengis.feature.type.FeatureType;
+
+/**
+ * A size bounded cache of fully built complex features for a single {@link FeatureTypeMapping},
+ * keyed by feature id. Cached features include their chained (nested) features, so repeated
+ * requests for the same features don't need to run the mapping pipeline again.
+ *
+ * <p>Least recently used features are evicted once the configured size is exceeded. The cache is
+ * <em>complete</em> when it holds every feature of the mapping (see {@link
+ * #load(FeatureCollection)}), in which case it can answer arbitrary spatial queries on its own. A
+ * load that does not fit in the cache is not retried until the cache is invalidated.
+ *
+ * <p>The cache knows nothing about changes in the source data, callers have to {@link
+ * #invalidate()} it explicitly (see {@link DataAccessRegistry#invalidateFeatureCache}). Cached
+ * features are shared between requests and must be treated as read only.
+ *
+ * @since 20
+ */
+public class ComplexFeatureCache {
+
+    private final int maxFeatures;
+
+    private final Map<String, Feature> features;
+
+    /** True if the cache holds all the features of the mapping */
+    private boolean complete;
+
+    /** True if the last full load did not fit in the cache */
+    private boolean overflowed;
+
+    /** Incremented on invalidation, used to discard loads racing with an invalidation */
+    private long generation;
+
+    /**
+     * Creates a cache holding at most <code>maxFeatures</code> features.
+     *
+     * @param maxFeatures the maximum number of cached features, must be positive
+     */
+    public ComplexFeatureCache(int maxFeatures) {
+        if (maxFeatures <= 0) {
+            throw new IllegalArgumentException(
+                    "Feature cache size must be positive, got " + maxFeatures);
+        }
+        this.maxFeatures = maxFeatures;
+        this.features =
+                new LinkedHashMap<String, Feature>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Feature> eldest) {
+                        if (size() > ComplexFeatureCache.this.maxFeatures) {
+                            complete = false;
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+    }
+
+    /** @return the maximum number of cached features */
+    public int getMaxFeatures() {
+        return maxFeatures;
+    }
+
+    /** @return the number of currently cached features */
+    public synchronized int size() {
+        return features.size();
+    }
+
+    /** @return true if the cache holds every feature of the mapping */
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the cached feature with the given id.
+     *
+     * @param id the feature id
+     * @return the feature, or null if not cached
+     */
+    public synchronized Feature get(String id) {
+        return features.get(id);
+    }
+
+    /**
+     * Returns the cached features among the given ids, missing ones are skipped.
+     *
+     * @param ids the feature ids
+     * @return the cached features, in the iteration order of <code>ids</code>
+     */
+    public synchronized List<Feature> get(Collection<String> ids) {
+        List<Feature> result = new ArrayList<Feature>(ids.size());
+        for (String id : ids) {
+            Feature feature = features.get(id);
+            if (feature != null) {
+                result.add(feature);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all the features of the mapping, if the cache is complete.
+     *
+     * @return a copy of the cached features, or null if the cache is not complete
+     */
+    public synchronized List<Feature> getAll() {
+        return complete ? new ArrayList<Feature>(features.values()) : null;
+    }
+
+    /**
+     * Caches a feature, features without an identifier are ignored.
+     *
+     * @param feature the feature to cache
+     */
+    public synchronized void put(Feature feature) {
+        String id = getId(feature);
+        if (id != null) {
+            features.put(id, feature);
+        }
+    }
+
+    /**
+     * Caches all the features of a collection.
+     *
+     * @param collection the features to cache
+     * @return the features read from the collection
+     */
+    public List<Feature> putAll(
+            FeatureCollection<? extends FeatureType, ? extends Feature> collection) {
+        List<Feature> result = read(collection, Integer.MAX_VALUE);
+        synchronized (this) {
+            for (Feature feature : result) {
+                put(feature);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fills the cache with all the features of the mapping, unless it is already complete or a
+     * previous load did not fit (or returned features without identifiers). The collection is read
+     * outside of the cache lock and should return no more than <code>getMaxFeatures() + 1</code>
+     * features, since one more feature than the cache size is enough to tell the load won't fit.
+     *
+     * @param all all the features of the mapping
+     * @return true if the cache is complete after the call
+     */
+    public boolean load(FeatureCollection<? extends FeatureType, ? extends Feature> all) {
+        long loadGeneration;
+        synchronized (this) {
+            if (complete || overflowed) {
+                return complete;
+            }
+            loadGeneration = generation;
+        }
+        List<Feature> loaded = read(all, maxFeatures + 1);
+        synchronized (this) {
+            if (loadGeneration != generation) {
+                // invalidated while loading, the features might be stale already
+                return false;
+            }
+            if (loaded.size() > maxFeatures) {
+                overflowed = true;
+                return false;
+            }
+            features.clear();
+            for (Feature feature : loaded) {
+                if (getId(feature) == null) {
+                    // cannot be looked up again, so the cache will never be complete
+                    overflowed = true;
+                    return false;
+                }
+                put(feature);
+            }
+            complete = true;
+            return true;
+        }
+    }
+
+    /**
+     * Removes a feature from the cache. Since the cache no longer holds every feature afterwards,
+     * it stops being complete.
+     *
+     * @param id the id of the feature to remove
+     */
+    public synchronized void invalidate(String id) {
+        features.remove(id);
+        complete = false;
+        overflowed = false;
+        generation++;
+    }
+
+    /** Removes all features from the cache. */
+    public synchronized void invalidate() {
+        features.clear();
+        complete = false;
+        overflowed = false;
+        generation++;
+    }
+
+    private static List<Feature> read(
+            FeatureCollection<? extends FeatureType, ? extends Feature> collection, int limit) {
+        List<Feature> result = new ArrayList<Feature>();
+        FeatureIterator<? extends Feature> it = collection.features();
+        try {
+            while (it.hasNext() && result.size() < limit) {
+                result.add(it.next());
+            }
+        } finally {
+            it.close();
+        }
+        return result;
+    }
+
+    private static String getId(Feature feature) {
+        return feature.getIdentifier() == null ? null : feature.getIdentifier().getID();
+    }
+}
@@ -24,8 +24,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.logging.Level;
 import javax.xml.namespace.QName;
@@ -36,6 +39,7 @@ import org.geotools.data.DefaultTransaction;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.Query;
 import org.geotools.data.Transaction;
+import org.geotools.data.complex.config.AppSchemaDataAccessConfigurator;
 import org.geotools.data.complex.config.NonFeatureTypeProxy;
 import org.geotools.data.complex.config.Types;
 import org.geotools.data.complex.filter.XPath;
@@ -123,6 +127,12 @@ public class DataAccessMappingFeatureIterator extends AbstractMappingFeatureIter
 
     private boolean isTransactionOwner;
 
+    /**
+     * Wraps the source features when joining is not used, fetching the nested features of blocks of
+     * source features with a single query. Null if prefetching is disabled.
+     */
+    private PrefetchingFeatureIterator prefetchingIterator;
+
     public boolean isTransactionOwner() {
         return isTransactionOwner;
     }
@@ -484,6 +494,18 @@ public class DataAccessMappingFeatureIterator extends AbstractMappingFeatureIter
         }
         if (!(this instanceof XmlMappingFeatureIterator)) {
             this.sourceFeatureIterator = sourceFeatures.features();
+            // without joining, avoid running one query per feature for each nested mapping
+            int blockSize = AppSchemaDataAccessConfigurator.getNestedPrefetchSize();
+            if (!(query instanceof JoiningQuery) && blockSize > 1) {
+                for (AttributeMapping attMapping : selectedMapping) {
+                    if (isPrefetchable(attMapping)) {
+                        prefetchingIterator =
+                                new PrefetchingFeatureIterator(sourceFeatureIterator, blockSize);
+                        this.sourceFeatureIterator = prefetchingIterator;
+                        break;
+                    }
+                }
+            }
         }
 
         // NC - joining nested atts
@@ -659,15 +681,7 @@ public class DataAccessMappingFeatureIterator extends AbstractMappingFeatureIter
                 ArrayList<Attribute> nestedFeatures =
                         new ArrayList<Attribute>(((Collection) values).size());
                 for (Object val : (Collection) values) {
-                    if (val instanceof Attribute) {
-                        val = ((Attribute) val).getValue();
-                        if (val instanceof Collection) {
-                            val = ((Collection) val).iterator().next();
-                        }
-                        while (val instanceof Attribute) {
-                            val = ((Attribute) val).getValue();
-                        }
-                    }
+                    val = getLinkValue(val);
                     if (isHRefLink) {
                         // get the input features to avoid infinite loop in case the nested
                         // feature type also have a reference back to this type
@@ -685,17 +699,12 @@ public class DataAccessMappingFeatureIterator extends AbstractMappingFeatureIter
                                                 includeMandatory));
                     } else {
                         nestedFeatures.addAll(
-                                ((NestedAttributeMapping) attMapping)
-                                        .getFeatures(
-                                                this,
-                                                val,
-                                                getIdValues(source),
-                                                reprojection,
-                                                source,
-                                                selectedProperties,
-                                                includeMandatory,
-                                                newResolveDepth,
-                                                resolveTimeOut));
+                                getNestedFeatures(
+                                        attMapping,
+                                        val,
+                                        source,
+                                        selectedProperties,
+                                        newResolveDepth));
                     }
                 }
                 values = nestedFeatures;
@@ -716,17 +725,8 @@ public class DataAccessMappingFeatureIterator extends AbstractMappingFeatureIter
                                         includeMandatory);
             } else {
                 values =
-                        ((NestedAttributeMapping) attMapping)
-                                .getFeatures(
-                                        this,
-                                        values,
-                                        getIdValues(source),
-                                        reprojection,
-                                        source,
-                                        selectedProperties,
-                                        includeMandatory,
-                                        newResolveDepth,
-                                        resolveTimeOut);
+                        getNestedFeatures(
+                                attMapping, values, source, selectedProperties, newResolveDepth);
             }
             if (isHRefLink) {
                 // only need to set the href link value, not the nested feature properties
@@ -806,6 +806,207 @@ public class DataAccessMappingFeatureIterator extends AbstractMappingFeatureIter
         return instance;
     }
 
+    /** Extracts the value linking to nested features from a (possibly complex) attribute */
+    private Object getLinkValue(Object val) {
+        if (val instanceof Attribute) {
+            val = ((Attribute) val).getValue();
+            if (val instanceof Collection) {
+                val = ((Collection) val).iterator().next();
+            }
+            while (val instanceof Attribute) {
+                val = ((Attribute) val).getValue();
+            }
+        }
+        return val;
+    }
+
+    /**
+     * Returns the nested features linked to the given value, from the ones prefetched for the
+     * current block of source features if available, running a query otherwise.
+     */
+    private List<Feature> getNestedFeatures(
+            AttributeMapping attMapping,
+            Object foreignKeyValue,
+            Object source,
+            List<PropertyName> selectedProperties,
+            int resolveDepth)
+            throws IOException {
+        if (prefetchingIterator != null
+                && selectedProperties == this.selectedProperties.get(attMapping)) {
+            List<Feature> features =
+                    prefetchingIterator.getFeatures(attMapping, foreignKeyValue, resolveDepth);
+            if (features != null) {
+                return features;
+            }
+        }
+        return ((NestedAttributeMapping) attMapping)
+                .getFeatures(
+                        this,
+                        foreignKeyValue,
+                        getIdValues(source),
+                        reprojection,
+                        source,
+                        selectedProperties,
+                        includeMandatory,
+                        resolveDepth,
+                        resolveTimeOut);
+    }
+
+    /**
+     * Returns true if the nested features of the mapping can be fetched in blocks: chained features
+     * from a different source, whose type does not depend on the source feature, and that are not
+     * just referenced by xlink:href
+     */
+    private boolean isPrefetchable(AttributeMapping attMapping) {
+        if (!(attMapping instanceof NestedAttributeMapping)
+                || attMapping instanceof JoiningNestedAttributeMapping) {
+            return false;
+        }
+        NestedAttributeMapping nestedMapping = (NestedAttributeMapping) attMapping;
+        if (nestedMapping.isSameSource() || nestedMapping.isConditional()) {
+            return false;
+        }
+        return !isByReference(attMapping.getClientProperties(), true) || resolveDepth > 0;
+    }
+
+    /**
+     * Reads the source features in blocks, and fetches the nested features of each block with one
+     * query per nested mapping, keeping them by link value until the next block is read. The
+     * features of the previous block are kept as well, as a target feature can be built from source
+     * features straddling two blocks.
+     */
+    private class PrefetchingFeatureIterator implements FeatureIterator<Feature> {
+
+        private final FeatureIterator<? extends Feature> delegate;
+
+        private final int blockSize;
+
+        private final LinkedList<Feature> buffer = new LinkedList<Feature>();
+
+        private Map<AttributeMapping, PrefetchedFeatures> current =
+                new HashMap<AttributeMapping, PrefetchedFeatures>();
+
+        private Map<AttributeMapping, PrefetchedFeatures> previous =
+                new HashMap<AttributeMapping, PrefetchedFeatures>();
+
+        PrefetchingFeatureIterator(FeatureIterator<? extends Feature> delegate, int blockSize) {
+            this.delegate = delegate;
+            this.blockSize = blockSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (buffer.isEmpty()) {
+                while (buffer.size() < blockSize && delegate.hasNext()) {
+                    buffer.add(delegate.next());
+                }
+                if (!buffer.isEmpty()) {
+                    previous = current;
+                    current = new HashMap<AttributeMapping, PrefetchedFeatures>();
+                    prefetch(buffer);
+                }
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public Feature next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return buffer.removeFirst();
+        }
+
+        @Override
+        public void close() {
+            buffer.clear();
+            current.clear();
+            previous.clear();
+            delegate.close();
+        }
+
+        List<Feature> getFeatures(
+                AttributeMapping attMapping, Object foreignKeyValue, int resolveDepth) {
+            List<Feature> features = null;
+            PrefetchedFeatures prefetched = current.get(attMapping);
+            if (prefetched != null && prefetched.resolveDepth == resolveDepth) {
+                features = prefetched.features.get(foreignKeyValue);
+            }
+            if (features == null) {
+                prefetched = previous.get(attMapping);
+                if (prefetched != null && prefetched.resolveDepth == resolveDepth) {
+                    features = prefetched.features.get(foreignKeyValue);
+                }
+            }
+            return features;
+        }
+
+        private void prefetch(List<Feature> block) {
+            for (AttributeMapping attMapping : selectedMapping) {
+                if (!isPrefetchable(attMapping)) {
+                    continue;
+                }
+                Set<Object> foreignKeyValues = new LinkedHashSet<Object>();
+                for (Feature source : block) {
+                    Object values =
+                            getValues(
+                                    attMapping.isMultiValued(),
+                                    attMapping.getSourceExpression(),
+                                    source);
+                    if (values instanceof Collection) {
+                        for (Object val : (Collection) values) {
+                            foreignKeyValues.add(getLinkValue(val));
+                        }
+                    } else {
+                        foreignKeyValues.add(values);
+                    }
+                }
+                foreignKeyValues.remove(null);
+                if (foreignKeyValues.isEmpty()) {
+                    continue;
+                }
+                // same as in setAttributeValue, resolving consumes one level of depth
+                int depth =
+                        isByReference(attMapping.getClientProperties(), true)
+                                ? resolveDepth - 1
+                                : resolveDepth;
+                try {
+                    Map<Object, List<Feature>> features =
+                            ((NestedAttributeMapping) attMapping)
+                                    .getFeatures(
+                                            foreignKeyValues,
+                                            reprojection,
+                                            block.get(0),
+                                            selectedProperties.get(attMapping),
+                                            includeMandatory,
+                                            depth,
+                                            resolveTimeOut);
+                    if (features != null) {
+                        current.put(attMapping, new PrefetchedFeatures(depth, features));
+                    }
+                } catch (IOException e) {
+                    // not fatal, the nested features will be queried one feature at a time
+                    LOGGER.log(
+                            Level.FINE,
+                            "Failed to prefetch nested features for " + attMapping.getTargetXPath(),
+                            e);
+                }
+            }
+        }
+    }
+
+    /** Nested features fetched for a block of source features, by link value */
+    private static class PrefetchedFeatures {
+        final int resolveDepth;
+
+        final Map<Object, List<Feature>> features;
+
+        PrefetchedFeatures(int resolveDepth, Map<Object, List<Feature>> features) {
+            this.resolveDepth = resolveDepth;
+            this.features = features;
+        }
+    }
+
     /**
      * Special handling for polymorphic mapping where the value of the attribute determines that
      * this attribute should be a placeholder for an xlink:href.
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
@@ -363,6 +364,62 @@ public class DataAccessRegistry implements Repository {
         return false;
     }
 
+    /**
+     * Invalidates the cached features of a type, as well as the cached features of every type
+     * chaining it (directly or indirectly), since those embed the nested features. Polymorphic
+     * mappings are assumed to chain any type.
+     *
+     * @param name the mapping name or target element of the type whose source data changed
+     * @throws IOException
+     */
+    public synchronized void invalidateFeatureCache(Name name) throws IOException {
+        Set<Name> visited = new HashSet<Name>();
+        LinkedList<Name> pending = new LinkedList<Name>();
+        pending.add(name);
+        while (!pending.isEmpty()) {
+            Name changed = pending.removeFirst();
+            if (!visited.add(changed)) {
+                continue;
+            }
+            for (DataAccess<FeatureType, Feature> dataAccess : registry) {
+                if (!(dataAccess instanceof AppSchemaDataAccess)) {
+                    continue;
+                }
+                AppSchemaDataAccess asda = (AppSchemaDataAccess) dataAccess;
+                for (Name typeName : asda.getNames()) {
+                    FeatureTypeMapping ftm = asda.getMappingByNameOrElement(typeName);
+                    Name targetName = ftm.getTargetFeature().getName();
+                    if (typeName.equals(changed)
+                            || targetName.equals(changed)
+                            || chains(ftm, changed)) {
+                        if (ftm.getFeatureCache() != null) {
+                            ftm.getFeatureCache().invalidate();
+                        }
+                        // nested mappings may refer to either name
+                        pending.add(typeName);
+                        pending.add(targetName);
+                    }
+                }
+            }
+        }
+    }
+
+    // true if the mapping has a nested mapping that might chain the named type
+    private static boolean chains(FeatureTypeMapping mapping, Name nestedTypeName) {
+        for (NestedAttributeMapping nestedAttr : mapping.getNestedMappings()) {
+            if (nestedAttr.isConditional()) {
+                return true;
+            }
+            Name nestedName =
+                    Types.degloseName(
+                            nestedAttr.nestedFeatureType.toString(), nestedAttr.getNamespaces());
+            if (nestedTypeName.equals(nestedName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get properties
      *
@@ -80,6 +80,9 @@ public class FeatureTypeMapping {
      */
     private String defaultGeometryXPath;
 
+    /** Optional cache of built features, null unless enabled in the mapping configuration */
+    private ComplexFeatureCache featureCache;
+
     /** No parameters constructor for use by the digester configuration engine as a JavaBean */
     public FeatureTypeMapping() {
         this(null, null, null, new LinkedList<AttributeMapping>(), new NamespaceSupport(), false);
@@ -431,4 +434,23 @@ public class FeatureTypeMapping {
     public void setSource(FeatureSource<? extends FeatureType, ? extends Feature> source) {
         this.source = source;
     }
+
+    /**
+     * Returns the cache of built features for this mapping, or {@code null} if caching is not
+     * enabled.
+     *
+     * @return the feature cache, may be null
+     */
+    public ComplexFeatureCache getFeatureCache() {
+        return featureCache;
+    }
+
+    /**
+     * Enables caching of built features for this mapping, or disables it when {@code null}.
+     *
+     * @param featureCache the feature cache
+     */
+    public void setFeatureCache(ComplexFeatureCache featureCache) {
+        this.featureCache = featureCache;
+    }
 }
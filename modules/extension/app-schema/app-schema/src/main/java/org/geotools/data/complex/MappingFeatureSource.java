@@ -17,12 +17,20 @@
 
 package org.geotools.data.complex;
 
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
 import java.awt.RenderingHints;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import net.opengis.wfs20.ResolveValueType;
 import org.geotools.data.DataAccess;
 import org.geotools.data.FeatureListener;
 import org.geotools.data.FeatureSource;
@@ -30,17 +38,32 @@ import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
 import org.geotools.data.ResourceInfo;
 import org.geotools.data.joining.JoiningQuery;
+import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.factory.Hints;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.FeatureIterator;
+import org.geotools.feature.collection.BaseFeatureCollection;
+import org.geotools.feature.collection.DelegateFeatureIterator;
+import org.geotools.geometry.jts.JTS;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.jdbc.JDBCFeatureSource;
 import org.geotools.jdbc.JDBCFeatureStore;
+import org.geotools.referencing.CRS;
 import org.opengis.feature.Feature;
+import org.opengis.feature.GeometryAttribute;
 import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.feature.type.FeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
 import org.opengis.feature.type.Name;
 import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.Id;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.filter.identity.Identifier;
+import org.opengis.filter.spatial.BBOX;
+import org.opengis.geometry.BoundingBox;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
 /**
  * A FeatureSource that uses a {@linkplain org.geotools.data.complex.FeatureTypeMapping} to perform
@@ -64,6 +87,8 @@ import org.opengis.filter.Filter;
  */
 public class MappingFeatureSource implements FeatureSource<FeatureType, Feature> {
 
+    private static final FilterFactory FF = CommonFactoryFinder.getFilterFactory(null);
+
     private AppSchemaDataAccess store;
 
     private FeatureTypeMapping mapping;
@@ -181,22 +206,177 @@ public class MappingFeatureSource implements FeatureSource<FeatureType, Feature>
     }
 
     public FeatureCollection<FeatureType, Feature> getFeatures(Query query) throws IOException {
-        return new MappingFeatureCollection(store, mapping, namedQuery(query));
+        return getFeaturesCachedOrMapped(namedQuery(query));
     }
 
     public FeatureCollection<FeatureType, Feature> getFeatures(Filter filter) throws IOException {
-        return new MappingFeatureCollection(store, mapping, namedQuery(filter, Integer.MAX_VALUE));
+        return getFeaturesCachedOrMapped(namedQuery(filter, Integer.MAX_VALUE));
     }
 
     public FeatureCollection<FeatureType, Feature> getFeatures(Filter filter, Hints hints)
             throws IOException {
-        return new MappingFeatureCollection(
-                store, mapping, namedQuery(filter, Integer.MAX_VALUE, hints));
+        return getFeaturesCachedOrMapped(namedQuery(filter, Integer.MAX_VALUE, hints));
     }
 
     public FeatureCollection<FeatureType, Feature> getFeatures() throws IOException {
-        return new MappingFeatureCollection(
-                store, mapping, namedQuery(Filter.INCLUDE, Integer.MAX_VALUE));
+        return getFeaturesCachedOrMapped(namedQuery(Filter.INCLUDE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Answers the query from the mapping feature cache when it is enabled and able to, otherwise
+     * returns a collection running the mapping pipeline.
+     */
+    private FeatureCollection<FeatureType, Feature> getFeaturesCachedOrMapped(Query query)
+            throws IOException {
+        ComplexFeatureCache cache = mapping.getFeatureCache();
+        if (cache != null && isCacheable(query)) {
+            List<Feature> features = getCachedFeatures(cache, query);
+            if (features != null) {
+                if (features.size() > query.getMaxFeatures()) {
+                    features = features.subList(0, query.getMaxFeatures());
+                }
+                return new CachedFeatureCollection(getSchema(), features);
+            }
+        }
+        return new MappingFeatureCollection(store, mapping, query);
+    }
+
+    /** Sorts the features in the order of the given ids, dropping the ones not listed */
+    private List<Feature> sortByIds(List<Feature> features, Set<String> ids) {
+        Map<String, Feature> byId = new HashMap<String, Feature>();
+        for (Feature feature : features) {
+            if (feature.getIdentifier() != null) {
+                byId.put(feature.getIdentifier().getID(), feature);
+            }
+        }
+        List<Feature> sorted = new ArrayList<Feature>(byId.size());
+        for (String id : ids) {
+            Feature feature = byId.get(id);
+            if (feature != null) {
+                sorted.add(feature);
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Cached features are full features built without resolving references, so queries selecting
+     * properties, sorting, paging, reprojecting or resolving can't be answered from the cache.
+     */
+    private boolean isCacheable(Query query) {
+        if (query instanceof JoiningQuery
+                || query.getProperties() != Query.ALL_PROPERTIES
+                || (query.getSortBy() != null && query.getSortBy().length > 0)
+                || (query.getStartIndex() != null && query.getStartIndex() > 0)
+                || query.getCoordinateSystem() != null
+                || query.getCoordinateSystemReproject() != null) {
+            return false;
+        }
+        Hints hints = query.getHints();
+        Object resolve = hints.get(Hints.RESOLVE);
+        return (resolve == null || ResolveValueType.NONE.equals(resolve))
+                && hints.get(Hints.ASSOCIATION_TRAVERSAL_DEPTH) == null;
+    }
+
+    /**
+     * Id queries return the features in the iteration order of the filter identifiers, whether they
+     * were cached or built for the occasion. Id filters hold a set of identifiers, so that order is
+     * only meaningful when the filter preserves the insertion order.
+     *
+     * @return the matching cached features, or null if the cache can't answer the query
+     */
+    private List<Feature> getCachedFeatures(ComplexFeatureCache cache, Query query)
+            throws IOException {
+        Filter filter = query.getFilter();
+        if (filter instanceof Id) {
+            Set<String> ids = new LinkedHashSet<String>();
+            for (Identifier identifier : ((Id) filter).getIdentifiers()) {
+                ids.add(String.valueOf(identifier.getID()));
+            }
+            List<Feature> features = cache.get(ids);
+            if (features.size() < ids.size() && !cache.isComplete()) {
+                // build the missing features and keep them for the next time
+                Set<FeatureId> missing = new LinkedHashSet<FeatureId>();
+                for (String id : ids) {
+                    if (cache.get(id) == null) {
+                        missing.add(FF.featureId(id));
+                    }
+                }
+                Query missingQuery =
+                        namedQuery(FF.id(missing), Integer.MAX_VALUE, query.getHints());
+                features.addAll(
+                        cache.putAll(new MappingFeatureCollection(store, mapping, missingQuery)));
+                features = sortByIds(features, ids);
+            }
+            return features;
+        }
+
+        Envelope bounds = null;
+        if (filter instanceof BBOX) {
+            bounds = getCacheableBounds((BBOX) filter);
+            if (bounds == null) {
+                return null;
+            }
+        } else if (filter != Filter.INCLUDE) {
+            return null;
+        }
+        if (!cache.isComplete()) {
+            Query allQuery =
+                    namedQuery(Filter.INCLUDE, cache.getMaxFeatures() + 1, query.getHints());
+            if (!cache.load(new MappingFeatureCollection(store, mapping, allQuery))) {
+                return null;
+            }
+        }
+        List<Feature> features = cache.getAll();
+        if (features == null || bounds == null) {
+            return features;
+        }
+        Geometry area = JTS.toGeometry(bounds);
+        List<Feature> result = new ArrayList<Feature>();
+        for (Feature feature : features) {
+            GeometryAttribute geometryAttribute = feature.getDefaultGeometryProperty();
+            Object geometry = geometryAttribute == null ? null : geometryAttribute.getValue();
+            if (geometry instanceof Geometry
+                    && bounds.intersects(((Geometry) geometry).getEnvelopeInternal())
+                    && area.intersects((Geometry) geometry)) {
+                result.add(feature);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the filter bounds, if the filter targets the default geometry in its native CRS,
+     *     otherwise null
+     */
+    private Envelope getCacheableBounds(BBOX filter) {
+        if (!(filter.getExpression1() instanceof PropertyName)) {
+            return null;
+        }
+        GeometryDescriptor descriptor = getSchema().getGeometryDescriptor();
+        if (descriptor == null) {
+            return null;
+        }
+        String property = ((PropertyName) filter.getExpression1()).getPropertyName();
+        Name geometryName = descriptor.getName();
+        String prefix =
+                geometryName.getNamespaceURI() == null
+                        ? null
+                        : mapping.getNamespaces().getPrefix(geometryName.getNamespaceURI());
+        if (!(property == null
+                || property.isEmpty()
+                || property.equals(mapping.getDefaultGeometryXPath())
+                || property.equals(geometryName.getLocalPart())
+                || property.equals(prefix + ":" + geometryName.getLocalPart()))) {
+            return null;
+        }
+        BoundingBox bounds = filter.getBounds();
+        CoordinateReferenceSystem crs = bounds.getCoordinateReferenceSystem();
+        CoordinateReferenceSystem nativeCrs = descriptor.getCoordinateReferenceSystem();
+        if (crs != null && nativeCrs != null && !CRS.equalsIgnoreMetadata(crs, nativeCrs)) {
+            return null;
+        }
+        return new Envelope(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY());
     }
 
     public void removeFeatureListener(FeatureListener listener) {
@@ -225,4 +405,25 @@ public class MappingFeatureSource implements FeatureSource<FeatureType, Feature>
     public QueryCapabilities getQueryCapabilities() {
         return mapping.getSource().getQueryCapabilities();
     }
+
+    /** Collection of features answered from the mapping feature cache */
+    static class CachedFeatureCollection extends BaseFeatureCollection<FeatureType, Feature> {
+
+        private final List<Feature> features;
+
+        CachedFeatureCollection(FeatureType schema, List<Feature> features) {
+            super(schema);
+            this.features = features;
+        }
+
+        @Override
+        public FeatureIterator<Feature> features() {
+            return new DelegateFeatureIterator<Feature>(features.iterator());
+        }
+
+        @Override
+        public int size() {
+            return features.size();
+        }
+    }
 }
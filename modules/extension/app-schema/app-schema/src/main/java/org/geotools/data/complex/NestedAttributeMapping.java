@@ -19,10 +19,14 @@ package org.geotools.data.complex;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 import net.opengis.wfs20.ResolveValueType;
 import org.geotools.data.FeatureSource;
@@ -34,6 +38,7 @@ import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.FeatureIterator;
 import org.geotools.filter.FilterFactoryImplNamespaceAware;
 import org.geotools.util.Converters;
+import org.opengis.feature.Attribute;
 import org.opengis.feature.Feature;
 import org.opengis.feature.type.FeatureType;
 import org.opengis.feature.type.Name;
@@ -406,12 +411,158 @@ public class NestedAttributeMapping extends AttributeMapping {
             return null;
         }
 
-        Query query = new Query();
-        query.setCoordinateSystemReproject(reprojection);
+        PropertyName propertyName = filterFac.property(this.nestedTargetXPath.toString());
+        Filter filter = filterFac.equals(propertyName, filterFac.literal(foreignKeyValue));
+        Query query =
+                getNestedQuery(
+                        filter,
+                        propertyName,
+                        reprojection,
+                        selectedProperties,
+                        includeMandatory,
+                        resolveDepth,
+                        resolveTimeOut);
+
+        ArrayList<Feature> matchingFeatures = new ArrayList<Feature>();
+
+        // get all the mapped nested features based on the link values
+        FeatureCollection<FeatureType, Feature> fCollection = fSource.getFeatures(query);
+        if (fCollection instanceof MappingFeatureCollection) {
+            try (FeatureIterator<Feature> iterator = fCollection.features()) {
+                while (iterator.hasNext()) {
+                    matchingFeatures.add(iterator.next());
+                }
+            }
+        }
+
+        return matchingFeatures;
+    }
+
+    /**
+     * Get the matching built features for a block of link values with a single query, grouping them
+     * in memory by link value. Used to avoid running one query per parent feature when joining is
+     * not available.
+     *
+     * @param foreignKeyValues the link values, as they would be passed to {@link
+     *     #getFeatures(Object, Object, List, CoordinateReferenceSystem, Object, List, boolean, int,
+     *     Integer)}
+     * @param reprojection Reprojected CRS or null
+     * @param feature a parent source feature, used to look up the nested feature type
+     * @param selectedProperties list of properties to get
+     * @return The matching features by link value, every value being mapped (possibly to an empty
+     *     list), or null if the features cannot be fetched in bulk
+     * @throws IOException
+     */
+    public Map<Object, List<Feature>> getFeatures(
+            Collection<Object> foreignKeyValues,
+            CoordinateReferenceSystem reprojection,
+            Object feature,
+            List<PropertyName> selectedProperties,
+            boolean includeMandatory,
+            int resolveDepth,
+            Integer resolveTimeOut)
+            throws IOException {
+        if (isSameSource() || isConditional) {
+            return null;
+        }
+        FeatureSource<FeatureType, Feature> fSource = getMappingSource(feature);
+        if (fSource == null) {
+            return null;
+        }
 
-        Filter filter;
         PropertyName propertyName = filterFac.property(this.nestedTargetXPath.toString());
-        filter = filterFac.equals(propertyName, filterFac.literal(foreignKeyValue));
+        Map<Object, List<Feature>> matchingFeatures = new HashMap<Object, List<Feature>>();
+        Map<Object, Filter> keyFilters = new LinkedHashMap<Object, Filter>();
+        Map<String, Object> keysByString = new HashMap<String, Object>();
+        for (Object foreignKeyValue : foreignKeyValues) {
+            if (foreignKeyValue == null || keyFilters.containsKey(foreignKeyValue)) {
+                continue;
+            }
+            matchingFeatures.put(foreignKeyValue, new ArrayList<Feature>());
+            keyFilters.put(
+                    foreignKeyValue,
+                    filterFac.equals(propertyName, filterFac.literal(foreignKeyValue)));
+            String key = Converters.convert(foreignKeyValue, String.class);
+            if (key != null) {
+                keysByString.put(key, foreignKeyValue);
+            }
+        }
+        if (keyFilters.isEmpty()) {
+            return matchingFeatures;
+        }
+
+        List<Filter> filters = new ArrayList<Filter>(keyFilters.values());
+        Filter filter = filters.size() == 1 ? filters.get(0) : filterFac.or(filters);
+        Query query =
+                getNestedQuery(
+                        filter,
+                        propertyName,
+                        reprojection,
+                        selectedProperties,
+                        includeMandatory,
+                        resolveDepth,
+                        resolveTimeOut);
+
+        FeatureCollection<FeatureType, Feature> fCollection = fSource.getFeatures(query);
+        if (!(fCollection instanceof MappingFeatureCollection)) {
+            return null;
+        }
+        try (FeatureIterator<Feature> iterator = fCollection.features()) {
+            while (iterator.hasNext()) {
+                Feature nested = iterator.next();
+                Set<Object> keys = new HashSet<Object>();
+                // fast path, compare the link values with the keys
+                collectKeys(propertyName.evaluate(nested), keysByString, keys);
+                if (keys.isEmpty()) {
+                    // fall back on evaluating the same filters a single query would use
+                    for (Map.Entry<Object, Filter> entry : keyFilters.entrySet()) {
+                        if (entry.getValue().evaluate(nested)) {
+                            keys.add(entry.getKey());
+                        }
+                    }
+                }
+                if (keys.isEmpty()) {
+                    // cannot tell which parent the feature belongs to
+                    LOGGER.fine(
+                            "Could not group nested features by link value, "
+                                    + "falling back on single queries");
+                    return null;
+                }
+                for (Object key : keys) {
+                    matchingFeatures.get(key).add(nested);
+                }
+            }
+        }
+
+        return matchingFeatures;
+    }
+
+    private void collectKeys(Object value, Map<String, Object> keysByString, Set<Object> keys) {
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                collectKeys(item, keysByString, keys);
+            }
+        } else if (value instanceof Attribute) {
+            collectKeys(((Attribute) value).getValue(), keysByString, keys);
+        } else if (value != null) {
+            Object key = keysByString.get(Converters.convert(value, String.class));
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+    }
+
+    /** Builds the query used to retrieve the nested features matching the given filter */
+    private Query getNestedQuery(
+            Filter filter,
+            PropertyName propertyName,
+            CoordinateReferenceSystem reprojection,
+            List<PropertyName> selectedProperties,
+            boolean includeMandatory,
+            int resolveDepth,
+            Integer resolveTimeOut) {
+        Query query = new Query();
+        query.setCoordinateSystemReproject(reprojection);
         query.setFilter(filter);
 
         if (selectedProperties != null && !selectedProperties.isEmpty()) {
@@ -433,20 +584,7 @@ public class NestedAttributeMapping extends AttributeMapping {
         query.setHints(hints);
 
         query.setProperties(selectedProperties);
-
-        ArrayList<Feature> matchingFeatures = new ArrayList<Feature>();
-
-        // get all the mapped nested features based on the link values
-        FeatureCollection<FeatureType, Feature> fCollection = fSource.getFeatures(query);
-        if (fCollection instanceof MappingFeatureCollection) {
-            try (FeatureIterator<Feature> iterator = fCollection.features()) {
-                while (iterator.hasNext()) {
-                    matchingFeatures.add(iterator.next());
-                }
-            }
-        }
-
-        return matchingFeatures;
+        return query;
     }
 
     protected FeatureSource<FeatureType, Feature> getMappingSource(Object feature)
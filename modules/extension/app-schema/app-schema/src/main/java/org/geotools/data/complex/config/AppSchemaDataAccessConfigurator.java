@@ -46,6 +46,7 @@ import org.geotools.data.DataSourceException;
 import org.geotools.data.FeatureSource;
 import org.geotools.data.complex.AppSchemaDataAccessRegistry;
 import org.geotools.data.complex.AttributeMapping;
+import org.geotools.data.complex.ComplexFeatureCache;
 import org.geotools.data.complex.ComplexFeatureConstants;
 import org.geotools.data.complex.FeatureTypeMapping;
 import org.geotools.data.complex.FeatureTypeMappingFactory;
@@ -113,6 +114,14 @@ public class AppSchemaDataAccessConfigurator {
 
     public static String PROPERTY_ENCODE_NESTED_FILTERS = "app-schema.encodeNestedFilters";
 
+    /**
+     * Number of features whose nested features are fetched with a single query when joining is not
+     * used, 1 or less to run one query per feature
+     */
+    public static String PROPERTY_NESTED_PREFETCH_SIZE = "app-schema.nestedPrefetchSize";
+
+    static final int DEFAULT_NESTED_PREFETCH_SIZE = 100;
+
     /** DOCUMENT ME! */
     private AppSchemaDataAccessDTO config;
 
@@ -160,6 +169,33 @@ public class AppSchemaDataAccessConfigurator {
         return propValue == null || propValue.equalsIgnoreCase("true");
     }
 
+    /**
+     * Convenience method for the "nestedPrefetchSize" property.
+     *
+     * @return the number of features whose nested features are fetched together, 1 or less if
+     *     prefetching is disabled
+     */
+    public static int getNestedPrefetchSize() {
+        String s =
+                AppSchemaDataAccessRegistry.getAppSchemaProperties()
+                        .getProperty(PROPERTY_NESTED_PREFETCH_SIZE);
+        if (s == null) {
+            return DEFAULT_NESTED_PREFETCH_SIZE;
+        }
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning(
+                    "Invalid value for "
+                            + PROPERTY_NESTED_PREFETCH_SIZE
+                            + ": "
+                            + s
+                            + ", using "
+                            + DEFAULT_NESTED_PREFETCH_SIZE);
+            return DEFAULT_NESTED_PREFETCH_SIZE;
+        }
+    }
+
     /**
      * Creates a new ComplexDataStoreConfigurator object.
      *
@@ -329,6 +365,9 @@ public class AppSchemaDataAccessConfigurator {
                 if (mappingName != null) {
                     mapping.setName(Types.degloseName(mappingName, namespaces));
                 }
+                if (dto.getFeatureCacheSize() > 0) {
+                    mapping.setFeatureCache(new ComplexFeatureCache(dto.getFeatureCacheSize()));
+                }
                 featureTypeMappings.add(mapping);
             } catch (Exception e) {
                 LOGGER.warning(
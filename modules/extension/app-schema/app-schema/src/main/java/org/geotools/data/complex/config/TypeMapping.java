@@ -56,6 +56,9 @@ public class TypeMapping implements Serializable {
     /** True if isDenormalised has been set in config. */
     private boolean isDenormalisedSet = false;
 
+    /** Maximum number of built features to cache, 0 to disable caching. */
+    private int featureCacheSize;
+
     private String targetElementName;
 
     private String defaultGeometryXPath;
@@ -147,6 +150,14 @@ public class TypeMapping implements Serializable {
         this.isDenormalised = Boolean.valueOf(isDenormalised).booleanValue();
     }
 
+    public int getFeatureCacheSize() {
+        return featureCacheSize;
+    }
+
+    public void setFeatureCacheSize(String featureCacheSize) {
+        this.featureCacheSize = Integer.parseInt(featureCacheSize.trim());
+    }
+
     public void setMappingName(final String mappingName) {
         this.mappingName = mappingName;
     }
@@ -213,6 +213,10 @@ public class XMLConfigDigester {
         digester.addCallMethod(typeMapping + "/isDenormalised", "setIsDenormalised", 1);
         digester.addCallParam(typeMapping + "/isDenormalised", 0);
 
+        // featureCacheSize enables caching of up to that many built features for the mapping
+        digester.addCallMethod(typeMapping + "/featureCacheSize", "setFeatureCacheSize", 1);
+        digester.addCallParam(typeMapping + "/featureCacheSize", 0);
+
         // create attribute mappings
         final String attMappings = typeMapping + "/attributeMappings";
         digester.addObjectCreate(attMappings, XMLConfigDigester.CONFIG_NS_URI, ArrayList.class);
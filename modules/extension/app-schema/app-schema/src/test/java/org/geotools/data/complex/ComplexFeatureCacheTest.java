@@ -0,0 +1,129 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.data.complex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class ComplexFeatureCacheTest {
+
+    private SimpleFeatureType type;
+
+    @Before
+    public void setUp() throws Exception {
+        type = DataUtilities.createType("test", "name:String");
+    }
+
+    private SimpleFeature feature(String id) {
+        return SimpleFeatureBuilder.build(type, new Object[] {id}, id);
+    }
+
+    private ListFeatureCollection collection(int count) {
+        ListFeatureCollection features = new ListFeatureCollection(type);
+        for (int i = 0; i < count; i++) {
+            features.add(feature("f" + i));
+        }
+        return features;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new ComplexFeatureCache(0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        ComplexFeatureCache cache = new ComplexFeatureCache(2);
+        SimpleFeature f1 = feature("f1");
+        cache.put(f1);
+        cache.put(feature("f2"));
+        // touch f1 so that f2 is the eldest
+        assertSame(f1, cache.get("f1"));
+        cache.put(feature("f3"));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("f2"));
+        List<Feature> found = cache.get(Arrays.asList("f1", "f2", "f3"));
+        assertEquals(2, found.size());
+        assertSame(f1, found.get(0));
+        assertEquals("f3", found.get(1).getIdentifier().getID());
+    }
+
+    @Test
+    public void testLoad() {
+        ComplexFeatureCache cache = new ComplexFeatureCache(5);
+        assertNull(cache.getAll());
+        assertTrue(cache.load(collection(5)));
+        assertTrue(cache.isComplete());
+        assertEquals(5, cache.getAll().size());
+
+        // evicting a feature makes the cache incomplete
+        cache.put(feature("extra"));
+        assertFalse(cache.isComplete());
+        assertNull(cache.getAll());
+    }
+
+    @Test
+    public void testLoadOverflow() {
+        ComplexFeatureCache cache = new ComplexFeatureCache(5);
+        assertFalse(cache.load(collection(6)));
+        assertFalse(cache.isComplete());
+        assertEquals(0, cache.size());
+
+        // not retried until invalidated
+        assertFalse(cache.load(collection(5)));
+        cache.invalidate();
+        assertTrue(cache.load(collection(5)));
+    }
+
+    @Test
+    public void testInvalidate() {
+        ComplexFeatureCache cache = new ComplexFeatureCache(5);
+        cache.load(collection(3));
+        cache.invalidate("f1");
+        assertNull(cache.get("f1"));
+        assertEquals(2, cache.size());
+        assertFalse(cache.isComplete());
+
+        cache.invalidate();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPutAll() {
+        ComplexFeatureCache cache = new ComplexFeatureCache(5);
+        List<Feature> features = cache.putAll(collection(3));
+        assertEquals(3, features.size());
+        assertSame(features.get(2), cache.get("f2"));
+        assertFalse(cache.isComplete());
+    }
+}
@@ -18,23 +18,36 @@
 package org.geotools.data.complex;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.vividsolutions.jts.util.Stopwatch;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.geotools.data.DataAccess;
 import org.geotools.data.DataAccessFinder;
 import org.geotools.data.FeatureSource;
+import org.geotools.data.complex.config.AppSchemaDataAccessConfigurator;
 import org.geotools.data.complex.config.Types;
+import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.FeatureImpl;
 import org.geotools.feature.FeatureIterator;
@@ -50,7 +63,10 @@ import org.opengis.feature.type.FeatureType;
 import org.opengis.feature.type.Name;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.Id;
 import org.opengis.filter.expression.Expression;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.filter.identity.Identifier;
 import org.xml.sax.Attributes;
 import org.xml.sax.helpers.NamespaceSupport;
 
@@ -753,6 +769,146 @@ public class FeatureChainingTest extends AppSchemaTestSupport {
         assertNotEquals(guSourceFs.getDataStore(), mfSourceFs.getDataStore());
     }
 
+    /**
+     * Without joining, the nested features of a block of parent features are fetched with a single
+     * query instead of one query per parent feature.
+     */
+    @Test
+    public void testNestedFeaturesPrefetch() throws Exception {
+        FeatureSource guFs = DataAccessRegistry.getFeatureSource(GEOLOGIC_UNIT_NAME);
+        FeatureTypeMapping guMapping = ((MappingFeatureSource) guFs).getMapping();
+        final SimpleFeatureSource guSource = (SimpleFeatureSource) guMapping.getSource();
+        final AtomicInteger queries = new AtomicInteger();
+        SimpleFeatureSource countingSource =
+                (SimpleFeatureSource)
+                        Proxy.newProxyInstance(
+                                getClass().getClassLoader(),
+                                new Class[] {SimpleFeatureSource.class},
+                                (proxy, method, args) -> {
+                                    if ("getFeatures".equals(method.getName())
+                                            && args != null
+                                            && args.length == 1) {
+                                        queries.incrementAndGet();
+                                    }
+                                    try {
+                                        return method.invoke(guSource, args);
+                                    } catch (InvocationTargetException e) {
+                                        throw e.getCause();
+                                    }
+                                });
+        guMapping.setSource(countingSource);
+        try {
+            // one query per mapped feature
+            AppSchemaDataAccessRegistry.getAppSchemaProperties()
+                    .setProperty(
+                            AppSchemaDataAccessConfigurator.PROPERTY_NESTED_PREFETCH_SIZE, "1");
+            Map<String, List<String>> expected = getNestedGeologicUnits();
+            int singleQueries = queries.getAndSet(0);
+
+            // a single query for all of them
+            AppSchemaDataAccessRegistry.getAppSchemaProperties()
+                    .setProperty(
+                            AppSchemaDataAccessConfigurator.PROPERTY_NESTED_PREFETCH_SIZE, "100");
+            Map<String, List<String>> prefetched = getNestedGeologicUnits();
+            int prefetchQueries = queries.get();
+
+            assertEquals(expected, prefetched);
+            assertEquals(mfToGuMap.size(), expected.size());
+            assertTrue(
+                    "Expected less than " + singleQueries + " queries, got " + prefetchQueries,
+                    prefetchQueries < singleQueries);
+        } finally {
+            guMapping.setSource(guSource);
+            AppSchemaDataAccessRegistry.clearAppSchemaProperties();
+        }
+    }
+
+    /** Test built features are served from the mapping feature cache when it is enabled. */
+    @Test
+    public void testFeatureCache() throws Exception {
+        FeatureTypeMapping mfMapping = ((MappingFeatureSource) mfSource).getMapping();
+        ComplexFeatureCache cache = new ComplexFeatureCache(10);
+        mfMapping.setFeatureCache(cache);
+        try {
+            // id queries build the missing features once
+            Filter idFilter = ff.id(Collections.singleton(ff.featureId("mf1")));
+            Feature mf1 = getSingleFeature(mfSource.getFeatures(idFilter));
+            assertEquals(1, cache.size());
+            assertFalse(cache.isComplete());
+            assertSame(mf1, getSingleFeature(mfSource.getFeatures(idFilter)));
+
+            // mixing cached and missing features keeps the order of the filter identifiers
+            Set<FeatureId> fids = new LinkedHashSet<FeatureId>();
+            fids.add(ff.featureId("mf3"));
+            fids.add(ff.featureId("mf1"));
+            fids.add(ff.featureId("mf2"));
+            Id mixedFilter = ff.id(fids);
+            List<String> expectedOrder = new ArrayList<String>();
+            for (Identifier identifier : mixedFilter.getIdentifiers()) {
+                expectedOrder.add(identifier.getID().toString());
+            }
+            List<String> order = new ArrayList<String>();
+            try (FeatureIterator<Feature> it = mfSource.getFeatures(mixedFilter).features()) {
+                while (it.hasNext()) {
+                    order.add(it.next().getIdentifier().getID());
+                }
+            }
+            assertEquals(expectedOrder, order);
+            assertEquals(3, cache.size());
+
+            // unfiltered queries load the whole mapping, keeping the nested features
+            Map<String, List<String>> nested = getNestedGeologicUnits();
+            assertTrue(cache.isComplete());
+            assertEquals(mfToGuMap.size(), cache.size());
+            assertEquals(nested, getNestedGeologicUnits());
+            assertSame(mf1, cache.get("mf1"));
+
+            // bbox queries are answered from the complete cache
+            Filter bbox = ff.bbox(ff.property("gsml:shape"), -1.15, 52.55, -1.12, 52.58, null);
+            Set<String> ids = new HashSet<String>();
+            try (FeatureIterator<Feature> it = mfSource.getFeatures(bbox).features()) {
+                while (it.hasNext()) {
+                    ids.add(it.next().getIdentifier().getID());
+                }
+            }
+            assertEquals(new HashSet<String>(Arrays.asList("mf1", "mf3")), ids);
+
+            // changes to a nested type invalidate the features chaining it
+            DataAccessRegistry.getInstance().invalidateFeatureCache(GEOLOGIC_UNIT);
+            assertEquals(0, cache.size());
+            assertNotSame(mf1, getSingleFeature(mfSource.getFeatures(idFilter)));
+        } finally {
+            mfMapping.setFeatureCache(null);
+        }
+    }
+
+    private Feature getSingleFeature(FeatureCollection<FeatureType, Feature> features) {
+        try (FeatureIterator<Feature> it = features.features()) {
+            assertTrue(it.hasNext());
+            Feature feature = it.next();
+            assertFalse(it.hasNext());
+            return feature;
+        }
+    }
+
+    /** Returns the ids of the geologic units nested in each mapped feature */
+    private Map<String, List<String>> getNestedGeologicUnits() throws IOException {
+        Map<String, List<String>> result = new HashMap<String, List<String>>();
+        try (FeatureIterator<Feature> it = mfSource.getFeatures().features()) {
+            while (it.hasNext()) {
+                Feature mf = it.next();
+                List<String> guIds = new ArrayList<String>();
+                for (Property property : mf.getProperties("specification")) {
+                    for (Object nested : (Collection) property.getValue()) {
+                        guIds.add(((Feature) nested).getIdentifier().toString());
+                    }
+                }
+                result.put(mf.getIdentifier().toString(), guIds);
+            }
+        }
+        return result;
+    }
+
     /**
      * Load all the data accesses.
      *
@@ -0,0 +1,383 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.path;
+
+import java.util.Arrays;
+import org.geotools.graph.structure.Node;
+import org.geotools.graph.structure.compact.CompactGraph;
+import org.geotools.graph.util.IntPriorityQueue;
+
+/**
+ * Calculates shortest paths between two nodes of a {@link CompactGraph} with Dijkstra's algorithm,
+ * A* or a bidirectional Dijkstra search. The search state is kept in primitive arrays sized on the
+ * graph and reused from one query to the next without being cleared, so a finder answers repeated
+ * queries without allocating. A finder is not thread safe, use one per thread.
+ *
+ * <pre>
+ * CompactShortestPathFinder finder = new CompactShortestPathFinder(graph);
+ * double cost = finder.bidirectional(source, target);
+ * int[] nodes = finder.getNodePath();
+ * </pre>
+ *
+ * @see DijkstraShortestPathFinder
+ * @see AStarShortestPathFinder
+ * @since 20
+ */
+public class CompactShortestPathFinder {
+
+    /** The search state of one direction. */
+    private static final class Search {
+
+        final double[] dist;
+
+        final int[] parentNode;
+
+        final int[] parentEdge;
+
+        /** The query number in which the node was reached, avoids clearing the arrays */
+        final int[] reached;
+
+        /** The query number in which the node was settled */
+        final int[] settled;
+
+        final IntPriorityQueue queue;
+
+        int query;
+
+        Search(int nodeCount) {
+            dist = new double[nodeCount];
+            parentNode = new int[nodeCount];
+            parentEdge = new int[nodeCount];
+            reached = new int[nodeCount];
+            settled = new int[nodeCount];
+            queue = new IntPriorityQueue(1024);
+        }
+
+        void reset() {
+            queue.clear();
+            if (++query == Integer.MAX_VALUE) {
+                Arrays.fill(reached, 0);
+                Arrays.fill(settled, 0);
+                query = 1;
+            }
+        }
+
+        double dist(int node) {
+            return reached[node] == query ? dist[node] : Double.POSITIVE_INFINITY;
+        }
+
+        boolean isSettled(int node) {
+            return settled[node] == query;
+        }
+
+        /** Records a distance if shorter than the current one, returns true if it was. */
+        boolean reach(int node, double d, int parent, int edge) {
+            if (reached[node] == query && dist[node] <= d) {
+                return false;
+            }
+            reached[node] = query;
+            dist[node] = d;
+            parentNode[node] = parent;
+            parentEdge[node] = edge;
+            return true;
+        }
+    }
+
+    private final CompactGraph m_graph;
+
+    private final Search m_forward;
+
+    private Search m_backward;
+
+    private int m_source = -1;
+
+    private int m_target = -1;
+
+    /** The node where the forward and backward searches met, -1 for one directional searches */
+    private int m_meeting = -1;
+
+    private double m_cost = Double.POSITIVE_INFINITY;
+
+    private int m_settledCount;
+
+    /**
+     * Constructs a new path finder.
+     *
+     * @param graph The graph to calculate paths for.
+     */
+    public CompactShortestPathFinder(CompactGraph graph) {
+        m_graph = graph;
+        m_forward = new Search(graph.getNodeCount());
+    }
+
+    /**
+     * Calculates the shortest path between two nodes with Dijkstra's algorithm, stopping as soon as
+     * the target is reached.
+     *
+     * @return The path cost, or positive infinity if the target cannot be reached.
+     */
+    public double dijkstra(int source, int target) {
+        return search(source, target, 0);
+    }
+
+    /**
+     * Calculates the shortest path between two nodes with the A* algorithm, using the straight line
+     * distance scaled by {@link CompactGraph#getHeuristicFactor()} as the heuristic. When the
+     * factor is 0 (node locations unknown) this is the same as {@link #dijkstra(int, int)}.
+     *
+     * @return The path cost, or positive infinity if the target cannot be reached.
+     */
+    public double aStar(int source, int target) {
+        return search(source, target, m_graph.getHeuristicFactor());
+    }
+
+    private double search(int source, int target, double factor) {
+        init(source, target);
+        Search fw = m_forward;
+        fw.reset();
+        fw.reach(source, 0, -1, -1);
+        fw.queue.insert(source, 0);
+
+        CompactGraph g = m_graph;
+        double tx = g.getX(target);
+        double ty = g.getY(target);
+        while (!fw.queue.isEmpty()) {
+            int u = fw.queue.extract();
+            if (fw.isSettled(u)) {
+                // stale entry, the node was inserted again with a smaller key
+                continue;
+            }
+            fw.settled[u] = fw.query;
+            m_settledCount++;
+            if (u == target) {
+                m_cost = fw.dist[u];
+                break;
+            }
+
+            double du = fw.dist[u];
+            for (int a = g.getOutStart(u), end = g.getOutEnd(u); a < end; a++) {
+                int v = g.getOutTarget(a);
+                if (!fw.isSettled(v) && fw.reach(v, du + g.getOutWeight(a), u, g.getOutEdge(a))) {
+                    double key = fw.dist[v];
+                    if (factor > 0) {
+                        key += factor * Math.hypot(g.getX(v) - tx, g.getY(v) - ty);
+                    }
+                    fw.queue.insert(v, key);
+                }
+            }
+        }
+        return m_cost;
+    }
+
+    /**
+     * Calculates the shortest path between two nodes with a bidirectional Dijkstra search, growing
+     * one search from the source along outgoing arcs and one from the target along incoming arcs,
+     * until no shorter path can be found. This usually settles about half the nodes a one
+     * directional search does.
+     *
+     * @return The path cost, or positive infinity if the target cannot be reached.
+     */
+    public double bidirectional(int source, int target) {
+        init(source, target);
+        if (m_backward == null) {
+            m_backward = new Search(m_graph.getNodeCount());
+        }
+        Search fw = m_forward;
+        Search bw = m_backward;
+        fw.reset();
+        bw.reset();
+        fw.reach(source, 0, -1, -1);
+        fw.queue.insert(source, 0);
+        bw.reach(target, 0, -1, -1);
+        bw.queue.insert(target, 0);
+        if (source == target) {
+            m_cost = 0;
+            m_meeting = source;
+            return m_cost;
+        }
+
+        CompactGraph g = m_graph;
+        double best = Double.POSITIVE_INFINITY;
+        while (!fw.queue.isEmpty() && !bw.queue.isEmpty()) {
+            double fk = fw.queue.getRootKey();
+            double bk = bw.queue.getRootKey();
+            if (fk + bk >= best) {
+                break;
+            }
+            if (fk <= bk) {
+                int u = fw.queue.extract();
+                if (fw.isSettled(u)) continue;
+                fw.settled[u] = fw.query;
+                m_settledCount++;
+                double du = fw.dist[u];
+                for (int a = g.getOutStart(u), end = g.getOutEnd(u); a < end; a++) {
+                    int v = g.getOutTarget(a);
+                    if (fw.reach(v, du + g.getOutWeight(a), u, g.getOutEdge(a))) {
+                        fw.queue.insert(v, fw.dist[v]);
+                        double d = fw.dist[v] + bw.dist(v);
+                        if (d < best) {
+                            best = d;
+                            m_meeting = v;
+                        }
+                    }
+                }
+            } else {
+                int u = bw.queue.extract();
+                if (bw.isSettled(u)) continue;
+                bw.settled[u] = bw.query;
+                m_settledCount++;
+                double du = bw.dist[u];
+                for (int a = g.getInStart(u), end = g.getInEnd(u); a < end; a++) {
+                    int v = g.getInSource(a);
+                    if (bw.reach(v, du + g.getInWeight(a), u, g.getInEdge(a))) {
+                        bw.queue.insert(v, bw.dist[v]);
+                        double d = bw.dist[v] + fw.dist(v);
+                        if (d < best) {
+                            best = d;
+                            m_meeting = v;
+                        }
+                    }
+                }
+            }
+        }
+        m_cost = best;
+        return m_cost;
+    }
+
+    private void init(int source, int target) {
+        if (source < 0 || source >= m_graph.getNodeCount()) {
+            throw new IllegalArgumentException("Unknown node: " + source);
+        }
+        if (target < 0 || target >= m_graph.getNodeCount()) {
+            throw new IllegalArgumentException("Unknown node: " + target);
+        }
+        m_source = source;
+        m_target = target;
+        m_meeting = -1;
+        m_cost = Double.POSITIVE_INFINITY;
+        m_settledCount = 0;
+    }
+
+    /** Returns the cost of the last calculated path. */
+    public double getCost() {
+        return m_cost;
+    }
+
+    /**
+     * Returns the number of nodes settled by the last search, a measure of the work done that is
+     * independent of the machine.
+     */
+    public int getSettledCount() {
+        return m_settledCount;
+    }
+
+    /**
+     * Returns the indexes of the nodes of the last calculated path, from source to target, or null
+     * if the target could not be reached.
+     */
+    public int[] getNodePath() {
+        if (Double.isInfinite(m_cost)) {
+            return null;
+        }
+        // the nodes up to the meeting node are found walking back the forward search tree
+        int last = m_meeting < 0 ? m_target : m_meeting;
+        int forward = 0;
+        for (int n = last; n != m_source; n = m_forward.parentNode[n]) {
+            forward++;
+        }
+        int backward = 0;
+        if (m_meeting >= 0) {
+            for (int n = m_meeting; n != m_target; n = m_backward.parentNode[n]) {
+                backward++;
+            }
+        }
+        int[] nodes = new int[forward + backward + 1];
+        int i = forward;
+        for (int n = last; n != m_source; n = m_forward.parentNode[n]) {
+            nodes[i--] = n;
+        }
+        nodes[0] = m_source;
+        i = forward;
+        for (int n = last; i < nodes.length - 1; ) {
+            n = m_backward.parentNode[n];
+            nodes[++i] = n;
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the indexes of the edges of the last calculated path, from source to target, or null
+     * if the target could not be reached.
+     */
+    public int[] getEdgePath() {
+        if (Double.isInfinite(m_cost)) {
+            return null;
+        }
+        if (m_meeting < 0) {
+            int count = 0;
+            for (int n = m_target; n != m_source; n = m_forward.parentNode[n]) {
+                count++;
+            }
+            int[] edges = new int[count];
+            for (int n = m_target; n != m_source; n = m_forward.parentNode[n]) {
+                edges[--count] = m_forward.parentEdge[n];
+            }
+            return edges;
+        }
+
+        int forward = forwardLength();
+        int count = forward;
+        for (int n = m_meeting; n != m_target; n = m_backward.parentNode[n]) {
+            count++;
+        }
+        int[] edges = new int[count];
+        for (int n = m_meeting, i = forward; n != m_source; n = m_forward.parentNode[n]) {
+            edges[--i] = m_forward.parentEdge[n];
+        }
+        for (int n = m_meeting, i = forward; n != m_target; n = m_backward.parentNode[n]) {
+            edges[i++] = m_backward.parentEdge[n];
+        }
+        return edges;
+    }
+
+    /** Returns the number of edges between the source and the meeting node */
+    private int forwardLength() {
+        int count = 0;
+        for (int n = m_meeting; n != m_source; n = m_forward.parentNode[n]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the last calculated path as a path of the original nodes, from source to target, or
+     * null if the target could not be reached or the graph was not created from a {@link
+     * org.geotools.graph.structure.Graph}.
+     */
+    public Path getPath() {
+        int[] nodes = getNodePath();
+        if (nodes == null || m_graph.getNode(m_source) == null) {
+            return null;
+        }
+        Path path = new Path();
+        for (int n : nodes) {
+            Node node = m_graph.getNode(n);
+            path.add(node);
+        }
+        return path;
+    }
+}
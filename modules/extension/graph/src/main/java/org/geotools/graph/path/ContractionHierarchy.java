@@ -0,0 +1,712 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.path;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import org.geotools.graph.structure.Graph;
+import org.geotools.graph.structure.compact.CompactGraph;
+import org.geotools.graph.traverse.standard.DijkstraIterator.EdgeWeighter;
+import org.geotools.graph.util.IntPriorityQueue;
+
+/**
+ * A contraction hierarchy of a weighted graph, a preprocessed index answering repeated shortest
+ * path queries on a static network much faster than a plain search.
+ *
+ * <p>Nodes are contracted one at a time, least important first: a contracted node is removed from
+ * the graph, and shortcut arcs are added between its neighbours wherever the path through it was
+ * the only shortest one. The contraction order is the node rank, and the hierarchy keeps, for each
+ * node, the arcs (original or shortcuts) leading to and coming from higher ranked nodes. A query is
+ * then a bidirectional search going only upwards in rank on both sides, settling a few hundred
+ * nodes at most on road-like networks, see {@link ContractionHierarchyShortestPathFinder}.
+ *
+ * <p>Nodes and edges are identified by their index in the {@link CompactGraph} the hierarchy was
+ * built from. The hierarchy can be written to a stream and read back, which is much faster than
+ * building it again; the graph can be attached again when reading to look up the original nodes and
+ * edges.
+ *
+ * @since 20
+ */
+public class ContractionHierarchy {
+
+    private static final int MAGIC = 0x47544348;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Maximum number of arcs scanned by a witness search before assuming there is no witness. The
+     * limit is on arcs rather than nodes, as node degrees grow a lot towards the end of the
+     * contraction.
+     */
+    private static final int WITNESS_SEARCH_LIMIT = 2000;
+
+    /** Same as {@link #WITNESS_SEARCH_LIMIT}, when only estimating the contraction priority */
+    private static final int PRIORITY_SEARCH_LIMIT = 200;
+
+    /**
+     * Number of arcs above which only direct arcs are considered as witnesses. The last nodes of
+     * the contraction end up densely connected, and full witness searches there would cost much
+     * more than the few extra shortcuts.
+     */
+    private static final int DENSE_DEGREE = 64;
+
+    private final int m_nodeCount;
+
+    private final int m_edgeCount;
+
+    private final int[] m_rank;
+
+    private final int[] m_upStart;
+
+    private final int[] m_upTarget;
+
+    private final double[] m_upWeight;
+
+    /** The original edge index of an arc, or -1 - the contracted node for shortcuts */
+    private final int[] m_upVia;
+
+    private final int[] m_downStart;
+
+    private final int[] m_downSource;
+
+    private final double[] m_downWeight;
+
+    private final int[] m_downVia;
+
+    private final int m_shortcutCount;
+
+    private CompactGraph m_graph;
+
+    private ContractionHierarchy(
+            int nodeCount,
+            int edgeCount,
+            int[] rank,
+            int[] upStart,
+            int[] upTarget,
+            double[] upWeight,
+            int[] upVia,
+            int[] downStart,
+            int[] downSource,
+            double[] downWeight,
+            int[] downVia) {
+        m_nodeCount = nodeCount;
+        m_edgeCount = edgeCount;
+        m_rank = rank;
+        m_upStart = upStart;
+        m_upTarget = upTarget;
+        m_upWeight = upWeight;
+        m_upVia = upVia;
+        m_downStart = downStart;
+        m_downSource = downSource;
+        m_downWeight = downWeight;
+        m_downVia = downVia;
+        int shortcuts = 0;
+        for (int via : upVia) {
+            if (via < 0) shortcuts++;
+        }
+        for (int via : downVia) {
+            if (via < 0) shortcuts++;
+        }
+        m_shortcutCount = shortcuts;
+    }
+
+    /**
+     * Builds the contraction hierarchy of a graph.
+     *
+     * @param graph The graph, see {@link CompactGraph#create(Graph, EdgeWeighter)} for how directed
+     *     edges are handled.
+     * @param weighter Associates weights with edges in the graph, must not return negative values.
+     */
+    public static ContractionHierarchy build(Graph graph, EdgeWeighter weighter) {
+        return build(CompactGraph.create(graph, weighter));
+    }
+
+    /** Builds the contraction hierarchy of a compact graph. */
+    public static ContractionHierarchy build(CompactGraph graph) {
+        ContractionHierarchy ch = new Contractor(graph).contract();
+        ch.m_graph = graph;
+        return ch;
+    }
+
+    /** The dynamic graph the nodes are contracted from, and the contraction state. */
+    private static final class Contractor {
+
+        final int n;
+
+        final int edgeCount;
+
+        // per node outgoing and incoming arcs towards nodes not contracted yet
+        final int[][] outTarget;
+
+        final double[][] outWeight;
+
+        final int[][] outVia;
+
+        final int[] outCount;
+
+        final int[][] inSource;
+
+        final double[][] inWeight;
+
+        final int[][] inVia;
+
+        final int[] inCount;
+
+        final int[] deletedNeighbours;
+
+        final int[] level;
+
+        final double[] priority;
+
+        final boolean[] contracted;
+
+        /** The last contracted neighbour of each node, avoids updating a node twice */
+        final int[] updated;
+
+        // witness search state, reused across searches through a stamp
+        final double[] dist;
+
+        final int[] reached;
+
+        final int[] settled;
+
+        final int[] isTarget;
+
+        final IntPriorityQueue queue = new IntPriorityQueue(1024);
+
+        int search;
+
+        Contractor(CompactGraph graph) {
+            n = graph.getNodeCount();
+            edgeCount = graph.getEdgeCount();
+            outTarget = new int[n][];
+            outWeight = new double[n][];
+            outVia = new int[n][];
+            outCount = new int[n];
+            inSource = new int[n][];
+            inWeight = new double[n][];
+            inVia = new int[n][];
+            inCount = new int[n];
+            for (int u = 0; u < n; u++) {
+                int degree = graph.getOutEnd(u) - graph.getOutStart(u);
+                outTarget[u] = new int[degree];
+                outWeight[u] = new double[degree];
+                outVia[u] = new int[degree];
+                degree = graph.getInEnd(u) - graph.getInStart(u);
+                inSource[u] = new int[degree];
+                inWeight[u] = new double[degree];
+                inVia[u] = new int[degree];
+            }
+            for (int u = 0; u < n; u++) {
+                for (int a = graph.getOutStart(u); a < graph.getOutEnd(u); a++) {
+                    int v = graph.getOutTarget(a);
+                    // loops are never part of a shortest path
+                    if (v != u) {
+                        addArc(u, v, graph.getOutWeight(a), graph.getOutEdge(a));
+                    }
+                }
+            }
+            deletedNeighbours = new int[n];
+            level = new int[n];
+            priority = new double[n];
+            contracted = new boolean[n];
+            updated = new int[n];
+            Arrays.fill(updated, -1);
+            dist = new double[n];
+            reached = new int[n];
+            settled = new int[n];
+            isTarget = new int[n];
+        }
+
+        /** Adds an arc, or lowers the weight of the existing arc between the same nodes. */
+        void addArc(int u, int v, double weight, int via) {
+            int[] targets = outTarget[u];
+            for (int i = 0, count = outCount[u]; i < count; i++) {
+                if (targets[i] == v) {
+                    if (weight < outWeight[u][i]) {
+                        outWeight[u][i] = weight;
+                        outVia[u][i] = via;
+                        int j = indexOf(inSource[v], inCount[v], u);
+                        inWeight[v][j] = weight;
+                        inVia[v][j] = via;
+                    }
+                    return;
+                }
+            }
+            appendArc(u, v, weight, via);
+        }
+
+        /** Adds an arc known not to exist yet. */
+        void appendArc(int u, int v, double weight, int via) {
+            int[] targets = outTarget[u];
+            int i = outCount[u]++;
+            if (i == targets.length) {
+                int capacity = Math.max(4, i * 2);
+                outTarget[u] = Arrays.copyOf(targets, capacity);
+                outWeight[u] = Arrays.copyOf(outWeight[u], capacity);
+                outVia[u] = Arrays.copyOf(outVia[u], capacity);
+            }
+            outTarget[u][i] = v;
+            outWeight[u][i] = weight;
+            outVia[u][i] = via;
+
+            i = inCount[v]++;
+            if (i == inSource[v].length) {
+                int capacity = Math.max(4, i * 2);
+                inSource[v] = Arrays.copyOf(inSource[v], capacity);
+                inWeight[v] = Arrays.copyOf(inWeight[v], capacity);
+                inVia[v] = Arrays.copyOf(inVia[v], capacity);
+            }
+            inSource[v][i] = u;
+            inWeight[v][i] = weight;
+            inVia[v][i] = via;
+        }
+
+        static int indexOf(int[] values, int count, int value) {
+            for (int i = 0; i < count; i++) {
+                if (values[i] == value) return i;
+            }
+            return -1;
+        }
+
+        ContractionHierarchy contract() {
+            // the witness searches use the main queue, so the order lives in its own one
+            IntPriorityQueue order = new IntPriorityQueue(n);
+            for (int v = 0; v < n; v++) {
+                priority[v] = priority(v);
+                order.insert(v, priority[v]);
+            }
+            int[] rank = new int[n];
+            int next = 0;
+            while (!order.isEmpty()) {
+                double key = order.getRootKey();
+                int v = order.extract();
+                if (contracted[v] || key != priority[v]) {
+                    // stale entry, the node was inserted again with another priority
+                    continue;
+                }
+                // lazy update, the priority may have grown since the node was last inserted
+                double p = priority(v);
+                if (p > key && !order.isEmpty() && p > order.getRootKey()) {
+                    priority[v] = p;
+                    order.insert(v, p);
+                    continue;
+                }
+                contractNode(v);
+                rank[v] = next++;
+
+                // the neighbours lost an arc and may have gained shortcuts
+                for (int i = 0; i < outCount[v]; i++) {
+                    update(outTarget[v][i], v, order);
+                }
+                for (int i = 0; i < inCount[v]; i++) {
+                    int u = inSource[v][i];
+                    if (updated[u] != v) {
+                        update(u, v, order);
+                    }
+                }
+            }
+            return toHierarchy(rank);
+        }
+
+        void update(int x, int contractedNode, IntPriorityQueue order) {
+            updated[x] = contractedNode;
+            deletedNeighbours[x]++;
+            level[x] = Math.max(level[x], level[contractedNode] + 1);
+            double p = priority(x);
+            if (p != priority[x]) {
+                priority[x] = p;
+                order.insert(x, p);
+            }
+        }
+
+        /**
+         * Returns the contraction priority of a node, lowest first: nodes adding few shortcuts
+         * compared to the arcs they remove, with few contracted neighbours and low in the hierarchy
+         * so far, which spreads the contraction evenly over the graph.
+         */
+        double priority(int v) {
+            // dense nodes are mostly connected to each other already, but counting is too costly
+            int shortcuts = isDense(v) ? inCount[v] * outCount[v] / 2 : shortcuts(v, false);
+            return 2 * (shortcuts - outCount[v] - inCount[v]) + deletedNeighbours[v] + level[v];
+        }
+
+        void contractNode(int v) {
+            shortcuts(v, true);
+            contracted[v] = true;
+            // detach the node from its neighbours, its own arcs are kept as the upward arcs
+            for (int i = 0; i < outCount[v]; i++) {
+                removeIn(outTarget[v][i], v);
+            }
+            for (int i = 0; i < inCount[v]; i++) {
+                removeOut(inSource[v][i], v);
+            }
+        }
+
+        void removeIn(int v, int u) {
+            int i = indexOf(inSource[v], inCount[v], u);
+            int last = --inCount[v];
+            inSource[v][i] = inSource[v][last];
+            inWeight[v][i] = inWeight[v][last];
+            inVia[v][i] = inVia[v][last];
+        }
+
+        void removeOut(int u, int v) {
+            int i = indexOf(outTarget[u], outCount[u], v);
+            int last = --outCount[u];
+            outTarget[u][i] = outTarget[u][last];
+            outWeight[u][i] = outWeight[u][last];
+            outVia[u][i] = outVia[u][last];
+        }
+
+        /** Whether only direct arcs are considered as witnesses when contracting the node */
+        boolean isDense(int v) {
+            return outCount[v] + inCount[v] > DENSE_DEGREE;
+        }
+
+        /**
+         * Counts the shortcuts needed to contract a node, adding them if requested: for each pair
+         * of neighbours u, w the path u-v-w needs a shortcut unless a witness search from u finds a
+         * path to w at most as long that avoids v.
+         */
+        int shortcuts(int v, boolean add) {
+            boolean dense = isDense(v);
+            int count = 0;
+            for (int i = 0; i < inCount[v]; i++) {
+                int u = inSource[v][i];
+                double wu = inWeight[v][i];
+                double max = -1;
+                for (int j = 0; j < outCount[v]; j++) {
+                    if (outTarget[v][j] != u) {
+                        max = Math.max(max, wu + outWeight[v][j]);
+                    }
+                }
+                if (max < 0) continue;
+
+                if (dense) {
+                    directWitnesses(u);
+                } else {
+                    witnessSearch(u, v, max, add ? WITNESS_SEARCH_LIMIT : PRIORITY_SEARCH_LIMIT);
+                }
+                for (int j = 0; j < outCount[v]; j++) {
+                    int w = outTarget[v][j];
+                    double d = wu + outWeight[v][j];
+                    if (w == u || (reached[w] == search && dist[w] <= d)) continue;
+
+                    count++;
+                    if (add && dense && reached[w] != search) {
+                        // no arc from u to w, no need to look for one
+                        appendArc(u, w, d, -1 - v);
+                    } else if (add) {
+                        addArc(u, w, d, -1 - v);
+                    }
+                }
+            }
+            return count;
+        }
+
+        /** Records the direct arcs from u as the only witnesses. */
+        void directWitnesses(int u) {
+            nextSearch();
+            for (int i = 0; i < outCount[u]; i++) {
+                int w = outTarget[u][i];
+                reached[w] = search;
+                dist[w] = outWeight[u][i];
+            }
+        }
+
+        void nextSearch() {
+            if (++search == Integer.MAX_VALUE) {
+                Arrays.fill(reached, 0);
+                Arrays.fill(settled, 0);
+                Arrays.fill(isTarget, 0);
+                search = 1;
+            }
+        }
+
+        /**
+         * Runs a Dijkstra search from u avoiding v, until the other neighbours of v are settled or
+         * the specified distance or number of scanned arcs is exceeded.
+         */
+        void witnessSearch(int u, int v, double max, int limit) {
+            nextSearch();
+            int remaining = 0;
+            for (int j = 0; j < outCount[v]; j++) {
+                int w = outTarget[v][j];
+                if (w != u && isTarget[w] != search) {
+                    isTarget[w] = search;
+                    remaining++;
+                }
+            }
+            queue.clear();
+            reached[u] = search;
+            dist[u] = 0;
+            queue.insert(u, 0);
+            int scanned = 0;
+            while (!queue.isEmpty() && scanned < limit) {
+                int x = queue.extract();
+                if (settled[x] == search) continue;
+                settled[x] = search;
+                scanned += outCount[x];
+                double dx = dist[x];
+                if (dx > max || (isTarget[x] == search && --remaining == 0)) break;
+                for (int i = 0; i < outCount[x]; i++) {
+                    int y = outTarget[x][i];
+                    if (y == v) continue;
+                    double d = dx + outWeight[x][i];
+                    if (reached[y] != search || d < dist[y]) {
+                        reached[y] = search;
+                        dist[y] = d;
+                        queue.insert(y, d);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy toHierarchy(int[] rank) {
+            int[] upStart = new int[n + 1];
+            int[] downStart = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                upStart[v + 1] = upStart[v] + outCount[v];
+                downStart[v + 1] = downStart[v] + inCount[v];
+            }
+            int[] upTarget = new int[upStart[n]];
+            double[] upWeight = new double[upStart[n]];
+            int[] upVia = new int[upStart[n]];
+            int[] downSource = new int[downStart[n]];
+            double[] downWeight = new double[downStart[n]];
+            int[] downVia = new int[downStart[n]];
+            for (int v = 0; v < n; v++) {
+                System.arraycopy(outTarget[v], 0, upTarget, upStart[v], outCount[v]);
+                System.arraycopy(outWeight[v], 0, upWeight, upStart[v], outCount[v]);
+                System.arraycopy(outVia[v], 0, upVia, upStart[v], outCount[v]);
+                System.arraycopy(inSource[v], 0, downSource, downStart[v], inCount[v]);
+                System.arraycopy(inWeight[v], 0, downWeight, downStart[v], inCount[v]);
+                System.arraycopy(inVia[v], 0, downVia, downStart[v], inCount[v]);
+            }
+            return new ContractionHierarchy(
+                    n,
+                    edgeCount,
+                    rank,
+                    upStart,
+                    upTarget,
+                    upWeight,
+                    upVia,
+                    downStart,
+                    downSource,
+                    downWeight,
+                    downVia);
+        }
+    }
+
+    /**
+     * Writes the hierarchy to a stream. The graph it was built from is not written.
+     *
+     * @param out The stream, which is not closed.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(m_nodeCount);
+        data.writeInt(m_edgeCount);
+        writeInts(data, m_rank);
+        writeInts(data, m_upStart);
+        writeInts(data, m_upTarget);
+        writeDoubles(data, m_upWeight);
+        writeInts(data, m_upVia);
+        writeInts(data, m_downStart);
+        writeInts(data, m_downSource);
+        writeDoubles(data, m_downWeight);
+        writeInts(data, m_downVia);
+        data.flush();
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #write(OutputStream)}.
+     *
+     * @param in The stream, which is not closed.
+     */
+    public static ContractionHierarchy read(InputStream in) throws IOException {
+        return read(in, null);
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #write(OutputStream)}, attaching the graph it was built
+     * from.
+     *
+     * @param in The stream, which is not closed.
+     * @param graph The graph the hierarchy was built from, may be null.
+     */
+    public static ContractionHierarchy read(InputStream in, CompactGraph graph) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a contraction hierarchy");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported contraction hierarchy version " + version);
+        }
+        int nodeCount = data.readInt();
+        int edgeCount = data.readInt();
+        if (graph != null
+                && (graph.getNodeCount() != nodeCount || graph.getEdgeCount() != edgeCount)) {
+            throw new IllegalArgumentException(
+                    "The hierarchy has "
+                            + nodeCount
+                            + " nodes and "
+                            + edgeCount
+                            + " edges, the graph has "
+                            + graph.getNodeCount()
+                            + " and "
+                            + graph.getEdgeCount());
+        }
+        ContractionHierarchy ch =
+                new ContractionHierarchy(
+                        nodeCount,
+                        edgeCount,
+                        readInts(data),
+                        readInts(data),
+                        readInts(data),
+                        readDoubles(data),
+                        readInts(data),
+                        readInts(data),
+                        readInts(data),
+                        readDoubles(data),
+                        readInts(data));
+        ch.m_graph = graph;
+        return ch;
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        double[] values = new double[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Returns the graph the hierarchy was built from, or null if it was read from a stream without
+     * one.
+     */
+    public CompactGraph getGraph() {
+        return m_graph;
+    }
+
+    public int getNodeCount() {
+        return m_nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return m_edgeCount;
+    }
+
+    /** Returns the number of shortcut arcs added by the contraction. */
+    public int getShortcutCount() {
+        return m_shortcutCount;
+    }
+
+    /** Returns the contraction order of a node, higher ranked nodes were contracted later. */
+    public int getRank(int node) {
+        return m_rank[node];
+    }
+
+    int getUpStart(int node) {
+        return m_upStart[node];
+    }
+
+    int getUpEnd(int node) {
+        return m_upStart[node + 1];
+    }
+
+    int getUpTarget(int arc) {
+        return m_upTarget[arc];
+    }
+
+    double getUpWeight(int arc) {
+        return m_upWeight[arc];
+    }
+
+    int getUpVia(int arc) {
+        return m_upVia[arc];
+    }
+
+    int getDownStart(int node) {
+        return m_downStart[node];
+    }
+
+    int getDownEnd(int node) {
+        return m_downStart[node + 1];
+    }
+
+    int getDownSource(int arc) {
+        return m_downSource[arc];
+    }
+
+    double getDownWeight(int arc) {
+        return m_downWeight[arc];
+    }
+
+    int getDownVia(int arc) {
+        return m_downVia[arc];
+    }
+
+    /** Returns the arc from u down to m, or -1 if there is none. */
+    int findDownArc(int m, int u) {
+        for (int a = m_downStart[m]; a < m_downStart[m + 1]; a++) {
+            if (m_downSource[a] == u) return a;
+        }
+        return -1;
+    }
+
+    /** Returns the arc from m up to v, or -1 if there is none. */
+    int findUpArc(int m, int v) {
+        for (int a = m_upStart[m]; a < m_upStart[m + 1]; a++) {
+            if (m_upTarget[a] == v) return a;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.path;
+
+import java.util.Arrays;
+import org.geotools.graph.structure.compact.CompactGraph;
+import org.geotools.graph.util.IntPriorityQueue;
+
+/**
+ * Calculates shortest paths between two nodes using a {@link ContractionHierarchy}: a forward
+ * search from the source and a backward search from the target, both following only arcs to higher
+ * ranked nodes, meet at the highest ranked node of the shortest path. Shortcuts are expanded back
+ * into original edges when the path is requested.
+ *
+ * <p>The hierarchy can be shared, but a finder keeps its search state in arrays reused from one
+ * query to the next and is not thread safe, use one per thread.
+ *
+ * @see CompactShortestPathFinder
+ * @since 20
+ */
+public class ContractionHierarchyShortestPathFinder {
+
+    private final ContractionHierarchy m_hierarchy;
+
+    // forward search state
+    private final double[] m_fwDist;
+
+    private final int[] m_fwParentNode;
+
+    private final int[] m_fwParentArc;
+
+    private final int[] m_fwReached;
+
+    // backward search state
+    private final double[] m_bwDist;
+
+    private final int[] m_bwParentNode;
+
+    private final int[] m_bwParentArc;
+
+    private final int[] m_bwReached;
+
+    private final IntPriorityQueue m_fwQueue = new IntPriorityQueue(256);
+
+    private final IntPriorityQueue m_bwQueue = new IntPriorityQueue(256);
+
+    /** The query number, marks the nodes reached by the current query in the reached arrays */
+    private int m_query;
+
+    private int m_source = -1;
+
+    private int m_target = -1;
+
+    private int m_meeting = -1;
+
+    private double m_cost = Double.POSITIVE_INFINITY;
+
+    private int m_settledCount;
+
+    // unpacked path
+    private int[] m_edges = new int[64];
+
+    private int[] m_nodes = new int[64];
+
+    private int m_length;
+
+    /**
+     * Constructs a new path finder.
+     *
+     * @param hierarchy The hierarchy of the graph to calculate paths for.
+     */
+    public ContractionHierarchyShortestPathFinder(ContractionHierarchy hierarchy) {
+        m_hierarchy = hierarchy;
+        int n = hierarchy.getNodeCount();
+        m_fwDist = new double[n];
+        m_fwParentNode = new int[n];
+        m_fwParentArc = new int[n];
+        m_fwReached = new int[n];
+        m_bwDist = new double[n];
+        m_bwParentNode = new int[n];
+        m_bwParentArc = new int[n];
+        m_bwReached = new int[n];
+    }
+
+    /**
+     * Calculates the shortest path between two nodes.
+     *
+     * @return The path cost, or positive infinity if the target cannot be reached.
+     */
+    public double calculate(int source, int target) {
+        ContractionHierarchy ch = m_hierarchy;
+        if (source < 0 || source >= ch.getNodeCount()) {
+            throw new IllegalArgumentException("Unknown node: " + source);
+        }
+        if (target < 0 || target >= ch.getNodeCount()) {
+            throw new IllegalArgumentException("Unknown node: " + target);
+        }
+        if (++m_query == Integer.MAX_VALUE) {
+            Arrays.fill(m_fwReached, 0);
+            Arrays.fill(m_bwReached, 0);
+            m_query = 1;
+        }
+        final int query = m_query;
+        m_source = source;
+        m_target = target;
+        m_meeting = -1;
+        m_length = -1;
+        m_settledCount = 0;
+        m_fwQueue.clear();
+        m_bwQueue.clear();
+
+        m_fwReached[source] = query;
+        m_fwDist[source] = 0;
+        m_fwQueue.insert(source, 0);
+        m_bwReached[target] = query;
+        m_bwDist[target] = 0;
+        m_bwQueue.insert(target, 0);
+
+        // both searches go on until their smallest distance exceeds the best path found, as the
+        // first meeting node is not necessarily on the shortest path
+        double best = Double.POSITIVE_INFINITY;
+        while (true) {
+            boolean forward = !m_fwQueue.isEmpty() && m_fwQueue.getRootKey() < best;
+            boolean backward = !m_bwQueue.isEmpty() && m_bwQueue.getRootKey() < best;
+            if (forward && backward) {
+                forward = m_fwQueue.getRootKey() <= m_bwQueue.getRootKey();
+            } else if (!forward && !backward) {
+                break;
+            }
+
+            if (forward) {
+                double key = m_fwQueue.getRootKey();
+                int u = m_fwQueue.extract();
+                double du = m_fwDist[u];
+                if (key > du) {
+                    // stale entry, the node was inserted again with a smaller key
+                    continue;
+                }
+                m_settledCount++;
+                if (m_bwReached[u] == query && du + m_bwDist[u] < best) {
+                    best = du + m_bwDist[u];
+                    m_meeting = u;
+                }
+                if (isStalled(u, du, ch.getDownStart(u), ch.getDownEnd(u), true)) {
+                    continue;
+                }
+                for (int a = ch.getUpStart(u), end = ch.getUpEnd(u); a < end; a++) {
+                    int v = ch.getUpTarget(a);
+                    double d = du + ch.getUpWeight(a);
+                    if (m_fwReached[v] != query || d < m_fwDist[v]) {
+                        m_fwReached[v] = query;
+                        m_fwDist[v] = d;
+                        m_fwParentNode[v] = u;
+                        m_fwParentArc[v] = a;
+                        m_fwQueue.insert(v, d);
+                    }
+                }
+            } else {
+                double key = m_bwQueue.getRootKey();
+                int u = m_bwQueue.extract();
+                double du = m_bwDist[u];
+                if (key > du) continue;
+                m_settledCount++;
+                if (m_fwReached[u] == query && du + m_fwDist[u] < best) {
+                    best = du + m_fwDist[u];
+                    m_meeting = u;
+                }
+                if (isStalled(u, du, ch.getUpStart(u), ch.getUpEnd(u), false)) {
+                    continue;
+                }
+                for (int a = ch.getDownStart(u), end = ch.getDownEnd(u); a < end; a++) {
+                    int v = ch.getDownSource(a);
+                    double d = du + ch.getDownWeight(a);
+                    if (m_bwReached[v] != query || d < m_bwDist[v]) {
+                        m_bwReached[v] = query;
+                        m_bwDist[v] = d;
+                        m_bwParentNode[v] = u;
+                        m_bwParentArc[v] = a;
+                        m_bwQueue.insert(v, d);
+                    }
+                }
+            }
+        }
+        m_cost = best;
+        return m_cost;
+    }
+
+    /**
+     * Stall on demand: a node reached through a higher ranked node with a shorter distance than the
+     * one found going upwards is not on a shortest path, and its arcs need not be relaxed.
+     */
+    private boolean isStalled(int u, double du, int start, int end, boolean forward) {
+        ContractionHierarchy ch = m_hierarchy;
+        for (int a = start; a < end; a++) {
+            if (forward) {
+                int x = ch.getDownSource(a);
+                if (m_fwReached[x] == m_query && m_fwDist[x] + ch.getDownWeight(a) < du) {
+                    return true;
+                }
+            } else {
+                int x = ch.getUpTarget(a);
+                if (m_bwReached[x] == m_query && m_bwDist[x] + ch.getUpWeight(a) < du) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Returns the cost of the last calculated path. */
+    public double getCost() {
+        return m_cost;
+    }
+
+    /**
+     * Returns the number of nodes settled by the last query, a measure of the work done that is
+     * independent of the machine.
+     */
+    public int getSettledCount() {
+        return m_settledCount;
+    }
+
+    /**
+     * Returns the indexes of the original edges of the last calculated path, from source to target,
+     * or null if the target could not be reached.
+     */
+    public int[] getEdgePath() {
+        if (!unpack()) {
+            return null;
+        }
+        return Arrays.copyOf(m_edges, m_length);
+    }
+
+    /**
+     * Returns the indexes of the nodes of the last calculated path, from source to target, or null
+     * if the target could not be reached.
+     */
+    public int[] getNodePath() {
+        if (!unpack()) {
+            return null;
+        }
+        return Arrays.copyOf(m_nodes, m_length + 1);
+    }
+
+    /**
+     * Returns the last calculated path as a path of the original nodes, from source to target, or
+     * null if the target could not be reached or the hierarchy graph does not hold the original
+     * nodes.
+     */
+    public Path getPath() {
+        CompactGraph graph = m_hierarchy.getGraph();
+        if (graph == null || graph.getNode(m_source) == null || !unpack()) {
+            return null;
+        }
+        Path path = new Path();
+        for (int i = 0; i <= m_length; i++) {
+            path.add(graph.getNode(m_nodes[i]));
+        }
+        return path;
+    }
+
+    /** Expands the path found by the last query into original edges, once. */
+    private boolean unpack() {
+        if (m_meeting < 0) {
+            return false;
+        }
+        if (m_length < 0) {
+            m_length = 0;
+            m_nodes[0] = m_source;
+            unpackForward(m_meeting);
+            for (int n = m_meeting; n != m_target; ) {
+                int next = m_bwParentNode[n];
+                unpack(n, next, m_hierarchy.getDownVia(m_bwParentArc[n]));
+                n = next;
+            }
+        }
+        return true;
+    }
+
+    private void unpackForward(int node) {
+        if (node != m_source) {
+            int parent = m_fwParentNode[node];
+            unpackForward(parent);
+            unpack(parent, node, m_hierarchy.getUpVia(m_fwParentArc[node]));
+        }
+    }
+
+    /** Appends the original edges an arc from u to v stands for. */
+    private void unpack(int u, int v, int via) {
+        if (via >= 0) {
+            if (m_length + 1 == m_nodes.length) {
+                m_nodes = Arrays.copyOf(m_nodes, m_nodes.length * 2);
+                m_edges = Arrays.copyOf(m_edges, m_nodes.length);
+            }
+            m_edges[m_length++] = via;
+            m_nodes[m_length] = v;
+            return;
+        }
+        // a shortcut u-m-v, the arcs u-m and m-v are the arcs of m to higher ranked nodes
+        int m = -1 - via;
+        unpack(u, m, m_hierarchy.getDownVia(m_hierarchy.findDownArc(m, u)));
+        unpack(m, v, m_hierarchy.getUpVia(m_hierarchy.findUpArc(m, v)));
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.structure.compact;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Point;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.geotools.graph.structure.DirectedEdge;
+import org.geotools.graph.structure.Edge;
+import org.geotools.graph.structure.Graph;
+import org.geotools.graph.structure.Node;
+import org.geotools.graph.structure.line.XYNode;
+import org.geotools.graph.traverse.standard.DijkstraIterator.EdgeWeighter;
+
+/**
+ * An immutable weighted graph stored in compressed sparse row form: nodes and edges are identified
+ * by int indexes and the arcs leaving (and entering) each node are stored contiguously in primitive
+ * arrays. A network of millions of edges takes a few tens of bytes per edge, against several
+ * objects and lists per edge and node for a {@link org.geotools.graph.structure.basic.BasicGraph}.
+ *
+ * <p>An undirected edge is stored as two arcs, a one way edge as a single one. The arcs of node
+ * <code>n</code> are the indexes in <code>[getOutStart(n), getOutEnd(n))</code>, and the same goes
+ * for the incoming arcs, which are only stored separately when the graph has one way edges.
+ *
+ * <p>Instances are created with a {@link CompactGraphBuilder}, or from an existing graph with
+ * {@link #create(Graph, EdgeWeighter)}, in which case the original nodes and edges can be looked up
+ * by index.
+ *
+ * @see org.geotools.graph.path.CompactShortestPathFinder
+ * @since 20
+ */
+public class CompactGraph {
+
+    private final int m_nodeCount;
+
+    private final int m_edgeCount;
+
+    private final double[] m_x;
+
+    private final double[] m_y;
+
+    private final int[] m_outStart;
+
+    private final int[] m_outTarget;
+
+    private final double[] m_outWeight;
+
+    private final int[] m_outEdge;
+
+    private final int[] m_inStart;
+
+    private final int[] m_inSource;
+
+    private final double[] m_inWeight;
+
+    private final int[] m_inEdge;
+
+    private final double m_heuristicFactor;
+
+    private Node[] m_nodes;
+
+    private Edge[] m_edges;
+
+    private Map<Node, Integer> m_node2index;
+
+    CompactGraph(
+            int nodeCount,
+            int edgeCount,
+            double[] x,
+            double[] y,
+            int[] outStart,
+            int[] outTarget,
+            double[] outWeight,
+            int[] outEdge,
+            int[] inStart,
+            int[] inSource,
+            double[] inWeight,
+            int[] inEdge) {
+        m_nodeCount = nodeCount;
+        m_edgeCount = edgeCount;
+        m_x = x;
+        m_y = y;
+        m_outStart = outStart;
+        m_outTarget = outTarget;
+        m_outWeight = outWeight;
+        m_outEdge = outEdge;
+        m_inStart = inStart;
+        m_inSource = inSource;
+        m_inWeight = inWeight;
+        m_inEdge = inEdge;
+        m_heuristicFactor = computeHeuristicFactor();
+    }
+
+    /**
+     * Creates a compact copy of a graph. Edges implementing {@link DirectedEdge} can only be
+     * traversed from their in node to their out node, all other edges in both directions. Node
+     * locations are taken from {@link XYNode} coordinates or from Point and Coordinate node
+     * objects, as set up by the line graph generators.
+     *
+     * @param graph The graph to copy.
+     * @param weighter Associates weights with edges in the graph, must not return negative values.
+     */
+    public static CompactGraph create(Graph graph, EdgeWeighter weighter) {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        Node[] nodes = new Node[graph.getNodes().size()];
+        Map<Node, Integer> node2index = new HashMap<Node, Integer>();
+        for (Iterator itr = graph.getNodes().iterator(); itr.hasNext(); ) {
+            Node node = (Node) itr.next();
+            Coordinate c = getCoordinate(node);
+            int index =
+                    c == null ? builder.addNode(Double.NaN, Double.NaN) : builder.addNode(c.x, c.y);
+            nodes[index] = node;
+            node2index.put(node, index);
+        }
+
+        Edge[] edges = new Edge[graph.getEdges().size()];
+        for (Iterator itr = graph.getEdges().iterator(); itr.hasNext(); ) {
+            Edge edge = (Edge) itr.next();
+            int index;
+            if (edge instanceof DirectedEdge) {
+                DirectedEdge de = (DirectedEdge) edge;
+                index =
+                        builder.addEdge(
+                                node2index.get(de.getInNode()),
+                                node2index.get(de.getOutNode()),
+                                weighter.getWeight(edge),
+                                true);
+            } else {
+                index =
+                        builder.addEdge(
+                                node2index.get(edge.getNodeA()),
+                                node2index.get(edge.getNodeB()),
+                                weighter.getWeight(edge),
+                                false);
+            }
+            edges[index] = edge;
+        }
+
+        CompactGraph compact = builder.build();
+        compact.m_nodes = nodes;
+        compact.m_edges = edges;
+        compact.m_node2index = node2index;
+        return compact;
+    }
+
+    private static Coordinate getCoordinate(Node node) {
+        if (node instanceof XYNode) {
+            return ((XYNode) node).getCoordinate();
+        }
+        Object obj = node.getObject();
+        if (obj instanceof Point) {
+            return ((Point) obj).getCoordinate();
+        }
+        if (obj instanceof Coordinate) {
+            return (Coordinate) obj;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the largest factor by which the straight line distance between two nodes can be
+     * multiplied and still never exceed the weight of a path between them, or 0 when node locations
+     * are missing.
+     */
+    private double computeHeuristicFactor() {
+        double factor = Double.POSITIVE_INFINITY;
+        for (int n = 0; n < m_nodeCount; n++) {
+            if (Double.isNaN(m_x[n]) || Double.isNaN(m_y[n])) {
+                return 0;
+            }
+            for (int a = m_outStart[n]; a < m_outStart[n + 1]; a++) {
+                int t = m_outTarget[a];
+                double d = Math.hypot(m_x[t] - m_x[n], m_y[t] - m_y[n]);
+                if (d > 0) {
+                    factor = Math.min(factor, m_outWeight[a] / d);
+                }
+            }
+        }
+        return Double.isInfinite(factor) || Double.isNaN(factor) ? 0 : factor;
+    }
+
+    /** Returns the number of nodes, which are indexed from 0 to this value excluded. */
+    public int getNodeCount() {
+        return m_nodeCount;
+    }
+
+    /** Returns the number of edges, which are indexed from 0 to this value excluded. */
+    public int getEdgeCount() {
+        return m_edgeCount;
+    }
+
+    /** Returns the number of outgoing arcs, two for each edge traversable in both directions. */
+    public int getArcCount() {
+        return m_outTarget.length;
+    }
+
+    /** Returns true if the graph has one way edges, i.e. incoming and outgoing arcs differ. */
+    public boolean isDirected() {
+        return m_inSource != m_outTarget;
+    }
+
+    /** Returns the x coordinate of a node, or NaN if the node location is not known. */
+    public double getX(int node) {
+        return m_x[node];
+    }
+
+    /** Returns the y coordinate of a node, or NaN if the node location is not known. */
+    public double getY(int node) {
+        return m_y[node];
+    }
+
+    /** Returns the index of the first arc leaving the specified node. */
+    public int getOutStart(int node) {
+        return m_outStart[node];
+    }
+
+    /** Returns the index following the last arc leaving the specified node. */
+    public int getOutEnd(int node) {
+        return m_outStart[node + 1];
+    }
+
+    /** Returns the node an outgoing arc leads to. */
+    public int getOutTarget(int arc) {
+        return m_outTarget[arc];
+    }
+
+    /** Returns the weight of an outgoing arc. */
+    public double getOutWeight(int arc) {
+        return m_outWeight[arc];
+    }
+
+    /** Returns the index of the edge an outgoing arc belongs to. */
+    public int getOutEdge(int arc) {
+        return m_outEdge[arc];
+    }
+
+    /** Returns the index of the first arc entering the specified node. */
+    public int getInStart(int node) {
+        return m_inStart[node];
+    }
+
+    /** Returns the index following the last arc entering the specified node. */
+    public int getInEnd(int node) {
+        return m_inStart[node + 1];
+    }
+
+    /** Returns the node an incoming arc comes from. */
+    public int getInSource(int arc) {
+        return m_inSource[arc];
+    }
+
+    /** Returns the weight of an incoming arc. */
+    public double getInWeight(int arc) {
+        return m_inWeight[arc];
+    }
+
+    /** Returns the index of the edge an incoming arc belongs to. */
+    public int getInEdge(int arc) {
+        return m_inEdge[arc];
+    }
+
+    /**
+     * Returns the factor turning the straight line distance between two nodes into a lower bound of
+     * the weight of any path between them, suitable as an A* heuristic. The value is 0 when some
+     * node locations are unknown.
+     */
+    public double getHeuristicFactor() {
+        return m_heuristicFactor;
+    }
+
+    /**
+     * Returns the original node with the specified index, or null if the graph was not created from
+     * a {@link Graph}.
+     */
+    public Node getNode(int node) {
+        return m_nodes == null ? null : m_nodes[node];
+    }
+
+    /**
+     * Returns the original edge with the specified index, or null if the graph was not created from
+     * a {@link Graph}.
+     */
+    public Edge getEdge(int edge) {
+        return m_edges == null ? null : m_edges[edge];
+    }
+
+    /**
+     * Returns the index of an original node, or -1 if the node is not part of the graph or the
+     * graph was not created from a {@link Graph}.
+     */
+    public int getIndex(Node node) {
+        Integer index = m_node2index == null ? null : m_node2index.get(node);
+        return index == null ? -1 : index;
+    }
+}
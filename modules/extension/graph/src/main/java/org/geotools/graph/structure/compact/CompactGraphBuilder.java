@@ -0,0 +1,238 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.structure.compact;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.MultiLineString;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a {@link CompactGraph}. Nodes and edges can be added explicitly, or edges can be added as
+ * LineString geometries, in the same way as with a {@link
+ * org.geotools.graph.build.line.LineStringGraphGenerator}: line end points sharing the same
+ * coordinate are joined into a single node, and the edge weight defaults to the line length.
+ *
+ * <p>Nodes and edges are indexed in the order they are added, the indexes returned by the add
+ * methods are the ones used by the built graph. The builder can be discarded once the graph is
+ * built, unless nodes need to be looked up by coordinate.
+ *
+ * @since 20
+ */
+public class CompactGraphBuilder {
+
+    private int m_nodeCount;
+
+    private double[] m_x = new double[16];
+
+    private double[] m_y = new double[16];
+
+    private int m_edgeCount;
+
+    private int[] m_from = new int[16];
+
+    private int[] m_to = new int[16];
+
+    private double[] m_weight = new double[16];
+
+    private BitSet m_oneWay = new BitSet();
+
+    private Map<Coordinate, Integer> m_coord2index;
+
+    /**
+     * Adds a node.
+     *
+     * @return The node index.
+     */
+    public int addNode(double x, double y) {
+        if (m_nodeCount == m_x.length) {
+            int capacity = m_x.length * 2;
+            m_x = Arrays.copyOf(m_x, capacity);
+            m_y = Arrays.copyOf(m_y, capacity);
+        }
+        m_x[m_nodeCount] = x;
+        m_y[m_nodeCount] = y;
+        return m_nodeCount++;
+    }
+
+    /**
+     * Returns the index of the node located at the specified coordinate, or -1 if no line added to
+     * the builder starts or ends there.
+     */
+    public int getNode(Coordinate c) {
+        Integer index = m_coord2index == null ? null : m_coord2index.get(c);
+        return index == null ? -1 : index;
+    }
+
+    private int getOrAddNode(Coordinate c) {
+        if (m_coord2index == null) {
+            m_coord2index = new HashMap<Coordinate, Integer>();
+        }
+        Integer index = m_coord2index.get(c);
+        if (index == null) {
+            index = addNode(c.x, c.y);
+            m_coord2index.put(new Coordinate(c.x, c.y), index);
+        }
+        return index;
+    }
+
+    /**
+     * Adds an edge between two nodes.
+     *
+     * @param from The index of the first node.
+     * @param to The index of the second node.
+     * @param weight The edge weight, must not be negative.
+     * @param oneWay If true the edge can only be traversed from the first node to the second one.
+     * @return The edge index.
+     */
+    public int addEdge(int from, int to, double weight, boolean oneWay) {
+        if (from < 0 || from >= m_nodeCount || to < 0 || to >= m_nodeCount) {
+            throw new IllegalArgumentException("Unknown node: " + (from < 0 ? from : to));
+        }
+        if (!(weight >= 0)) {
+            throw new IllegalArgumentException("Invalid edge weight: " + weight);
+        }
+        if (m_edgeCount == m_from.length) {
+            int capacity = m_from.length * 2;
+            m_from = Arrays.copyOf(m_from, capacity);
+            m_to = Arrays.copyOf(m_to, capacity);
+            m_weight = Arrays.copyOf(m_weight, capacity);
+        }
+        m_from[m_edgeCount] = from;
+        m_to[m_edgeCount] = to;
+        m_weight[m_edgeCount] = weight;
+        if (oneWay) {
+            m_oneWay.set(m_edgeCount);
+        }
+        return m_edgeCount++;
+    }
+
+    /**
+     * Adds a line, traversable in both directions, weighted by its length.
+     *
+     * @return The edge index.
+     */
+    public int add(LineString line) {
+        return add(line, line.getLength(), false);
+    }
+
+    /**
+     * Adds a line.
+     *
+     * @param line The line, its end points are the edge nodes.
+     * @param weight The edge weight, must not be negative.
+     * @param oneWay If true the edge can only be traversed in the line direction.
+     * @return The edge index.
+     */
+    public int add(LineString line, double weight, boolean oneWay) {
+        return addEdge(
+                getOrAddNode(line.getCoordinateN(0)),
+                getOrAddNode(line.getCoordinateN(line.getNumPoints() - 1)),
+                weight,
+                oneWay);
+    }
+
+    /**
+     * Adds the first line of a MultiLineString, traversable in both directions, weighted by its
+     * length.
+     *
+     * @return The edge index.
+     */
+    public int add(MultiLineString lines) {
+        return add((LineString) lines.getGeometryN(0));
+    }
+
+    /** Builds the graph from the nodes and edges added so far. */
+    public CompactGraph build() {
+        int n = m_nodeCount;
+        int arcs = 2 * m_edgeCount - m_oneWay.cardinality();
+        double[] x = Arrays.copyOf(m_x, n);
+        double[] y = Arrays.copyOf(m_y, n);
+
+        int[] outStart = new int[n + 1];
+        int[] outTarget = new int[arcs];
+        double[] outWeight = new double[arcs];
+        int[] outEdge = new int[arcs];
+        fill(false, outStart, outTarget, outWeight, outEdge);
+        if (m_oneWay.isEmpty()) {
+            // incoming arcs are the same as the outgoing ones
+            return new CompactGraph(
+                    n,
+                    m_edgeCount,
+                    x,
+                    y,
+                    outStart,
+                    outTarget,
+                    outWeight,
+                    outEdge,
+                    outStart,
+                    outTarget,
+                    outWeight,
+                    outEdge);
+        }
+
+        int[] inStart = new int[n + 1];
+        int[] inSource = new int[arcs];
+        double[] inWeight = new double[arcs];
+        int[] inEdge = new int[arcs];
+        fill(true, inStart, inSource, inWeight, inEdge);
+        return new CompactGraph(
+                n,
+                m_edgeCount,
+                x,
+                y,
+                outStart,
+                outTarget,
+                outWeight,
+                outEdge,
+                inStart,
+                inSource,
+                inWeight,
+                inEdge);
+    }
+
+    /** Sorts the arcs by node with a counting sort, keeping the edge order within each node. */
+    private void fill(boolean incoming, int[] start, int[] other, double[] weight, int[] edge) {
+        for (int e = 0; e < m_edgeCount; e++) {
+            start[(incoming ? m_to[e] : m_from[e]) + 1]++;
+            if (!m_oneWay.get(e)) {
+                start[(incoming ? m_from[e] : m_to[e]) + 1]++;
+            }
+        }
+        for (int i = 0; i < m_nodeCount; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] next = Arrays.copyOf(start, m_nodeCount);
+        for (int e = 0; e < m_edgeCount; e++) {
+            int a = incoming ? m_to[e] : m_from[e];
+            int b = incoming ? m_from[e] : m_to[e];
+            int i = next[a]++;
+            other[i] = b;
+            weight[i] = m_weight[e];
+            edge[i] = e;
+            if (!m_oneWay.get(e)) {
+                i = next[b]++;
+                other[i] = a;
+                weight[i] = m_weight[e];
+                edge[i] = e;
+            }
+        }
+    }
+}
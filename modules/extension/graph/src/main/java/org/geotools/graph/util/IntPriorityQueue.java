@@ -0,0 +1,113 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min heap of int values ordered by double keys, backed by primitive arrays. Unlike {@link
+ * PriorityQueue} no wrapper objects are created and there is no decrease key operation: shortest
+ * path searches simply insert a value again with its smaller key and skip the stale entries when
+ * they are extracted.
+ *
+ * @since 20
+ */
+public class IntPriorityQueue {
+
+    private int[] m_values;
+
+    private double[] m_keys;
+
+    private int m_count;
+
+    /** Constructs an empty queue with the specified initial capacity. */
+    public IntPriorityQueue(int capacity) {
+        capacity = Math.max(capacity, 16);
+        m_values = new int[capacity];
+        m_keys = new double[capacity];
+    }
+
+    /** Inserts a value with the specified key. */
+    public void insert(int value, double key) {
+        if (m_count == m_values.length) {
+            int capacity = m_values.length + (m_values.length >> 1);
+            m_values = Arrays.copyOf(m_values, capacity);
+            m_keys = Arrays.copyOf(m_keys, capacity);
+        }
+        int i = m_count++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (m_keys[parent] <= key) {
+                break;
+            }
+            m_values[i] = m_values[parent];
+            m_keys[i] = m_keys[parent];
+            i = parent;
+        }
+        m_values[i] = value;
+        m_keys[i] = key;
+    }
+
+    /** Removes and returns the value with the smallest key. */
+    public int extract() {
+        if (m_count == 0) throw new NoSuchElementException("Heap empty.");
+
+        int root = m_values[0];
+        int count = --m_count;
+        if (count > 0) {
+            int value = m_values[count];
+            double key = m_keys[count];
+            int i = 0;
+            int child;
+            while ((child = 2 * i + 1) < count) {
+                if (child + 1 < count && m_keys[child + 1] < m_keys[child]) {
+                    child++;
+                }
+                if (key <= m_keys[child]) {
+                    break;
+                }
+                m_values[i] = m_values[child];
+                m_keys[i] = m_keys[child];
+                i = child;
+            }
+            m_values[i] = value;
+            m_keys[i] = key;
+        }
+        return root;
+    }
+
+    /** Returns the smallest key in the queue. */
+    public double getRootKey() {
+        if (m_count == 0) throw new NoSuchElementException("Heap empty.");
+
+        return m_keys[0];
+    }
+
+    public int size() {
+        return m_count;
+    }
+
+    public boolean isEmpty() {
+        return m_count == 0;
+    }
+
+    /** Removes all the values, keeping the allocated arrays. */
+    public void clear() {
+        m_count = 0;
+    }
+}
@@ -23,5 +23,7 @@ public class AllTests extends TestSuite {
     public AllTests() {
         super();
         addTest(new TestSuite(WalkTest.class));
+        addTest(new TestSuite(CompactShortestPathFinderTest.class));
+        addTest(new TestSuite(ContractionHierarchyTest.class));
     }
 }
@@ -0,0 +1,101 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.path;
+
+import java.util.Random;
+import org.geotools.graph.structure.Graph;
+import org.geotools.graph.structure.Node;
+import org.geotools.graph.structure.compact.CompactGraph;
+import org.geotools.graph.traverse.standard.DijkstraIterator;
+
+/**
+ * Compares the query times of {@link CompactShortestPathFinder} against {@link
+ * DijkstraShortestPathFinder} on a synthetic grid network. Not a test, run it manually with the
+ * grid size and the number of queries as optional arguments.
+ */
+public class CompactShortestPathFinderBenchmark {
+
+    public static void main(String[] args) {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        long start = System.nanoTime();
+        Graph graph = CompactShortestPathFinderTest.buildGrid(size);
+        DijkstraIterator.EdgeWeighter weighter = CompactShortestPathFinderTest.weighter();
+        System.out.printf(
+                "Grid of %d nodes, %d edges built in %d ms%n",
+                graph.getNodes().size(),
+                graph.getEdges().size(),
+                (System.nanoTime() - start) / 1000000);
+        start = System.nanoTime();
+        CompactGraph compact = CompactGraph.create(graph, weighter);
+        System.out.printf("Compact graph built in %d ms%n", (System.nanoTime() - start) / 1000000);
+
+        Node[] nodes = (Node[]) graph.getNodes().toArray(new Node[0]);
+        CompactShortestPathFinder finder = new CompactShortestPathFinder(compact);
+        for (int run = 0; run < 3; run++) {
+            Random random = new Random(run);
+            long reference = 0, dijkstra = 0, astar = 0, bidirectional = 0;
+            long settledDijkstra = 0, settledAStar = 0, settledBidirectional = 0;
+            for (int q = 0; q < queries; q++) {
+                Node source = nodes[random.nextInt(nodes.length)];
+                Node target = nodes[random.nextInt(nodes.length)];
+                int s = compact.getIndex(source);
+                int t = compact.getIndex(target);
+
+                start = System.nanoTime();
+                DijkstraShortestPathFinder pfinder =
+                        new DijkstraShortestPathFinder(graph, source, weighter);
+                pfinder.calculate();
+                double expected = pfinder.getCost(target);
+                reference += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                check(expected, finder.dijkstra(s, t));
+                dijkstra += System.nanoTime() - start;
+                settledDijkstra += finder.getSettledCount();
+
+                start = System.nanoTime();
+                check(expected, finder.aStar(s, t));
+                astar += System.nanoTime() - start;
+                settledAStar += finder.getSettledCount();
+
+                start = System.nanoTime();
+                check(expected, finder.bidirectional(s, t));
+                bidirectional += System.nanoTime() - start;
+                settledBidirectional += finder.getSettledCount();
+            }
+            System.out.printf(
+                    "DijkstraShortestPathFinder %.2f ms/query, compact Dijkstra %.2f ms/query "
+                            + "(%d settled), A* %.2f ms/query (%d settled), "
+                            + "bidirectional %.2f ms/query (%d settled)%n",
+                    reference / 1e6 / queries,
+                    dijkstra / 1e6 / queries,
+                    settledDijkstra / queries,
+                    astar / 1e6 / queries,
+                    settledAStar / queries,
+                    bidirectional / 1e6 / queries,
+                    settledBidirectional / queries);
+        }
+    }
+
+    static void check(double expected, double actual) {
+        if (Math.abs(expected - actual) > 1e-6) {
+            throw new IllegalStateException("Expected cost " + expected + " but got " + actual);
+        }
+    }
+}
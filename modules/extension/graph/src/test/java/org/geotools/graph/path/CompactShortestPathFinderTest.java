@@ -0,0 +1,194 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.path;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import java.util.Iterator;
+import java.util.Random;
+import junit.framework.TestCase;
+import org.geotools.graph.build.line.LineStringGraphGenerator;
+import org.geotools.graph.structure.Edge;
+import org.geotools.graph.structure.Graph;
+import org.geotools.graph.structure.Node;
+import org.geotools.graph.structure.compact.CompactGraph;
+import org.geotools.graph.structure.compact.CompactGraphBuilder;
+import org.geotools.graph.traverse.standard.DijkstraIterator;
+
+public class CompactShortestPathFinderTest extends TestCase {
+
+    static final GeometryFactory GF = new GeometryFactory();
+
+    /** Builds a size x size grid network of unit segments. */
+    static Graph buildGrid(int size) {
+        LineStringGraphGenerator generator = new LineStringGraphGenerator();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i + 1 < size) generator.add(line(i, j, i + 1, j));
+                if (j + 1 < size) generator.add(line(i, j, i, j + 1));
+            }
+        }
+        return generator.getGraph();
+    }
+
+    static LineString line(double x0, double y0, double x1, double y1) {
+        return GF.createLineString(
+                new Coordinate[] {new Coordinate(x0, y0), new Coordinate(x1, y1)});
+    }
+
+    /** Weights segments by their length times a factor varying between 1 and 2 */
+    static DijkstraIterator.EdgeWeighter weighter() {
+        return new DijkstraIterator.EdgeWeighter() {
+            public double getWeight(Edge e) {
+                LineString ls = (LineString) e.getObject();
+                Coordinate c = ls.getCentroid().getCoordinate();
+                return ls.getLength() * (1 + Math.abs(Math.sin(c.x * 7 + c.y * 3)));
+            }
+        };
+    }
+
+    public void testAgainstDijkstraShortestPathFinder() {
+        Graph graph = buildGrid(20);
+        DijkstraIterator.EdgeWeighter weighter = weighter();
+        CompactGraph compact = CompactGraph.create(graph, weighter);
+        assertEquals(400, compact.getNodeCount());
+        assertEquals(760, compact.getEdgeCount());
+        assertEquals(1520, compact.getArcCount());
+        assertFalse(compact.isDirected());
+        // weights are at least the segment lengths
+        assertTrue(compact.getHeuristicFactor() >= 1 && compact.getHeuristicFactor() < 1.1);
+
+        Node[] nodes = (Node[]) graph.getNodes().toArray(new Node[0]);
+        CompactShortestPathFinder finder = new CompactShortestPathFinder(compact);
+        Random random = new Random(0);
+        for (int q = 0; q < 20; q++) {
+            Node source = nodes[random.nextInt(nodes.length)];
+            Node target = nodes[random.nextInt(nodes.length)];
+            DijkstraShortestPathFinder reference =
+                    new DijkstraShortestPathFinder(graph, source, weighter);
+            reference.calculate();
+            double expected = reference.getCost(target);
+
+            int s = compact.getIndex(source);
+            int t = compact.getIndex(target);
+            assertEquals(expected, finder.dijkstra(s, t), 1e-9);
+            assertPath(compact, finder, s, t);
+            assertEquals(expected, finder.aStar(s, t), 1e-9);
+            assertPath(compact, finder, s, t);
+            assertEquals(expected, finder.bidirectional(s, t), 1e-9);
+            assertPath(compact, finder, s, t);
+
+            Path path = finder.getPath();
+            assertTrue(path.isValid());
+            assertSame(source, path.getFirst());
+            assertSame(target, path.getLast());
+        }
+    }
+
+    /** Checks the node and edge paths are consistent and add up to the cost */
+    void assertPath(CompactGraph graph, CompactShortestPathFinder finder, int s, int t) {
+        int[] nodes = finder.getNodePath();
+        int[] edges = finder.getEdgePath();
+        assertEquals(s, nodes[0]);
+        assertEquals(t, nodes[nodes.length - 1]);
+        assertEquals(nodes.length - 1, edges.length);
+        double cost = 0;
+        for (int i = 0; i < edges.length; i++) {
+            boolean found = false;
+            for (int a = graph.getOutStart(nodes[i]); a < graph.getOutEnd(nodes[i]); a++) {
+                if (graph.getOutEdge(a) == edges[i] && graph.getOutTarget(a) == nodes[i + 1]) {
+                    cost += graph.getOutWeight(a);
+                    found = true;
+                    break;
+                }
+            }
+            assertTrue(found);
+        }
+        assertEquals(finder.getCost(), cost, 1e-9);
+    }
+
+    public void testOneWay() {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        for (int i = 0; i < 4; i++) {
+            builder.addNode(i, 0);
+        }
+        builder.addEdge(0, 1, 1, true);
+        builder.addEdge(1, 2, 1, true);
+        builder.addEdge(2, 3, 1, true);
+        builder.addEdge(3, 0, 1, true);
+        builder.addEdge(0, 2, 1.5, false);
+        CompactGraph graph = builder.build();
+        assertTrue(graph.isDirected());
+        assertEquals(6, graph.getArcCount());
+
+        CompactShortestPathFinder finder = new CompactShortestPathFinder(graph);
+        assertEquals(1.5, finder.dijkstra(0, 2), 0);
+        assertEquals(1, finder.bidirectional(0, 1), 0);
+        assertPath(graph, finder, 0, 1);
+        // going back takes the two way edge rather than going round
+        assertEquals(2.5, finder.dijkstra(1, 0), 0);
+        assertEquals(2.5, finder.bidirectional(1, 0), 0);
+        assertPath(graph, finder, 1, 0);
+        assertEquals(2.5, finder.aStar(2, 1), 0);
+        assertPath(graph, finder, 2, 1);
+        assertEquals(1.5, finder.bidirectional(2, 0), 0);
+        assertPath(graph, finder, 2, 0);
+        assertEquals(0, finder.bidirectional(3, 3), 0);
+        assertEquals(1, finder.getNodePath().length);
+    }
+
+    public void testUnreachable() {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        builder.add(line(0, 0, 1, 0));
+        builder.add(line(1, 0, 1, 1));
+        builder.add(line(5, 5, 6, 6));
+        CompactGraph graph = builder.build();
+        assertEquals(5, graph.getNodeCount());
+        int s = builder.getNode(new Coordinate(0, 0));
+        int t = builder.getNode(new Coordinate(6, 6));
+        assertEquals(-1, builder.getNode(new Coordinate(3, 3)));
+
+        CompactShortestPathFinder finder = new CompactShortestPathFinder(graph);
+        assertEquals(2, finder.aStar(s, builder.getNode(new Coordinate(1, 1))), 0);
+        assertTrue(Double.isInfinite(finder.dijkstra(s, t)));
+        assertNull(finder.getNodePath());
+        assertTrue(Double.isInfinite(finder.aStar(s, t)));
+        assertTrue(Double.isInfinite(finder.bidirectional(s, t)));
+        assertNull(finder.getEdgePath());
+        assertNull(finder.getPath());
+    }
+
+    public void testAStarSettlesFewerNodes() {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        Graph graph = buildGrid(30);
+        for (Iterator itr = graph.getEdges().iterator(); itr.hasNext(); ) {
+            builder.add((LineString) ((Edge) itr.next()).getObject());
+        }
+        CompactGraph compact = builder.build();
+        int s = builder.getNode(new Coordinate(0, 0));
+        int t = builder.getNode(new Coordinate(29, 29));
+
+        CompactShortestPathFinder finder = new CompactShortestPathFinder(compact);
+        assertEquals(58, finder.dijkstra(s, t), 1e-9);
+        int dijkstra = finder.getSettledCount();
+        assertEquals(58, finder.aStar(s, t), 1e-9);
+        assertTrue(finder.getSettledCount() <= dijkstra);
+        assertEquals(58, finder.bidirectional(s, t), 1e-9);
+        assertTrue(finder.getSettledCount() <= dijkstra);
+    }
+}
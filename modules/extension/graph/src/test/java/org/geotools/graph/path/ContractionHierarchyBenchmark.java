@@ -0,0 +1,125 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.path;
+
+import com.vividsolutions.jts.geom.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import org.geotools.graph.structure.Graph;
+import org.geotools.graph.structure.Node;
+import org.geotools.graph.structure.compact.CompactGraph;
+import org.geotools.graph.traverse.standard.AStarIterator;
+import org.geotools.graph.traverse.standard.AStarIterator.AStarNode;
+import org.geotools.graph.traverse.standard.DijkstraIterator;
+
+/**
+ * Measures the preprocessing time, size and query latency of a {@link ContractionHierarchy} on a
+ * synthetic grid network, against {@link CompactShortestPathFinder} and {@link
+ * AStarShortestPathFinder}. Not a test, run it manually with the grid size and the number of
+ * queries as optional arguments.
+ */
+public class ContractionHierarchyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        Graph graph = CompactShortestPathFinderTest.buildGrid(size);
+        final DijkstraIterator.EdgeWeighter weighter = CompactShortestPathFinderTest.weighter();
+        CompactGraph compact = CompactGraph.create(graph, weighter);
+
+        long start = System.nanoTime();
+        ContractionHierarchy ch = ContractionHierarchy.build(compact);
+        System.out.printf(
+                "%d nodes, %d edges contracted in %d ms, %d shortcuts%n",
+                ch.getNodeCount(),
+                ch.getEdgeCount(),
+                (System.nanoTime() - start) / 1000000,
+                ch.getShortcutCount());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ch.write(bytes);
+        start = System.nanoTime();
+        ch = ContractionHierarchy.read(new ByteArrayInputStream(bytes.toByteArray()), compact);
+        System.out.printf(
+                "Serialized to %d KB, read back in %d ms%n",
+                bytes.size() / 1024, (System.nanoTime() - start) / 1000000);
+
+        Node[] nodes = (Node[]) graph.getNodes().toArray(new Node[0]);
+        ContractionHierarchyShortestPathFinder finder =
+                new ContractionHierarchyShortestPathFinder(ch);
+        CompactShortestPathFinder compactFinder = new CompactShortestPathFinder(compact);
+        for (int run = 0; run < 3; run++) {
+            Random random = new Random(run);
+            long hierarchy = 0, bidirectional = 0, astar = 0;
+            long settledHierarchy = 0, settledBidirectional = 0;
+            for (int q = 0; q < queries; q++) {
+                int s = random.nextInt(nodes.length);
+                int t = random.nextInt(nodes.length);
+
+                start = System.nanoTime();
+                double cost = finder.calculate(s, t);
+                finder.getEdgePath();
+                hierarchy += System.nanoTime() - start;
+                settledHierarchy += finder.getSettledCount();
+
+                start = System.nanoTime();
+                CompactShortestPathFinderBenchmark.check(cost, compactFinder.bidirectional(s, t));
+                compactFinder.getEdgePath();
+                bidirectional += System.nanoTime() - start;
+                settledBidirectional += compactFinder.getSettledCount();
+
+                // the object graph search is much slower, only sample it
+                if (q % 50 == 0) {
+                    start = System.nanoTime();
+                    AStarShortestPathFinder afinder =
+                            new AStarShortestPathFinder(
+                                    graph,
+                                    compact.getNode(s),
+                                    compact.getNode(t),
+                                    functions(compact.getNode(t), weighter));
+                    afinder.calculate();
+                    afinder.getPath();
+                    astar += System.nanoTime() - start;
+                }
+            }
+            System.out.printf(
+                    "Contraction hierarchy %.1f us/query (%d settled), compact bidirectional "
+                            + "%.1f us/query (%d settled), AStarShortestPathFinder %.1f us/query%n",
+                    hierarchy / 1e3 / queries,
+                    settledHierarchy / queries,
+                    bidirectional / 1e3 / queries,
+                    settledBidirectional / queries,
+                    astar / 1e3 / ((queries + 49) / 50));
+        }
+    }
+
+    static AStarIterator.AStarFunctions functions(
+            Node target, final DijkstraIterator.EdgeWeighter weighter) {
+        return new AStarIterator.AStarFunctions(target) {
+            public double cost(AStarNode n1, AStarNode n2) {
+                return weighter.getWeight(n1.getNode().getEdge(n2.getNode()));
+            }
+
+            public double h(Node n) {
+                // weights are never smaller than the segment lengths
+                return ((Point) n.getObject()).distance((Point) getDest().getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.graph.path;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+import org.geotools.graph.structure.Graph;
+import org.geotools.graph.structure.Node;
+import org.geotools.graph.structure.compact.CompactGraph;
+import org.geotools.graph.structure.compact.CompactGraphBuilder;
+
+public class ContractionHierarchyTest extends TestCase {
+
+    public void testAgainstCompactShortestPathFinder() {
+        Graph graph = CompactShortestPathFinderTest.buildGrid(25);
+        ContractionHierarchy ch =
+                ContractionHierarchy.build(graph, CompactShortestPathFinderTest.weighter());
+        CompactGraph compact = ch.getGraph();
+        assertEquals(625, ch.getNodeCount());
+        assertEquals(1200, ch.getEdgeCount());
+        assertTrue(ch.getShortcutCount() > 0);
+
+        CompactShortestPathFinder reference = new CompactShortestPathFinder(compact);
+        ContractionHierarchyShortestPathFinder finder =
+                new ContractionHierarchyShortestPathFinder(ch);
+        Random random = new Random(0);
+        for (int q = 0; q < 200; q++) {
+            int s = random.nextInt(625);
+            int t = random.nextInt(625);
+            double expected = reference.dijkstra(s, t);
+            assertEquals(expected, finder.calculate(s, t), 1e-9);
+            assertPath(compact, finder, s, t);
+        }
+
+        // corner to corner, the hierarchy settles far fewer nodes
+        Node source = compact.getNode(0);
+        int s = 0;
+        int t = 624;
+        reference.dijkstra(s, t);
+        finder.calculate(s, t);
+        assertTrue(finder.getSettledCount() < reference.getSettledCount());
+        Path path = finder.getPath();
+        assertTrue(path.isValid());
+        assertSame(source, path.getFirst());
+        assertSame(compact.getNode(t), path.getLast());
+    }
+
+    /** Checks the node and edge paths are consistent and add up to the cost */
+    void assertPath(
+            CompactGraph graph, ContractionHierarchyShortestPathFinder finder, int s, int t) {
+        int[] nodes = finder.getNodePath();
+        int[] edges = finder.getEdgePath();
+        assertEquals(s, nodes[0]);
+        assertEquals(t, nodes[nodes.length - 1]);
+        assertEquals(nodes.length - 1, edges.length);
+        double cost = 0;
+        for (int i = 0; i < edges.length; i++) {
+            double weight = Double.NaN;
+            for (int a = graph.getOutStart(nodes[i]); a < graph.getOutEnd(nodes[i]); a++) {
+                if (graph.getOutEdge(a) == edges[i] && graph.getOutTarget(a) == nodes[i + 1]) {
+                    weight = graph.getOutWeight(a);
+                    break;
+                }
+            }
+            assertFalse(Double.isNaN(weight));
+            cost += weight;
+        }
+        assertEquals(finder.getCost(), cost, 1e-9);
+    }
+
+    public void testDirected() {
+        // a random network with one way edges and some unreachable nodes
+        Random random = new Random(1);
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        int n = 300;
+        for (int i = 0; i < n; i++) {
+            builder.addNode(random.nextDouble(), random.nextDouble());
+        }
+        for (int i = 0; i < 700; i++) {
+            builder.addEdge(
+                    random.nextInt(n),
+                    random.nextInt(n - 10),
+                    random.nextInt(10),
+                    random.nextBoolean());
+        }
+        CompactGraph graph = builder.build();
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+
+        CompactShortestPathFinder reference = new CompactShortestPathFinder(graph);
+        ContractionHierarchyShortestPathFinder finder =
+                new ContractionHierarchyShortestPathFinder(ch);
+        int unreachable = 0;
+        for (int s = 0; s < n; s += 7) {
+            for (int t = 0; t < n; t += 3) {
+                double expected = reference.dijkstra(s, t);
+                assertEquals(expected, finder.calculate(s, t), 1e-9);
+                if (Double.isInfinite(expected)) {
+                    unreachable++;
+                    assertNull(finder.getNodePath());
+                    assertNull(finder.getEdgePath());
+                } else {
+                    assertPath(graph, finder, s, t);
+                }
+            }
+        }
+        assertTrue(unreachable > 0);
+        // no original nodes to build a path with
+        finder.calculate(0, 0);
+        assertEquals(0, finder.getCost(), 0);
+        assertEquals(1, finder.getNodePath().length);
+        assertNull(finder.getPath());
+    }
+
+    public void testWriteRead() throws IOException {
+        Graph graph = CompactShortestPathFinderTest.buildGrid(10);
+        ContractionHierarchy ch =
+                ContractionHierarchy.build(graph, CompactShortestPathFinderTest.weighter());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ch.write(bytes);
+
+        ContractionHierarchy read =
+                ContractionHierarchy.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertNull(read.getGraph());
+        assertEquals(ch.getShortcutCount(), read.getShortcutCount());
+        ContractionHierarchyShortestPathFinder expected =
+                new ContractionHierarchyShortestPathFinder(ch);
+        ContractionHierarchyShortestPathFinder actual =
+                new ContractionHierarchyShortestPathFinder(read);
+        for (int s = 0; s < 100; s += 9) {
+            for (int t = 0; t < 100; t += 11) {
+                assertEquals(expected.calculate(s, t), actual.calculate(s, t), 0);
+                assertEquals(
+                        Arrays.toString(expected.getEdgePath()),
+                        Arrays.toString(actual.getEdgePath()));
+                assertNull(actual.getPath());
+            }
+        }
+
+        read =
+                ContractionHierarchy.read(
+                        new ByteArrayInputStream(bytes.toByteArray()), ch.getGraph());
+        actual = new ContractionHierarchyShortestPathFinder(read);
+        actual.calculate(0, 99);
+        assertTrue(actual.getPath().isValid());
+
+        try {
+            ContractionHierarchy.read(
+                    new ByteArrayInputStream(bytes.toByteArray()),
+                    CompactGraph.create(
+                            CompactShortestPathFinderTest.buildGrid(5),
+                            CompactShortestPathFinderTest.weighter()));
+            fail("The graph does not match the hierarchy");
+        } catch (IllegalArgumentException e) {
+            // fine
+        }
+        try {
+            ContractionHierarchy.read(new ByteArrayInputStream(new byte[16]));
+            fail("Not a hierarchy");
+        } catch (IOException e) {
+            // fine
+        }
+    }
+}
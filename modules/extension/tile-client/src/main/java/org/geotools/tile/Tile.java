@@ -23,10 +23,13 @@ import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.image.io.ImageIOExt;
+import org.geotools.tile.util.TileCache;
 import org.geotools.util.logging.Logging;
 
 /**
@@ -155,7 +158,8 @@ public abstract class Tile implements ImageLoader {
 
         // TODO REVIEW this getter has side effects!
 
-        if (isImageLoadedOK()) {
+        // a tile cache keeps the image as long as it is fresh, and revalidates it afterwards
+        if (isImageLoadedOK() && !(imageLoader instanceof TileCache)) {
             return this.tileImage;
         }
 
@@ -181,7 +185,7 @@ public abstract class Tile implements ImageLoader {
      *
      * @return the tile image
      */
-    private boolean isImageLoadedOK() {
+    public boolean isImageLoadedOK() {
         return this.renderState == RenderState.RENDERED && this.tileImage != null;
     }
 
@@ -403,4 +407,12 @@ public abstract class Tile implements ImageLoader {
     }
 
     public abstract URL getUrl();
+
+    /**
+     * The extra HTTP headers to be sent when fetching this tile, used by loaders such as {@link
+     * org.geotools.tile.util.TileCache}. By default no extra header is sent.
+     */
+    public Map<String, String> getRequestHeaders() {
+        return Collections.emptyMap();
+    }
 }
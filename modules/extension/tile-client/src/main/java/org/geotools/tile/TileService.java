@@ -29,6 +29,7 @@ import org.geotools.referencing.CRS;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.tile.impl.ScaleZoomLevelMatcher;
 import org.geotools.tile.impl.ZoomLevel;
+import org.geotools.tile.util.TileCache;
 import org.geotools.util.ObjectCache;
 import org.geotools.util.ObjectCaches;
 import org.geotools.util.logging.Logging;
@@ -57,6 +58,9 @@ public abstract class TileService {
      */
     private ObjectCache tiles = ObjectCaches.create("soft", 50); // $NON-NLS-1$
 
+    /** The optional cache used to load the tile images */
+    private TileCache tileCache;
+
     private String baseURL;
 
     private String name;
@@ -335,8 +339,14 @@ public abstract class TileService {
      *
      * <p>Subclasses services (such as WMTS) may have some more hints about the tile TTL, so a more
      * controllable cache should be implemented in these cases.
+     *
+     * <p>When a {@link TileCache} has been set, it is used to load the images of the returned
+     * tiles.
      */
     protected Tile addTileToCache(Tile tile) {
+        if (tileCache != null) {
+            tile.setImageLoader(tileCache);
+        }
         String id = tile.getId();
         boolean isInCache = !(tiles.peek(id) == null || tiles.get(id) == null);
 
@@ -354,6 +364,21 @@ public abstract class TileService {
         }
     }
 
+    /** The cache used to load the tile images, or null if tiles are loaded directly */
+    public TileCache getTileCache() {
+        return tileCache;
+    }
+
+    /**
+     * Sets the cache used to load the tile images. The cache honours the HTTP caching headers
+     * returned by the server, and can be shared among services.
+     *
+     * @param tileCache the cache, or null to load tiles directly
+     */
+    public void setTileCache(TileCache tileCache) {
+        this.tileCache = tileCache;
+    }
+
     /**
      * Returns a list that represents a mapping between zoom-levels and map scale.
      *
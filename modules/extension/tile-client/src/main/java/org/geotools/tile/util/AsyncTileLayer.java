@@ -19,73 +19,46 @@ package org.geotools.tile.util;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
-import java.awt.image.BufferedImage;
 import java.util.Collection;
-import java.util.concurrent.CountDownLatch;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.tile.Tile;
 import org.geotools.tile.TileService;
-import org.opengis.referencing.FactoryException;
-import org.opengis.referencing.operation.TransformException;
 
 /**
- * This Layer is an attempt to speed rendering by using a CountDownLatch and threads to render each
- * tile. The performance improvement is minimal, though.
+ * A {@link TileLayer} fetching its tiles in parallel, using the {@link TileFetcher#getDefault()
+ * shared fetcher}, and prefetching the tiles around the viewport. Tiles are drawn on the rendering
+ * thread as they become available.
  *
  * @author Ugo Taddei
  * @since 12
  */
 public class AsyncTileLayer extends TileLayer {
 
-    private CountDownLatch countDownLatch;
-
     public AsyncTileLayer(TileService service) {
         super(service);
+        setTileFetcher(TileFetcher.getDefault());
+        setPrefetchMargin(0.25);
     }
 
+    /**
+     * Renders a single tile on the rendering thread. Only invoked when the {@link TileFetcher} has
+     * been removed, tiles fetched in parallel are drawn as they become available instead.
+     *
+     * @deprecated tiles are no longer rendered by a thread each, see {@link #setTileFetcher}
+     */
+    @Deprecated
     @Override
-    protected void renderTiles(
-            Collection<Tile> tiles,
-            Graphics2D g2d,
-            ReferencedEnvelope viewportExtent,
-            AffineTransform worldToImageTransform) {
-
-        long t = System.currentTimeMillis();
-
-        this.countDownLatch = new CountDownLatch(tiles.size());
-
-        localRenderTiles(tiles, g2d, viewportExtent, worldToImageTransform);
-        try {
-            this.countDownLatch.await();
-        } catch (InterruptedException ie) {
-            ie.printStackTrace();
-        }
-        this.countDownLatch = null;
-    }
-
     protected void renderTile(final Tile tile, final Graphics2D g2d, final double[] points) {
-
-        Runnable r =
-                new Runnable() {
-
-                    @Override
-                    public void run() {
-                        BufferedImage img = getTileImage(tile);
-
-                        g2d.drawImage(
-                                img,
-                                (int) points[0],
-                                (int) points[1],
-                                (int) Math.ceil(points[2] - points[0]),
-                                (int) Math.ceil(points[3] - points[1]),
-                                null);
-
-                        AsyncTileLayer.this.countDownLatch.countDown();
-                    }
-                };
-        new Thread(r).start();
+        super.renderTile(tile, g2d, points);
     }
 
+    /**
+     * Renders the tiles one by one on the calling thread, through {@link #renderTile}.
+     *
+     * @deprecated tiles are fetched in parallel by the {@link TileFetcher}, see {@link
+     *     #setTileFetcher}
+     */
+    @Deprecated
     protected void localRenderTiles(
             Collection<Tile> tiles,
             Graphics2D g2d,
@@ -95,25 +68,9 @@ public class AsyncTileLayer extends TileLayer {
         g2d.setRenderingHint(
                 RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
+        double[] points = new double[4];
         for (Tile tile : tiles) {
-            ReferencedEnvelope nativeTileEnvelope = tile.getExtent();
-
-            ReferencedEnvelope tileEnvViewport;
-            try {
-                tileEnvViewport =
-                        nativeTileEnvelope.transform(
-                                viewportExtent.getCoordinateReferenceSystem(), true);
-            } catch (TransformException | FactoryException e) {
-                throw new RuntimeException(e);
-            }
-            double[] points = new double[4];
-            points[0] = tileEnvViewport.getMinX();
-            points[3] = tileEnvViewport.getMinY();
-            points[2] = tileEnvViewport.getMaxX();
-            points[1] = tileEnvViewport.getMaxY();
-
-            worldToImageTransform.transform(points, 0, points, 0, 2);
-
+            getScreenPoints(tile, viewportExtent, worldToImageTransform, points);
             renderTile(tile, g2d, points);
         }
     }
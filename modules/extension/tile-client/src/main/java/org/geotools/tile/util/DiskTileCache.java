@@ -0,0 +1,366 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.tile.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+
+/**
+ * The disk tier of a {@link TileCache}. Each tile is stored, along with its expiration time and
+ * HTTP validators, in a single entry file, placed in one of 256 sub-directories according to the
+ * hash of the tile key.
+ *
+ * <p>Entries are written to a temporary file first, and then atomically renamed into place, so
+ * that concurrent readers always see a complete entry. The total size of the entries is kept
+ * below the configured limit by evicting the least recently used ones.
+ *
+ * @since 20
+ */
+public class DiskTileCache {
+
+    static final Logger LOGGER = Logging.getLogger(DiskTileCache.class.getPackage().getName());
+
+    static final String EXTENSION = ".tile";
+
+    static final int MAGIC = 0x47544331; // GTC1
+
+    /** A cached tile, along with the information needed to revalidate it */
+    public static class Entry {
+        final byte[] data;
+
+        final long expires;
+
+        final String etag;
+
+        final long lastModified;
+
+        public Entry(byte[] data, long expires, String etag, long lastModified) {
+            this.data = data;
+            this.expires = expires;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /** The encoded tile image */
+        public byte[] getData() {
+            return data;
+        }
+
+        /** The time, in milliseconds since the epoch, after which the entry is stale */
+        public long getExpires() {
+            return expires;
+        }
+
+        /** The ETag returned by the server along with the tile, or null */
+        public String getETag() {
+            return etag;
+        }
+
+        /** The Last-Modified time returned by the server along with the tile, or 0 */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public boolean isExpired(long now) {
+            return now >= expires;
+        }
+    }
+
+    /** The size and last access time of a stored entry */
+    static class Item {
+        final long size;
+
+        volatile long access;
+
+        Item(long size, long access) {
+            this.size = size;
+            this.access = access;
+        }
+    }
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    private final Map<Path, Item> items = new ConcurrentHashMap<>();
+
+    private final AtomicLong size = new AtomicLong();
+
+    private final Object evictionLock = new Object();
+
+    /**
+     * Opens a disk cache in the given directory, picking up the entries already stored there
+     *
+     * @param directory the cache directory, created if missing
+     * @param maxSize the maximum size of the stored entries, in bytes
+     */
+    public DiskTileCache(Path directory, long maxSize) throws IOException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum cache size must be positive");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        Files.createDirectories(directory);
+        scan();
+    }
+
+    private void scan() throws IOException {
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(directory)) {
+            for (Path dir : dirs) {
+                if (!Files.isDirectory(dir)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(EXTENSION)) {
+                            long length = Files.size(file);
+                            long access = Files.getLastModifiedTime(file).toMillis();
+                            items.put(file, new Item(length, access));
+                            size.addAndGet(length);
+                        } else if (name.endsWith(".tmp")) {
+                            // left over by a crash while writing
+                            Files.deleteIfExists(file);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** The cache directory */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** The maximum size of the stored entries, in bytes */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /** The current size of the stored entries, in bytes */
+    public long getSize() {
+        return size.get();
+    }
+
+    /** The number of stored entries */
+    public int getCount() {
+        return items.size();
+    }
+
+    /**
+     * Returns the entry stored for the given key, or null if not found. Expired entries are
+     * returned as well, so that they can be revalidated.
+     */
+    public Entry get(String key) {
+        Path file = getFile(key);
+        Item item = items.get(file);
+        if (item == null) {
+            return null;
+        }
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a tile cache entry");
+            }
+            String storedKey = in.readUTF();
+            if (!key.equals(storedKey)) {
+                // hash collision, treat as a miss
+                return null;
+            }
+            long expires = in.readLong();
+            long lastModified = in.readLong();
+            String etag = in.readUTF();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            item.access = System.currentTimeMillis();
+            return new Entry(data, expires, etag.isEmpty() ? null : etag, lastModified);
+        } catch (NoSuchFileException e) {
+            // evicted or removed concurrently
+            forget(file, item);
+            return null;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Dropping unreadable tile cache entry " + file, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    /** Stores an entry, replacing the existing one if any */
+    public void put(String key, Entry entry) throws IOException {
+        Path file = getFile(key);
+        Path dir = file.getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, null, ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(temp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(key);
+                out.writeLong(entry.expires);
+                out.writeLong(entry.lastModified);
+                out.writeUTF(entry.etag == null ? "" : entry.etag);
+                out.writeInt(entry.data.length);
+                out.write(entry.data);
+            }
+            long length = Files.size(temp);
+            // move and index update are atomic with respect to other writers of the same entry
+            try {
+                items.compute(
+                        file,
+                        (f, previous) -> {
+                            move(temp, f);
+                            size.addAndGet(length - (previous == null ? 0 : previous.size));
+                            return new Item(length, System.currentTimeMillis());
+                        });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        if (size.get() > maxSize) {
+            evict();
+        }
+    }
+
+    /** Removes the entry stored for the given key, if any */
+    public void remove(String key) {
+        delete(getFile(key));
+    }
+
+    /** Removes all the entries */
+    public void clear() {
+        for (Path file : new ArrayList<>(items.keySet())) {
+            delete(file);
+        }
+    }
+
+    /** Drops the least recently used entries until the cache is back below 90% of its size */
+    void evict() {
+        synchronized (evictionLock) {
+            long target = maxSize - maxSize / 10;
+            if (size.get() <= target) {
+                return;
+            }
+            List<Map.Entry<Path, Item>> candidates = new ArrayList<>(items.entrySet());
+            candidates.sort(Comparator.comparingLong(e -> e.getValue().access));
+            for (Map.Entry<Path, Item> candidate : candidates) {
+                if (size.get() <= target) {
+                    break;
+                }
+                delete(candidate.getKey());
+            }
+        }
+    }
+
+    private static void move(Path source, Path target) {
+        try {
+            try {
+                Files.move(
+                        source,
+                        target,
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void delete(Path file) {
+        items.compute(
+                file,
+                (f, item) -> {
+                    try {
+                        Files.deleteIfExists(f);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, "Failed to delete tile cache entry " + f, e);
+                    }
+                    if (item != null) {
+                        size.addAndGet(-item.size);
+                    }
+                    return null;
+                });
+    }
+
+    private void forget(Path file, Item item) {
+        if (items.remove(file, item)) {
+            size.addAndGet(-item.size);
+        }
+    }
+
+    Path getFile(String key) {
+        String hash = hash(key);
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2) + EXTENSION);
+    }
+
+    static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is always available
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Reads a full stream into a byte array */
+    static byte[] toByteArray(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
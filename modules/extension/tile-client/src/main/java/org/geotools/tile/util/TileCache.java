@@ -0,0 +1,394 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.tile.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import org.geotools.data.ows.HTTPClient;
+import org.geotools.data.ows.HTTPResponse;
+import org.geotools.data.ows.SimpleHttpClient;
+import org.geotools.tile.ImageLoader;
+import org.geotools.tile.Tile;
+import org.geotools.util.logging.Logging;
+
+/**
+ * A two tier tile cache, usable as the {@link ImageLoader} of any {@link Tile}, see {@link
+ * org.geotools.tile.TileService#setTileCache(TileCache)}.
+ *
+ * <p>Decoded tiles are kept in a memory LRU cache, bounded by the size of the images. When a {@link
+ * DiskTileCache} is provided, the encoded tiles are also stored on disk and survive the restart of
+ * the application.
+ *
+ * <p>The expiration of tiles is driven by the caching headers returned by the server ({@code
+ * Cache-Control: max-age}, {@code no-cache}, {@code Expires}), falling back on a configurable
+ * default. Tiles returned with {@code Cache-Control: no-store} are never stored, in either tier.
+ * Expired tiles are revalidated with a conditional request using the {@code ETag} and {@code
+ * Last-Modified} headers, whichever tier they come from, and served as is when the server answers
+ * {@code 304 Not Modified}, or when it cannot be reached.
+ *
+ * <p>Tiles are requested through an {@link HTTPClient}, so that its credentials, timeouts and proxy
+ * settings apply, see {@link #setHttpClient(HTTPClient)}.
+ *
+ * <p>The cache is thread safe and can be shared among tile services.
+ *
+ * @since 20
+ */
+public class TileCache implements ImageLoader {
+
+    static final Logger LOGGER = Logging.getLogger(TileCache.class.getPackage().getName());
+
+    /** Default time to live of tiles not carrying any caching header, one hour */
+    public static final long DEFAULT_TTL = TimeUnit.HOURS.toMillis(1);
+
+    /** Default size of the memory tier, 64MB worth of decoded images */
+    public static final long DEFAULT_MEMORY_SIZE = 64 * 1024 * 1024;
+
+    /** A decoded tile in the memory tier, along with its validators */
+    static class MemoryEntry {
+        final BufferedImage image;
+
+        final long size;
+
+        final long expires;
+
+        final String etag;
+
+        final long lastModified;
+
+        MemoryEntry(BufferedImage image, long expires, String etag, long lastModified) {
+            this.image = image;
+            this.size = (long) image.getWidth() * image.getHeight() * 4;
+            this.expires = expires;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final long maxMemorySize;
+
+    private final DiskTileCache disk;
+
+    private final LinkedHashMap<String, MemoryEntry> memory = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long memorySize;
+
+    private long defaultTTL = DEFAULT_TTL;
+
+    private volatile HTTPClient httpClient = new SimpleHttpClient();
+
+    /** Creates a memory only cache */
+    public TileCache(long maxMemorySize) {
+        this(maxMemorySize, null);
+    }
+
+    /**
+     * Creates a cache with both the memory and disk tiers
+     *
+     * @param maxMemorySize the maximum size of the decoded images kept in memory, in bytes
+     * @param disk the disk tier, or null to keep tiles in memory only
+     */
+    public TileCache(long maxMemorySize, DiskTileCache disk) {
+        if (maxMemorySize < 0) {
+            throw new IllegalArgumentException("The memory size cannot be negative");
+        }
+        this.maxMemorySize = maxMemorySize;
+        this.disk = disk;
+    }
+
+    /** The disk tier, or null if the tiles are kept in memory only */
+    public DiskTileCache getDiskCache() {
+        return disk;
+    }
+
+    /** The time to live of tiles when the server did not return any caching header */
+    public long getDefaultTTL() {
+        return defaultTTL;
+    }
+
+    public void setDefaultTTL(long defaultTTL) {
+        this.defaultTTL = defaultTTL;
+    }
+
+    /** The client used to fetch the tiles, a {@link SimpleHttpClient} by default */
+    public HTTPClient getHttpClient() {
+        return httpClient;
+    }
+
+    public void setHttpClient(HTTPClient httpClient) {
+        if (httpClient == null) {
+            throw new IllegalArgumentException("The HTTP client cannot be null");
+        }
+        this.httpClient = httpClient;
+    }
+
+    /** The size of the images currently in the memory tier, in bytes */
+    public synchronized long getMemorySize() {
+        return memorySize;
+    }
+
+    /** The number of images currently in the memory tier */
+    public synchronized int getMemoryCount() {
+        return memory.size();
+    }
+
+    /** Empties the memory tier */
+    public synchronized void clearMemory() {
+        memory.clear();
+        memorySize = 0;
+    }
+
+    @Override
+    public BufferedImage loadImageTileImage(Tile tile) throws IOException {
+        String key = tile.getUrl().toString();
+        long now = System.currentTimeMillis();
+
+        // memory tier
+        MemoryEntry cached = getMemory(key);
+        if (cached != null && now < cached.expires) {
+            return cached.image;
+        }
+
+        // disk tier
+        DiskTileCache.Entry stored = disk != null ? disk.get(key) : null;
+        if (stored != null && !stored.isExpired(now)) {
+            BufferedImage image = decode(stored.getData());
+            if (image != null) {
+                putMemory(
+                        key,
+                        new MemoryEntry(
+                                image,
+                                stored.getExpires(),
+                                stored.getETag(),
+                                stored.getLastModified()));
+                return image;
+            }
+            disk.remove(key);
+            stored = null;
+        }
+
+        // revalidate or fetch from the server
+        try {
+            return fetch(tile, key, cached, stored);
+        } catch (IOException e) {
+            // serve stale content rather than failing
+            if (cached != null) {
+                LOGGER.log(Level.FINE, "Failed to refresh " + key + ", using stale tile", e);
+                return cached.image;
+            }
+            if (stored != null) {
+                BufferedImage image = decode(stored.getData());
+                if (image != null) {
+                    LOGGER.log(Level.FINE, "Failed to refresh " + key + ", using stale tile", e);
+                    return image;
+                }
+            }
+            throw e;
+        }
+    }
+
+    BufferedImage fetch(Tile tile, String key, MemoryEntry cached, DiskTileCache.Entry stored)
+            throws IOException {
+        URL url = tile.getUrl();
+        Map<String, String> headers = new LinkedHashMap<>(tile.getRequestHeaders());
+        String etag = cached != null ? cached.etag : stored != null ? stored.getETag() : null;
+        long lastModified =
+                cached != null
+                        ? cached.lastModified
+                        : stored != null ? stored.getLastModified() : 0;
+        boolean conditional = etag != null || lastModified > 0;
+        if (etag != null) {
+            headers.put("If-None-Match", etag);
+        }
+        if (lastModified > 0) {
+            headers.put("If-Modified-Since", formatDate(lastModified));
+        }
+
+        HTTPResponse response = httpClient.get(url, headers);
+        try {
+            byte[] data = null;
+            if (response != null) {
+                try (InputStream in = response.getResponseStream()) {
+                    data = DiskTileCache.toByteArray(in);
+                }
+            }
+            // an empty answer to a conditional request is a 304 Not Modified
+            if (conditional && (data == null || data.length == 0)) {
+                BufferedImage image = cached != null ? cached.image : decode(stored.getData());
+                if (image == null) {
+                    throw new IOException("Could not decode the cached tile " + key);
+                }
+                if (response != null && isNoStore(response)) {
+                    remove(key);
+                    return image;
+                }
+                long now = System.currentTimeMillis();
+                long expires = response != null ? getExpires(response, now) : now + defaultTTL;
+                if (stored != null) {
+                    store(
+                            key,
+                            new DiskTileCache.Entry(stored.getData(), expires, etag, lastModified));
+                }
+                putMemory(key, new MemoryEntry(image, expires, etag, lastModified));
+                return image;
+            } else if (data == null) {
+                throw new IOException("No response returned for " + url);
+            }
+
+            BufferedImage image = decode(data);
+            if (image == null) {
+                throw new IOException("Could not decode the tile image at " + url);
+            }
+            if (isNoStore(response)) {
+                // the server forbids storing the tile, also drop any stale copy
+                remove(key);
+                return image;
+            }
+
+            long expires = getExpires(response, System.currentTimeMillis());
+            String newETag = response.getResponseHeader("ETag");
+            long newLastModified = parseDate(response.getResponseHeader("Last-Modified"));
+            store(key, new DiskTileCache.Entry(data, expires, newETag, newLastModified));
+            putMemory(key, new MemoryEntry(image, expires, newETag, newLastModified));
+            return image;
+        } finally {
+            if (response != null) {
+                response.dispose();
+            }
+        }
+    }
+
+    private void store(String key, DiskTileCache.Entry entry) {
+        if (disk == null) {
+            return;
+        }
+        try {
+            disk.put(key, entry);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to store tile " + key + " on disk", e);
+        }
+    }
+
+    /** Removes the tile from both tiers */
+    private void remove(String key) {
+        removeMemory(key);
+        if (disk != null) {
+            disk.remove(key);
+        }
+    }
+
+    /** Returns true if the response carries the {@code Cache-Control: no-store} directive */
+    static boolean isNoStore(HTTPResponse response) {
+        String cacheControl = response.getResponseHeader("Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                if (directive.trim().equalsIgnoreCase("no-store")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Computes the expiration time of a response based on its caching headers */
+    long getExpires(HTTPResponse response, long now) {
+        String cacheControl = response.getResponseHeader("Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                directive = directive.trim().toLowerCase();
+                if (directive.equals("no-cache") || directive.equals("no-store")) {
+                    return now;
+                } else if (directive.startsWith("max-age=")) {
+                    try {
+                        long seconds = Long.parseLong(directive.substring(8).trim());
+                        return now + TimeUnit.SECONDS.toMillis(seconds);
+                    } catch (NumberFormatException e) {
+                        // ignore and fall back on the other headers
+                    }
+                }
+            }
+        }
+        String expires = response.getResponseHeader("Expires");
+        if (expires != null) {
+            // unparseable dates are returned as 0, meaning already expired
+            return parseDate(expires);
+        }
+        return now + defaultTTL;
+    }
+
+    /** Parses an HTTP date, returns 0 if missing or not parseable */
+    static long parseDate(String date) {
+        if (date == null) {
+            return 0;
+        }
+        try {
+            return ZonedDateTime.parse(date.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    static String formatDate(long time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.ofEpochMilli(time).atZone(ZoneOffset.UTC));
+    }
+
+    private static BufferedImage decode(byte[] data) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+
+    private synchronized MemoryEntry getMemory(String key) {
+        return memory.get(key);
+    }
+
+    private synchronized void removeMemory(String key) {
+        MemoryEntry previous = memory.remove(key);
+        if (previous != null) {
+            memorySize -= previous.size;
+        }
+    }
+
+    private synchronized void putMemory(String key, MemoryEntry entry) {
+        if (entry.size > maxMemorySize) {
+            return;
+        }
+        MemoryEntry previous = memory.put(key, entry);
+        memorySize += entry.size - (previous == null ? 0 : previous.size);
+        Iterator<MemoryEntry> it = memory.values().iterator();
+        while (memorySize > maxMemorySize && it.hasNext()) {
+            MemoryEntry eldest = it.next();
+            it.remove();
+            memorySize -= eldest.size;
+        }
+    }
+}
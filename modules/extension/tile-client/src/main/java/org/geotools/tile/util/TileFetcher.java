@@ -0,0 +1,277 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.tile.util;
+
+import java.awt.image.BufferedImage;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.tile.Tile;
+import org.geotools.util.logging.Logging;
+
+/**
+ * Fetches tile images in the background, on a bounded thread pool shared by all the maps using it.
+ *
+ * <ul>
+ *   <li>No more than {@link #getMaxPerHost()} requests run concurrently against the same host, to
+ *       play fair with the tile servers. The requests exceeding it wait in a queue of their host,
+ *       without holding a pool thread, so that a slow host does not delay the other ones
+ *   <li>Requests for the same tile issued while a fetch is in flight, e.g. by several maps showing
+ *       the same area, are coalesced and share the same result
+ *   <li>Prefetch requests are only queued when the pool has spare capacity, so that they never
+ *       delay the tiles actually being displayed
+ * </ul>
+ *
+ * <p>The fetcher only loads the images, through {@link Tile#getBufferedImage()}, drawing them is
+ * left to the caller thread, see {@link TileLayer#setTileFetcher(TileFetcher)}.
+ *
+ * @since 20
+ */
+public class TileFetcher {
+
+    static final Logger LOGGER = Logging.getLogger(TileFetcher.class.getPackage().getName());
+
+    /** Default maximum number of concurrent requests against the same host */
+    public static final int DEFAULT_MAX_PER_HOST = 4;
+
+    private static TileFetcher DEFAULT;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int maxPerHost;
+
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<BufferedImage>> inflight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Returns the fetcher shared by default among tile layers, sized after the number of available
+     * processors
+     */
+    public static synchronized TileFetcher getDefault() {
+        if (DEFAULT == null) {
+            int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+            DEFAULT = new TileFetcher(threads, DEFAULT_MAX_PER_HOST);
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a new fetcher. Its threads are daemon threads, {@link #dispose()} should still be
+     * called to release them once the fetcher is no longer needed.
+     *
+     * @param threads the number of fetching threads
+     * @param maxPerHost the maximum number of concurrent requests against the same host
+     */
+    public TileFetcher(int threads, int maxPerHost) {
+        if (threads <= 0 || maxPerHost <= 0) {
+            throw new IllegalArgumentException("The thread and per host counts must be positive");
+        }
+        this.maxPerHost = maxPerHost;
+        this.executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        new FetcherThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /** The maximum number of concurrent requests against the same host */
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    /** The number of tiles currently being fetched or waiting to be */
+    public int getPendingCount() {
+        return inflight.size();
+    }
+
+    /**
+     * Fetches the image of the given tile. If the same tile is already being fetched, the pending
+     * result is returned instead.
+     */
+    public CompletableFuture<BufferedImage> fetch(Tile tile) {
+        String key = tile.getUrl().toString();
+        CompletableFuture<BufferedImage> future = inflight.get(key);
+        if (future != null) {
+            return future;
+        }
+        CompletableFuture<BufferedImage> created = new CompletableFuture<>();
+        future = inflight.putIfAbsent(key, created);
+        if (future != null) {
+            return future;
+        }
+        submit(new Fetch(getHost(tile.getUrl()), tile, key, created));
+        return created;
+    }
+
+    /** Runs the fetch right away if its host has a free slot, queues it otherwise */
+    private void submit(Fetch fetch) {
+        synchronized (fetch.host) {
+            if (fetch.host.running >= maxPerHost) {
+                fetch.host.queue.add(fetch);
+                return;
+            }
+            fetch.host.running++;
+        }
+        execute(fetch);
+    }
+
+    /** Hands the fetch to the pool, its host slot having been taken already */
+    private void execute(Fetch fetch) {
+        while (fetch != null) {
+            try {
+                executor.execute(fetch);
+                return;
+            } catch (RejectedExecutionException e) {
+                // the fetcher has been disposed, fail this fetch and move to the next one
+                inflight.remove(fetch.key, fetch.future);
+                fetch.future.completeExceptionally(e);
+                fetch = fetch.host.next();
+            }
+        }
+    }
+
+    /**
+     * Fetches the given tiles in the background, so that they are readily available when displayed.
+     * Tiles are skipped when the pool is busy, their images are not returned.
+     */
+    public void prefetch(Collection<Tile> tiles) {
+        for (Tile tile : tiles) {
+            // do not queue up work ahead of the tiles being displayed
+            if (executor.getQueue().size() >= executor.getMaximumPoolSize()) {
+                return;
+            }
+            // nor behind the ones waiting for a busy host
+            if (!tile.isImageLoadedOK() && !getHost(tile.getUrl()).isBusy()) {
+                fetch(tile);
+            }
+        }
+    }
+
+    private void load(Tile tile, String key, CompletableFuture<BufferedImage> future) {
+        BufferedImage image = null;
+        Throwable failure = null;
+        try {
+            image = tile.getBufferedImage();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Failed to load tile " + key, e);
+            failure = e;
+        }
+
+        // later requests for the same tile will fetch it anew
+        inflight.remove(key, future);
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(image);
+        }
+    }
+
+    private Host getHost(URL url) {
+        String host = url.getHost() + ":" + url.getPort();
+        return hosts.computeIfAbsent(host, h -> new Host());
+    }
+
+    /** The fetches running against a host, and the ones waiting for a free slot */
+    static class Host {
+        int running;
+
+        final ArrayDeque<Fetch> queue = new ArrayDeque<>();
+
+        synchronized boolean isBusy() {
+            return !queue.isEmpty();
+        }
+
+        /** Releases the slot of a completed fetch, or hands it over to the next queued one */
+        synchronized Fetch next() {
+            Fetch next = queue.poll();
+            if (next == null) {
+                running--;
+            }
+            return next;
+        }
+    }
+
+    /** A tile fetch, once done it starts the next one waiting for the same host */
+    class Fetch implements Runnable {
+        final Host host;
+
+        final Tile tile;
+
+        final String key;
+
+        final CompletableFuture<BufferedImage> future;
+
+        Fetch(Host host, Tile tile, String key, CompletableFuture<BufferedImage> future) {
+            this.host = host;
+            this.tile = tile;
+            this.key = key;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            try {
+                load(tile, key, future);
+            } finally {
+                execute(host.next());
+            }
+        }
+    }
+
+    /** Stops the fetching threads, pending requests are abandoned */
+    public void dispose() {
+        executor.shutdownNow();
+        for (CompletableFuture<BufferedImage> future : inflight.values()) {
+            future.cancel(false);
+        }
+        inflight.clear();
+        hosts.clear();
+    }
+
+    static class FetcherThreadFactory implements ThreadFactory {
+        static final AtomicInteger POOL = new AtomicInteger();
+
+        final int pool = POOL.incrementAndGet();
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread =
+                    new Thread(r, "TileFetcher-" + pool + "-thread-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
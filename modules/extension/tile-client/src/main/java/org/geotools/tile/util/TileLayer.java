@@ -21,7 +21,16 @@ import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.coverage.grid.GridCoverage2D;
 import org.geotools.coverage.grid.GridCoverageFactory;
@@ -56,11 +65,49 @@ public class TileLayer extends DirectLayer {
 
     private GridCoverage2D coverage;
 
+    /** The optional fetcher loading the tiles in parallel */
+    private TileFetcher fetcher;
+
+    /** The fraction of the viewport size around it whose tiles get prefetched */
+    private double prefetchMargin = 0;
+
     public TileLayer(TileService service) {
         super();
         this.service = service;
     }
 
+    /** The fetcher loading the tiles in parallel, or null if tiles are loaded one by one */
+    public TileFetcher getTileFetcher() {
+        return fetcher;
+    }
+
+    /**
+     * Sets the fetcher used to load the tiles in parallel, e.g. {@link TileFetcher#getDefault()}.
+     * The tiles are still drawn on the rendering thread, as they become available.
+     *
+     * @param fetcher the fetcher, or null to load the tiles one by one
+     */
+    public void setTileFetcher(TileFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /** The fraction of the viewport size around it whose tiles get prefetched */
+    public double getPrefetchMargin() {
+        return prefetchMargin;
+    }
+
+    /**
+     * Sets the fraction of the viewport size around it whose tiles get prefetched, so that they are
+     * readily available when panning. Zero, the default, disables prefetching, which also requires
+     * a {@link TileFetcher} to be set.
+     */
+    public void setPrefetchMargin(double prefetchMargin) {
+        if (prefetchMargin < 0) {
+            throw new IllegalArgumentException("The prefetch margin cannot be negative");
+        }
+        this.prefetchMargin = prefetchMargin;
+    }
+
     public GridCoverage2D getCoverage() {
         return this.coverage;
     }
@@ -85,6 +132,7 @@ public class TileLayer extends DirectLayer {
         Graphics2D g2d = mosaickedImage.createGraphics();
         long t = System.currentTimeMillis();
         renderTiles(tiles, g2d, viewportExtent, viewport.getWorldToScreen());
+        prefetchTiles(tiles, viewportExtent, scale);
 
         this.coverage = gridFactory.create("GridCoverage", mosaickedImage, viewportExtent);
 
@@ -102,35 +150,125 @@ public class TileLayer extends DirectLayer {
         g2d.setRenderingHint(
                 RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
+        if (fetcher != null) {
+            renderTilesAsync(tiles, g2d, viewportExtent, worldToImageTransform);
+            return;
+        }
+
         double[] points = new double[4];
 
         for (Tile tile : tiles) {
-            ReferencedEnvelope nativeTileEnvelope = tile.getExtent();
+            getScreenPoints(tile, viewportExtent, worldToImageTransform, points);
+            renderTile(tile, g2d, points);
+        }
+    }
+
+    /**
+     * Starts fetching all the tiles at once, and draws them as they become available. Drawing
+     * happens on the calling thread only, as {@link Graphics2D} is not thread safe.
+     */
+    private void renderTilesAsync(
+            Collection<Tile> tiles,
+            Graphics2D g2d,
+            ReferencedEnvelope viewportExtent,
+            AffineTransform worldToImageTransform) {
+        // the fetcher returns the same future for tiles sharing the same URL
+        Map<CompletableFuture<BufferedImage>, List<Tile>> pending = new LinkedHashMap<>();
+        for (Tile tile : tiles) {
+            pending.computeIfAbsent(fetcher.fetch(tile), f -> new ArrayList<>()).add(tile);
+        }
 
-            ReferencedEnvelope tileEnvViewport;
+        double[] points = new double[4];
+        while (!pending.isEmpty()) {
+            CompletableFuture<?> any =
+                    CompletableFuture.anyOf(
+                            pending.keySet().toArray(new CompletableFuture<?>[pending.size()]));
             try {
-                tileEnvViewport =
-                        nativeTileEnvelope.transform(
-                                viewportExtent.getCoordinateReferenceSystem(), true);
-            } catch (TransformException | FactoryException e) {
-                throw new RuntimeException(e);
+                any.join();
+            } catch (CompletionException | CancellationException e) {
+                // handled below, per tile
             }
+            for (Iterator<Map.Entry<CompletableFuture<BufferedImage>, List<Tile>>> it =
+                            pending.entrySet().iterator();
+                    it.hasNext(); ) {
+                Map.Entry<CompletableFuture<BufferedImage>, List<Tile>> entry = it.next();
+                CompletableFuture<BufferedImage> future = entry.getKey();
+                if (!future.isDone()) {
+                    continue;
+                }
+                it.remove();
+                BufferedImage img;
+                try {
+                    img = future.join();
+                } catch (CompletionException | CancellationException e) {
+                    for (Tile tile : entry.getValue()) {
+                        LOGGER.log(Level.WARNING, "Failed to fetch tile " + tile.getId(), e);
+                    }
+                    continue;
+                }
+                for (Tile tile : entry.getValue()) {
+                    getScreenPoints(tile, viewportExtent, worldToImageTransform, points);
+                    drawTile(img, g2d, points);
+                }
+            }
+        }
+    }
 
-            points[0] = tileEnvViewport.getMinX();
-            points[3] = tileEnvViewport.getMinY();
-            points[2] = tileEnvViewport.getMaxX();
-            points[1] = tileEnvViewport.getMaxY();
+    /** Queues the fetch of the tiles around the viewport, at the same zoom level */
+    private void prefetchTiles(
+            Collection<Tile> tiles, ReferencedEnvelope viewportExtent, int scale) {
+        if (fetcher == null || prefetchMargin <= 0 || tiles.isEmpty()) {
+            return;
+        }
+        int zoom = tiles.iterator().next().getTileIdentifier().getZ();
+        ReferencedEnvelope extended = new ReferencedEnvelope(viewportExtent);
+        extended.expandBy(
+                viewportExtent.getWidth() * prefetchMargin,
+                viewportExtent.getHeight() * prefetchMargin);
+        List<Tile> neighbours = new ArrayList<>();
+        for (Tile tile : service.findTilesInExtent(extended, scale, false, 256)) {
+            // the zoom level might differ for the extended area, skip it then
+            if (tile.getTileIdentifier().getZ() != zoom) {
+                return;
+            }
+            if (!tiles.contains(tile)) {
+                neighbours.add(tile);
+            }
+        }
+        fetcher.prefetch(neighbours);
+    }
 
-            worldToImageTransform.transform(points, 0, points, 0, 2);
+    void getScreenPoints(
+            Tile tile,
+            ReferencedEnvelope viewportExtent,
+            AffineTransform worldToImageTransform,
+            double[] points) {
+        ReferencedEnvelope nativeTileEnvelope = tile.getExtent();
 
-            renderTile(tile, g2d, points);
+        ReferencedEnvelope tileEnvViewport;
+        try {
+            tileEnvViewport =
+                    nativeTileEnvelope.transform(
+                            viewportExtent.getCoordinateReferenceSystem(), true);
+        } catch (TransformException | FactoryException e) {
+            throw new RuntimeException(e);
         }
+
+        points[0] = tileEnvViewport.getMinX();
+        points[3] = tileEnvViewport.getMinY();
+        points[2] = tileEnvViewport.getMaxX();
+        points[1] = tileEnvViewport.getMaxY();
+
+        worldToImageTransform.transform(points, 0, points, 0, 2);
     }
 
     protected void renderTile(Tile tile, Graphics2D g2d, double[] points) {
 
         BufferedImage img = getTileImage(tile);
+        drawTile(img, g2d, points);
+    }
 
+    private void drawTile(BufferedImage img, Graphics2D g2d, double[] points) {
         g2d.drawImage(
                 img,
                 (int) points[0],
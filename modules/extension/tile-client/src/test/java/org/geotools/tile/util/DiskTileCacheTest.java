@@ -0,0 +1,143 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.tile.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiskTileCacheTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutGet() throws Exception {
+        Path root = folder.getRoot().toPath();
+        DiskTileCache cache = new DiskTileCache(root, 1024 * 1024);
+        assertNull(cache.get("a"));
+
+        byte[] data = {1, 2, 3, 4};
+        cache.put("a", new DiskTileCache.Entry(data, 1000, "\"v1\"", 500));
+        DiskTileCache.Entry entry = cache.get("a");
+        assertNotNull(entry);
+        assertArrayEquals(data, entry.getData());
+        assertEquals(1000, entry.getExpires());
+        assertEquals("\"v1\"", entry.getETag());
+        assertEquals(500, entry.getLastModified());
+        assertTrue(entry.isExpired(1000));
+        assertEquals(1, cache.getCount());
+
+        // replacing keeps the size accounting straight
+        long size = cache.getSize();
+        cache.put("a", new DiskTileCache.Entry(new byte[] {5}, 2000, null, 0));
+        // three bytes of data and the four characters of the ETag less
+        assertEquals(size - 7, cache.getSize());
+        assertNull(cache.get("a").getETag());
+
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        Path root = folder.getRoot().toPath();
+        DiskTileCache cache = new DiskTileCache(root, 1024 * 1024);
+        cache.put("a", new DiskTileCache.Entry(new byte[10], 1000, null, 0));
+        cache.put("b", new DiskTileCache.Entry(new byte[20], 1000, null, 0));
+
+        DiskTileCache reopened = new DiskTileCache(root, 1024 * 1024);
+        assertEquals(2, reopened.getCount());
+        assertEquals(cache.getSize(), reopened.getSize());
+        assertEquals(20, reopened.get("b").getData().length);
+    }
+
+    @Test
+    public void testCorruptEntry() throws Exception {
+        Path root = folder.getRoot().toPath();
+        DiskTileCache cache = new DiskTileCache(root, 1024 * 1024);
+        cache.put("a", new DiskTileCache.Entry(new byte[10], 1000, null, 0));
+        Path file = cache.getFile("a");
+        Files.write(file, new byte[] {1, 2, 3});
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getSize());
+        assertTrue(Files.notExists(file));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        Path root = folder.getRoot().toPath();
+        DiskTileCache cache = new DiskTileCache(root, 1000);
+        for (int i = 0; i < 10; i++) {
+            cache.put("tile" + i, new DiskTileCache.Entry(new byte[200], 1000, null, 0));
+            Thread.sleep(2);
+        }
+        assertTrue(cache.getSize() <= 1000);
+        // the most recent tile survived, the oldest did not
+        assertNotNull(cache.get("tile9"));
+        assertNull(cache.get("tile0"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        Path root = folder.getRoot().toPath();
+        final DiskTileCache cache = new DiskTileCache(root, 20000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < 200; i++) {
+                                        String key = "tile" + (i % 50);
+                                        byte[] data = new byte[100 + i % 7];
+                                        cache.put(key, new DiskTileCache.Entry(data, 1, null, 0));
+                                        DiskTileCache.Entry entry = cache.get(key);
+                                        if (entry != null) {
+                                            // entries are never seen half written
+                                            assertTrue(entry.getData().length >= 100);
+                                        }
+                                    }
+                                    return null;
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.getSize() <= 20000);
+        assertEquals(cache.getSize(), new DiskTileCache(root, 20000).getSize());
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.tile.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.geotools.data.ows.DelegateHTTPClient;
+import org.geotools.data.ows.HTTPClient;
+import org.geotools.data.ows.HTTPResponse;
+import org.geotools.data.ows.SimpleHttpClient;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.tile.Tile;
+import org.geotools.tile.TileIdentifierTest;
+import org.geotools.tile.impl.WebMercatorZoomLevel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TileCacheTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    HttpServer server;
+
+    byte[] png;
+
+    AtomicInteger requests = new AtomicInteger();
+
+    AtomicInteger notModified = new AtomicInteger();
+
+    volatile String cacheControl = "max-age=3600";
+
+    volatile String lastHeader;
+
+    @Before
+    public void setUp() throws Exception {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bos);
+        png = bos.toByteArray();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/tiles",
+                exchange -> {
+                    requests.incrementAndGet();
+                    lastHeader = exchange.getRequestHeaders().getFirst("X-Test");
+                    String etag = exchange.getRequestHeaders().getFirst("If-None-Match");
+                    exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                    exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+                    if ("\"v1\"".equals(etag)) {
+                        notModified.incrementAndGet();
+                        exchange.sendResponseHeaders(304, -1);
+                    } else {
+                        exchange.getResponseHeaders().add("Content-Type", "image/png");
+                        exchange.sendResponseHeaders(200, png.length);
+                        try (OutputStream os = exchange.getResponseBody()) {
+                            os.write(png);
+                        }
+                    }
+                    exchange.close();
+                });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testMemoryTier() throws Exception {
+        TileCache cache = new TileCache(TileCache.DEFAULT_MEMORY_SIZE);
+        Tile tile = createTile("a");
+        BufferedImage first = cache.loadImageTileImage(tile);
+        assertNotNull(first);
+        assertEquals(16, first.getWidth());
+        assertEquals("test", lastHeader);
+        BufferedImage second = cache.loadImageTileImage(tile);
+        assertTrue(first == second);
+        assertEquals(1, requests.get());
+        assertEquals(1, cache.getMemoryCount());
+    }
+
+    @Test
+    public void testMemoryEviction() throws Exception {
+        // room for two 16x16 images only
+        TileCache cache = new TileCache(16 * 16 * 4 * 2);
+        cache.loadImageTileImage(createTile("a"));
+        cache.loadImageTileImage(createTile("b"));
+        cache.loadImageTileImage(createTile("a"));
+        cache.loadImageTileImage(createTile("c"));
+        assertEquals(2, cache.getMemoryCount());
+        assertEquals(3, requests.get());
+        // "b" was the least recently used one
+        cache.loadImageTileImage(createTile("a"));
+        assertEquals(3, requests.get());
+        cache.loadImageTileImage(createTile("b"));
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    public void testDiskTierAndRevalidation() throws Exception {
+        DiskTileCache disk = new DiskTileCache(folder.getRoot().toPath(), 1024 * 1024);
+        TileCache cache = new TileCache(TileCache.DEFAULT_MEMORY_SIZE, disk);
+        cache.loadImageTileImage(createTile("a"));
+        assertEquals(1, requests.get());
+        assertEquals(1, disk.getCount());
+
+        // a fresh cache on the same directory reads from disk
+        TileCache restarted =
+                new TileCache(
+                        TileCache.DEFAULT_MEMORY_SIZE,
+                        new DiskTileCache(folder.getRoot().toPath(), 1024 * 1024));
+        assertNotNull(restarted.loadImageTileImage(createTile("a")));
+        assertEquals(1, requests.get());
+
+        // expired tiles are revalidated with the ETag
+        cacheControl = "no-cache";
+        TileCache uncached = new TileCache(TileCache.DEFAULT_MEMORY_SIZE, disk);
+        disk.put(createTile("a").getUrl().toString(), new DiskTileCache.Entry(png, 0, "\"v1\"", 0));
+        assertNotNull(uncached.loadImageTileImage(createTile("a")));
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+        assertNotNull(uncached.loadImageTileImage(createTile("a")));
+        assertEquals(3, requests.get());
+        assertEquals(2, notModified.get());
+    }
+
+    @Test
+    public void testStaleOnFailure() throws Exception {
+        DiskTileCache disk = new DiskTileCache(folder.getRoot().toPath(), 1024 * 1024);
+        TileCache cache = new TileCache(TileCache.DEFAULT_MEMORY_SIZE, disk);
+        cacheControl = "max-age=0";
+        BufferedImage image = cache.loadImageTileImage(createTile("a"));
+        server.stop(0);
+        assertTrue(image == cache.loadImageTileImage(createTile("a")));
+    }
+
+    @Test
+    public void testNoStore() throws Exception {
+        DiskTileCache disk = new DiskTileCache(folder.getRoot().toPath(), 1024 * 1024);
+        TileCache cache = new TileCache(TileCache.DEFAULT_MEMORY_SIZE, disk);
+        // a stale copy from an earlier response is dropped as well
+        disk.put(createTile("a").getUrl().toString(), new DiskTileCache.Entry(png, 0, null, 0));
+        cacheControl = "private, no-store";
+        assertNotNull(cache.loadImageTileImage(createTile("a")));
+        assertNotNull(cache.loadImageTileImage(createTile("b")));
+        assertEquals(0, cache.getMemoryCount());
+        assertEquals(0, cache.getMemorySize());
+        assertEquals(0, disk.getCount());
+        // every access goes to the server
+        assertNotNull(cache.loadImageTileImage(createTile("a")));
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testExpires() throws Exception {
+        TileCache cache = new TileCache(0);
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/tiles/a");
+        long now = System.currentTimeMillis();
+        HTTPClient client = new SimpleHttpClient();
+        cacheControl = "public, max-age=60";
+        assertEquals(now + 60000, cache.getExpires(client.get(url), now));
+        cacheControl = "no-store";
+        assertEquals(now, cache.getExpires(client.get(url), now));
+        cacheControl = "public";
+        assertEquals(now + TileCache.DEFAULT_TTL, cache.getExpires(client.get(url), now));
+    }
+
+    @Test
+    public void testDates() throws Exception {
+        long time = 1500000000000L;
+        assertEquals(time, TileCache.parseDate(TileCache.formatDate(time)));
+        assertEquals(784111777000L, TileCache.parseDate("Sun, 06 Nov 1994 08:49:37 GMT"));
+        assertEquals(0, TileCache.parseDate("-1"));
+        assertEquals(0, TileCache.parseDate(null));
+    }
+
+    @Test
+    public void testMemoryTierRevalidation() throws Exception {
+        TileCache cache = new TileCache(TileCache.DEFAULT_MEMORY_SIZE);
+        cacheControl = "no-cache";
+        BufferedImage image = cache.loadImageTileImage(createTile("a"));
+        // the memory entry expired right away, it is revalidated with its ETag
+        assertTrue(image == cache.loadImageTileImage(createTile("a")));
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void testTileHonoursExpiration() throws Exception {
+        TileCache cache = new TileCache(TileCache.DEFAULT_MEMORY_SIZE);
+        Tile tile = createTile("a");
+        tile.setImageLoader(cache);
+        assertNotNull(tile.getBufferedImage());
+        assertNotNull(tile.getBufferedImage());
+        assertEquals(1, requests.get());
+
+        // the tile goes through the cache, which revalidates once expired
+        cache.clearMemory();
+        cacheControl = "no-cache";
+        assertNotNull(tile.getBufferedImage());
+        assertNotNull(tile.getBufferedImage());
+        assertEquals(3, requests.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void testHttpClient() throws Exception {
+        TileCache cache = new TileCache(TileCache.DEFAULT_MEMORY_SIZE);
+        AtomicInteger calls = new AtomicInteger();
+        cache.setHttpClient(
+                new DelegateHTTPClient(new SimpleHttpClient()) {
+                    @Override
+                    public HTTPResponse get(URL url, Map<String, String> headers)
+                            throws IOException {
+                        calls.incrementAndGet();
+                        return super.get(url, headers);
+                    }
+                });
+        assertNotNull(cache.loadImageTileImage(createTile("a")));
+        assertEquals(1, calls.get());
+        assertEquals("test", lastHeader);
+    }
+
+    Tile createTile(final String name) {
+        ReferencedEnvelope env = new ReferencedEnvelope(6, 15, 47, 55, null);
+        final int port = server.getAddress().getPort();
+        return new Tile(
+                TileIdentifierTest.createTileIdentifierPrototype(
+                        new WebMercatorZoomLevel(5), 10, 12, "SomeService"),
+                env,
+                256) {
+
+            @Override
+            public URL getUrl() {
+                try {
+                    return new URL("http://localhost:" + port + "/tiles/" + name);
+                } catch (MalformedURLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public Map<String, String> getRequestHeaders() {
+                return Collections.singletonMap("X-Test", "test");
+            }
+        };
+    }
+}
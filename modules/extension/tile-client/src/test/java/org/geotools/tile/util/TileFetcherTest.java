@@ -0,0 +1,277 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.tile.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.tile.Tile;
+import org.geotools.tile.TileIdentifierTest;
+import org.geotools.tile.impl.WebMercatorZoomLevel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileFetcherTest {
+
+    HttpServer server;
+
+    TileFetcher fetcher;
+
+    byte[] png;
+
+    AtomicInteger requests = new AtomicInteger();
+
+    AtomicInteger active = new AtomicInteger();
+
+    AtomicInteger maxActive = new AtomicInteger();
+
+    static final DefaultGeographicCRS WGS84 = DefaultGeographicCRS.WGS84;
+
+    volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @Before
+    public void setUp() throws Exception {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 8, 8);
+        graphics.dispose();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bos);
+        png = bos.toByteArray();
+
+        // serves OSM style z/x/y tiles
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(
+                "/osm",
+                exchange -> {
+                    requests.incrementAndGet();
+                    int current = active.incrementAndGet();
+                    maxActive.accumulateAndGet(current, Math::max);
+                    try {
+                        gate.await(10, TimeUnit.SECONDS);
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    active.decrementAndGet();
+                    exchange.getResponseHeaders().add("Content-Type", "image/png");
+                    exchange.sendResponseHeaders(200, png.length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(png);
+                    }
+                    exchange.close();
+                });
+        server.start();
+        fetcher = new TileFetcher(8, 2);
+    }
+
+    @After
+    public void tearDown() {
+        fetcher.dispose();
+        server.stop(0);
+    }
+
+    @Test
+    public void testFetch() throws Exception {
+        BufferedImage image = fetcher.fetch(createTile(5, 1, 2)).get(10, TimeUnit.SECONDS);
+        assertNotNull(image);
+        assertEquals(8, image.getWidth());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        gate = new CountDownLatch(1);
+        // two maps asking for the same tile at once
+        CompletableFuture<BufferedImage> first = fetcher.fetch(createTile(5, 1, 2));
+        CompletableFuture<BufferedImage> second = fetcher.fetch(createTile(5, 1, 2));
+        assertSame(first, second);
+        assertEquals(1, fetcher.getPendingCount());
+        gate.countDown();
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, requests.get());
+        assertEquals(0, fetcher.getPendingCount());
+    }
+
+    @Test
+    public void testPerHostLimit() throws Exception {
+        List<CompletableFuture<BufferedImage>> futures = new ArrayList<>();
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 4; y++) {
+                futures.add(fetcher.fetch(createTile(5, x, y)));
+            }
+        }
+        for (CompletableFuture<BufferedImage> future : futures) {
+            assertNotNull(future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(16, requests.get());
+        assertTrue("Max active was " + maxActive.get(), maxActive.get() <= 2);
+    }
+
+    @Test
+    public void testSlowHostDoesNotBlockOthers() throws Exception {
+        HttpServer other = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        other.createContext(
+                "/osm",
+                exchange -> {
+                    exchange.getResponseHeaders().add("Content-Type", "image/png");
+                    exchange.sendResponseHeaders(200, png.length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(png);
+                    }
+                    exchange.close();
+                });
+        other.start();
+        try {
+            // the slow host gets more requests than the pool has threads
+            gate = new CountDownLatch(1);
+            List<CompletableFuture<BufferedImage>> slow = new ArrayList<>();
+            for (int x = 0; x < 16; x++) {
+                slow.add(fetcher.fetch(createTile(5, x, 0)));
+            }
+            // the waiting requests do not hold pool threads, the other host is served
+            Tile tile =
+                    createTile(
+                            other.getAddress().getPort(),
+                            5,
+                            0,
+                            0,
+                            new ReferencedEnvelope(6, 15, 47, 55, null));
+            assertNotNull(fetcher.fetch(tile).get(5, TimeUnit.SECONDS));
+            assertEquals(2, active.get());
+
+            gate.countDown();
+            for (CompletableFuture<BufferedImage> future : slow) {
+                assertNotNull(future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(16, requests.get());
+            assertTrue("Max active was " + maxActive.get(), maxActive.get() <= 2);
+        } finally {
+            gate.countDown();
+            other.stop(0);
+        }
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        List<Tile> tiles = new ArrayList<>();
+        for (int x = 0; x < 3; x++) {
+            tiles.add(createTile(6, x, 0));
+        }
+        fetcher.prefetch(tiles);
+        long timeout = System.currentTimeMillis() + 10000;
+        while (fetcher.getPendingCount() > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        for (Tile tile : tiles) {
+            assertTrue(tile.isImageLoadedOK());
+        }
+        assertEquals(3, requests.get());
+
+        // loaded tiles are not fetched again
+        fetcher.prefetch(tiles);
+        assertEquals(0, fetcher.getPendingCount());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testRenderTilesSharingUrl() throws Exception {
+        // two tiles at different positions fetched from the same URL, e.g. wrapping the dateline
+        Tile left = createTile(5, 1, 2, new ReferencedEnvelope(0, 10, 0, 10, WGS84));
+        Tile right = createTile(5, 1, 2, new ReferencedEnvelope(10, 20, 0, 10, WGS84));
+        TileLayer layer = new TileLayer(null);
+        layer.setTileFetcher(fetcher);
+
+        BufferedImage image = new BufferedImage(20, 10, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        AffineTransform worldToImage = new AffineTransform(1, 0, 0, -1, 0, 10);
+        layer.renderTiles(
+                Arrays.asList(left, right),
+                g2d,
+                new ReferencedEnvelope(0, 20, 0, 10, WGS84),
+                worldToImage);
+        g2d.dispose();
+
+        assertEquals(1, requests.get());
+        assertEquals(Color.RED.getRGB(), image.getRGB(5, 5));
+        assertEquals(Color.RED.getRGB(), image.getRGB(15, 5));
+    }
+
+    Tile createTile(final int z, final int x, final int y) {
+        return createTile(z, x, y, new ReferencedEnvelope(6, 15, 47, 55, null));
+    }
+
+    Tile createTile(final int z, final int x, final int y, ReferencedEnvelope env) {
+        return createTile(server.getAddress().getPort(), z, x, y, env);
+    }
+
+    Tile createTile(final int port, final int z, final int x, final int y, ReferencedEnvelope env) {
+        Tile tile =
+                new Tile(
+                        TileIdentifierTest.createTileIdentifierPrototype(
+                                new WebMercatorZoomLevel(z), x, y, "OSM"),
+                        env,
+                        256) {
+
+                    @Override
+                    public URL getUrl() {
+                        try {
+                            return new URL(
+                                    "http://localhost:"
+                                            + port
+                                            + "/osm/"
+                                            + z
+                                            + "/"
+                                            + x
+                                            + "/"
+                                            + y
+                                            + ".png");
+                        } catch (MalformedURLException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                };
+        tile.setImageLoader(t -> ImageIO.read(t.getUrl()));
+        return tile;
+    }
+}
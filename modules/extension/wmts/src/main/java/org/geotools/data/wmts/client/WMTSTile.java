@@ -224,9 +224,7 @@ class WMTSTile extends Tile {
 
     public BufferedImage doLoadImageTileImage(Tile tile) throws IOException {
 
-        Map<String, String> headers =
-                (Map<String, String>)
-                        this.service.getExtrainfo().get(WMTSTileService.EXTRA_HEADERS);
+        Map<String, String> headers = getRequestHeaders();
         InputStream is = null;
         try {
             is = setupInputStream(getUrl(), headers);
@@ -236,6 +234,15 @@ class WMTSTile extends Tile {
         }
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, String> getRequestHeaders() {
+        Map<String, String> headers =
+                (Map<String, String>)
+                        this.service.getExtrainfo().get(WMTSTileService.EXTRA_HEADERS);
+        return headers == null ? super.getRequestHeaders() : headers;
+    }
+
     private InputStream setupInputStream(URL url, Map<String, String> headers) throws IOException {
         HttpClient client = new HttpClient();
         String uri = url.toExternalForm();
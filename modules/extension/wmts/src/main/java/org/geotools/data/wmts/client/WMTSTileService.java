@@ -471,7 +471,9 @@ public class WMTSTileService extends TileService {
      * 100 years. However, WMTS services normally come with caching headers of some sort, e.g., do
      * not cache, or keep for 1 hour, or 6 months and so on.
      *
-     * <p>TODO: The code should account for that.
+     * <p>To account for them, set a {@link org.geotools.tile.util.TileCache} on the service, which
+     * honours the caching headers and revalidates expired tiles. The {@link #EXTRA_HEADERS} are
+     * sent along with its requests.
      */
     @Override
     protected Tile addTileToCache(Tile tile) {
@@ -48,7 +48,7 @@ import org.opengis.filter.expression.Function;
  */
 public final class CommonFactoryFinder extends FactoryFinder {
     /** The service registry for this manager. Will be initialized only when first needed. */
-    private static FactoryRegistry registry;
+    private static volatile FactoryRegistry registry;
 
     /** Do not allows any instantiation of this class. */
     private CommonFactoryFinder() {
@@ -61,26 +61,32 @@ public final class CommonFactoryFinder extends FactoryFinder {
      */
     @SuppressWarnings("deprecation")
     private static FactoryRegistry getServiceRegistry() {
-        assert Thread.holdsLock(CommonFactoryFinder.class);
-        if (registry == null) {
-            registry =
-                    new FactoryCreator(
-                            Arrays.asList(
-                                    new Class<?>[] {
-                                        StyleFactory.class,
-                                        FilterFactory.class,
-                                        FeatureLockFactory.class,
-                                        FileDataStoreFactorySpi.class,
-                                        //                  FunctionImpl.class, // TODO: remove
-                                        //                  FunctionExpression.class,//TODO: remove
-                                        Function.class,
-                                        FunctionFactory.class,
-                                        FeatureFactory.class,
-                                        FeatureTypeFactory.class,
-                                        FeatureCollections.class
-                                    }));
+        FactoryRegistry result = registry;
+        if (result == null) {
+            synchronized (CommonFactoryFinder.class) {
+                result = registry;
+                if (result == null) {
+                    result =
+                            new FactoryCreator(
+                                    Arrays.asList(
+                                            new Class<?>[] {
+                                                StyleFactory.class,
+                                                FilterFactory.class,
+                                                FeatureLockFactory.class,
+                                                FileDataStoreFactorySpi.class,
+                                                // FunctionImpl.class, // TODO: remove
+                                                // FunctionExpression.class,//TODO: remove
+                                                Function.class,
+                                                FunctionFactory.class,
+                                                FeatureFactory.class,
+                                                FeatureTypeFactory.class,
+                                                FeatureCollections.class
+                                            }));
+                    registry = result;
+                }
+            }
         }
-        return registry;
+        return result;
     }
 
     /**
@@ -116,7 +122,7 @@ public final class CommonFactoryFinder extends FactoryFinder {
      * @param hints An optional map of hints, or {@code null} if none.
      * @return Set of available style factory implementations.
      */
-    public static synchronized Set<StyleFactory> getStyleFactories(Hints hints) {
+    public static Set<StyleFactory> getStyleFactories(Hints hints) {
         hints = mergeSystemHints(hints);
         return new LazySet<StyleFactory>(
                 getServiceRegistry().getFactories(StyleFactory.class, null, hints));
@@ -128,7 +134,7 @@ public final class CommonFactoryFinder extends FactoryFinder {
      * @param hints An optional map of hints, or {@code null} if none.
      * @return Set of available function expression implementations.
      */
-    public static synchronized Set<Function> getFunctions(Hints hints) {
+    public static Set<Function> getFunctions(Hints hints) {
         hints = mergeSystemHints(hints);
         return new LazySet<Function>(
                 getServiceRegistry().getFactories(Function.class, null, hints));
@@ -140,7 +146,7 @@ public final class CommonFactoryFinder extends FactoryFinder {
      * @param hints An optional map of hints, or {@code null} if none.
      * @return Set of available function factory implementations.
      */
-    public static synchronized Set<FunctionFactory> getFunctionFactories(Hints hints) {
+    public static Set<FunctionFactory> getFunctionFactories(Hints hints) {
         hints = mergeSystemHints(hints);
         return new LazySet<FunctionFactory>(
                 getServiceRegistry().getFactories(FunctionFactory.class, null, hints));
@@ -171,7 +177,7 @@ public final class CommonFactoryFinder extends FactoryFinder {
      * @return Set<FeatureLockFactory> of available style factory implementations.
      * @deprecated FeatureLockFactory is no longer needed
      */
-    public static synchronized Set<FeatureLockFactory> getFeatureLockFactories(Hints hints) {
+    public static Set<FeatureLockFactory> getFeatureLockFactories(Hints hints) {
         hints = mergeSystemHints(hints);
         return new LazySet<FeatureLockFactory>(
                 getServiceRegistry().getFactories(FeatureLockFactory.class, null, hints));
@@ -184,7 +190,7 @@ public final class CommonFactoryFinder extends FactoryFinder {
      * @param hints An optional map of hints, or {@code null} if none.
      * @return Set of available file data store factory implementations.
      */
-    public static synchronized Set<FileDataStoreFactorySpi> getFileDataStoreFactories(Hints hints) {
+    public static Set<FileDataStoreFactorySpi> getFileDataStoreFactories(Hints hints) {
         hints = mergeSystemHints(hints);
         return new LazySet<FileDataStoreFactorySpi>(
                 getServiceRegistry().getFactories(FileDataStoreFactorySpi.class, null, hints));
@@ -263,7 +269,7 @@ public final class CommonFactoryFinder extends FactoryFinder {
      * @param hints An optional map of hints, or {@code null} if none.
      * @return Set of available feature collections implementations.
      */
-    public static synchronized Set<FeatureCollections> getFeatureCollectionsSet(Hints hints) {
+    public static Set<FeatureCollections> getFeatureCollectionsSet(Hints hints) {
         hints = mergeSystemHints(hints);
         return new LazySet<FeatureCollections>(
                 getServiceRegistry().getFactories(FeatureCollections.class, null, hints));
@@ -336,7 +342,7 @@ public final class CommonFactoryFinder extends FactoryFinder {
      * @param hints An optional map of hints, or {@code null} if none.
      * @return Set of available filter factory implementations.
      */
-    public static synchronized Set<FilterFactory> getFilterFactories(Hints hints) {
+    public static Set<FilterFactory> getFilterFactories(Hints hints) {
         hints = mergeSystemHints(hints);
         return new LazySet<FilterFactory>(
                 getServiceRegistry().getFactories(FilterFactory.class, null, hints));
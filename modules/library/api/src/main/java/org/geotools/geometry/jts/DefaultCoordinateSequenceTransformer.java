@@ -16,10 +16,10 @@
  */
 package org.geotools.geometry.jts;
 
-import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
 import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
@@ -30,7 +30,10 @@ import org.opengis.referencing.operation.TransformException;
  * that caller are immediately notified if a transformation fails).
  *
  * <p>This transformer support {@linkplain MathTransform math transform} with up to 3 source or
- * target dimensions. This transformer is not thread-safe.
+ * target dimensions. This transformer is thread-safe, the scratch buffer used to feed the math
+ * transform is confined to the calling thread and reused across invocations. When both the source
+ * and the target sequences are {@link PackedCoordinateSequence.Double} with the dimension of the
+ * transform, the packed arrays are transformed directly, without any intermediate copy.
  *
  * @since 2.1
  * @source $URL$
@@ -40,13 +43,18 @@ import org.opengis.referencing.operation.TransformException;
  */
 public class DefaultCoordinateSequenceTransformer implements CoordinateSequenceTransformer {
     /**
-     * A buffer for coordinate transformations. We choose a length which is divisible by both 2 and
-     * 3, since JTS coordinates may be up to three-dimensional. If the number of coordinates point
-     * to transform is greater than the buffer capacity, then the buffer will be flushed to the
-     * destination array before to continue. We avoid to create a buffer as large than the number of
-     * point to transforms, because it would consume a large amount of memory for big geometries.
+     * The size of the buffers for coordinate transformations. We choose a length which is divisible
+     * by both 2 and 3, since JTS coordinates may be up to three-dimensional. If the number of
+     * coordinates point to transform is greater than the buffer capacity, then the buffer will be
+     * flushed to the destination array before to continue. We avoid to create a buffer as large
+     * than the number of point to transforms, because it would consume a large amount of memory
+     * for big geometries.
      */
-    private final transient double[] buffer = new double[96];
+    static final int BUFFER_SIZE = 1536;
+
+    /** The buffers for coordinate transformations, one per thread */
+    private static final ThreadLocal<double[]> BUFFERS =
+            ThreadLocal.withInitial(() -> new double[BUFFER_SIZE]);
 
     /** The coordinate sequence factory to use. */
     private final CoordinateSequenceFactory csFactory;
@@ -67,17 +75,29 @@ public class DefaultCoordinateSequenceTransformer implements CoordinateSequenceT
         final int sourceDim = transform.getSourceDimensions();
         final int targetDim = transform.getTargetDimensions();
         final int size = sequence.size();
-        final Coordinate[] tcs = new Coordinate[size];
-        final int bufferCapacity = buffer.length / Math.max(sourceDim, targetDim);
-        int remainingBeforeFlush = Math.min(bufferCapacity, size);
-        int ib = 0; // Index in the buffer array.
-        int it = 0; // Index in the target sequence.
 
         // create a target CS so that the dimensions not contemplated in the source CS
         // are copied over (think Z or M with a 2d CRS)
         int targetCSDim = targetDim + (sequence.getDimension() - sourceDim);
         CoordinateSequence result = JTS.createCS(csFactory, sequence.size(), targetCSDim);
 
+        // fast path, transform the packed arrays directly
+        if (sourceDim == sequence.getDimension()
+                && targetDim == result.getDimension()
+                && sequence instanceof PackedCoordinateSequence.Double
+                && result instanceof PackedCoordinateSequence.Double) {
+            final double[] source = ((PackedCoordinateSequence.Double) sequence).getRawCoordinates();
+            final double[] target = ((PackedCoordinateSequence.Double) result).getRawCoordinates();
+            transform.transform(source, 0, target, 0, size);
+            return result;
+        }
+
+        final double[] buffer = BUFFERS.get();
+        final int bufferCapacity = buffer.length / Math.max(sourceDim, targetDim);
+        int remainingBeforeFlush = Math.min(bufferCapacity, size);
+        int ib = 0; // Index in the buffer array.
+        int it = 0; // Index in the target sequence.
+
         for (int i = 0; i < size; i++) {
             switch (sourceDim) {
                 default:
@@ -110,8 +130,6 @@ public class DefaultCoordinateSequenceTransformer implements CoordinateSequenceT
                 ib = 0;
 
                 for (int j = 0; j < n; j++) {
-                    // final Coordinate t;
-
                     // copy the transformed portion
                     int oi = 0;
                     for (; oi < targetDim; oi++) {
@@ -137,7 +155,7 @@ public class DefaultCoordinateSequenceTransformer implements CoordinateSequenceT
                 remainingBeforeFlush = Math.min(bufferCapacity, size - (i + 1));
             }
         }
-        assert it == tcs.length : tcs.length - it;
+        assert it == size : size - it;
 
         return result;
     }
@@ -44,26 +44,30 @@ import org.opengis.referencing.operation.TransformException;
  * to construct transformed geometries using the {@link GeometryFactory} and {@link
  * CoordinateSequenceFactory} of the input geometry.
  *
+ * <p>Once configured, the transformer can be shared among threads, as long as the {@link
+ * CoordinateSequenceTransformer} provided at construction time, if any, is thread-safe as well (the
+ * default one is).
+ *
  * @author Andrea Aime
  * @author Martin Davis
  * @source $URL$
  */
 public class GeometryCoordinateSequenceTransformer {
-    private MathTransform transform = null;
-    private CoordinateReferenceSystem crs;
+    private volatile MathTransform transform = null;
+    private volatile CoordinateReferenceSystem crs;
     private CoordinateSequenceTransformer inputCSTransformer = null;
-    private CoordinateSequenceTransformer csTransformer = null;
-    private GeometryFactory currGeometryFactory = null;
+    /** The default transformer, along with the factory it has been built for */
+    private volatile FactoryTransformer defaultCSTransformer = null;
 
-    private boolean curveCompatible;
+    private volatile boolean curveCompatible;
 
     /**
      * Creates a transformer which uses the {@link CoordinateSequenceFactory} of the source
      * geometries.
      */
     public GeometryCoordinateSequenceTransformer() {
-        // the csTransformer is initialized from the first geometry
-        // and the supplied transform
+        // the coordinate sequence transformer is built from the geometry factory
+        // of the geometries being transformed
     }
 
     /**
@@ -77,7 +81,6 @@ public class GeometryCoordinateSequenceTransformer {
      */
     public GeometryCoordinateSequenceTransformer(CoordinateSequenceTransformer transformer) {
         inputCSTransformer = transformer;
-        csTransformer = transformer;
     }
 
     /**
@@ -103,19 +106,35 @@ public class GeometryCoordinateSequenceTransformer {
     }
 
     /**
-     * Initializes the internal CoordinateSequenceTransformer if not specified explicitly.
+     * Returns the CoordinateSequenceTransformer to be used with the given factory, either the one
+     * specified explicitly, or a default one using the factory coordinate sequence factory
      *
      * @param gf the factory to use
      */
-    private void init(GeometryFactory gf) {
-        // don't init if csTransformer already exists
-        if (inputCSTransformer != null) return;
-        // don't reinit if gf is the same (the usual case)
-        if (currGeometryFactory == gf) return;
-
-        currGeometryFactory = gf;
-        CoordinateSequenceFactory csf = gf.getCoordinateSequenceFactory();
-        csTransformer = new DefaultCoordinateSequenceTransformer(csf);
+    private CoordinateSequenceTransformer getCSTransformer(GeometryFactory gf) {
+        if (inputCSTransformer != null) {
+            return inputCSTransformer;
+        }
+        // don't rebuild if gf is the same (the usual case)
+        FactoryTransformer current = defaultCSTransformer;
+        if (current == null || current.factory != gf) {
+            CoordinateSequenceFactory csf = gf.getCoordinateSequenceFactory();
+            current =
+                    new FactoryTransformer(gf, new DefaultCoordinateSequenceTransformer(csf));
+            defaultCSTransformer = current;
+        }
+        return current.transformer;
+    }
+
+    /** Associates a geometry factory with the transformer built for it */
+    private static final class FactoryTransformer {
+        final GeometryFactory factory;
+        final CoordinateSequenceTransformer transformer;
+
+        FactoryTransformer(GeometryFactory factory, CoordinateSequenceTransformer transformer) {
+            this.factory = factory;
+            this.transformer = transformer;
+        }
     }
 
     /**
@@ -129,9 +148,6 @@ public class GeometryCoordinateSequenceTransformer {
         GeometryFactory factory = g.getFactory();
         Geometry transformed = null;
 
-        // lazily init csTransformer using geometry's CSFactory
-        init(factory);
-
         if (g instanceof Point) {
             transformed = transformPoint((Point) g, factory);
         } else if (g instanceof MultiPoint) {
@@ -216,10 +232,7 @@ public class GeometryCoordinateSequenceTransformer {
 
     private LineString transformStraightLineString(LineString ls, GeometryFactory gf)
             throws TransformException {
-        // if required, init csTransformer using geometry's CSFactory
-        init(gf);
-
-        CoordinateSequence cs = projectCoordinateSequence(ls.getCoordinateSequence());
+        CoordinateSequence cs = projectCoordinateSequence(ls.getCoordinateSequence(), gf);
         LineString transformed = null;
 
         if (ls instanceof LinearRing) {
@@ -258,10 +271,7 @@ public class GeometryCoordinateSequenceTransformer {
      */
     public Point transformPoint(Point point, GeometryFactory gf) throws TransformException {
 
-        // if required, init csTransformer using geometry's CSFactory
-        init(gf);
-
-        CoordinateSequence cs = projectCoordinateSequence(point.getCoordinateSequence());
+        CoordinateSequence cs = projectCoordinateSequence(point.getCoordinateSequence(), gf);
         Point transformed = gf.createPoint(cs);
         transformed.setUserData(point.getUserData());
         return transformed;
@@ -269,11 +279,12 @@ public class GeometryCoordinateSequenceTransformer {
 
     /**
      * @param cs a CoordinateSequence
+     * @param gf the factory of the geometry being transformed
      * @throws TransformException
      */
-    private CoordinateSequence projectCoordinateSequence(CoordinateSequence cs)
+    private CoordinateSequence projectCoordinateSequence(CoordinateSequence cs, GeometryFactory gf)
             throws TransformException {
-        return csTransformer.transform(cs, transform);
+        return getCSTransformer(gf).transform(cs, transform);
     }
 
     /**
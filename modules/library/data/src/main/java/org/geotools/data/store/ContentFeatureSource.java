@@ -584,6 +584,17 @@ public abstract class ContentFeatureSource implements SimpleFeatureSource {
             throw new IOException("Feature source does not support joins");
         }
 
+        // in memory sorting holds on the features, they cannot be recycled
+        if (!canSort()
+                && query.getSortBy() != null
+                && query.getSortBy().length != 0
+                && Boolean.TRUE.equals(query.getHints().get(Hints.FEATURE_FLYWEIGHT))) {
+            Hints hints = new Hints(query.getHints());
+            hints.remove(Hints.FEATURE_FLYWEIGHT);
+            query = new Query(query);
+            query.setHints(hints);
+        }
+
         // if the implementation can retype but not sort, we might have
         // to remove the retyping, or we won't be able to sort in memory
         FeatureReader<SimpleFeatureType, SimpleFeature> reader;
@@ -42,6 +42,7 @@ import org.geotools.data.Transaction;
 import org.geotools.factory.Hints;
 import org.geotools.feature.GeometryAttributeImpl;
 import org.geotools.feature.IllegalAttributeException;
+import org.geotools.feature.simple.PrimitiveSimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.type.AttributeDescriptorImpl;
 import org.geotools.feature.type.Types;
@@ -220,10 +221,14 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         this.screenMap = (ScreenMap) hints.get(Hints.SCREENMAP);
 
         // create a feature builder using the factory hinted or the one coming
-        // from the datastore
+        // from the datastore, unless a flyweight feature has been requested
         FeatureFactory ff = (FeatureFactory) hints.get(Hints.FEATURE_FACTORY);
-        if (ff == null) ff = featureSource.getDataStore().getFeatureFactory();
-        builder = new SimpleFeatureBuilder(featureType, ff);
+        if (ff == null && Boolean.TRUE.equals(hints.get(Hints.FEATURE_FLYWEIGHT))) {
+            builder = new PrimitiveSimpleFeatureBuilder(featureType, true);
+        } else {
+            if (ff == null) ff = featureSource.getDataStore().getFeatureFactory();
+            builder = new SimpleFeatureBuilder(featureType, ff);
+        }
 
         // find the primary key
         try {
@@ -401,6 +406,12 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
                         }
                     }
 
+                } else if (builder instanceof PrimitiveSimpleFeatureBuilder
+                        && readPrimitive(
+                                (PrimitiveSimpleFeatureBuilder) builder,
+                                i,
+                                offset + attributeRsIndex[i])) {
+                    continue;
                 } else {
                     value = rs.getObject(offset + attributeRsIndex[i]);
                 }
@@ -426,7 +437,7 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
                     }
                 }
 
-                builder.add(value);
+                builder.set(i, value);
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -441,6 +452,42 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         }
     }
 
+    /**
+     * Reads a numeric or boolean column straight into the builder, without boxing the value
+     *
+     * @return false if the attribute is not stored in primitive form, and has to be read as an
+     *     object instead
+     */
+    boolean readPrimitive(PrimitiveSimpleFeatureBuilder builder, int index, int column)
+            throws SQLException {
+        Class<?> storage = builder.getStorageType(index);
+        if (storage == long.class) {
+            long value = rs.getLong(column);
+            if (rs.wasNull()) {
+                builder.set(index, null);
+            } else {
+                builder.setLong(index, value);
+            }
+        } else if (storage == double.class) {
+            double value = rs.getDouble(column);
+            if (rs.wasNull()) {
+                builder.set(index, null);
+            } else {
+                builder.setDouble(index, value);
+            }
+        } else if (storage == boolean.class) {
+            boolean value = rs.getBoolean(column);
+            if (rs.wasNull()) {
+                builder.set(index, null);
+            } else {
+                builder.setBoolean(index, value);
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
     protected void ensureNext() {
         if (next == null) {
             throw new IllegalStateException("Must call hasNext before calling next");
@@ -107,6 +107,8 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         // mark the features as detached, that is, the user can directly alter them
         // without altering the state of the datastore
         hints.add(Hints.FEATURE_DETACHED);
+        // features can be recycled and numbers read without boxing them
+        hints.add(Hints.FEATURE_FLYWEIGHT);
         getDataStore().getSQLDialect().addSupportedHints(hints);
     }
 
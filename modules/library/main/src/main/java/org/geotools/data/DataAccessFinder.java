@@ -54,7 +54,7 @@ public final class DataAccessFinder {
             org.geotools.util.logging.Logging.getLogger("org.geotools.data");
 
     /** The service registry for this manager. Will be initialized only when first needed. */
-    private static FactoryRegistry registry;
+    private static volatile FactoryRegistry registry;
 
     // Singleton pattern
     private DataAccessFinder() {}
@@ -71,7 +71,7 @@ public final class DataAccessFinder {
      *     specified resource without errors.
      */
     @SuppressWarnings("unchecked")
-    public static synchronized DataAccess<FeatureType, Feature> getDataStore(
+    public static DataAccess<FeatureType, Feature> getDataStore(
             Map<String, Serializable> params) throws IOException {
         Iterator<DataAccessFactory> ps = getAvailableDataStores();
         return (DataAccess<FeatureType, Feature>) getDataStore(params, ps);
@@ -150,7 +150,7 @@ public final class DataAccessFinder {
      *
      * @return An iterator over all discovered datastores which have registered factories
      */
-    public static synchronized Iterator<DataAccessFactory> getAllDataStores() {
+    public static Iterator<DataAccessFactory> getAllDataStores() {
         Set<DataAccessFactory> all = new HashSet<DataAccessFactory>();
         Iterator<DataStoreFactorySpi> allDataStores = DataStoreFinder.getAllDataStores();
         Iterator<DataAccessFactory> allDataAccess =
@@ -167,7 +167,7 @@ public final class DataAccessFinder {
         return all.iterator();
     }
 
-    static synchronized <T extends DataAccessFactory> Iterator<T> getAllDataStores(
+    static <T extends DataAccessFactory> Iterator<T> getAllDataStores(
             FactoryRegistry registry, Class<T> category) {
         return registry.getFactories(category, null, null).iterator();
     }
@@ -179,7 +179,7 @@ public final class DataAccessFinder {
      * @return An iterator over all discovered datastores which have registered factories, and whose
      *     available method returns true.
      */
-    public static synchronized Iterator<DataAccessFactory> getAvailableDataStores() {
+    public static Iterator<DataAccessFactory> getAvailableDataStores() {
 
         FactoryRegistry serviceRegistry = getServiceRegistry();
         Set<DataAccessFactory> availableDS =
@@ -194,7 +194,7 @@ public final class DataAccessFinder {
         return availableDS.iterator();
     }
 
-    static synchronized <T extends DataAccessFactory> Set<T> getAvailableDataStores(
+    static <T extends DataAccessFactory> Set<T> getAvailableDataStores(
             FactoryRegistry registry, Class<T> targetClass) {
         return registry.getFactories(targetClass, null, null)
                 .filter(DataAccessFactory::isAvailable)
@@ -206,11 +206,19 @@ public final class DataAccessFinder {
      * invoked.
      */
     private static FactoryRegistry getServiceRegistry() {
-        assert Thread.holdsLock(DataAccessFinder.class);
-        if (registry == null) {
-            registry = new FactoryCreator(Arrays.asList(new Class<?>[] {DataAccessFactory.class}));
+        FactoryRegistry result = registry;
+        if (result == null) {
+            synchronized (DataAccessFinder.class) {
+                result = registry;
+                if (result == null) {
+                    result =
+                            new FactoryCreator(
+                                    Arrays.asList(new Class<?>[] {DataAccessFactory.class}));
+                    registry = result;
+                }
+            }
         }
-        return registry;
+        return result;
     }
 
     /**
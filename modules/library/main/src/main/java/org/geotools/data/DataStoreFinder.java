@@ -49,7 +49,7 @@ public final class DataStoreFinder {
             org.geotools.util.logging.Logging.getLogger("org.geotools.data");
 
     /** The service registry for this manager. Will be initialized only when first needed. */
-    private static FactoryRegistry registry;
+    private static volatile FactoryRegistry registry;
 
     // Singleton pattern
     private DataStoreFinder() {}
@@ -65,7 +65,7 @@ public final class DataStoreFinder {
      * @throws IOException If a suitable loader can be found, but it can not be attached to the
      *     specified resource without errors.
      */
-    public static synchronized DataStore getDataStore(Map params) throws IOException {
+    public static DataStore getDataStore(Map params) throws IOException {
         Iterator<DataStoreFactorySpi> ps = getAvailableDataStores();
         DataAccess<? extends FeatureType, ? extends Feature> dataStore;
         dataStore = DataAccessFinder.getDataStore(params, ps);
@@ -78,7 +78,7 @@ public final class DataStoreFinder {
      *
      * @return An iterator over all discovered datastores which have registered factories
      */
-    public static synchronized Iterator<DataStoreFactorySpi> getAllDataStores() {
+    public static Iterator<DataStoreFactorySpi> getAllDataStores() {
         return DataAccessFinder.getAllDataStores(getServiceRegistry(), DataStoreFactorySpi.class);
     }
 
@@ -89,7 +89,7 @@ public final class DataStoreFinder {
      * @return An iterator over all discovered datastores which have registered factories, and whose
      *     available method returns true.
      */
-    public static synchronized Iterator<DataStoreFactorySpi> getAvailableDataStores() {
+    public static Iterator<DataStoreFactorySpi> getAvailableDataStores() {
         Set<DataStoreFactorySpi> availableDS;
         FactoryRegistry serviceRegistry = getServiceRegistry();
         availableDS =
@@ -102,12 +102,19 @@ public final class DataStoreFinder {
      * invoked.
      */
     private static FactoryRegistry getServiceRegistry() {
-        assert Thread.holdsLock(DataStoreFinder.class);
-        if (registry == null) {
-            registry =
-                    new FactoryCreator(Arrays.asList(new Class<?>[] {DataStoreFactorySpi.class}));
+        FactoryRegistry result = registry;
+        if (result == null) {
+            synchronized (DataStoreFinder.class) {
+                result = registry;
+                if (result == null) {
+                    result =
+                            new FactoryCreator(
+                                    Arrays.asList(new Class<?>[] {DataStoreFactorySpi.class}));
+                    registry = result;
+                }
+            }
         }
-        return registry;
+        return result;
     }
 
     /**
@@ -0,0 +1,131 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.factory.Hints;
+import org.geotools.renderer.ScreenMap;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * Skips the features whose geometry is smaller than a pixel and falls on a pixel already painted,
+ * according to a {@link ScreenMap}, the way stores supporting {@link Hints#SCREENMAP} do. The
+ * remaining sub-pixel geometries are replaced by their simplified version.
+ *
+ * <p>The screen map must only be updated with features that are actually returned, so the query
+ * filter, if any, is evaluated before the screen map is checked.
+ *
+ * @since 20
+ */
+public class ScreenMapFeatureReader
+        implements DelegatingFeatureReader<SimpleFeatureType, SimpleFeature> {
+
+    static final Logger LOGGER = Logging.getLogger(ScreenMapFeatureReader.class);
+
+    final FeatureReader<SimpleFeatureType, SimpleFeature> delegate;
+
+    final Filter filter;
+
+    final ScreenMap screenMap;
+
+    SimpleFeature next;
+
+    /**
+     * Creates a new reader
+     *
+     * @param delegate the reader providing the features
+     * @param filter the filter the features must match before the screen map is checked, can be
+     *     null
+     * @param screenMap the screen map tracking the pixels already painted
+     */
+    public ScreenMapFeatureReader(
+            FeatureReader<SimpleFeatureType, SimpleFeature> delegate,
+            Filter filter,
+            ScreenMap screenMap) {
+        this.delegate = delegate;
+        this.filter = filter == null ? Filter.INCLUDE : filter;
+        this.screenMap = screenMap;
+    }
+
+    @Override
+    public FeatureReader<SimpleFeatureType, SimpleFeature> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public SimpleFeatureType getFeatureType() {
+        return delegate.getFeatureType();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        while (next == null && delegate.hasNext()) {
+            SimpleFeature feature = delegate.next();
+            if (filter.evaluate(feature) && checkScreenMap(feature)) {
+                next = feature;
+            }
+        }
+        return next != null;
+    }
+
+    /** Returns false if the feature is to be skipped */
+    boolean checkScreenMap(SimpleFeature feature) {
+        Object value = feature.getDefaultGeometry();
+        if (!(value instanceof Geometry)) {
+            return true;
+        }
+        Geometry geometry = (Geometry) value;
+        Envelope envelope = geometry.getEnvelopeInternal();
+        try {
+            if (screenMap.canSimplify(envelope)) {
+                if (screenMap.checkAndSet(envelope)) {
+                    return false;
+                }
+                Geometry simplified = screenMap.getSimplifiedShape(geometry);
+                simplified.setUserData(geometry.getUserData());
+                feature.setDefaultGeometry(simplified);
+            }
+        } catch (TransformException e) {
+            LOGGER.log(Level.FINE, "Failed to process screenmap checks, proceeding without", e);
+        }
+        return true;
+    }
+
+    @Override
+    public SimpleFeature next() throws IOException, NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more features in this reader");
+        }
+        SimpleFeature result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
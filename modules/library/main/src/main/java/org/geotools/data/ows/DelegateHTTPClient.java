@@ -19,6 +19,7 @@ package org.geotools.data.ows;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Map;
 
 public class DelegateHTTPClient implements HTTPClient {
 
@@ -39,6 +40,11 @@ public class DelegateHTTPClient implements HTTPClient {
         return delegate.get(url);
     }
 
+    @Override
+    public HTTPResponse get(URL url, Map<String, String> headers) throws IOException {
+        return delegate.get(url, headers);
+    }
+
     @Override
     public String getUser() {
         return delegate.getUser();
@@ -19,6 +19,7 @@ package org.geotools.data.ows;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Map;
 
 /**
  * Defines the inteface by which an {@link AbstractOpenWebService} executes HTTP requests.
@@ -71,6 +72,25 @@ public interface HTTPClient {
      */
     HTTPResponse get(URL url) throws IOException;
 
+    /**
+     * Executes an HTTP GET request against the provided URL, adding the given request headers, and
+     * returns the server response. Used for instance to issue conditional requests ({@code
+     * If-None-Match}, {@code If-Modified-Since}), a {@code 304 Not Modified} response has an empty
+     * body.
+     *
+     * <p>The default implementation ignores the headers and issues a plain {@link #get(URL)}
+     * request.
+     *
+     * @param url the URL to retrieve
+     * @param headers the request headers to add to the request
+     * @return an {@link HTTPResponse} encapsulating the response to the HTTP GET request
+     * @throws IOException
+     * @since 20
+     */
+    default HTTPResponse get(URL url, Map<String, String> headers) throws IOException {
+        return get(url);
+    }
+
     /** @return the HTTP BASIC Authentication user name, or {@code null} if not set */
     public String getUser();
 
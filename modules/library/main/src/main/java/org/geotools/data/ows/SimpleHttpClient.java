@@ -22,6 +22,7 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 import org.geotools.data.Base64;
 
@@ -87,11 +88,22 @@ public class SimpleHttpClient implements HTTPClient {
 
     /** @see org.geotools.data.ows.HTTPClient#get(java.net.URL) */
     public HTTPResponse get(final URL url) throws IOException {
+        return get(url, null);
+    }
+
+    /** @see org.geotools.data.ows.HTTPClient#get(java.net.URL, java.util.Map) */
+    @Override
+    public HTTPResponse get(final URL url, final Map<String, String> headers) throws IOException {
 
         URLConnection connection = openConnection(url);
         if (connection instanceof HttpURLConnection) {
             ((HttpURLConnection) connection).setRequestMethod("GET");
         }
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+        }
 
         connection.connect();
 
@@ -55,12 +55,7 @@ public class ReprojectingFeatureIterator implements SimpleFeatureIterator {
             SimpleFeatureType schema,
             GeometryCoordinateSequenceTransformer transformer)
             throws OperationNotFoundException, FactoryRegistryException, FactoryException {
-        this.delegate = delegate;
-
-        this.schema = schema;
-
-        tx = transformer;
-        tx.setMathTransform((MathTransform2D) transform);
+        this(delegate, null, schema, transformer, (MathTransform2D) transform);
     }
 
     public ReprojectingFeatureIterator(
@@ -70,18 +65,30 @@ public class ReprojectingFeatureIterator implements SimpleFeatureIterator {
             SimpleFeatureType schema,
             GeometryCoordinateSequenceTransformer transformer)
             throws OperationNotFoundException, FactoryRegistryException, FactoryException {
+        this(delegate, target, schema, transformer, findTransform(source, target));
+    }
+
+    private ReprojectingFeatureIterator(
+            SimpleFeatureIterator delegate,
+            CoordinateReferenceSystem target,
+            SimpleFeatureType schema,
+            GeometryCoordinateSequenceTransformer transformer,
+            MathTransform transform) {
         this.delegate = delegate;
         this.target = target;
         this.schema = schema;
         tx = transformer;
-
-        MathTransform transform =
-                ReferencingFactoryFinder.getCoordinateOperationFactory(null)
-                        .createOperation(source, target)
-                        .getMathTransform();
         tx.setMathTransform(transform);
     }
 
+    private static MathTransform findTransform(
+            CoordinateReferenceSystem source, CoordinateReferenceSystem target)
+            throws OperationNotFoundException, FactoryRegistryException, FactoryException {
+        return ReferencingFactoryFinder.getCoordinateOperationFactory(null)
+                .createOperation(source, target)
+                .getMathTransform();
+    }
+
     public SimpleFeatureIterator getDelegate() {
         return delegate;
     }
@@ -0,0 +1,819 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.feature.GeometryAttributeImpl;
+import org.geotools.feature.IllegalAttributeException;
+import org.geotools.feature.type.AttributeDescriptorImpl;
+import org.geotools.feature.type.Types;
+import org.geotools.geometry.jts.JTS;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.geometry.jts.coordinatesequence.CoordinateSequences;
+import org.geotools.util.Converters;
+import org.geotools.util.Utilities;
+import org.opengis.feature.GeometryAttribute;
+import org.opengis.feature.Property;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.AttributeType;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.feature.type.GeometryType;
+import org.opengis.feature.type.Name;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.filter.identity.Identifier;
+import org.opengis.geometry.BoundingBox;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * An implementation of {@link SimpleFeature} storing numeric and boolean attributes in primitive
+ * arrays, laid out according to the feature type.
+ *
+ * <p>Attributes bound to {@link Long}, {@link Integer}, {@link Short}, {@link Byte} and {@link
+ * Boolean} are kept in a {@code long[]}, the ones bound to {@link Double} and {@link Float} in a
+ * {@code double[]}, everything else in an {@code Object[]}. The typed accessors such as {@link
+ * #getDouble(int)} read the values without boxing them, while {@link #getAttribute(int)} boxes them
+ * on demand into the type binding.
+ *
+ * <p>Instances are usually created by a {@link PrimitiveSimpleFeatureBuilder}, which can also
+ * recycle the same instance for every row read (flyweight mode), see {@link
+ * org.geotools.factory.Hints#FEATURE_FLYWEIGHT}.
+ *
+ * @source $URL$
+ */
+public class PrimitiveSimpleFeature implements SimpleFeature {
+
+    /** The storage of each attribute, and its position in the storage arrays */
+    static final class Layout {
+        static final byte OBJECT = 0;
+
+        static final byte LONG = 1;
+
+        static final byte DOUBLE = 2;
+
+        static final byte BOOLEAN = 3;
+
+        final SimpleFeatureType featureType;
+
+        final Map<String, Integer> index;
+
+        final Class<?>[] bindings;
+
+        final byte[] storage;
+
+        final int[] slots;
+
+        final int longCount;
+
+        final int doubleCount;
+
+        final int objectCount;
+
+        Layout(SimpleFeatureType featureType) {
+            this.featureType = featureType;
+            this.index = SimpleFeatureImpl.index(featureType);
+            final int count = featureType.getAttributeCount();
+            bindings = new Class<?>[count];
+            storage = new byte[count];
+            slots = new int[count];
+            int longs = 0, doubles = 0, objects = 0;
+            for (int i = 0; i < count; i++) {
+                Class<?> binding = featureType.getDescriptor(i).getType().getBinding();
+                bindings[i] = binding;
+                if (binding == Long.class
+                        || binding == Integer.class
+                        || binding == Short.class
+                        || binding == Byte.class) {
+                    storage[i] = LONG;
+                    slots[i] = longs++;
+                } else if (binding == Boolean.class) {
+                    storage[i] = BOOLEAN;
+                    slots[i] = longs++;
+                } else if (binding == Double.class || binding == Float.class) {
+                    storage[i] = DOUBLE;
+                    slots[i] = doubles++;
+                } else {
+                    storage[i] = OBJECT;
+                    slots[i] = objects++;
+                }
+            }
+            this.longCount = longs;
+            this.doubleCount = doubles;
+            this.objectCount = objects;
+        }
+
+        Class<?> getStorageType(int index) {
+            switch (storage[index]) {
+                case LONG:
+                    return long.class;
+                case DOUBLE:
+                    return double.class;
+                case BOOLEAN:
+                    return boolean.class;
+                default:
+                    return Object.class;
+            }
+        }
+    }
+
+    final Layout layout;
+
+    protected final SimpleFeatureType featureType;
+
+    protected FeatureId id;
+
+    /** Integral and boolean values */
+    final long[] longs;
+
+    /** Floating point values */
+    final double[] doubles;
+
+    /** All other values */
+    final Object[] objects;
+
+    /** The primitive attributes currently set to null */
+    final BitSet nulls;
+
+    /** The set of user data attached to the feature (lazily created) */
+    protected Map<Object, Object> userData;
+
+    /** The set of user data attached to each attribute (lazily created) */
+    protected Map<Object, Object>[] attributeUserData;
+
+    /**
+     * Builds a new feature with all attributes set to null
+     *
+     * @param featureType
+     * @param id
+     */
+    public PrimitiveSimpleFeature(SimpleFeatureType featureType, FeatureId id) {
+        this(new Layout(featureType), id);
+    }
+
+    PrimitiveSimpleFeature(Layout layout, FeatureId id) {
+        this.layout = layout;
+        this.featureType = layout.featureType;
+        this.id = id;
+        this.longs = new long[layout.longCount];
+        this.doubles = new double[layout.doubleCount];
+        this.objects = new Object[layout.objectCount];
+        this.nulls = new BitSet(layout.storage.length);
+        nulls.set(0, layout.storage.length);
+    }
+
+    /** Sets all attributes back to null, drops the user data, and assigns a new id */
+    void clear(FeatureId id) {
+        this.id = id;
+        nulls.set(0, layout.storage.length);
+        Arrays.fill(objects, null);
+        userData = null;
+        attributeUserData = null;
+    }
+
+    /**
+     * Returns true if the attribute at the specified position is null
+     *
+     * @param index
+     */
+    public boolean isNull(int index) {
+        if (layout.storage[index] == Layout.OBJECT) {
+            return objects[layout.slots[index]] == null;
+        }
+        return nulls.get(index);
+    }
+
+    /**
+     * Returns the value of a numeric attribute as a long, without boxing it. Null values are
+     * returned as zero, use {@link #isNull(int)} to tell them apart.
+     *
+     * @param index
+     * @throws IllegalArgumentException if the attribute is not numeric
+     */
+    public long getLong(int index) {
+        final int slot = layout.slots[index];
+        switch (layout.storage[index]) {
+            case Layout.LONG:
+            case Layout.BOOLEAN:
+                return nulls.get(index) ? 0 : longs[slot];
+            case Layout.DOUBLE:
+                return nulls.get(index) ? 0 : (long) doubles[slot];
+            default:
+                Number n = toNumber(index, objects[slot]);
+                return n == null ? 0 : n.longValue();
+        }
+    }
+
+    /**
+     * Returns the value of a numeric attribute as a double, without boxing it. Null values are
+     * returned as zero, use {@link #isNull(int)} to tell them apart.
+     *
+     * @param index
+     * @throws IllegalArgumentException if the attribute is not numeric
+     */
+    public double getDouble(int index) {
+        final int slot = layout.slots[index];
+        switch (layout.storage[index]) {
+            case Layout.LONG:
+            case Layout.BOOLEAN:
+                return nulls.get(index) ? 0 : longs[slot];
+            case Layout.DOUBLE:
+                return nulls.get(index) ? 0 : doubles[slot];
+            default:
+                Number n = toNumber(index, objects[slot]);
+                return n == null ? 0 : n.doubleValue();
+        }
+    }
+
+    /**
+     * Returns the value of a boolean attribute, without boxing it. Null values are returned as
+     * false, use {@link #isNull(int)} to tell them apart.
+     *
+     * @param index
+     */
+    public boolean getBoolean(int index) {
+        final int slot = layout.slots[index];
+        switch (layout.storage[index]) {
+            case Layout.LONG:
+            case Layout.BOOLEAN:
+                return !nulls.get(index) && longs[slot] != 0;
+            case Layout.DOUBLE:
+                return !nulls.get(index) && doubles[slot] != 0;
+            default:
+                Object value = objects[slot];
+                if (value == null) {
+                    return false;
+                }
+                Boolean b = Converters.convert(value, Boolean.class);
+                if (b == null) {
+                    throw new IllegalArgumentException(
+                            "Attribute " + getLocalName(index) + " is not a boolean: " + value);
+                }
+                return b;
+        }
+    }
+
+    private Number toNumber(int index, Object value) {
+        if (value == null || value instanceof Number) {
+            return (Number) value;
+        }
+        Number n = Converters.convert(value, Number.class);
+        if (n == null) {
+            throw new IllegalArgumentException(
+                    "Attribute " + getLocalName(index) + " is not numeric: " + value);
+        }
+        return n;
+    }
+
+    private String getLocalName(int index) {
+        return featureType.getDescriptor(index).getLocalName();
+    }
+
+    /**
+     * Sets a numeric attribute, without boxing the value when the attribute is stored in primitive
+     * form
+     *
+     * @param index
+     * @param value
+     */
+    public void setLong(int index, long value) {
+        final int slot = layout.slots[index];
+        switch (layout.storage[index]) {
+            case Layout.LONG:
+            case Layout.BOOLEAN:
+                longs[slot] = value;
+                nulls.clear(index);
+                break;
+            case Layout.DOUBLE:
+                doubles[slot] = value;
+                nulls.clear(index);
+                break;
+            default:
+                setAttribute(index, Long.valueOf(value));
+        }
+    }
+
+    /**
+     * Sets a numeric attribute, without boxing the value when the attribute is stored in primitive
+     * form
+     *
+     * @param index
+     * @param value
+     */
+    public void setDouble(int index, double value) {
+        final int slot = layout.slots[index];
+        switch (layout.storage[index]) {
+            case Layout.LONG:
+            case Layout.BOOLEAN:
+                longs[slot] = (long) value;
+                nulls.clear(index);
+                break;
+            case Layout.DOUBLE:
+                doubles[slot] = value;
+                nulls.clear(index);
+                break;
+            default:
+                setAttribute(index, Double.valueOf(value));
+        }
+    }
+
+    /**
+     * Sets a boolean attribute, without boxing the value when the attribute is stored in primitive
+     * form
+     *
+     * @param index
+     * @param value
+     */
+    public void setBoolean(int index, boolean value) {
+        if (layout.storage[index] == Layout.OBJECT) {
+            setAttribute(index, Boolean.valueOf(value));
+        } else {
+            setLong(index, value ? 1 : 0);
+        }
+    }
+
+    public FeatureId getIdentifier() {
+        return id;
+    }
+
+    public String getID() {
+        return id.getID();
+    }
+
+    public Object getAttribute(int index) throws IndexOutOfBoundsException {
+        final byte storage = layout.storage[index];
+        final int slot = layout.slots[index];
+        if (storage == Layout.OBJECT) {
+            return objects[slot];
+        } else if (nulls.get(index)) {
+            return null;
+        }
+
+        final Class<?> binding = layout.bindings[index];
+        switch (storage) {
+            case Layout.BOOLEAN:
+                return Boolean.valueOf(longs[slot] != 0);
+            case Layout.DOUBLE:
+                return binding == Float.class
+                        ? (Object) Float.valueOf((float) doubles[slot])
+                        : (Object) Double.valueOf(doubles[slot]);
+            default:
+                final long value = longs[slot];
+                if (binding == Integer.class) {
+                    return Integer.valueOf((int) value);
+                } else if (binding == Short.class) {
+                    return Short.valueOf((short) value);
+                } else if (binding == Byte.class) {
+                    return Byte.valueOf((byte) value);
+                }
+                return Long.valueOf(value);
+        }
+    }
+
+    public Object getAttribute(String name) {
+        Integer idx = layout.index.get(name);
+        if (idx != null) return getAttribute(idx);
+        else return null;
+    }
+
+    public Object getAttribute(Name name) {
+        return getAttribute(name.getLocalPart());
+    }
+
+    public int getAttributeCount() {
+        return layout.storage.length;
+    }
+
+    public List<Object> getAttributes() {
+        final int count = getAttributeCount();
+        List<Object> result = new ArrayList<Object>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(getAttribute(i));
+        }
+        return result;
+    }
+
+    public Object getDefaultGeometry() {
+        // should be specified in the index as the default key (null)
+        Integer idx = layout.index.get(null);
+        Object defaultGeometry = idx != null ? getAttribute(idx) : null;
+
+        // not found? do we have a default geometry at all?
+        if (defaultGeometry == null) {
+            GeometryDescriptor geometryDescriptor = featureType.getGeometryDescriptor();
+            if (geometryDescriptor != null) {
+                Integer defaultGeomIndex =
+                        layout.index.get(geometryDescriptor.getName().getLocalPart());
+                defaultGeometry = getAttribute(defaultGeomIndex.intValue());
+            }
+        }
+
+        return defaultGeometry;
+    }
+
+    public SimpleFeatureType getFeatureType() {
+        return featureType;
+    }
+
+    public SimpleFeatureType getType() {
+        return featureType;
+    }
+
+    public void setAttribute(int index, Object value) throws IndexOutOfBoundsException {
+        final Class<?> binding = layout.bindings[index];
+        Object converted = value;
+        if (value != null && !binding.isInstance(value)) {
+            converted = Converters.convert(value, binding);
+            if (converted == null) {
+                throw new IllegalAttributeException(
+                        value.getClass().getName()
+                                + " is not an acceptable class for "
+                                + featureType.getDescriptor(index).getLocalName()
+                                + " as it cannot be converted to "
+                                + binding);
+            }
+        }
+
+        final int slot = layout.slots[index];
+        final byte storage = layout.storage[index];
+        if (storage == Layout.OBJECT) {
+            objects[slot] = converted;
+        } else if (converted == null) {
+            nulls.set(index);
+        } else {
+            if (storage == Layout.DOUBLE) {
+                doubles[slot] = ((Number) converted).doubleValue();
+            } else if (storage == Layout.BOOLEAN) {
+                longs[slot] = ((Boolean) converted).booleanValue() ? 1 : 0;
+            } else {
+                longs[slot] = ((Number) converted).longValue();
+            }
+            nulls.clear(index);
+        }
+    }
+
+    public void setAttribute(String name, Object value) {
+        final Integer idx = layout.index.get(name);
+        if (idx == null) throw new IllegalAttributeException("Unknown attribute " + name);
+        setAttribute(idx.intValue(), value);
+    }
+
+    public void setAttribute(Name name, Object value) {
+        setAttribute(name.getLocalPart(), value);
+    }
+
+    public void setAttributes(List<Object> values) {
+        for (int i = 0; i < layout.storage.length; i++) {
+            setAttribute(i, values.get(i));
+        }
+    }
+
+    public void setAttributes(Object[] values) {
+        for (int i = 0; i < layout.storage.length; i++) {
+            setAttribute(i, values[i]);
+        }
+    }
+
+    public void setDefaultGeometry(Object geometry) {
+        Integer geometryIndex = layout.index.get(null);
+        if (geometryIndex != null) {
+            setAttribute(geometryIndex, geometry);
+        }
+    }
+
+    public BoundingBox getBounds() {
+        CoordinateReferenceSystem crs = featureType.getCoordinateReferenceSystem();
+        Envelope bounds = ReferencedEnvelope.create(crs);
+
+        // geometries are never stored in primitive form
+        for (Object o : objects) {
+            if (o instanceof Geometry) {
+                Geometry g = (Geometry) o;
+                if (bounds.isNull()) {
+                    bounds.init(JTS.bounds(g, crs));
+                } else {
+                    bounds.expandToInclude(JTS.bounds(g, crs));
+                }
+            }
+        }
+
+        return (BoundingBox) bounds;
+    }
+
+    public GeometryAttribute getDefaultGeometryProperty() {
+        GeometryDescriptor geometryDescriptor = featureType.getGeometryDescriptor();
+        GeometryAttribute geometryAttribute = null;
+        if (geometryDescriptor != null) {
+            Object defaultGeometry = getDefaultGeometry();
+            geometryAttribute =
+                    new GeometryAttributeImpl(defaultGeometry, geometryDescriptor, null);
+        }
+        return geometryAttribute;
+    }
+
+    public void setDefaultGeometryProperty(GeometryAttribute geometryAttribute) {
+        if (geometryAttribute != null) setDefaultGeometry(geometryAttribute.getValue());
+        else setDefaultGeometry(null);
+    }
+
+    public Collection<Property> getProperties() {
+        return new AttributeList();
+    }
+
+    public Collection<Property> getProperties(Name name) {
+        return getProperties(name.getLocalPart());
+    }
+
+    public Collection<Property> getProperties(String name) {
+        final Integer idx = layout.index.get(name);
+        if (idx != null) {
+            // cast temporarily to a plain collection to avoid type problems with generics
+            Collection c = Collections.singleton(new AttributeList().get(idx));
+            return c;
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    public Property getProperty(Name name) {
+        return getProperty(name.getLocalPart());
+    }
+
+    public Property getProperty(String name) {
+        final Integer idx = layout.index.get(name);
+        if (idx == null) {
+            return null;
+        } else {
+            return new AttributeList().get(idx);
+        }
+    }
+
+    public Collection<? extends Property> getValue() {
+        return getProperties();
+    }
+
+    public void setValue(Collection<Property> values) {
+        int i = 0;
+        for (Property p : values) {
+            setAttribute(i++, p.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void setValue(Object newValue) {
+        setValue((Collection<Property>) newValue);
+    }
+
+    public AttributeDescriptor getDescriptor() {
+        return new AttributeDescriptorImpl(
+                featureType, featureType.getName(), 0, Integer.MAX_VALUE, true, null);
+    }
+
+    public Name getName() {
+        return featureType.getName();
+    }
+
+    public boolean isNillable() {
+        return true;
+    }
+
+    public Map<Object, Object> getUserData() {
+        if (userData == null) userData = new HashMap<Object, Object>();
+        return userData;
+    }
+
+    public int hashCode() {
+        return id.hashCode() * featureType.hashCode();
+    }
+
+    /**
+     * Returns true if the other object is a {@link SimpleFeature} with the same id, type and
+     * attribute values
+     */
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (!(obj instanceof SimpleFeature)) {
+            return false;
+        }
+
+        SimpleFeature feat = (SimpleFeature) obj;
+        if (!Utilities.equals(id, feat.getIdentifier())) {
+            return false;
+        }
+
+        if (!featureType.equals(feat.getFeatureType())) {
+            return false;
+        }
+
+        for (int i = 0, ii = getAttributeCount(); i < ii; i++) {
+            Object value = getAttribute(i);
+            Object otherAtt = feat.getAttribute(i);
+            if (value == null) {
+                if (otherAtt != null) {
+                    return false;
+                }
+            } else if (value instanceof Geometry) {
+                if (!(otherAtt instanceof Geometry)) {
+                    return false;
+                } else if (!CoordinateSequences.equalsND((Geometry) value, (Geometry) otherAtt)) {
+                    return false;
+                }
+            } else if (!value.equals(otherAtt)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public void validate() {
+        for (int i = 0; i < getAttributeCount(); i++) {
+            Types.validate(featureType.getDescriptor(i), getAttribute(i));
+        }
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PrimitiveSimpleFeature:");
+        sb.append(featureType.getName().getLocalPart());
+        sb.append("=");
+        sb.append(getValue());
+        return sb.toString();
+    }
+
+    /** Live collection backed directly on the feature storage */
+    class AttributeList extends AbstractList<Property> {
+
+        public Property get(int index) {
+            AttributeDescriptor descriptor = featureType.getDescriptor(index);
+            if (descriptor instanceof GeometryDescriptor) {
+                return new PrimitiveGeometryAttribute(index);
+            }
+            return new Attribute(index);
+        }
+
+        public Property set(int index, Property element) {
+            setAttribute(index, element.getValue());
+            return null;
+        }
+
+        public int size() {
+            return getAttributeCount();
+        }
+    }
+
+    /** Attribute that delegates directly to the feature storage */
+    class Attribute implements org.opengis.feature.Attribute {
+        final int index;
+
+        Attribute(int index) {
+            this.index = index;
+        }
+
+        public Identifier getIdentifier() {
+            return null;
+        }
+
+        public AttributeDescriptor getDescriptor() {
+            return featureType.getDescriptor(index);
+        }
+
+        public AttributeType getType() {
+            return featureType.getType(index);
+        }
+
+        public Name getName() {
+            return getDescriptor().getName();
+        }
+
+        @SuppressWarnings("unchecked")
+        public Map<Object, Object> getUserData() {
+            // lazily create the user data holder
+            if (attributeUserData == null) attributeUserData = new HashMap[getAttributeCount()];
+            // lazily create the attribute user data
+            if (attributeUserData[index] == null)
+                attributeUserData[index] = new HashMap<Object, Object>();
+            return attributeUserData[index];
+        }
+
+        public Object getValue() {
+            return getAttribute(index);
+        }
+
+        public boolean isNillable() {
+            return getDescriptor().isNillable();
+        }
+
+        public void setValue(Object newValue) {
+            setAttribute(index, newValue);
+        }
+
+        public int hashCode() {
+            Object value = getValue();
+            return 37 * getDescriptor().hashCode() + (37 * (value == null ? 0 : value.hashCode()));
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Attribute)) {
+                return false;
+            }
+            Attribute other = (Attribute) obj;
+            if (!Utilities.equals(getDescriptor(), other.getDescriptor())) {
+                return false;
+            }
+            return Utilities.deepEquals(getValue(), other.getValue());
+        }
+
+        public void validate() {
+            Types.validate(getDescriptor(), getValue());
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("PrimitiveSimpleFeature.Attribute: ");
+            sb.append(getDescriptor().getName().getLocalPart());
+            sb.append("=");
+            sb.append(getValue());
+            return sb.toString();
+        }
+    }
+
+    class PrimitiveGeometryAttribute extends Attribute implements GeometryAttribute {
+
+        PrimitiveGeometryAttribute(int index) {
+            super(index);
+        }
+
+        @Override
+        public GeometryType getType() {
+            return (GeometryType) super.getType();
+        }
+
+        @Override
+        public GeometryDescriptor getDescriptor() {
+            return (GeometryDescriptor) super.getDescriptor();
+        }
+
+        @Override
+        public BoundingBox getBounds() {
+            ReferencedEnvelope bounds =
+                    new ReferencedEnvelope(featureType.getCoordinateReferenceSystem());
+            Object value = getAttribute(index);
+            if (value instanceof Geometry) {
+                bounds.init(((Geometry) value).getEnvelopeInternal());
+            }
+            return bounds;
+        }
+
+        @Override
+        public void setBounds(BoundingBox bounds) {
+            // do nothing, this property is strictly derived
+        }
+
+        @Override
+        public int hashCode() {
+            return 17 * super.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof PrimitiveGeometryAttribute)) {
+                return false;
+            }
+            return super.equals(obj);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import java.util.HashMap;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.type.Types;
+import org.geotools.filter.identity.FeatureIdImpl;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+
+/**
+ * A {@link SimpleFeatureBuilder} building {@link PrimitiveSimpleFeature} instances. Values are
+ * written straight into the feature being built, with no intermediate array, and the typed setters
+ * such as {@link #setDouble(int, double)} avoid boxing numeric values altogether.
+ *
+ * <p>In flyweight mode the builder returns the very same feature instance from each call to {@link
+ * #buildFeature(String)}, overwriting its values as the next feature gets built. This is meant for
+ * readers feeding code that does not retain features, like rendering or aggregation, see {@link
+ * org.geotools.factory.Hints#FEATURE_FLYWEIGHT}. Callers needing to keep a flyweight feature
+ * around should copy it, e.g. with {@link SimpleFeatureBuilder#copy(SimpleFeature)}.
+ *
+ * <p>This class is not thread safe nor should instances be shared across multiple threads.
+ *
+ * @source $URL$
+ */
+public class PrimitiveSimpleFeatureBuilder extends SimpleFeatureBuilder {
+
+    final PrimitiveSimpleFeature.Layout layout;
+
+    final boolean flyweight;
+
+    /** The feature being built, lazily created */
+    PrimitiveSimpleFeature feature;
+
+    /** Whether the current feature has been returned and has to be cleared before reuse */
+    boolean dirty;
+
+    public PrimitiveSimpleFeatureBuilder(SimpleFeatureType featureType) {
+        this(featureType, false);
+    }
+
+    /**
+     * Creates a new builder
+     *
+     * @param featureType the type of the features to be built
+     * @param flyweight if true, the same feature instance is recycled for all features built
+     */
+    public PrimitiveSimpleFeatureBuilder(SimpleFeatureType featureType, boolean flyweight) {
+        super(featureType);
+        this.layout = new PrimitiveSimpleFeature.Layout(featureType);
+        this.flyweight = flyweight;
+    }
+
+    /** Returns true if the builder recycles the same feature instance */
+    public boolean isFlyweight() {
+        return flyweight;
+    }
+
+    /**
+     * Returns the type used to store the specified attribute, either {@code long.class}, {@code
+     * double.class}, {@code boolean.class} or {@code Object.class}. Readers can use it to pick the
+     * typed setter matching the attribute.
+     *
+     * @param index The index of the attribute.
+     */
+    public Class<?> getStorageType(int index) {
+        return layout.getStorageType(index);
+    }
+
+    @Override
+    public void reset() {
+        next = 0;
+        userData = null;
+        featureUserData = null;
+        // called by the super constructor too, before the fields are initialized
+        if (feature != null) {
+            if (flyweight) {
+                dirty = true;
+            } else {
+                feature = null;
+            }
+        }
+    }
+
+    PrimitiveSimpleFeature current() {
+        if (feature == null) {
+            feature = new PrimitiveSimpleFeature(layout, null);
+        } else if (dirty) {
+            feature.clear(null);
+            dirty = false;
+        }
+        return feature;
+    }
+
+    @Override
+    public void init(SimpleFeature feature) {
+        reset();
+        for (int i = 0; i < layout.storage.length; i++) {
+            set(i, feature.getAttribute(i));
+        }
+        if (!feature.getUserData().isEmpty()) {
+            featureUserData = new HashMap<Object, Object>(feature.getUserData());
+        }
+    }
+
+    @Override
+    public void set(int index, Object value) {
+        if (index >= layout.storage.length)
+            throw new ArrayIndexOutOfBoundsException(
+                    "Can handle "
+                            + layout.storage.length
+                            + " attributes only, index is "
+                            + index);
+
+        AttributeDescriptor descriptor = featureType.getDescriptor(index);
+        if (value == null && !descriptor.isNillable()) {
+            value = descriptor.getDefaultValue();
+            if (value == null) {
+                // no default value, try to generate one
+                value = DataUtilities.defaultValue(descriptor.getType().getBinding());
+            }
+        }
+        PrimitiveSimpleFeature feature = current();
+        feature.setAttribute(index, value);
+        if (validating) Types.validate(descriptor, feature.getAttribute(index));
+    }
+
+    /**
+     * Sets a numeric attribute value by index, without boxing it
+     *
+     * @param index The index of the attribute.
+     * @param value The value of the attribute.
+     */
+    public void setLong(int index, long value) {
+        current().setLong(index, value);
+    }
+
+    /**
+     * Sets a numeric attribute value by index, without boxing it
+     *
+     * @param index The index of the attribute.
+     * @param value The value of the attribute.
+     */
+    public void setDouble(int index, double value) {
+        current().setDouble(index, value);
+    }
+
+    /**
+     * Sets a boolean attribute value by index, without boxing it
+     *
+     * @param index The index of the attribute.
+     * @param value The value of the attribute.
+     */
+    public void setBoolean(int index, boolean value) {
+        current().setBoolean(index, value);
+    }
+
+    @Override
+    public SimpleFeature buildFeature(String id) {
+        // ensure id
+        if (id == null) {
+            id = SimpleFeatureBuilder.createDefaultFeatureId();
+        }
+
+        PrimitiveSimpleFeature sf = current();
+        sf.id = new FeatureIdImpl(id);
+
+        // handle the per attribute user data
+        if (userData != null) {
+            for (int i = 0; i < userData.length; i++) {
+                if (userData[i] != null) {
+                    sf.getProperty(featureType.getDescriptor(i).getName())
+                            .getUserData()
+                            .putAll(userData[i]);
+                }
+            }
+        }
+
+        // handle the feature wide user data
+        if (featureUserData != null) {
+            sf.getUserData().putAll(featureUserData);
+        }
+
+        reset();
+        return sf;
+    }
+}
@@ -17,7 +17,6 @@
 package org.geotools.feature.simple;
 
 import com.vividsolutions.jts.geom.Geometry;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -217,7 +216,9 @@ public class SimpleFeatureBuilder extends FeatureBuilder<FeatureType, Feature> {
 
     /** Adds an array of attributes. */
     public void addAll(Object[] values) {
-        addAll(Arrays.asList(values));
+        for (int i = 0; i < values.length; i++) {
+            add(values[i]);
+        }
     }
 
     /**
@@ -496,7 +497,7 @@ public class SimpleFeatureBuilder extends FeatureBuilder<FeatureType, Feature> {
     @SuppressWarnings("unchecked")
     public SimpleFeatureBuilder setUserData(int index, Object key, Object value) {
         if (userData == null) {
-            userData = new Map[values.length];
+            userData = new Map[featureType.getAttributeCount()];
         }
         if (userData[index] == null) {
             userData[index] = new HashMap<Object, Object>();
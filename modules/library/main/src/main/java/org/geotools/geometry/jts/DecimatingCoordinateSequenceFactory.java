@@ -0,0 +1,114 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.geometry.jts;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+/**
+ * A coordinate sequence factory decimating the coordinate arrays it is given, the same way as
+ * {@link Decimator#decimate(double[], int, double, double, boolean)} does. Readers parsing text
+ * formats such as WKT or GeoJSON can use it to drop the points that would end up on the same pixel
+ * before the coordinate sequences get built.
+ *
+ * <p>Only {@link #create(Coordinate[])} decimates, sequences created by copy or by size are left
+ * untouched. Closed arrays are treated as rings, and keep at least four points.
+ *
+ * @since 20
+ */
+public class DecimatingCoordinateSequenceFactory implements CoordinateSequenceFactory {
+
+    final CoordinateSequenceFactory delegate;
+
+    final double spanx;
+
+    final double spany;
+
+    /**
+     * Returns a geometry factory equivalent to the given one, but decimating the coordinates
+     *
+     * @param factory the factory to wrap
+     * @param spanx the generalization step in the x direction
+     * @param spany the generalization step in the y direction
+     */
+    public static GeometryFactory wrap(GeometryFactory factory, double spanx, double spany) {
+        return new GeometryFactory(
+                factory.getPrecisionModel(),
+                factory.getSRID(),
+                new DecimatingCoordinateSequenceFactory(
+                        factory.getCoordinateSequenceFactory(), spanx, spany));
+    }
+
+    public DecimatingCoordinateSequenceFactory(
+            CoordinateSequenceFactory delegate, double spanx, double spany) {
+        this.delegate = delegate;
+        this.spanx = spanx;
+        this.spany = spany;
+    }
+
+    @Override
+    public CoordinateSequence create(Coordinate[] coordinates) {
+        return delegate.create(decimate(coordinates));
+    }
+
+    @Override
+    public CoordinateSequence create(CoordinateSequence coordSeq) {
+        return delegate.create(coordSeq);
+    }
+
+    @Override
+    public CoordinateSequence create(int size, int dimension) {
+        return delegate.create(size, dimension);
+    }
+
+    Coordinate[] decimate(Coordinate[] coordinates) {
+        if (coordinates == null) {
+            return null;
+        }
+        int count = coordinates.length;
+        boolean ring = count > 0 && coordinates[0].equals2D(coordinates[count - 1]);
+        if (count <= (ring ? 4 : 2)) {
+            return coordinates;
+        }
+
+        Coordinate[] result = new Coordinate[count];
+        Coordinate last = coordinates[0];
+        result[0] = last;
+        int actual = 1;
+        for (int i = 1; i < count - 1; i++) {
+            Coordinate c = coordinates[i];
+            if (Math.abs(c.x - last.x) > spanx || Math.abs(c.y - last.y) > spany) {
+                result[actual++] = c;
+                last = c;
+            }
+        }
+        if (ring && actual < 3) {
+            result[1] = coordinates[count / 3];
+            result[2] = coordinates[count * 2 / 3];
+            actual = 3;
+        }
+        result[actual++] = coordinates[count - 1];
+        if (actual == count) {
+            return coordinates;
+        }
+        Coordinate[] decimated = new Coordinate[actual];
+        System.arraycopy(result, 0, decimated, 0, actual);
+        return decimated;
+    }
+}
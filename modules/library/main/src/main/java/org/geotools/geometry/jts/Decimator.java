@@ -546,7 +546,45 @@ public final class Decimator {
         }
     }
 
-    private int spanBasedGeneralize(int ncoords, double[] coords, double spanx, double spany) {
+    /**
+     * Decimates, in place, an array of interleaved x,y ordinates, dropping the points that are
+     * within spanx,spany of the last retained one. The first and last points are always retained,
+     * and rings are kept closed with at least four points.
+     *
+     * <p>Meant for readers decoding geometries out of their native format, so that they can skip
+     * the points that would end up on the same pixel before building the geometry.
+     *
+     * @param xy the interleaved x,y ordinates
+     * @param count the number of points in the array
+     * @param spanx the generalization step in the x direction
+     * @param spany the generalization step in the y direction
+     * @param ring true if the points form a ring
+     * @return the number of retained points, stored at the beginning of the array
+     */
+    public static int decimate(double[] xy, int count, double spanx, double spany, boolean ring) {
+        if (count <= (ring ? 4 : 2) || (spanx <= 0 && spany <= 0)) {
+            return count;
+        }
+        // a ring collapsing to less than four points keeps a few of its original ones
+        double x1 = xy[(count / 3) * 2], y1 = xy[(count / 3) * 2 + 1];
+        double x2 = xy[(count * 2 / 3) * 2], y2 = xy[(count * 2 / 3) * 2 + 1];
+        double lastX = xy[(count - 1) * 2], lastY = xy[(count - 1) * 2 + 1];
+
+        int actualCoords = spanBasedGeneralize(count, xy, spanx, spany);
+        if (ring && actualCoords < 3) {
+            xy[2] = x1;
+            xy[3] = y1;
+            xy[4] = x2;
+            xy[5] = y2;
+            actualCoords = 3;
+        }
+        xy[actualCoords * 2] = lastX;
+        xy[actualCoords * 2 + 1] = lastY;
+        return actualCoords + 1;
+    }
+
+    private static int spanBasedGeneralize(
+            int ncoords, double[] coords, double spanx, double spany) {
         int actualCoords = 1;
         double lastX = coords[0];
         double lastY = coords[1];
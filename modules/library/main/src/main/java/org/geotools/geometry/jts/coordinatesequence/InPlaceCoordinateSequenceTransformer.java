@@ -19,29 +19,27 @@ package org.geotools.geometry.jts.coordinatesequence;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
 import org.geotools.geometry.jts.CoordinateSequenceTransformer;
-import org.opengis.geometry.DirectPosition;
-import org.opengis.geometry.MismatchedDimensionException;
-import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.geotools.geometry.jts.LiteCoordinateSequence;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
 
 /**
  * A JTS CoordinateSequenceTransformer which transforms the values in place.
  *
- * <p>Paragraph ...
+ * <p>Only {@link PackedCoordinateSequence} implementations are supported, and the transform must
+ * have the same number of source and target dimensions. When the sequence dimension matches the
+ * transform one, the backing array of {@link LiteCoordinateSequence} and {@link
+ * PackedCoordinateSequence.Double} is handed over to the transform as is, otherwise the ordinates
+ * are transformed in chunks through a scratch buffer confined to the calling thread.
  *
- * <p>Responsibilities:
- *
- * <ul>
- *   <li>
- *   <li>
- * </ul>
+ * <p>The transformer holds no state, a single instance can be shared among threads.
  *
  * <p>Example:
  *
  * <pre><code>
- * InPlaceCoordinateSequenceTransformer x = new InPlaceCoordinateSequenceTransformer( ... );
- * TODO code example
+ * CoordinateSequenceTransformer transformer = new InPlaceCoordinateSequenceTransformer();
+ * LiteCoordinateSequence cs = ...;
+ * transformer.transform(cs, mathTransform); // cs now contains the transformed coordinates
  * </code></pre>
  *
  * @author jeichar
@@ -50,6 +48,13 @@ import org.opengis.referencing.operation.TransformException;
  */
 public class InPlaceCoordinateSequenceTransformer implements CoordinateSequenceTransformer {
 
+    /** The buffer size, divisible by both 2 and 3 */
+    static final int BUFFER_SIZE = 1536;
+
+    /** The buffers used for strided sequences, one per thread */
+    private static final ThreadLocal<double[]> BUFFERS =
+            ThreadLocal.withInitial(() -> new double[BUFFER_SIZE]);
+
     /**
      * @see
      *     org.geotools.geometry.jts.CoordinateSequenceTransformer#transform(com.vividsolutions.jts.geom.CoordinateSequence,
@@ -65,92 +70,58 @@ public class InPlaceCoordinateSequenceTransformer implements CoordinateSequenceT
                         + " is not a implementation that is known to be transformable in place");
     }
 
-    FlyWeightDirectPosition start = new FlyWeightDirectPosition(2);
-
     private CoordinateSequence transformInternal(
             PackedCoordinateSequence sequence, MathTransform transform) throws TransformException {
-
-        start.setSequence(sequence);
-        for (int i = 0; i < sequence.size(); i++) {
-            start.setOffset(i);
-            try {
-                transform.transform(start, start);
-            } catch (MismatchedDimensionException e) {
-                throw new TransformException("", e);
-            }
+        final int dim = transform.getSourceDimensions();
+        final int csDim = sequence.getDimension();
+        if (dim != transform.getTargetDimensions() || dim > csDim) {
+            throw new TransformException(
+                    "Cannot transform in place a sequence of dimension "
+                            + csDim
+                            + " using a transform from "
+                            + dim
+                            + " to "
+                            + transform.getTargetDimensions()
+                            + " dimensions");
         }
-        return sequence;
-    }
-
-    private class FlyWeightDirectPosition implements DirectPosition {
-        PackedCoordinateSequence sequence;
-        int offset = 0;
-        private int dimension;
-
-        /** Construct <code>InPlaceCoordinateSequenceTransformer.FlyWeightDirectPosition</code>. */
-        public FlyWeightDirectPosition(int dim) {
-            dimension = dim;
-        }
-
-        /** @param offset The offset to set. */
-        public void setOffset(int offset) {
-            this.offset = offset;
+        final int size = sequence.size();
+        if (size == 0) {
+            return sequence;
         }
 
-        /** @param sequence The sequence to set. */
-        public void setSequence(PackedCoordinateSequence sequence) {
-            this.sequence = sequence;
+        double[] coords = null;
+        if (sequence instanceof LiteCoordinateSequence) {
+            coords = ((LiteCoordinateSequence) sequence).getArray();
+        } else if (sequence instanceof PackedCoordinateSequence.Double) {
+            coords = ((PackedCoordinateSequence.Double) sequence).getRawCoordinates();
         }
 
-        /** @see org.opengis.geometry.coordinate.DirectPosition#getDimension() */
-        public int getDimension() {
-            return dimension;
+        if (coords != null && dim == csDim) {
+            transform.transform(coords, 0, coords, 0, size);
+            // reset the cached Coordinate objects, if any
+            sequence.setOrdinate(0, 0, coords[0]);
+            return sequence;
         }
 
-        /** @see org.opengis.geometry.coordinate.DirectPosition#getCoordinates() */
-        @Deprecated
-        public double[] getCoordinates() {
-            return getCoordinate();
-        }
-
-        /** @see org.opengis.geometry.coordinate.DirectPosition#getCoordinate() */
-        public double[] getCoordinate() {
-            return new double[] {
-                sequence.getX(offset),
-                sequence.getY(offset),
-                sequence.getOrdinate(offset, CoordinateSequence.Z)
-            };
-        }
-
-        /** @see org.opengis.geometry.coordinate.DirectPosition#getOrdinate(int) */
-        public double getOrdinate(int arg0) throws IndexOutOfBoundsException {
-            return sequence.getOrdinate(offset, arg0);
-        }
-
-        /** @see org.opengis.geometry.coordinate.DirectPosition#setOrdinate(int, double) */
-        public void setOrdinate(int arg0, double arg1) throws IndexOutOfBoundsException {
-            sequence.setOrdinate(offset, arg0, arg1);
-        }
-
-        /** @see org.opengis.geometry.coordinate.DirectPosition#getCoordinateReferenceSystem() */
-        public CoordinateReferenceSystem getCoordinateReferenceSystem() {
-            // TODO implement method body
-            throw new UnsupportedOperationException();
-        }
-
-        /** @see org.opengis.geometry.coordinate.DirectPosition#clone() */
-        public FlyWeightDirectPosition clone() {
-            throw new UnsupportedOperationException();
-        }
-
-        /** @see org.opengis.geometry.coordinate.Position#getPosition() */
-        public DirectPosition getPosition() {
-            return this;
-        }
-
-        /** @see org.opengis.geometry.coordinate.Position#getDirectPosition() */
-        public DirectPosition getDirectPosition() {
-            return this;
+        // the extra ordinates have to be skipped, go through the buffer
+        final double[] buffer = BUFFERS.get();
+        final int capacity = buffer.length / dim;
+        for (int start = 0; start < size; start += capacity) {
+            final int n = Math.min(capacity, size - start);
+            int ib = 0;
+            for (int i = start; i < start + n; i++) {
+                for (int d = 0; d < dim; d++) {
+                    buffer[ib++] = sequence.getOrdinate(i, d);
+                }
+            }
+            transform.transform(buffer, 0, buffer, 0, n);
+            ib = 0;
+            for (int i = start; i < start + n; i++) {
+                for (int d = 0; d < dim; d++) {
+                    sequence.setOrdinate(i, d, buffer[ib++]);
+                }
+            }
         }
+        return sequence;
     }
 }
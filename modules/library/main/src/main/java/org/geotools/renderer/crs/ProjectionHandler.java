@@ -38,18 +38,21 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import org.geotools.geometry.GeneralEnvelope;
 import org.geotools.geometry.jts.JTS;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.referencing.operation.transform.ConcatenatedTransform;
 import org.geotools.referencing.operation.transform.GeocentricTransform;
+import org.geotools.referencing.operation.transform.InterpolationGridTransform2D;
 import org.opengis.metadata.extent.GeographicBoundingBox;
 import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.crs.GeographicCRS;
 import org.opengis.referencing.crs.SingleCRS;
 import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransform2D;
 import org.opengis.referencing.operation.TransformException;
 
 /**
@@ -747,6 +750,36 @@ public class ProjectionHandler {
         }
     }
 
+    /**
+     * Same as {@link #getRenderingTransform(MathTransform)}, but the returned transform may
+     * approximate the original one within the rendering envelope, using an {@link
+     * InterpolationGridTransform2D}, as long as the error stays below the given tolerance.
+     *
+     * @param mt The transform from the geometry CRS to the rendering CRS
+     * @param tolerance The maximum error allowed, in rendering CRS units (e.g., the size of half a
+     *     pixel), a non positive value disables the approximation
+     * @throws FactoryException
+     */
+    public MathTransform getRenderingTransform(MathTransform mt, double tolerance)
+            throws FactoryException {
+        MathTransform result = getRenderingTransform(mt);
+        if (tolerance <= 0 || !(result instanceof MathTransform2D)) {
+            return result;
+        }
+        try {
+            GeneralEnvelope domain = CRS.transform(result.inverse(), renderingEnvelope);
+            return InterpolationGridTransform2D.create(
+                    (MathTransform2D) result, domain.toRectangle2D(), tolerance);
+        } catch (TransformException e) {
+            LOGGER.log(
+                    Level.FINE,
+                    "Could not compute the rendering domain in the source CRS, "
+                            + "the transformation won't be approximated",
+                    e);
+            return result;
+        }
+    }
+
     protected MathTransform concatenateTransforms(List<MathTransform> datumShiftChain) {
         if (datumShiftChain.size() == 1) {
             return datumShiftChain.get(0);
@@ -0,0 +1,193 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import java.util.Arrays;
+import org.geotools.factory.CommonFactoryFinder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.Property;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+public class PrimitiveSimpleFeatureBuilderTest {
+
+    SimpleFeatureType featureType;
+
+    GeometryFactory gf = new GeometryFactory();
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("test");
+        typeBuilder.add("point", Point.class, (CoordinateReferenceSystem) null);
+        typeBuilder.add("integer", Integer.class);
+        typeBuilder.add("float", Float.class);
+        typeBuilder.add("flag", Boolean.class);
+        typeBuilder.add("name", String.class);
+        typeBuilder.add("long", Long.class);
+        featureType = typeBuilder.buildFeatureType();
+    }
+
+    @Test
+    public void testStorage() throws Exception {
+        PrimitiveSimpleFeatureBuilder builder = new PrimitiveSimpleFeatureBuilder(featureType);
+        assertEquals(Object.class, builder.getStorageType(0));
+        assertEquals(long.class, builder.getStorageType(1));
+        assertEquals(double.class, builder.getStorageType(2));
+        assertEquals(boolean.class, builder.getStorageType(3));
+        assertEquals(Object.class, builder.getStorageType(4));
+        assertEquals(long.class, builder.getStorageType(5));
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        PrimitiveSimpleFeatureBuilder builder = new PrimitiveSimpleFeatureBuilder(featureType);
+        Point point = gf.createPoint(new Coordinate(1, 2));
+        builder.add(point);
+        builder.add("12");
+        builder.add(2.5);
+        builder.add(Boolean.TRUE);
+        builder.add("abc");
+        builder.add(null);
+        SimpleFeature feature = builder.buildFeature("fid.1");
+
+        assertTrue(feature instanceof PrimitiveSimpleFeature);
+        assertEquals("fid.1", feature.getID());
+        assertSame(point, feature.getDefaultGeometry());
+        // values are converted and boxed back into the bindings
+        assertEquals(Integer.valueOf(12), feature.getAttribute("integer"));
+        assertEquals(Float.valueOf(2.5f), feature.getAttribute("float"));
+        assertEquals(Boolean.TRUE, feature.getAttribute("flag"));
+        assertEquals("abc", feature.getAttribute("name"));
+        assertNull(feature.getAttribute("long"));
+        assertEquals(Arrays.asList(point, 12, 2.5f, true, "abc", null), feature.getAttributes());
+
+        PrimitiveSimpleFeature primitive = (PrimitiveSimpleFeature) feature;
+        assertEquals(12, primitive.getLong(1));
+        assertEquals(2.5, primitive.getDouble(2), 0d);
+        assertEquals(12d, primitive.getDouble(1), 0d);
+        assertTrue(primitive.getBoolean(3));
+        assertTrue(primitive.isNull(5));
+        assertEquals(0, primitive.getLong(5));
+        assertEquals(1, feature.getBounds().getMinimum(0), 0d);
+
+        // compares equal to the classic implementation
+        SimpleFeature classic = SimpleFeatureBuilder.copy(feature);
+        assertTrue(classic instanceof SimpleFeatureImpl);
+        assertEquals(feature, classic);
+
+        // the next feature is a new instance
+        SimpleFeature second = builder.buildFeature("fid.2");
+        assertNotSame(feature, second);
+        assertNull(second.getAttribute("integer"));
+        assertEquals("fid.1", feature.getID());
+    }
+
+    @Test
+    public void testTypedSetters() throws Exception {
+        PrimitiveSimpleFeatureBuilder builder = new PrimitiveSimpleFeatureBuilder(featureType);
+        builder.setLong(1, 7);
+        builder.setDouble(2, 1.5);
+        builder.setBoolean(3, false);
+        builder.setLong(4, 5);
+        builder.setDouble(5, 3.9);
+        SimpleFeature feature = builder.buildFeature("fid.1");
+
+        assertEquals(Integer.valueOf(7), feature.getAttribute(1));
+        assertEquals(Float.valueOf(1.5f), feature.getAttribute(2));
+        assertEquals(Boolean.FALSE, feature.getAttribute(3));
+        // non primitive attributes go through the converters
+        assertEquals("5", feature.getAttribute(4));
+        assertEquals(Long.valueOf(3), feature.getAttribute(5));
+
+        feature.setAttribute("integer", null);
+        assertNull(feature.getAttribute("integer"));
+        feature.setAttribute("integer", 3L);
+        assertEquals(Integer.valueOf(3), feature.getAttribute("integer"));
+    }
+
+    @Test
+    public void testUnconvertibleValue() throws Exception {
+        PrimitiveSimpleFeatureBuilder builder = new PrimitiveSimpleFeatureBuilder(featureType);
+        SimpleFeature feature = builder.buildFeature("fid.1");
+        feature.setAttribute("integer", 3);
+        try {
+            feature.setAttribute("integer", "not a number");
+            fail("Should have failed, the value cannot be converted");
+        } catch (IllegalArgumentException e) {
+            // fine
+        }
+        // the previous value is kept
+        assertEquals(Integer.valueOf(3), feature.getAttribute("integer"));
+    }
+
+    @Test
+    public void testFlyweight() throws Exception {
+        PrimitiveSimpleFeatureBuilder builder =
+                new PrimitiveSimpleFeatureBuilder(featureType, true);
+        assertTrue(builder.isFlyweight());
+        builder.set("integer", 1);
+        builder.set("name", "first");
+        builder.featureUserData("key", "value");
+        SimpleFeature first = builder.buildFeature("fid.1");
+        assertEquals(1, first.getAttribute("integer"));
+        assertEquals("value", first.getUserData().get("key"));
+
+        builder.set("float", 3f);
+        SimpleFeature second = builder.buildFeature("fid.2");
+        assertSame(first, second);
+        assertEquals("fid.2", second.getID());
+        // values of the previous feature have been cleared
+        assertNull(second.getAttribute("integer"));
+        assertNull(second.getAttribute("name"));
+        assertFalse(second.getUserData().containsKey("key"));
+        assertEquals(3f, second.getAttribute("float"));
+
+        // filters work against the primitive storage
+        FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+        assertTrue(ff.greater(ff.property("float"), ff.literal(2)).evaluate(second));
+        assertTrue(ff.isNull(ff.property("integer")).evaluate(second));
+    }
+
+    @Test
+    public void testProperties() throws Exception {
+        PrimitiveSimpleFeatureBuilder builder = new PrimitiveSimpleFeatureBuilder(featureType);
+        builder.set("integer", 10);
+        SimpleFeature feature = builder.buildFeature("fid.1");
+
+        Property property = feature.getProperty("integer");
+        assertEquals(10, property.getValue());
+        property.setValue(20);
+        assertEquals(20, feature.getAttribute("integer"));
+        assertEquals(6, feature.getProperties().size());
+        assertNull(feature.getProperty("missing"));
+    }
+}
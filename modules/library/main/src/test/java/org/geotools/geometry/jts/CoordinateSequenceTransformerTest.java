@@ -18,18 +18,25 @@ package org.geotools.geometry.jts;
 
 // J2SE dependencies
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
 import com.vividsolutions.jts.geom.DefaultCoordinateSequenceFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
 import java.util.Random;
+import org.geotools.geometry.jts.coordinatesequence.InPlaceCoordinateSequenceTransformer;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.ReferencingFactoryFinder;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.referencing.operation.transform.ProjectiveTransform;
 import org.junit.Test;
 import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -127,6 +134,67 @@ public class CoordinateSequenceTransformerTest {
         assertEquals(Double.NaN, transformed.getOrdinate(0, 2), 0.0);
     }
 
+    @Test
+    public void testPackedSequences() throws Exception {
+        MathTransform tx =
+                CRS.findMathTransform(
+                        DefaultGeographicCRS.WGS84, CRS.parseWKT(JTSTest.UTM_ZONE_10N), true);
+        double[] ordinates = new double[2000];
+        Random random = new Random(0);
+        for (int i = 0; i < ordinates.length; i += 2) {
+            ordinates[i] = -121 - 4 * random.nextDouble();
+            ordinates[i + 1] = -45 + 90 * random.nextDouble();
+        }
+        CoordinateSequence cs = new PackedCoordinateSequence.Double(ordinates.clone(), 2);
+        CoordinateSequence reference = transform(cs, tx);
+
+        // packed to packed goes straight through the arrays
+        CoordinateSequence packed =
+                new DefaultCoordinateSequenceTransformer(
+                                PackedCoordinateSequenceFactory.DOUBLE_FACTORY)
+                        .transform(cs, tx);
+        assertTrue(packed instanceof PackedCoordinateSequence.Double);
+        assertSameOrdinates(reference, packed);
+        // the source has not been touched
+        assertArrayEquals(ordinates, ((PackedCoordinateSequence.Double) cs).getRawCoordinates(), 0);
+
+        // in place, lite and packed
+        CoordinateSequenceTransformer inPlace = new InPlaceCoordinateSequenceTransformer();
+        LiteCoordinateSequence lite = new LiteCoordinateSequence(ordinates.clone(), 2);
+        // fill the coordinate cache, it has to be cleared by the in place transformation
+        lite.toCoordinateArray();
+        assertSame(lite, inPlace.transform(lite, tx));
+        assertSameOrdinates(reference, lite);
+        assertEquals(reference.getCoordinate(0).x, lite.toCoordinateArray()[0].x, 0);
+        assertSameOrdinates(reference, inPlace.transform(cs, tx));
+    }
+
+    @Test
+    public void testInPlaceExtraOrdinates() throws Exception {
+        MathTransform tx = ProjectiveTransform.createTranslation(2, 10);
+        // more points than the scratch buffer can hold, with a Z to skip over
+        LiteCoordinateSequence cs = new LiteCoordinateSequence(2000, 3);
+        for (int i = 0; i < cs.size(); i++) {
+            cs.setOrdinate(i, 0, i);
+            cs.setOrdinate(i, 1, -i);
+            cs.setOrdinate(i, 2, 1000 + i);
+        }
+        new InPlaceCoordinateSequenceTransformer().transform(cs, tx);
+        for (int i = 0; i < cs.size(); i++) {
+            assertEquals(i + 10, cs.getOrdinate(i, 0), 0);
+            assertEquals(-i + 10, cs.getOrdinate(i, 1), 0);
+            assertEquals(1000 + i, cs.getOrdinate(i, 2), 0);
+        }
+    }
+
+    private void assertSameOrdinates(CoordinateSequence expected, CoordinateSequence actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i), 1e-9);
+            assertEquals(expected.getY(i), actual.getY(i), 1e-9);
+        }
+    }
+
     /** The following is basically a copy-and-paste of a previous implementation by Andrea Aime. */
     private CoordinateSequence transform(final CoordinateSequence cs, final MathTransform transform)
             throws TransformException {
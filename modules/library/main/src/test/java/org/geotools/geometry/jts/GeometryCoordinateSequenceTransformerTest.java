@@ -20,11 +20,18 @@ package org.geotools.geometry.jts;
 
 import static org.junit.Assert.*;
 
+import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.CoordinateSequenceFilter;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.referencing.operation.transform.ProjectiveTransform;
@@ -133,6 +140,44 @@ public class GeometryCoordinateSequenceTransformerTest {
         assertFalse(hasSameValuesAndStructure(g1, g2));
     }
 
+    @Test
+    public void testSharedAmongThreads() throws Exception {
+        final GeometryCoordinateSequenceTransformer gcsTrans =
+                new GeometryCoordinateSequenceTransformer();
+        gcsTrans.setMathTransform(ProjectiveTransform.createTranslation(2, 100));
+        final GeometryFactory packedFact =
+                new GeometryFactory(PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+        final GeometryBuilder packed = new GeometryBuilder(packedFact);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                // alternate factories, the cached default transformer changes while in use
+                final GeometryBuilder builder = i % 2 == 0 ? gb : packed;
+                final double offset = i;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    Geometry g = builder.circle(offset, offset, 5, 1000);
+                                    Geometry t = gcsTrans.transform(g);
+                                    assertSame(g.getFactory(), t.getFactory());
+                                    Coordinate[] expected = g.getCoordinates();
+                                    Coordinate[] actual = t.getCoordinates();
+                                    for (int j = 0; j < expected.length; j++) {
+                                        assertEquals(expected[j].x + 100, actual[j].x, 1e-9);
+                                        assertEquals(expected[j].y + 100, actual[j].y, 1e-9);
+                                    }
+                                    return null;
+                                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static final double ORD_TOLERANCE = 1.0e-6;
 
     /**
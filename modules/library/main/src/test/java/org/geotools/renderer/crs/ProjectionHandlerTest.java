@@ -40,6 +40,7 @@ import org.geotools.referencing.CRS;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.referencing.operation.projection.PolarStereographic;
 import org.geotools.referencing.operation.transform.IdentityTransform;
+import org.geotools.referencing.operation.transform.InterpolationGridTransform2D;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.opengis.referencing.FactoryException;
@@ -1048,4 +1049,27 @@ public class ProjectionHandlerTest {
         // the original width is 109km, at this latitude one degree of longitude is only 65km
         assertEquals(1.7, ppEnvelope.getWidth(), 0.1);
     }
+
+    @Test
+    public void testApproximateRenderingTransform() throws Exception {
+        ReferencedEnvelope renderingEnvelope =
+                new ReferencedEnvelope(-2000000, 2000000, 4000000, 8000000, MERCATOR);
+        ProjectionHandler handler =
+                ProjectionHandlerFinder.getHandler(renderingEnvelope, WGS84, true);
+        MathTransform mt = CRS.findMathTransform(WGS84, MERCATOR);
+        // no tolerance, no approximation
+        assertSame(mt, handler.getRenderingTransform(mt, 0));
+
+        // ten meters tolerance, like half a pixel on a 200k pixels wide map
+        MathTransform approximate = handler.getRenderingTransform(mt, 10);
+        assertTrue(approximate instanceof InterpolationGridTransform2D);
+        Geometry g = new WKTReader().read("LINESTRING(-15 35, 0 45, 10 50, 15 55)");
+        Geometry expected = JTS.transform(g, mt);
+        Geometry actual = JTS.transform(g, approximate);
+        Coordinate[] ec = expected.getCoordinates();
+        Coordinate[] ac = actual.getCoordinates();
+        for (int i = 0; i < ec.length; i++) {
+            assertTrue(ec[i].distance(ac[i]) < 10);
+        }
+    }
 }
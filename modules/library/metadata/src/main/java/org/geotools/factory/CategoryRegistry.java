@@ -21,11 +21,13 @@ import static java.util.stream.Collectors.toMap;
 import static org.geotools.util.Utilities.ensureArgumentNonNull;
 import static org.geotools.util.Utilities.stream;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 import org.geotools.util.PartiallyOrderedSet;
@@ -231,6 +233,11 @@ class CategoryRegistry {
     /**
      * Registry tracking instances of a single category.
      *
+     * <p>Modifications are synchronized on the registry, while reads work off an immutable snapshot
+     * that is rebuilt lazily after each modification. This allows the read path to proceed without
+     * locking once the category has been populated, and makes the returned streams safe to consume
+     * while other threads register or deregister instances.
+     *
      * @param <T> category
      */
     private static class InstanceRegistry<T> {
@@ -250,17 +257,23 @@ class CategoryRegistry {
 
         private final Class<?> category;
 
-        private final Map<Class<?>, T> instancesByType = new HashMap<>();
+        private final Map<Class<?>, T> instancesByType = new ConcurrentHashMap<>();
 
         private final PartiallyOrderedSet<T> orderedInstances = new PartiallyOrderedSet<>(false);
 
+        /** Snapshot of {@link #orderedInstances}, or {@code null} if it needs to be recomputed. */
+        private volatile List<T> orderedSnapshot;
+
+        /** Snapshot of {@link #instancesByType} values, or {@code null} if it needs recomputing. */
+        private volatile List<T> unorderedSnapshot;
+
         private InstanceRegistry(FactoryRegistry factoryRegistry, Class<?> category) {
             this.factoryRegistry = factoryRegistry;
             this.category = category;
         }
 
         /** @return {@code true} if this the first instance of its class. */
-        public boolean register(final T instance) {
+        public synchronized boolean register(final T instance) {
             ensureArgumentNonNull("instance", instance);
             boolean deregistered = deregisterByType(instance);
             registerInternal(instance);
@@ -268,6 +281,12 @@ class CategoryRegistry {
             return !deregistered;
         }
 
+        /** Discards the current snapshots, they will be rebuilt on the next read. */
+        private void invalidate() {
+            orderedSnapshot = null;
+            unorderedSnapshot = null;
+        }
+
         private void notifyRegistered(final T instance) {
             if (instance instanceof RegistrableFactory) {
                 ((RegistrableFactory) instance).onRegistration(factoryRegistry, category);
@@ -282,10 +301,11 @@ class CategoryRegistry {
         private void registerInternal(final T instance) {
             instancesByType.put(instance.getClass(), instance);
             orderedInstances.add(instance);
+            invalidate();
         }
 
         /** @return {true} if an instance of the same type was previously registered */
-        public boolean deregister(final T instance) {
+        public synchronized boolean deregister(final T instance) {
             ensureArgumentNonNull("instance", instance);
             if (instancesByType.containsKey(instance.getClass())) {
                 deregisterByType(instance);
@@ -302,6 +322,7 @@ class CategoryRegistry {
 
             if (instanceWasRemoved) {
                 orderedInstances.remove(removed);
+                invalidate();
                 notifyDeregistered(removed);
             }
 
@@ -314,22 +335,49 @@ class CategoryRegistry {
             }
         }
 
-        public void clear() {
+        public synchronized void clear() {
             Iterator<T> values = instancesByType.values().iterator();
             while (values.hasNext()) {
                 T instance = values.next();
                 values.remove();
                 orderedInstances.remove(instance);
+                invalidate();
                 notifyDeregistered(instance);
             }
         }
 
         public Stream<T> stream(final boolean useOrder) {
-            if (useOrder) {
-                return orderedInstances.stream();
-            } else {
-                return instancesByType.values().stream();
+            return useOrder ? orderedSnapshot().stream() : unorderedSnapshot().stream();
+        }
+
+        private List<T> orderedSnapshot() {
+            List<T> snapshot = orderedSnapshot;
+            if (snapshot == null) {
+                synchronized (this) {
+                    snapshot = orderedSnapshot;
+                    if (snapshot == null) {
+                        snapshot = Collections.unmodifiableList(new ArrayList<>(orderedInstances));
+                        orderedSnapshot = snapshot;
+                    }
+                }
+            }
+            return snapshot;
+        }
+
+        private List<T> unorderedSnapshot() {
+            List<T> snapshot = unorderedSnapshot;
+            if (snapshot == null) {
+                synchronized (this) {
+                    snapshot = unorderedSnapshot;
+                    if (snapshot == null) {
+                        snapshot =
+                                Collections.unmodifiableList(
+                                        new ArrayList<>(instancesByType.values()));
+                        unorderedSnapshot = snapshot;
+                    }
+                }
             }
+            return snapshot;
         }
 
         public <S> Optional<S> getInstanceOfType(Class<S> type) {
@@ -340,21 +388,31 @@ class CategoryRegistry {
         }
 
         /** @see CategoryRegistry#setOrder(Class, Object, Object) */
-        public boolean setOrder(T firstInstance, T secondInstance) {
-            return instancesByType.containsKey(firstInstance.getClass())
-                    && instancesByType.containsKey(secondInstance.getClass())
-                    // if both are contained, set the order
-                    && orderedInstances.setOrder(firstInstance, secondInstance);
+        public synchronized boolean setOrder(T firstInstance, T secondInstance) {
+            boolean changed =
+                    instancesByType.containsKey(firstInstance.getClass())
+                            && instancesByType.containsKey(secondInstance.getClass())
+                            // if both are contained, set the order
+                            && orderedInstances.setOrder(firstInstance, secondInstance);
+            if (changed) {
+                invalidate();
+            }
+            return changed;
         }
 
         /** @see CategoryRegistry#clearOrder(Class, Object, Object) */
-        public boolean clearOrder(T firstInstance, T secondInstance) {
+        public synchronized boolean clearOrder(T firstInstance, T secondInstance) {
             ensureArgumentNonNull("firstInstance", firstInstance);
             ensureArgumentNonNull("secondInstance", secondInstance);
-            return instancesByType.containsKey(firstInstance.getClass())
-                    && instancesByType.containsKey(secondInstance.getClass())
-                    // if both are contained, set the order
-                    && orderedInstances.clearOrder(firstInstance, secondInstance);
+            boolean changed =
+                    instancesByType.containsKey(firstInstance.getClass())
+                            && instancesByType.containsKey(secondInstance.getClass())
+                            // if both are contained, set the order
+                            && orderedInstances.clearOrder(firstInstance, secondInstance);
+            if (changed) {
+                invalidate();
+            }
+            return changed;
         }
 
         @Override
@@ -0,0 +1,338 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.factory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.ServiceConfigurationError;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+
+/**
+ * A precomputed index of the factory implementations available for each category, used by {@link
+ * FactoryRegistry} in place of a {@link java.util.ServiceLoader} scan of the {@code
+ * META-INF/services} files.
+ *
+ * <p>The index is stored as a properties file under {@value #INDEX_RESOURCE}, each key being a
+ * category (interface) name and each value a comma separated list of implementation class names, in
+ * the order they would have been found by {@link java.util.ServiceLoader}.
+ *
+ * <p>The GeoTools build does not generate any index: a category listed in the index is no longer
+ * looked up through {@link java.util.ServiceLoader}, so the index must be computed against the
+ * final application class path, with all the plugins it will use. Generating it is therefore a
+ * manual, opt-in step performed by the application, by running {@link #main(String[])} (for example
+ * from the {@code exec-maven-plugin} in the application build) and packaging the result:
+ *
+ * <pre>
+ * java -cp &lt;classpath&gt; org.geotools.factory.FactoryIndex target/classes/META-INF/geotools/factory-index.properties
+ * </pre>
+ *
+ * The index must be regenerated whenever the plugins on the class path change.
+ *
+ * <p>When an index is available for a class loader, {@link FactoryRegistry} resolves the
+ * implementation names for a category with a single lookup, and only instantiates the factories of
+ * the categories that are actually requested. Categories not listed in the index are still
+ * discovered through {@link java.util.ServiceLoader}.
+ *
+ * @since 20
+ */
+public final class FactoryIndex {
+
+    static final Logger LOGGER = Logging.getLogger("org.geotools.factory");
+
+    /** The class path location of the index */
+    public static final String INDEX_RESOURCE = "META-INF/geotools/factory-index.properties";
+
+    /** The prefix of the service provider configuration files */
+    static final String SERVICES_PREFIX = "META-INF/services/";
+
+    /** An index without any category */
+    static final FactoryIndex EMPTY =
+            new FactoryIndex(Collections.<String, List<String>>emptyMap());
+
+    /** Indexes loaded so far, by class loader */
+    private static final Map<ClassLoader, FactoryIndex> INDEXES = new WeakHashMap<>();
+
+    /** Implementation class names, by category name */
+    private final Map<String, List<String>> implementations;
+
+    FactoryIndex(Map<String, List<String>> implementations) {
+        this.implementations = implementations;
+    }
+
+    /**
+     * Returns the index available for the given class loader, or an empty index if the class loader
+     * does not provide any. The index is read only once per class loader.
+     */
+    public static FactoryIndex getIndex(ClassLoader loader) {
+        synchronized (INDEXES) {
+            FactoryIndex index = INDEXES.get(loader);
+            if (index == null) {
+                try {
+                    index = load(loader);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to read the factory index, ignoring it", e);
+                    index = EMPTY;
+                }
+                INDEXES.put(loader, index);
+            }
+            return index;
+        }
+    }
+
+    /** Forgets about the indexes read so far, they will be read again on next access. */
+    public static void reset() {
+        synchronized (INDEXES) {
+            INDEXES.clear();
+        }
+    }
+
+    /**
+     * Reads and merges all the {@value #INDEX_RESOURCE} resources visible to the specified class
+     * loader.
+     */
+    static FactoryIndex load(ClassLoader loader) throws IOException {
+        Enumeration<URL> resources = loader.getResources(INDEX_RESOURCE);
+        if (!resources.hasMoreElements()) {
+            return EMPTY;
+        }
+        Map<String, Set<String>> merged = new LinkedHashMap<>();
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            Properties properties = new Properties();
+            try (InputStream is = url.openStream()) {
+                properties.load(is);
+            }
+            for (String category : properties.stringPropertyNames()) {
+                Set<String> names = merged.computeIfAbsent(category, k -> new LinkedHashSet<>());
+                for (String name : properties.getProperty(category).split(",")) {
+                    name = name.trim();
+                    if (!name.isEmpty()) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        Map<String, List<String>> implementations = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> entry : merged.entrySet()) {
+            implementations.put(
+                    entry.getKey(),
+                    Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        return new FactoryIndex(implementations);
+    }
+
+    /**
+     * Builds an index for the specified categories by parsing the {@code META-INF/services} files
+     * visible to the class loader. No factory is instantiated (or even loaded) in the process.
+     */
+    public static FactoryIndex scan(ClassLoader loader, Iterable<String> categories)
+            throws IOException {
+        Map<String, List<String>> implementations = new LinkedHashMap<>();
+        for (String category : categories) {
+            Set<String> names = new LinkedHashSet<>();
+            Enumeration<URL> resources = loader.getResources(SERVICES_PREFIX + category);
+            while (resources.hasMoreElements()) {
+                try (InputStream is = resources.nextElement().openStream()) {
+                    parseServiceFile(is, names);
+                }
+            }
+            if (!names.isEmpty()) {
+                implementations.put(category, new ArrayList<>(names));
+            }
+        }
+        return new FactoryIndex(implementations);
+    }
+
+    /** Parses a service provider configuration file, as specified by the ServiceLoader javadoc */
+    static void parseServiceFile(InputStream is, Set<String> names) throws IOException {
+        BufferedReader reader =
+                new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (!line.isEmpty()) {
+                names.add(line);
+            }
+        }
+    }
+
+    /** Returns {@code true} if the index does not contain any category */
+    public boolean isEmpty() {
+        return implementations.isEmpty();
+    }
+
+    /** Returns {@code true} if the index lists the implementations of the given category */
+    public boolean contains(Class<?> category) {
+        return implementations.containsKey(category.getName());
+    }
+
+    /**
+     * Returns the names of the implementation classes for the given category, without loading them,
+     * or an empty list if the category is not indexed.
+     */
+    public List<String> getImplementationNames(Class<?> category) {
+        List<String> names = implementations.get(category.getName());
+        return names == null ? Collections.<String>emptyList() : names;
+    }
+
+    /**
+     * Returns a lazy iterator instantiating the indexed implementations of the given category, the
+     * same way {@link java.util.ServiceLoader} would. Failures to load or instantiate a class are
+     * reported as {@link ServiceConfigurationError}, leaving the caller free to skip that factory
+     * and continue the iteration.
+     */
+    public <T> Iterator<T> iterator(final Class<T> category, final ClassLoader loader) {
+        final Iterator<String> names = getImplementationNames(category).iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return names.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!names.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String name = names.next();
+                Class<?> clazz;
+                try {
+                    clazz = Class.forName(name, false, loader);
+                } catch (ClassNotFoundException e) {
+                    throw new ServiceConfigurationError(
+                            category.getName() + ": Provider " + name + " not found", e);
+                }
+                if (!category.isAssignableFrom(clazz)) {
+                    throw new ServiceConfigurationError(
+                            category.getName() + ": Provider " + name + " not a subtype");
+                }
+                try {
+                    return category.cast(clazz.newInstance());
+                } catch (InstantiationException | IllegalAccessException e) {
+                    throw new ServiceConfigurationError(
+                            category.getName() + ": Provider " + name + " could not be created", e);
+                }
+            }
+        };
+    }
+
+    /** Writes the index in the format expected by {@link #getIndex(ClassLoader)} */
+    public void store(OutputStream os) throws IOException {
+        // sorted keys make the generated file stable across builds
+        Map<String, List<String>> sorted = new TreeMap<>(implementations);
+        StringBuilder sb = new StringBuilder("# GeoTools factory index, generated file\n");
+        for (Map.Entry<String, List<String>> entry : sorted.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(String.join(",", entry.getValue()));
+            sb.append('\n');
+        }
+        os.write(sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Lists the categories declared in the {@code META-INF/services} directories of the class path
+     * entries (jars and directories).
+     */
+    static Set<String> listCategories(String classPath) throws IOException {
+        Set<String> categories = new LinkedHashSet<>();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            File file = new File(entry);
+            if (file.isDirectory()) {
+                File[] services = new File(file, SERVICES_PREFIX).listFiles(File::isFile);
+                if (services != null) {
+                    for (File service : services) {
+                        categories.add(service.getName());
+                    }
+                }
+            } else if (file.isFile()) {
+                try (JarFile jar = new JarFile(file)) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.startsWith(SERVICES_PREFIX)
+                                && name.length() > SERVICES_PREFIX.length()
+                                && name.indexOf('/', SERVICES_PREFIX.length()) < 0) {
+                            categories.add(name.substring(SERVICES_PREFIX.length()));
+                        }
+                    }
+                }
+            }
+        }
+        return categories;
+    }
+
+    @Override
+    public String toString() {
+        return "FactoryIndex " + implementations.keySet();
+    }
+
+    /**
+     * Generates the index for the current class path. The first argument is the output file, the
+     * optional following ones the categories to index (all the categories found in the class path
+     * otherwise).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: FactoryIndex <output file> [category...]");
+            System.exit(1);
+        }
+        List<String> categories = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            categories.add(args[i]);
+        }
+        if (categories.isEmpty()) {
+            categories.addAll(listCategories(System.getProperty("java.class.path")));
+        }
+        ClassLoader loader = FactoryIndex.class.getClassLoader();
+        FactoryIndex index = scan(loader, categories);
+        File output = new File(args[0]);
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+        try (OutputStream os = new FileOutputStream(output)) {
+            index.store(os);
+        }
+    }
+}
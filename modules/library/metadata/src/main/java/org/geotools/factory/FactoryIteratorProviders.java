@@ -36,8 +36,11 @@ final class FactoryIteratorProviders {
      */
     private static final FactoryIteratorProviders GLOBAL = new FactoryIteratorProviders();
 
-    /** Incremented every time a modification is performed. */
-    private int modifications = 0;
+    /**
+     * Incremented every time a modification is performed. Volatile so that {@link #isSynchronized}
+     * can be checked without holding the {@link #GLOBAL} lock.
+     */
+    private volatile int modifications = 0;
 
     /**
      * Alternative scanning methods used by {@link FactoryRegistry#scanForPlugins(Collection,Class)}
@@ -48,6 +51,15 @@ final class FactoryIteratorProviders {
     /** Creates an initially empty set of factories. */
     FactoryIteratorProviders() {}
 
+    /**
+     * Returns {@code true} if this configuration is known to be up to date with the {@linkplain
+     * #GLOBAL global} one. This check does not acquire any lock, a {@code false} value means that
+     * {@link #synchronizeIteratorProviders} should be invoked.
+     */
+    final boolean isSynchronized() {
+        return modifications == GLOBAL.modifications;
+    }
+
     /**
      * Synchronizes the content of the {@link #iteratorProviders} map with the {@linkplain #GLOBAL
      * global} one. New providers are returned for later {@linkplain FactoryRegistry#register
@@ -22,6 +22,7 @@ import static org.geotools.util.Utilities.streamIfSubtype;
 import java.awt.RenderingHints;
 import java.lang.ref.Reference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -66,10 +67,16 @@ import org.geotools.util.logging.Logging;
  * </code>
  * </pre>
  *
- * <p><strong>NOTE: This class is not thread safe</strong>. Users are responsible for
- * synchronisation. This is usually done in an utility class wrapping this factory registry (e.g.
+ * <p><strong>NOTE: Thread safety</strong>. The first lookup of a category scans for its plugins
+ * while holding this registry lock; once a category has been populated, the factories are read from
+ * an immutable snapshot and lookups by category, filter and hints no longer block. Registration
+ * methods and the creation of new factories (e.g. in {@link FactoryCreator}) may still require
+ * external synchronisation, usually done in an utility class wrapping this factory registry (e.g.
  * {@link org.geotools.referencing.ReferencingFactoryFinder}).
  *
+ * <p>Plugins are discovered using the {@link FactoryIndex} generated for the application, when one
+ * is available, falling back on {@link ServiceLoader} otherwise.
+ *
  * <p><strong>NOTE: Java 9 Service Registry Incompatibility</strong>. Prior releases of GeoTools
  * uses Java's built-in {@link javax.imageio.spi.ServiceRegistry} to manage instances for our
  * plug-in system. In Java 9 the service registry was restricted to a limited number of imageio
@@ -118,7 +125,7 @@ public class FactoryRegistry {
      * need to be scanned for plugins. After a category has been first used, it is removed from this
      * set so we don't scan for plugins again.
      */
-    private final Set<Class<?>> needScanForPlugins = new HashSet<>();
+    private final Set<Class<?>> needScanForPlugins = ConcurrentHashMap.newKeySet();
 
     /**
      * Categories under scanning. This is used by {@link #scanForPlugins(Collection,Class)} as a
@@ -263,7 +270,7 @@ public class FactoryRegistry {
 
     /** @deprecated Replaced with {@link #getFactories(Class, Predicate, Hints)} */
     @Deprecated
-    public synchronized <T> Iterator<T> getServiceProviders(
+    public <T> Iterator<T> getServiceProviders(
             final Class<T> category, final ServiceRegistry.Filter filter, final Hints hints) {
         Predicate<? super T> predicate = filter == null ? null : filter::filter;
         return getFactories(category, predicate, hints).iterator();
@@ -273,7 +280,7 @@ public class FactoryRegistry {
      * Returns the factories in the registry for the specified category, filter and hints. Factories
      * that are not {@linkplain OptionalFactory#isAvailable available} will be ignored. This method
      * will {@linkplain #scanForPlugins() scan for plugins} the first time it is invoked for the
-     * given category.
+     * given category, afterwards the lookup does not require any lock.
      *
      * @param <T> The class represented by the {@code category} argument.
      * @param category The category to look for. Usually an interface class (not the actual
@@ -283,7 +290,7 @@ public class FactoryRegistry {
      * @return Factories ready to use for the specified category, filter and hints.
      * @since 19
      */
-    public synchronized <T> Stream<T> getFactories(
+    public <T> Stream<T> getFactories(
             final Class<T> category, final Predicate<? super T> filter, final Hints hints) {
         /*
          * The implementation of this method is very similar to the 'getUnfilteredFactories'
@@ -917,7 +924,7 @@ public class FactoryRegistry {
              * First, scan META-INF/services directories (the default mechanism).
              */
             for (final ClassLoader loader : loaders) {
-                Iterator<T> factories = ServiceLoader.load(category, loader).iterator();
+                Iterator<T> factories = lookupFactories(category, loader);
                 newFactories |= register(factories, category, message);
                 newFactories |= registerFromSystemProperty(loader, category, message);
             }
@@ -942,13 +949,37 @@ public class FactoryRegistry {
         }
     }
 
+    /**
+     * Returns the factories of the given category declared for the given class loader, using the
+     * {@linkplain FactoryIndex precomputed index} if it covers the category, or a {@link
+     * ServiceLoader} scan otherwise.
+     */
+    private <T> Iterator<T> lookupFactories(final Class<T> category, final ClassLoader loader) {
+        final FactoryIndex index = FactoryIndex.getIndex(loader);
+        if (index.contains(category)) {
+            return index.iterator(category, loader);
+        }
+        return ServiceLoader.load(category, loader).iterator();
+    }
+
     /**
      * Scans the given category for plugins only if needed. After this method has been invoked once
-     * for a given category, it will no longer scan for that category.
+     * for a given category, it will no longer scan for that category. The check is lock free once
+     * the category has been scanned, concurrent first lookups wait for the scan to complete so that
+     * they never see a partially populated category.
      */
     private void scanForPluginsIfNeeded(final Class<?> category) {
-        if (needScanForPlugins.remove(category)) {
-            scanForPlugins(getClassLoaders(), category);
+        if (!needScanForPlugins.contains(category)) {
+            return;
+        }
+        synchronized (this) {
+            if (needScanForPlugins.contains(category)) {
+                try {
+                    scanForPlugins(getClassLoaders(), category);
+                } finally {
+                    needScanForPlugins.remove(category);
+                }
+            }
         }
     }
 
@@ -1215,15 +1246,27 @@ public class FactoryRegistry {
      * immediately. Note that this method is typically invoked in a different thread than {@link
      * FactoryIteratorProviders} method calls.
      *
+     * <p>The check for new providers is lock free, so that lookups do not contend on this registry
+     * once it is up to date. The registration of new providers, which modifies the registry, is
+     * performed while holding this registry lock like {@link #scanForPlugins(Collection,Class)}.
+     *
      * @see FactoryIteratorProviders#addFactoryIteratorProvider
      */
     private void synchronizeIteratorProviders() {
-        final FactoryIteratorProvider[] newProviders =
-                globalConfiguration.synchronizeIteratorProviders();
-        if (newProviders == null) {
+        if (globalConfiguration.isSynchronized()) {
             return;
         }
+        synchronized (this) {
+            final FactoryIteratorProvider[] newProviders =
+                    globalConfiguration.synchronizeIteratorProviders();
+            if (newProviders != null) {
+                register(newProviders);
+            }
+        }
+    }
 
+    /** Registers the given new providers in the categories already populated. */
+    private void register(final FactoryIteratorProvider[] newProviders) {
         registry.streamCategories()
                 .filter(category -> !needScanForPlugins.contains(category))
                 .forEach(
@@ -618,6 +618,16 @@ public class Hints extends RenderingHints {
      */
     public static final Key FEATURE_2D = new Key(Boolean.class);
 
+    /**
+     * Request that the feature readers return "flyweight" features, that is, a single feature
+     * instance whose attribute values get overwritten at each call to {@code next()}, with numeric
+     * attributes stored in primitive form. Meant for read-only scanning code that does not keep
+     * references to the features it receives, callers that need to retain a feature must copy it.
+     *
+     * @since 20
+     */
+    public static final Key FEATURE_FLYWEIGHT = new Key(Boolean.class);
+
     /**
      * Key to control the maximum number of features that will be kept in memory when performing a
      * fallback merge-sort (used when the datastore does not have native means to handle feature
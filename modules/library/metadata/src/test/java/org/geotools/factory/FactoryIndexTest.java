@@ -0,0 +1,138 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.factory;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FactoryIndexTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testScanServiceFiles() throws Exception {
+        FactoryIndex index =
+                FactoryIndex.scan(
+                        getClass().getClassLoader(),
+                        Arrays.asList(DummyInterface.class.getName(), "not.a.Category"));
+        assertTrue(index.contains(DummyInterface.class));
+        assertFalse(index.contains(DummyFactory.class));
+        assertEquals(
+                Collections.singletonList(DummyInterfaceImpl.class.getName()),
+                index.getImplementationNames(DummyInterface.class));
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        Map<String, List<String>> implementations = new HashMap<>();
+        implementations.put(
+                DummyFactory.class.getName(),
+                Arrays.asList(
+                        DummyFactory.Example1.class.getName(),
+                        DummyFactory.Example2.class.getName()));
+        URLClassLoader loader = writeIndex(new FactoryIndex(implementations));
+
+        FactoryIndex index = FactoryIndex.getIndex(loader);
+        assertTrue(index.contains(DummyFactory.class));
+        assertEquals(
+                implementations.get(DummyFactory.class.getName()),
+                index.getImplementationNames(DummyFactory.class));
+        List<DummyFactory> factories = new ArrayList<>();
+        index.iterator(DummyFactory.class, loader).forEachRemaining(factories::add);
+        assertEquals(2, factories.size());
+        assertTrue(factories.get(0) instanceof DummyFactory.Example1);
+        assertTrue(factories.get(1) instanceof DummyFactory.Example2);
+    }
+
+    @Test
+    public void testRegistryUsesIndex() throws Exception {
+        // there is no META-INF/services file for DummyFactory, the index is the only source
+        Map<String, List<String>> implementations = new HashMap<>();
+        implementations.put(
+                DummyFactory.class.getName(),
+                Arrays.asList(DummyFactory.Example1.class.getName(), "org.geotools.NotThere"));
+        URLClassLoader loader = writeIndex(new FactoryIndex(implementations));
+
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            FactoryRegistry registry = new FactoryRegistry(DummyFactory.class);
+            List<DummyFactory> factories =
+                    registry.getFactories(DummyFactory.class, null, null).collect(toList());
+            // the missing class is logged and skipped
+            assertEquals(1, factories.size());
+            assertTrue(factories.get(0) instanceof DummyFactory.Example1);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final FactoryRegistry registry = new FactoryRegistry(DummyInterface.class);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(
+                        executor.submit(
+                                () ->
+                                        registry.getFactories(DummyInterface.class, null, null)
+                                                .count()));
+            }
+            // other tests may add class loaders, but all threads must see the same factories
+            long expected = futures.get(0).get();
+            assertTrue(expected > 0);
+            for (Future<Long> future : futures) {
+                assertEquals(expected, future.get().longValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private URLClassLoader writeIndex(FactoryIndex index) throws Exception {
+        File root = folder.newFolder();
+        File file = new File(root, FactoryIndex.INDEX_RESOURCE);
+        assertTrue(file.getParentFile().mkdirs());
+        try (OutputStream os = new FileOutputStream(file)) {
+            index.store(os);
+        }
+        return new URLClassLoader(new URL[] {root.toURI().toURL()}, getClass().getClassLoader());
+    }
+}
@@ -145,6 +145,27 @@ public class EquidistantCylindrical extends MapProjection {
         return new Point2D.Double(x, y);
     }
 
+    /** Transforms in place an array of normalized coordinates. */
+    @Override
+    protected void transformNormalized(final double[] points, final int offset, final int numPts) {
+        final double c = cosStandardParallel;
+        final int end = offset + 2 * numPts;
+        for (int i = offset; i < end; i += 2) {
+            points[i] *= c;
+        }
+    }
+
+    /** Inverse transforms in place an array of normalized coordinates. */
+    @Override
+    protected void inverseTransformNormalized(
+            final double[] points, final int offset, final int numPts) {
+        final double c = cosStandardParallel;
+        final int end = offset + 2 * numPts;
+        for (int i = offset; i < end; i += 2) {
+            points[i] /= c;
+        }
+    }
+
     /** Returns a hash value for this projection. */
     @Override
     public int hashCode() {
@@ -231,6 +231,44 @@ public abstract class LambertConformal extends MapProjection {
         return new Point2D.Double(x, y);
     }
 
+    /** Transforms in place an array of normalized coordinates. */
+    @Override
+    protected void transformNormalized(final double[] points, final int offset, final int numPts)
+            throws ProjectionException {
+        ProjectionException firstException = null;
+        final int end = offset + 2 * numPts;
+        for (int i = offset; i < end; i += 2) {
+            double x = points[i];
+            final double y = points[i + 1];
+            final double rho;
+            // Snyder p. 108
+            if (abs(abs(y) - PI / 2) < EPSILON) {
+                if (y * n <= 0) {
+                    points[i] = Double.NaN;
+                    points[i + 1] = Double.NaN;
+                    if (firstException == null) {
+                        firstException = new ProjectionException(y);
+                    }
+                    continue;
+                }
+                rho = 0;
+            } else if (isSpherical) {
+                rho = F * pow(tan(PI / 4 + 0.5 * y), -n);
+            } else {
+                rho = F * pow(tsfn(y, sin(y)), n);
+            }
+            x *= n;
+            if (belgium) {
+                x -= BELGE_A;
+            }
+            points[i] = rho * sin(x);
+            points[i + 1] = rho0 - rho * cos(x);
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
     /**
      * Transforms the specified (<var>x</var>,<var>y</var>) coordinates and stores the result in
      * {@code ptDst}.
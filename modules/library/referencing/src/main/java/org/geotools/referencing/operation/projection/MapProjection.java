@@ -35,6 +35,7 @@ import static java.lang.Math.toRadians;
 
 import java.awt.geom.Point2D;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -858,6 +859,90 @@ public abstract class MapProjection extends AbstractMathTransform
     protected abstract Point2D transformNormalized(double lambda, double phi, final Point2D ptDst)
             throws ProjectionException;
 
+    /**
+     * Transforms in place an array of coordinates, given as (<var>lambda</var>,<var>phi</var>)
+     * pairs in <strong>radians</strong> with the {@link #centralMeridian} already removed. This is
+     * the batch counterpart of {@link #transformNormalized(double, double, Point2D)}, invoked by
+     * {@link #transform(double[], int, double[], int, int)} once for the whole array instead of
+     * once per point.
+     *
+     * <p>The default implementation delegates to the single point method, reusing the same {@link
+     * Point2D} for all points. Projections that are heavily used (e.g. Mercator, Transverse
+     * Mercator) override this method with a tight loop over the primitive array which does not
+     * allocate and that the JIT can optimize well. Subclasses overriding {@link
+     * #transformNormalized(double, double, Point2D)} with a different formula must override this
+     * method too.
+     *
+     * @param points The coordinates to transform, overwritten with the transformed values.
+     * @param offset The index of the first ordinate to transform.
+     * @param numPts The number of points to transform.
+     * @throws ProjectionException if a point can't be transformed. All points are processed
+     *     anyway, the ones that can't be transformed are set to {@link Double#NaN}.
+     */
+    protected void transformNormalized(final double[] points, final int offset, final int numPts)
+            throws ProjectionException {
+        final Point2D.Double point = new Point2D.Double();
+        ProjectionException firstException = null;
+        final int end = offset + 2 * numPts;
+        for (int i = offset; i < end; i += 2) {
+            try {
+                final Point2D result = transformNormalized(points[i], points[i + 1], point);
+                points[i] = result.getX();
+                points[i + 1] = result.getY();
+            } catch (ProjectionException exception) {
+                points[i] = Double.NaN;
+                points[i + 1] = Double.NaN;
+                if (firstException == null) {
+                    firstException = exception;
+                }
+            }
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
+    /**
+     * Inverse transforms in place an array of coordinates, given as (<var>x</var>,<var>y</var>)
+     * pairs with the {@link #falseEasting} and {@link #falseNorthing} removed and divided by {@link
+     * #globalScale}. This is the batch counterpart of {@link #inverseTransformNormalized(double,
+     * double, Point2D)}, the results are in <strong>radians</strong> without the {@link
+     * #centralMeridian}.
+     *
+     * <p>The default implementation delegates to the single point method, reusing the same {@link
+     * Point2D} for all points. Subclasses overriding {@link #inverseTransformNormalized(double,
+     * double, Point2D)} with a different formula must override this method too.
+     *
+     * @param points The coordinates to transform, overwritten with the transformed values.
+     * @param offset The index of the first ordinate to transform.
+     * @param numPts The number of points to transform.
+     * @throws ProjectionException if a point can't be transformed. All points are processed
+     *     anyway, the ones that can't be transformed are set to {@link Double#NaN}.
+     */
+    protected void inverseTransformNormalized(
+            final double[] points, final int offset, final int numPts)
+            throws ProjectionException {
+        final Point2D.Double point = new Point2D.Double();
+        ProjectionException firstException = null;
+        final int end = offset + 2 * numPts;
+        for (int i = offset; i < end; i += 2) {
+            try {
+                final Point2D result = inverseTransformNormalized(points[i], points[i + 1], point);
+                points[i] = result.getX();
+                points[i + 1] = result.getY();
+            } catch (ProjectionException exception) {
+                points[i] = Double.NaN;
+                points[i + 1] = Double.NaN;
+                if (firstException == null) {
+                    firstException = exception;
+                }
+            }
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
     /**
      * Transforms the specified {@code ptSrc} and stores the result in {@code ptDst}.
      *
@@ -923,43 +1008,91 @@ public abstract class MapProjection extends AbstractMathTransform
     public final void transform(
             final double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
             throws ProjectionException {
-        /*
-         * Vérifie s'il faudra parcourir le tableau en sens inverse.
-         * Ce sera le cas si les tableaux source et destination se
-         * chevauchent et que la destination est après la source.
-         */
-        final boolean reverse =
-                (srcPts == dstPts && srcOff < dstOff && srcOff + (2 * numPts) > dstOff);
-        if (reverse) {
-            srcOff += 2 * numPts;
-            dstOff += 2 * numPts;
+        if (numPts <= 0) {
+            return;
         }
-        final Point2D.Double point = new Point2D.Double();
-        ProjectionException firstException = null;
-        while (--numPts >= 0) {
-            try {
-                point.x = srcPts[srcOff++];
-                point.y = srcPts[srcOff++];
-                transform(point, point);
-                dstPts[dstOff++] = point.x;
-                dstPts[dstOff++] = point.y;
-            } catch (ProjectionException exception) {
-                dstPts[dstOff++] = Double.NaN;
-                dstPts[dstOff++] = Double.NaN;
-                if (firstException == null) {
-                    firstException = exception;
+        final int length = 2 * numPts;
+        final int end = dstOff + length;
+        // Keep a copy of the source points for checking the reciprocal, only if assertions are on
+        double[] source = null;
+        assert (source = Arrays.copyOfRange(srcPts, srcOff, srcOff + length)) != null;
+        // Work in place in the destination array, arraycopy handles overlapping arrays
+        System.arraycopy(srcPts, srcOff, dstPts, dstOff, length);
+        if (verifyCoordinateRanges()) {
+            for (int i = dstOff; i < end; i += 2) {
+                if (verifyGeographicRanges(this, dstPts[i], dstPts[i + 1])) {
+                    warningLogged();
+                    break;
                 }
             }
-            if (reverse) {
-                srcOff -= 4;
-                dstOff -= 4;
+        }
+        /*
+         * Makes sure that the longitude before conversion stay within +/- PI radians. See the
+         * transform(Point2D, Point2D) method for the rationale of not rolling the longitude if
+         * no rotation is applied.
+         */
+        final double central = centralMeridian;
+        if (central != 0) {
+            for (int i = dstOff; i < end; i += 2) {
+                dstPts[i] = rollLongitude(toRadians(dstPts[i]) - central);
+                dstPts[i + 1] = toRadians(dstPts[i + 1]);
             }
+        } else {
+            for (int i = dstOff; i < end; i++) {
+                dstPts[i] = toRadians(dstPts[i]);
+            }
+        }
+        ProjectionException firstException = null;
+        try {
+            transformNormalized(dstPts, dstOff, numPts);
+        } catch (ProjectionException exception) {
+            firstException = exception;
+        }
+        final double scale = globalScale;
+        final double tx = falseEasting;
+        final double ty = falseNorthing;
+        for (int i = dstOff; i < end; i += 2) {
+            dstPts[i] = scale * dstPts[i] + tx;
+            dstPts[i + 1] = scale * dstPts[i + 1] + ty;
+        }
+        if (invertible) {
+            assert checkReciprocal(dstPts, dstOff, source, numPts, true);
         }
         if (firstException != null) {
             throw firstException;
         }
     }
 
+    /**
+     * Batch version of {@link #checkReciprocal(Point2D, Point2D, boolean)}, used for assertions
+     * only. Points that could not be transformed are skipped.
+     *
+     * @param points The transformed points.
+     * @param offset Index of the first transformed point.
+     * @param targets The original points, starting at index 0.
+     * @param numPts The number of points to check.
+     * @param inverse {@code true} if the points have been transformed by a direct projection.
+     */
+    final boolean checkReciprocal(
+            final double[] points,
+            final int offset,
+            final double[] targets,
+            final int numPts,
+            final boolean inverse)
+            throws ProjectionException {
+        for (int i = 0; i < numPts; i++) {
+            final double x = points[offset + 2 * i];
+            final double y = points[offset + 2 * i + 1];
+            if (!Double.isNaN(x) && !Double.isNaN(y)) {
+                checkReciprocal(
+                        new Point2D.Double(x, y),
+                        new Point2D.Double(targets[2 * i], targets[2 * i + 1]),
+                        inverse);
+            }
+        }
+        return true;
+    }
+
     /**
      * Transforms a list of coordinate point ordinal values. Ordinates must be
      * (<var>longitude</var>,<var>latitude</var>) pairs in decimal degrees.
@@ -1089,38 +1222,51 @@ public abstract class MapProjection extends AbstractMathTransform
         public final void transform(
                 final double[] src, int srcOffset, final double[] dest, int dstOffset, int numPts)
                 throws TransformException {
+            if (numPts <= 0) {
+                return;
+            }
+            final int length = 2 * numPts;
+            final int end = dstOffset + length;
+            double[] source = null;
+            assert (source = Arrays.copyOfRange(src, srcOffset, srcOffset + length)) != null;
+            System.arraycopy(src, srcOffset, dest, dstOffset, length);
+            final double scale = globalScale;
+            final double tx = falseEasting;
+            final double ty = falseNorthing;
+            for (int i = dstOffset; i < end; i += 2) {
+                dest[i] = (dest[i] - tx) / scale;
+                dest[i + 1] = (dest[i + 1] - ty) / scale;
+            }
+            ProjectionException firstException = null;
+            try {
+                inverseTransformNormalized(dest, dstOffset, numPts);
+            } catch (ProjectionException exception) {
+                firstException = exception;
+            }
             /*
-             * Vérifie s'il faudra parcourir le tableau en sens inverse.
-             * Ce sera le cas si les tableaux source et destination se
-             * chevauchent et que la destination est après la source.
+             * Makes sure that the longitude after conversion stay within +/- PI radians. See the
+             * transform(Point2D, Point2D) method for the rationale.
              */
-            final boolean reverse =
-                    (src == dest && srcOffset < dstOffset && srcOffset + (2 * numPts) > dstOffset);
-            if (reverse) {
-                srcOffset += 2 * numPts;
-                dstOffset += 2 * numPts;
+            final double central = centralMeridian;
+            if (central != 0) {
+                for (int i = dstOffset; i < end; i += 2) {
+                    dest[i] = toDegrees(rollLongitude(dest[i] + central));
+                    dest[i + 1] = toDegrees(dest[i + 1]);
+                }
+            } else {
+                for (int i = dstOffset; i < end; i++) {
+                    dest[i] = toDegrees(dest[i]);
+                }
             }
-            final Point2D.Double point = new Point2D.Double();
-            ProjectionException firstException = null;
-            while (--numPts >= 0) {
-                try {
-                    point.x = src[srcOffset++];
-                    point.y = src[srcOffset++];
-                    transform(point, point);
-                    dest[dstOffset++] = point.x;
-                    dest[dstOffset++] = point.y;
-                } catch (ProjectionException exception) {
-                    dest[dstOffset++] = Double.NaN;
-                    dest[dstOffset++] = Double.NaN;
-                    if (firstException == null) {
-                        firstException = exception;
+            if (verifyCoordinateRanges()) {
+                for (int i = dstOffset; i < end; i += 2) {
+                    if (verifyGeographicRanges(this, dest[i], dest[i + 1])) {
+                        warningLogged();
+                        break;
                     }
                 }
-                if (reverse) {
-                    srcOffset -= 4;
-                    dstOffset -= 4;
-                }
             }
+            assert checkReciprocal(dest, dstOffset, source, numPts, false);
             if (firstException != null) {
                 throw firstException;
             }
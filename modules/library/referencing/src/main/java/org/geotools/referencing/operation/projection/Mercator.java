@@ -164,6 +164,55 @@ public abstract class Mercator extends MapProjection {
         return new Point2D.Double(x, y);
     }
 
+    /**
+     * Transforms in place an array of normalized coordinates. Only the northing depends on the
+     * formula, the easting is left untouched.
+     */
+    @Override
+    protected void transformNormalized(final double[] points, final int offset, final int numPts)
+            throws ProjectionException {
+        ProjectionException firstException = null;
+        final int end = offset + 2 * numPts;
+        for (int i = offset + 1; i < end; i += 2) {
+            final double y = points[i];
+            if (abs(y) > (PI / 2 - EPSILON)) {
+                points[i - 1] = Double.NaN;
+                points[i] = Double.NaN;
+                if (firstException == null) {
+                    firstException = new ProjectionException(y);
+                }
+            } else {
+                points[i] = -log(tsfn(y, sin(y)));
+            }
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
+    /** Inverse transforms in place an array of normalized coordinates. */
+    @Override
+    protected void inverseTransformNormalized(
+            final double[] points, final int offset, final int numPts)
+            throws ProjectionException {
+        ProjectionException firstException = null;
+        final int end = offset + 2 * numPts;
+        for (int i = offset + 1; i < end; i += 2) {
+            try {
+                points[i] = cphi2(exp(-points[i]));
+            } catch (ProjectionException exception) {
+                points[i - 1] = Double.NaN;
+                points[i] = Double.NaN;
+                if (firstException == null) {
+                    firstException = exception;
+                }
+            }
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
     /**
      * Provides the transform equations for the spherical case of the Mercator projection.
      *
@@ -229,6 +278,42 @@ public abstract class Mercator extends MapProjection {
             }
             return new Point2D.Double(x, y);
         }
+
+        /** Transforms in place an array of normalized coordinates using spherical formulas. */
+        @Override
+        protected void transformNormalized(
+                final double[] points, final int offset, final int numPts)
+                throws ProjectionException {
+            ProjectionException firstException = null;
+            final int end = offset + 2 * numPts;
+            for (int i = offset + 1; i < end; i += 2) {
+                final double y = points[i];
+                if (abs(y) > (PI / 2 - EPSILON)) {
+                    points[i - 1] = Double.NaN;
+                    points[i] = Double.NaN;
+                    if (firstException == null) {
+                        firstException = new ProjectionException(y);
+                    }
+                } else {
+                    points[i] = log(tan(PI / 4 + 0.5 * y));
+                }
+            }
+            if (firstException != null) {
+                throw firstException;
+            }
+        }
+
+        /**
+         * Inverse transforms in place an array of normalized coordinates using spherical formulas.
+         */
+        @Override
+        protected void inverseTransformNormalized(
+                final double[] points, final int offset, final int numPts) {
+            final int end = offset + 2 * numPts;
+            for (int i = offset + 1; i < end; i += 2) {
+                points[i] = PI / 2 - 2.0 * atan(exp(-points[i]));
+            }
+        }
     }
 
     /** Returns a hash value for this projection. */
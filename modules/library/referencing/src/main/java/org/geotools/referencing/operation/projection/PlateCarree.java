@@ -91,6 +91,15 @@ public class PlateCarree extends EquidistantCylindrical {
         return new Point2D.Double(x, y);
     }
 
+    /** Normalized coordinates are not changed by this projection, nothing to do. */
+    @Override
+    protected void transformNormalized(final double[] points, final int offset, final int numPts) {}
+
+    /** Normalized coordinates are not changed by this projection, nothing to do. */
+    @Override
+    protected void inverseTransformNormalized(
+            final double[] points, final int offset, final int numPts) {}
+
     //////////////////////////////////////////////////////////////////////////////////////////
     //////////////////////////////////////////////////////////////////////////////////////////
     ////////                                                                          ////////
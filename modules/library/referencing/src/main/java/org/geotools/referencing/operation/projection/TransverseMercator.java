@@ -224,6 +224,42 @@ public class TransverseMercator extends MapProjection {
         return new Point2D.Double(x, y);
     }
 
+    /**
+     * Transforms in place an array of normalized coordinates. This is the same series as in
+     * {@link #transformNormalized(double, double, Point2D)}, evaluated from the innermost term.
+     */
+    @Override
+    protected void transformNormalized(final double[] points, final int offset, final int numPts)
+            throws ProjectionException {
+        final int end = offset + 2 * numPts;
+        for (int i = offset; i < end; i += 2) {
+            final double x = points[i];
+            final double y = points[i + 1];
+            final double sinphi = sin(y);
+            final double cosphi = cos(y);
+
+            double t = (abs(cosphi) > EPSILON) ? sinphi / cosphi : 0;
+            t *= t;
+            double al = cosphi * x;
+            final double als = al * al;
+            al /= sqrt(1.0 - excentricitySquared * sinphi * sinphi);
+            final double n = esp * cosphi * cosphi;
+
+            double sy = 1385.0 + t * (t * (543.0 - t) - 3111.0);
+            sy = 61.0 + t * (t - 58.0) + n * (270.0 - 330.0 * t) + FC8 * als * sy;
+            sy = 5.0 - t + n * (9.0 + 4.0 * n) + FC6 * als * sy;
+
+            double sx = 61.0 + t * (t * (179.0 - t) - 479.0);
+            sx = 5.0 + t * (t - 18.0) + n * (14.0 - 58.0 * t) + FC7 * als * sx;
+            sx = 1.0 - t + n + FC5 * als * sx;
+
+            /* NOTE: meridinal distance at latitudeOfOrigin is always 0 */
+            points[i + 1] =
+                    mlfn(y, sinphi, cosphi) - ml0 + sinphi * al * x * FC2 * (1.0 + FC4 * als * sy);
+            points[i] = al * (FC1 + FC3 * als * sx);
+        }
+    }
+
     /**
      * Transforms the specified (<var>x</var>,<var>y</var>) coordinates and stores the result in
      * {@code ptDst}.
@@ -377,6 +413,34 @@ public class TransverseMercator extends MapProjection {
             return new Point2D.Double(x, y);
         }
 
+        /** Transforms in place an array of normalized coordinates using spherical formulas. */
+        @Override
+        protected void transformNormalized(
+                final double[] points, final int offset, final int numPts)
+                throws ProjectionException {
+            ProjectionException firstException = null;
+            final int end = offset + 2 * numPts;
+            for (int i = offset; i < end; i += 2) {
+                final double x = points[i];
+                final double y = points[i + 1];
+                final double b = cos(y) * sin(x);
+                if (abs(abs(b) - 1.0) <= EPSILON) {
+                    points[i] = Double.NaN;
+                    points[i + 1] = Double.NaN;
+                    if (firstException == null) {
+                        firstException =
+                                new ProjectionException(ErrorKeys.VALUE_TEND_TOWARD_INFINITY);
+                    }
+                } else {
+                    points[i + 1] = atan2(tan(y), cos(x)) - latitudeOfOrigin; /* Snyder 8-3 */
+                    points[i] = 0.5 * log((1.0 + b) / (1.0 - b)); /* Snyder 8-1 */
+                }
+            }
+            if (firstException != null) {
+                throw firstException;
+            }
+        }
+
         /** {@inheritDoc} */
         @Override
         protected Point2D inverseTransformNormalized(double x, double y, Point2D ptDst)
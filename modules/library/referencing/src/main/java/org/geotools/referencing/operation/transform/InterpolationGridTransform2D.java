@@ -0,0 +1,432 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.referencing.operation.transform;
+
+import static java.lang.Math.max;
+
+import java.awt.geom.Rectangle2D;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.referencing.operation.LinearTransform;
+import org.geotools.util.logging.Logging;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * A {@link MathTransform2D} approximating another one by bilinear interpolation over a regular
+ * grid of transformed points, trading a controlled amount of accuracy for speed. It is meant for
+ * cases where the result is only needed at a known resolution, such as on the fly reprojection for
+ * map rendering, where an error below half a pixel is not visible.
+ *
+ * <p>The grid is built by {@link #create(MathTransform2D, Rectangle2D, double)} over a domain
+ * expressed in source coordinates. Similarly to {@link WarpBuilder}, the domain is recursively
+ * split, along the x axis, the y axis or both, until the interpolation error measured in each cell
+ * falls below the tolerance, and the deepest split found along each axis determines the number of
+ * columns and rows of the grid. Points falling outside of the domain, or in cells having a corner
+ * that could not be transformed, are transformed using the original transform.
+ *
+ * @since 20
+ */
+public final class InterpolationGridTransform2D extends AbstractMathTransform
+        implements MathTransform2D, Serializable {
+    /** Serial number for interoperability with different versions. */
+    private static final long serialVersionUID = 3125461734562346753L;
+
+    static final Logger LOGGER = Logging.getLogger(InterpolationGridTransform2D.class);
+
+    /**
+     * Maximum number of splits (rows plus columns) tried before giving up, the grid will contain
+     * at most 2<sup>MAX_DEPTH</sup> cells
+     */
+    static final int MAX_DEPTH = 12;
+
+    /** Number of samples per side used to measure the interpolation error in a cell */
+    static final int SAMPLES = 5;
+
+    /** The transform being approximated, used for points outside of the grid */
+    private final MathTransform2D transform;
+
+    /** The grid origin */
+    private final double minX, minY;
+
+    /** The cell size */
+    private final double dx, dy;
+
+    /** The number of cells along the two axes */
+    private final int cols, rows;
+
+    /** The transformed grid nodes, stored row by row as (x,y) pairs */
+    private final double[] nodes;
+
+    private InterpolationGridTransform2D(
+            MathTransform2D transform,
+            double minX,
+            double minY,
+            double dx,
+            double dy,
+            int cols,
+            int rows,
+            double[] nodes) {
+        this.transform = transform;
+        this.minX = minX;
+        this.minY = minY;
+        this.dx = dx;
+        this.dy = dy;
+        this.cols = cols;
+        this.rows = rows;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Returns a transform approximating {@code transform} within {@code domain} with an error
+     * lower than {@code tolerance}. If the transform is linear, the tolerance is not positive, or
+     * an approximation satisfying the tolerance cannot be built with a reasonably sized grid, the
+     * original transform is returned instead.
+     *
+     * @param transform The transform to approximate
+     * @param domain The area where the approximation will be used, in source coordinates
+     * @param tolerance The maximum distance between the exact and approximated points, in target
+     *     units
+     */
+    public static MathTransform2D create(
+            MathTransform2D transform, Rectangle2D domain, double tolerance) {
+        if (transform instanceof LinearTransform
+                || transform instanceof InterpolationGridTransform2D
+                || transform.isIdentity()
+                || !(tolerance > 0)
+                || domain == null
+                || !(domain.getWidth() > 0)
+                || !(domain.getHeight() > 0)) {
+            return transform;
+        }
+        try {
+            GridBuilder builder = new GridBuilder(transform, tolerance * tolerance);
+            int[] depths =
+                    builder.computeOptimalDepths(
+                            domain.getMinX(),
+                            domain.getMaxX(),
+                            domain.getMinY(),
+                            domain.getMaxY(),
+                            0,
+                            0);
+            final int rows = 1 << depths[0];
+            final int cols = 1 << depths[1];
+            final double dx = domain.getWidth() / cols;
+            final double dy = domain.getHeight() / rows;
+            final double[] nodes = new double[(rows + 1) * (cols + 1) * 2];
+            int idx = 0;
+            for (int r = 0; r <= rows; r++) {
+                // compute the last row and column from the domain to avoid rounding issues
+                final double y = r == rows ? domain.getMaxY() : domain.getMinY() + r * dy;
+                for (int c = 0; c <= cols; c++) {
+                    nodes[idx++] = c == cols ? domain.getMaxX() : domain.getMinX() + c * dx;
+                    nodes[idx++] = y;
+                }
+            }
+            transformLenient(transform, nodes, nodes.length / 2);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(
+                        "Approximating the transformation with a "
+                                + rows
+                                + " x "
+                                + cols
+                                + " interpolation grid");
+            }
+            return new InterpolationGridTransform2D(
+                    transform, domain.getMinX(), domain.getMinY(), dx, dy, cols, rows, nodes);
+        } catch (ExcessiveDepthException e) {
+            LOGGER.log(Level.FINE, "Cannot approximate the transformation, " + e.getMessage());
+        } catch (TransformException e) {
+            LOGGER.log(Level.FINE, "Cannot approximate the transformation", e);
+        }
+        return transform;
+    }
+
+    /**
+     * Transforms the points in place, setting to NaN the ones that cannot be transformed instead of
+     * failing
+     */
+    static void transformLenient(MathTransform2D transform, double[] points, int numPts) {
+        final double[] source = Arrays.copyOf(points, numPts * 2);
+        try {
+            transform.transform(points, 0, points, 0, numPts);
+        } catch (TransformException e) {
+            // the array is not guaranteed to have been fully processed, go point by point
+            for (int i = 0; i < numPts * 2; i += 2) {
+                try {
+                    transform.transform(source, i, points, i, 1);
+                } catch (TransformException pe) {
+                    points[i] = Double.NaN;
+                    points[i + 1] = Double.NaN;
+                }
+            }
+        }
+    }
+
+    /** Returns the transform being approximated */
+    public MathTransform2D getTransform() {
+        return transform;
+    }
+
+    /** Returns the number of columns of the interpolation grid */
+    public int getColumns() {
+        return cols;
+    }
+
+    /** Returns the number of rows of the interpolation grid */
+    public int getRows() {
+        return rows;
+    }
+
+    /** Returns the area covered by the interpolation grid, in source coordinates */
+    public Rectangle2D getDomain() {
+        return new Rectangle2D.Double(minX, minY, dx * cols, dy * rows);
+    }
+
+    @Override
+    public int getSourceDimensions() {
+        return 2;
+    }
+
+    @Override
+    public int getTargetDimensions() {
+        return 2;
+    }
+
+    @Override
+    public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts)
+            throws TransformException {
+        if (srcPts == dstPts && needCopy(srcOff, 2, dstOff, 2, numPts)) {
+            srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts * 2);
+            srcOff = 0;
+        }
+        TransformException firstException = null;
+        final int rowLength = (cols + 1) * 2;
+        for (int i = 0; i < numPts; i++) {
+            final double x = srcPts[srcOff++];
+            final double y = srcPts[srcOff++];
+            final double fx = (x - minX) / dx;
+            final double fy = (y - minY) / dy;
+            // the negated tests also catch NaN
+            if (fx >= 0 && fx <= cols && fy >= 0 && fy <= rows) {
+                final int c = Math.min((int) fx, cols - 1);
+                final int r = Math.min((int) fy, rows - 1);
+                final double u = fx - c;
+                final double v = fy - r;
+                final int i00 = r * rowLength + c * 2;
+                final int i01 = i00 + rowLength;
+                final double x00 = nodes[i00];
+                final double y00 = nodes[i00 + 1];
+                final double x10 = nodes[i00 + 2];
+                final double y10 = nodes[i00 + 3];
+                final double x01 = nodes[i01];
+                final double y01 = nodes[i01 + 1];
+                final double x11 = nodes[i01 + 2];
+                final double y11 = nodes[i01 + 3];
+                final double tx0 = x00 + u * (x10 - x00);
+                final double tx1 = x01 + u * (x11 - x01);
+                final double ty0 = y00 + u * (y10 - y00);
+                final double ty1 = y01 + u * (y11 - y01);
+                final double tx = tx0 + v * (tx1 - tx0);
+                final double ty = ty0 + v * (ty1 - ty0);
+                // NaN means one of the corners could not be transformed
+                if (!Double.isNaN(tx) && !Double.isNaN(ty)) {
+                    dstPts[dstOff++] = tx;
+                    dstPts[dstOff++] = ty;
+                    continue;
+                }
+            }
+            dstPts[dstOff] = x;
+            dstPts[dstOff + 1] = y;
+            try {
+                transform.transform(dstPts, dstOff, dstPts, dstOff, 1);
+            } catch (TransformException e) {
+                dstPts[dstOff] = Double.NaN;
+                dstPts[dstOff + 1] = Double.NaN;
+                if (firstException == null) {
+                    firstException = e;
+                }
+            }
+            dstOff += 2;
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
+    /**
+     * Returns the inverse of the original transform, the approximation is available only in the
+     * forward direction.
+     */
+    @Override
+    public MathTransform2D inverse() throws NoninvertibleTransformException {
+        return (MathTransform2D) transform.inverse();
+    }
+
+    @Override
+    public int hashCode() {
+        return transform.hashCode() ^ Arrays.hashCode(nodes);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (object instanceof InterpolationGridTransform2D) {
+            final InterpolationGridTransform2D that = (InterpolationGridTransform2D) object;
+            return this.cols == that.cols
+                    && this.rows == that.rows
+                    && Double.doubleToLongBits(this.minX) == Double.doubleToLongBits(that.minX)
+                    && Double.doubleToLongBits(this.minY) == Double.doubleToLongBits(that.minY)
+                    && Double.doubleToLongBits(this.dx) == Double.doubleToLongBits(that.dx)
+                    && Double.doubleToLongBits(this.dy) == Double.doubleToLongBits(that.dy)
+                    && this.transform.equals(that.transform)
+                    && Arrays.equals(this.nodes, that.nodes);
+        }
+        return false;
+    }
+
+    /** Finds how many times the domain has to be split along each axis to respect the tolerance */
+    static final class GridBuilder {
+
+        final MathTransform2D transform;
+
+        final double maxDistanceSquared;
+
+        /** The array used to transform the cell samples */
+        final double[] samples = new double[SAMPLES * SAMPLES * 2];
+
+        GridBuilder(MathTransform2D transform, double maxDistanceSquared) {
+            this.transform = transform;
+            this.maxDistanceSquared = maxDistanceSquared;
+        }
+
+        /**
+         * Recursively splits the cell until the interpolation error falls below the tolerance,
+         * returning the row and column depths needed.
+         */
+        int[] computeOptimalDepths(
+                double minx, double maxx, double miny, double maxy, int rowDepth, int colDepth)
+                throws TransformException {
+            if (rowDepth + colDepth > MAX_DEPTH) {
+                throw new ExcessiveDepthException(
+                        "the interpolation grid is getting too large, bailing out");
+            }
+            final int errors = checkCell(minx, maxx, miny, maxy);
+            final boolean splitX = (errors & X_ERROR) != 0;
+            final boolean splitY = (errors & Y_ERROR) != 0;
+            final double midx = (minx + maxx) / 2;
+            final double midy = (miny + maxy) / 2;
+            if (splitX && splitY) {
+                rowDepth++;
+                colDepth++;
+                int[] d1 = computeOptimalDepths(minx, midx, miny, midy, rowDepth, colDepth);
+                int[] d2 = computeOptimalDepths(minx, midx, midy, maxy, rowDepth, colDepth);
+                int[] d3 = computeOptimalDepths(midx, maxx, miny, midy, rowDepth, colDepth);
+                int[] d4 = computeOptimalDepths(midx, maxx, midy, maxy, rowDepth, colDepth);
+                return new int[] {
+                    max(max(d1[0], d2[0]), max(d3[0], d4[0])),
+                    max(max(d1[1], d2[1]), max(d3[1], d4[1]))
+                };
+            } else if (splitX) {
+                colDepth++;
+                int[] d1 = computeOptimalDepths(minx, midx, miny, maxy, rowDepth, colDepth);
+                int[] d2 = computeOptimalDepths(midx, maxx, miny, maxy, rowDepth, colDepth);
+                return new int[] {max(d1[0], d2[0]), max(d1[1], d2[1])};
+            } else if (splitY) {
+                rowDepth++;
+                int[] d1 = computeOptimalDepths(minx, maxx, miny, midy, rowDepth, colDepth);
+                int[] d2 = computeOptimalDepths(minx, maxx, midy, maxy, rowDepth, colDepth);
+                return new int[] {max(d1[0], d2[0]), max(d1[1], d2[1])};
+            }
+            return new int[] {rowDepth, colDepth};
+        }
+
+        static final int X_ERROR = 1;
+
+        static final int Y_ERROR = 2;
+
+        /**
+         * Compares the exact transform against the bilinear interpolation of the cell corners on a
+         * regular set of samples. Errors on the horizontal edges call for splitting along the x
+         * axis, errors on the vertical ones along the y axis, errors in the interior only (a
+         * symmetric distortion the edges cannot see) along both.
+         */
+        int checkCell(double minx, double maxx, double miny, double maxy)
+                throws TransformException {
+            final int last = SAMPLES - 1;
+            int idx = 0;
+            for (int j = 0; j < SAMPLES; j++) {
+                final double y = miny + (maxy - miny) * j / last;
+                for (int i = 0; i < SAMPLES; i++) {
+                    samples[idx++] = minx + (maxx - minx) * i / last;
+                    samples[idx++] = y;
+                }
+            }
+            transform.transform(samples, 0, samples, 0, SAMPLES * SAMPLES);
+
+            final int i00 = 0;
+            final int i10 = last * 2;
+            final int i01 = last * SAMPLES * 2;
+            final int i11 = i01 + last * 2;
+            int errors = 0;
+            boolean interiorError = false;
+            for (int j = 0; j < SAMPLES; j++) {
+                final double v = (double) j / last;
+                for (int i = 0; i < SAMPLES; i++) {
+                    final double u = (double) i / last;
+                    final int k = (j * SAMPLES + i) * 2;
+                    final double ex =
+                            (1 - v) * ((1 - u) * samples[i00] + u * samples[i10])
+                                    + v * ((1 - u) * samples[i01] + u * samples[i11]);
+                    final double ey =
+                            (1 - v) * ((1 - u) * samples[i00 + 1] + u * samples[i10 + 1])
+                                    + v * ((1 - u) * samples[i01 + 1] + u * samples[i11 + 1]);
+                    final double ddx = samples[k] - ex;
+                    final double ddy = samples[k + 1] - ey;
+                    // the negated test also catches NaN
+                    if (!(ddx * ddx + ddy * ddy < maxDistanceSquared)) {
+                        if (j == 0 || j == last) {
+                            errors |= X_ERROR;
+                        } else if (i == 0 || i == last) {
+                            errors |= Y_ERROR;
+                        } else {
+                            interiorError = true;
+                        }
+                    }
+                }
+            }
+            if (errors == 0 && interiorError) {
+                errors = X_ERROR | Y_ERROR;
+            }
+            return errors;
+        }
+    }
+
+    /** Used to bail out when the grid is getting too dense */
+    static final class ExcessiveDepthException extends RuntimeException {
+        private static final long serialVersionUID = 6457348906752458945L;
+
+        public ExcessiveDepthException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.referencing.operation.projection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+import org.geotools.referencing.ReferencingFactoryFinder;
+import org.junit.Test;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.MathTransformFactory;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * Checks the batch array transformations of {@link MapProjection} give the same results as the
+ * point by point ones.
+ */
+public final class MapProjectionBatchTest {
+
+    private static final double TOLERANCE = 1e-6;
+
+    private static MapProjection create(String name, boolean spherical, Object... params)
+            throws FactoryException {
+        MathTransformFactory mtFactory = ReferencingFactoryFinder.getMathTransformFactory(null);
+        ParameterValueGroup parameters = mtFactory.getDefaultParameters(name);
+        parameters.parameter("semi_major").setValue(6378137.0);
+        parameters.parameter("semi_minor").setValue(spherical ? 6378137.0 : 6356752.314245179);
+        for (int i = 0; i < params.length; i += 2) {
+            parameters.parameter((String) params[i]).setValue(params[i + 1]);
+        }
+        return (MapProjection) mtFactory.createParameterizedTransform(parameters);
+    }
+
+    /** Random geographic coordinates in the given box, as (longitude, latitude) pairs */
+    private static double[] random(
+            int numPts, double minX, double maxX, double minY, double maxY) {
+        Random random = new Random(42);
+        double[] points = new double[numPts * 2];
+        for (int i = 0; i < points.length; i += 2) {
+            points[i] = minX + random.nextDouble() * (maxX - minX);
+            points[i + 1] = minY + random.nextDouble() * (maxY - minY);
+        }
+        return points;
+    }
+
+    private static void assertBatchEqualsPointwise(MathTransform2D mt, double[] source)
+            throws TransformException {
+        // leave some room around the points to check offsets are honoured
+        final int numPts = source.length / 2;
+        double[] target = new double[source.length + 4];
+        mt.transform(source, 0, target, 2, numPts);
+        Point2D.Double point = new Point2D.Double();
+        for (int i = 0; i < numPts; i++) {
+            point.setLocation(source[i * 2], source[i * 2 + 1]);
+            mt.transform(point, point);
+            assertEquals(point.x, target[2 + i * 2], TOLERANCE);
+            assertEquals(point.y, target[2 + i * 2 + 1], TOLERANCE);
+        }
+        assertEquals(0, target[0], 0);
+        assertEquals(0, target[target.length - 1], 0);
+
+        // round trip through the inverse, in place
+        double[] copy = new double[source.length];
+        System.arraycopy(target, 2, copy, 0, copy.length);
+        mt.inverse().transform(copy, 0, copy, 0, numPts);
+        for (int i = 0; i < source.length; i++) {
+            assertEquals(source[i], copy[i], 1e-7);
+        }
+    }
+
+    @Test
+    public void testMercatorEllipsoidal() throws Exception {
+        MapProjection mt = create("Mercator_1SP", false, "central_meridian", 10d);
+        assertBatchEqualsPointwise(mt, random(1000, -170, 170, -80, 80));
+    }
+
+    @Test
+    public void testMercatorSpherical() throws Exception {
+        MapProjection mt = create("Mercator_1SP", true);
+        assertTrue(mt instanceof Mercator.Spherical);
+        assertBatchEqualsPointwise(mt, random(1000, -180, 180, -85, 85));
+    }
+
+    @Test
+    public void testTransverseMercator() throws Exception {
+        MapProjection mt =
+                create(
+                        "Transverse_Mercator",
+                        false,
+                        "central_meridian",
+                        9d,
+                        "scale_factor",
+                        0.9996,
+                        "false_easting",
+                        500000d);
+        assertBatchEqualsPointwise(mt, random(1000, 3, 15, -80, 80));
+    }
+
+    @Test
+    public void testTransverseMercatorSpherical() throws Exception {
+        MapProjection mt = create("Transverse_Mercator", true, "central_meridian", -3d);
+        assertBatchEqualsPointwise(mt, random(1000, -9, 3, -80, 80));
+    }
+
+    @Test
+    public void testLambertConformal() throws Exception {
+        MapProjection mt =
+                create(
+                        "Lambert_Conformal_Conic_2SP",
+                        false,
+                        "central_meridian",
+                        3d,
+                        "latitude_of_origin",
+                        46.5,
+                        "standard_parallel_1",
+                        44d,
+                        "standard_parallel_2",
+                        49d,
+                        "false_easting",
+                        700000d,
+                        "false_northing",
+                        6600000d);
+        assertBatchEqualsPointwise(mt, random(1000, -5, 10, 41, 52));
+    }
+
+    @Test
+    public void testLambertConformalSpherical() throws Exception {
+        MapProjection mt =
+                create(
+                        "Lambert_Conformal_Conic_1SP",
+                        true,
+                        "central_meridian",
+                        -96d,
+                        "latitude_of_origin",
+                        40d);
+        assertBatchEqualsPointwise(mt, random(1000, -120, -70, 20, 60));
+    }
+
+    @Test
+    public void testEquidistantCylindrical() throws Exception {
+        MapProjection mt =
+                create("Equidistant_Cylindrical", false, "standard_parallel_1", 30d);
+        assertBatchEqualsPointwise(mt, random(1000, -180, 180, -90, 90));
+    }
+
+    @Test
+    public void testPole() throws Exception {
+        MapProjection mt = create("Mercator_1SP", false);
+        double[] points = {10, 20, 10, 90, -10, -20};
+        double[] target = new double[points.length];
+        try {
+            mt.transform(points, 0, target, 0, 3);
+            fail("Expected a projection exception");
+        } catch (ProjectionException e) {
+            // expected, the other points are still transformed
+        }
+        assertTrue(Double.isNaN(target[2]));
+        assertTrue(Double.isNaN(target[3]));
+        Point2D.Double point = new Point2D.Double(10, 20);
+        mt.transform(point, point);
+        assertEquals(point.x, target[0], TOLERANCE);
+        assertEquals(point.y, target[1], TOLERANCE);
+        assertEquals(-point.x, target[4], TOLERANCE);
+        assertEquals(-point.y, target[5], TOLERANCE);
+    }
+
+    @Test
+    public void testOverlappingArrays() throws Exception {
+        MapProjection mt = create("Mercator_1SP", true);
+        double[] source = random(100, -180, 180, -85, 85);
+        double[] expected = new double[source.length];
+        mt.transform(source, 0, expected, 0, 100);
+        // shift the destination by one point inside the same array
+        double[] shared = new double[source.length + 2];
+        System.arraycopy(source, 0, shared, 0, source.length);
+        mt.transform(shared, 0, shared, 2, 100);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], shared[i + 2], 0);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.referencing.operation.projection;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+import org.geotools.referencing.CRS;
+import org.opengis.referencing.operation.MathTransform;
+
+/**
+ * Compares the throughput of the batch array transformations against the point by point ones.
+ * Not a test, run it manually with the number of points as an optional argument.
+ */
+public class MapProjectionBenchmark {
+
+    static final String[] CODES = {"EPSG:3857", "EPSG:3395", "EPSG:32632", "EPSG:2154"};
+
+    public static void main(String[] args) throws Exception {
+        final int numPts = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        final double[] source = new double[numPts * 2];
+        final Random random = new Random(0);
+        for (int i = 0; i < source.length; i += 2) {
+            source[i] = 3 + random.nextDouble() * 6;
+            source[i + 1] = 42 + random.nextDouble() * 8;
+        }
+        final double[] target = new double[source.length];
+        final Point2D.Double point = new Point2D.Double();
+        for (String code : CODES) {
+            MathTransform mt =
+                    CRS.findMathTransform(CRS.decode("EPSG:4326", true), CRS.decode(code, true));
+            if (!(mt instanceof MapProjection)) {
+                System.out.println(code + " is not a plain map projection, skipping");
+                continue;
+            }
+            MapProjection projection = (MapProjection) mt;
+            for (int run = 0; run < 3; run++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < source.length; i += 2) {
+                    point.setLocation(source[i], source[i + 1]);
+                    projection.transform(point, point);
+                    target[i] = point.x;
+                    target[i + 1] = point.y;
+                }
+                long pointwise = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                projection.transform(source, 0, target, 0, numPts);
+                long batch = System.nanoTime() - start;
+
+                System.out.printf(
+                        "%s: point by point %.1f Mpts/s, batch %.1f Mpts/s%n",
+                        code, numPts * 1e3 / pointwise, numPts * 1e3 / batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.referencing.operation.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+import org.geotools.referencing.ReferencingFactoryFinder;
+import org.junit.Test;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.MathTransformFactory;
+
+public class InterpolationGridTransform2DTest {
+
+    private static MathTransform2D createProjection(String name, Object... params)
+            throws Exception {
+        MathTransformFactory mtFactory = ReferencingFactoryFinder.getMathTransformFactory(null);
+        ParameterValueGroup parameters = mtFactory.getDefaultParameters(name);
+        parameters.parameter("semi_major").setValue(6378137.0);
+        parameters.parameter("semi_minor").setValue(6356752.314245179);
+        for (int i = 0; i < params.length; i += 2) {
+            parameters.parameter((String) params[i]).setValue(params[i + 1]);
+        }
+        return (MathTransform2D) mtFactory.createParameterizedTransform(parameters);
+    }
+
+    private static double[] random(int numPts, Rectangle2D area) {
+        Random random = new Random(0);
+        double[] points = new double[numPts * 2];
+        for (int i = 0; i < points.length; i += 2) {
+            points[i] = area.getMinX() + random.nextDouble() * area.getWidth();
+            points[i + 1] = area.getMinY() + random.nextDouble() * area.getHeight();
+        }
+        return points;
+    }
+
+    private static void assertWithinTolerance(
+            MathTransform2D exact, MathTransform2D approximate, double[] points, double tolerance)
+            throws Exception {
+        double[] expected = new double[points.length];
+        double[] actual = new double[points.length];
+        exact.transform(points, 0, expected, 0, points.length / 2);
+        approximate.transform(points, 0, actual, 0, points.length / 2);
+        for (int i = 0; i < points.length; i += 2) {
+            double dx = expected[i] - actual[i];
+            double dy = expected[i + 1] - actual[i + 1];
+            assertTrue(
+                    "Error too large at " + points[i] + ", " + points[i + 1],
+                    Math.sqrt(dx * dx + dy * dy) <= tolerance);
+        }
+    }
+
+    @Test
+    public void testMercator() throws Exception {
+        MathTransform2D mercator = createProjection("Mercator_1SP");
+        Rectangle2D domain = new Rectangle2D.Double(-30, 20, 60, 40);
+        MathTransform2D approximate = InterpolationGridTransform2D.create(mercator, domain, 10);
+        assertTrue(approximate instanceof InterpolationGridTransform2D);
+        InterpolationGridTransform2D grid = (InterpolationGridTransform2D) approximate;
+        // the x axis is linear in Mercator, there is no need to split columns
+        assertEquals(1, grid.getColumns());
+        assertTrue(grid.getRows() > 1);
+        assertSame(mercator, grid.getTransform());
+        assertWithinTolerance(mercator, approximate, random(10000, domain), 10);
+    }
+
+    @Test
+    public void testTransverseMercator() throws Exception {
+        MathTransform2D tm =
+                createProjection(
+                        "Transverse_Mercator",
+                        "central_meridian",
+                        9d,
+                        "scale_factor",
+                        0.9996,
+                        "false_easting",
+                        500000d);
+        Rectangle2D domain = new Rectangle2D.Double(6, 44, 6, 4);
+        MathTransform2D approximate = InterpolationGridTransform2D.create(tm, domain, 5);
+        assertTrue(approximate instanceof InterpolationGridTransform2D);
+        assertWithinTolerance(tm, approximate, random(10000, domain), 5);
+    }
+
+    @Test
+    public void testOutsideDomain() throws Exception {
+        MathTransform2D mercator = createProjection("Mercator_1SP");
+        Rectangle2D domain = new Rectangle2D.Double(0, 0, 10, 10);
+        MathTransform2D approximate = InterpolationGridTransform2D.create(mercator, domain, 100);
+        double[] points = {-20, 40, 50, 60, 5, 5};
+        double[] expected = new double[points.length];
+        double[] actual = new double[points.length];
+        mercator.transform(points, 0, expected, 0, 3);
+        approximate.transform(points, 0, actual, 0, 3);
+        // points outside of the domain are transformed exactly
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected[i], actual[i], 0);
+        }
+        assertEquals(expected[4], actual[4], 100);
+        assertEquals(expected[5], actual[5], 100);
+    }
+
+    @Test
+    public void testOverlappingArrays() throws Exception {
+        MathTransform2D mercator = createProjection("Mercator_1SP");
+        Rectangle2D domain = new Rectangle2D.Double(-30, 20, 60, 40);
+        MathTransform2D approximate = InterpolationGridTransform2D.create(mercator, domain, 10);
+        double[] points = random(100, domain);
+        double[] expected = new double[points.length];
+        approximate.transform(points, 0, expected, 0, 100);
+        double[] shared = new double[points.length + 2];
+        System.arraycopy(points, 0, shared, 0, points.length);
+        approximate.transform(shared, 0, shared, 2, 100);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], shared[i + 2], 0);
+        }
+    }
+
+    @Test
+    public void testNotApproximated() throws Exception {
+        MathTransform2D mercator = createProjection("Mercator_1SP");
+        Rectangle2D domain = new Rectangle2D.Double(-30, 20, 60, 40);
+        // no tolerance
+        assertSame(mercator, InterpolationGridTransform2D.create(mercator, domain, 0));
+        // tolerance too strict to be satisfied with a reasonable grid
+        assertSame(mercator, InterpolationGridTransform2D.create(mercator, domain, 1e-9));
+        // linear transforms are already fast
+        MathTransform2D affine = new AffineTransform2D(AffineTransform.getScaleInstance(2, 3));
+        assertSame(affine, InterpolationGridTransform2D.create(affine, domain, 1));
+    }
+}
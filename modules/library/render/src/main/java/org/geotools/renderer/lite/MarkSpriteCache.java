@@ -0,0 +1,374 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import org.geotools.renderer.style.MarkStyle2D;
+
+/**
+ * Caches marks rasterized into small images, or sprites, so that painting large amounts of points
+ * boils down to copying the same sprite over and over, instead of filling and stroking the mark
+ * shape at each point.
+ *
+ * <p>A sprite is built for each distinct combination of mark shape, size, rotation, colors,
+ * strokes and opacity. Rotations are quantized into {@link #getRotationSteps()} steps over the
+ * full circle to keep the number of sprites small for marks rotated by a data attribute. Sprites
+ * are drawn at the nearest pixel, so the result can differ slightly from the vector painting, the
+ * same way as icons are when {@link StyledShapePainter#ROUND_ICON_COORDS} is enabled.
+ *
+ * <p>Only marks using plain colors and {@link AlphaComposite#SRC_OVER} opacity, painted on a
+ * graphics whose transformation is at most a translation, can be turned into sprites, see {@link
+ * #getSprite(MarkStyle2D, Graphics2D)}.
+ *
+ * <p>The cache is thread safe.
+ *
+ * @since 20
+ */
+public class MarkSpriteCache {
+
+    /** Default number of rotation steps over the full circle, five degrees each */
+    public static final int DEFAULT_ROTATION_STEPS =
+            Integer.getInteger("org.geotools.renderer.lite.markSpriteRotationSteps", 72);
+
+    /** Default maximum size of the cached sprites, 16MB */
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    /** Marks larger than this, in pixels, are not turned into sprites */
+    static final int MAX_SPRITE_SIZE = 256;
+
+    static final double TWO_PI = Math.PI * 2;
+
+    private static final MarkSpriteCache DEFAULT =
+            new MarkSpriteCache(DEFAULT_ROTATION_STEPS, DEFAULT_MAX_BYTES);
+
+    /** A rasterized mark */
+    public static final class Sprite {
+        final BufferedImage image;
+
+        /** Offset of the sprite top left corner from the mark position */
+        final int offsetX;
+
+        final int offsetY;
+
+        Sprite(BufferedImage image, int offsetX, int offsetY) {
+            this.image = image;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        /** Paints the sprite at the specified position, rounded to the nearest pixel */
+        public void paint(Graphics2D graphics, float x, float y) {
+            graphics.drawImage(
+                    image, Math.round(x) + offsetX, Math.round(y) + offsetY, null);
+        }
+
+        /** The area covered by the sprite when painted at the specified position */
+        public Rectangle2D getBounds(float x, float y) {
+            return new Rectangle2D.Double(
+                    Math.round(x) + offsetX,
+                    Math.round(y) + offsetY,
+                    image.getWidth(),
+                    image.getHeight());
+        }
+    }
+
+    /** Identifies a sprite */
+    static final class Key {
+        final Shape shape;
+
+        final double size;
+
+        final float rotation;
+
+        final float displacementX, displacementY, anchorX, anchorY;
+
+        final Paint fill, contour;
+
+        final Composite fillComposite, contourComposite;
+
+        final Stroke stroke;
+
+        final Object antialiasing, strokeControl;
+
+        final boolean maxMarkSize;
+
+        final int hash;
+
+        Key(MarkStyle2D style, float rotation, Object antialiasing, Object strokeControl) {
+            this.shape = style.getShape();
+            this.size = style.getSize();
+            this.rotation = rotation;
+            this.displacementX = style.getDisplacementX();
+            this.displacementY = style.getDisplacementY();
+            this.anchorX = style.getAnchorPointX();
+            this.anchorY = style.getAnchorPointY();
+            this.fill = style.getFill();
+            this.contour = style.getContour();
+            this.fillComposite = style.getFillComposite();
+            this.contourComposite = style.getContourComposite();
+            this.stroke = style.getStroke();
+            this.antialiasing = antialiasing;
+            this.strokeControl = strokeControl;
+            this.maxMarkSize = MarkStyle2D.isMaxMarkSizeEnabled();
+            this.hash =
+                    Objects.hash(
+                            System.identityHashCode(shape),
+                            size,
+                            rotation,
+                            displacementX,
+                            displacementY,
+                            anchorX,
+                            anchorY,
+                            fill,
+                            contour,
+                            fillComposite,
+                            contourComposite,
+                            stroke);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            // shapes do not implement equals, mark factories hand out shared instances though
+            return hash == other.hash
+                    && shape == other.shape
+                    && size == other.size
+                    && rotation == other.rotation
+                    && displacementX == other.displacementX
+                    && displacementY == other.displacementY
+                    && anchorX == other.anchorX
+                    && anchorY == other.anchorY
+                    && maxMarkSize == other.maxMarkSize
+                    && Objects.equals(fill, other.fill)
+                    && Objects.equals(contour, other.contour)
+                    && Objects.equals(fillComposite, other.fillComposite)
+                    && Objects.equals(contourComposite, other.contourComposite)
+                    && Objects.equals(stroke, other.stroke)
+                    && Objects.equals(antialiasing, other.antialiasing)
+                    && Objects.equals(strokeControl, other.strokeControl);
+        }
+    }
+
+    private final int rotationSteps;
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<Key, Sprite> sprites = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long bytes;
+
+    /** The cache shared by default among renderers */
+    public static MarkSpriteCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a new cache
+     *
+     * @param rotationSteps the number of steps rotations are quantized into over the full circle,
+     *     or zero to build a sprite for each distinct rotation
+     * @param maxBytes the maximum size of the cached sprites, in bytes
+     */
+    public MarkSpriteCache(int rotationSteps, long maxBytes) {
+        if (rotationSteps < 0) {
+            throw new IllegalArgumentException("The rotation steps cannot be negative");
+        }
+        this.rotationSteps = rotationSteps;
+        this.maxBytes = maxBytes;
+    }
+
+    /** The number of steps rotations are quantized into, zero if they are not quantized */
+    public int getRotationSteps() {
+        return rotationSteps;
+    }
+
+    /** The number of sprites in the cache */
+    public synchronized int getCount() {
+        return sprites.size();
+    }
+
+    /** Empties the cache */
+    public synchronized void clear() {
+        sprites.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the sprite for the specified mark, or null if the mark cannot be painted as a sprite
+     * on the given graphics, in which case it should be painted as a vector shape
+     *
+     * @param style the mark style
+     * @param graphics the graphics the sprite is going to be painted onto
+     */
+    public Sprite getSprite(MarkStyle2D style, Graphics2D graphics) {
+        if (!canStamp(style, graphics)) {
+            return null;
+        }
+
+        float rotation = quantize(style.getRotation());
+        Object antialiasing = graphics.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Object strokeControl = graphics.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
+        Key key = new Key(style, rotation, antialiasing, strokeControl);
+        Sprite sprite;
+        synchronized (this) {
+            sprite = sprites.get(key);
+        }
+        if (sprite == null) {
+            sprite = createSprite(style, rotation, antialiasing, strokeControl);
+            if (sprite != null) {
+                put(key, sprite);
+            }
+        }
+        return sprite;
+    }
+
+    float quantize(float rotation) {
+        if (rotationSteps == 0) {
+            return rotation;
+        }
+        double step = TWO_PI / rotationSteps;
+        long bucket = Math.round(rotation / step) % rotationSteps;
+        if (bucket < 0) {
+            bucket += rotationSteps;
+        }
+        return (float) (bucket * step);
+    }
+
+    static boolean canStamp(MarkStyle2D style, Graphics2D graphics) {
+        if (style.getShape() == null) {
+            return false;
+        }
+        // gradients and textures are anchored to the screen, sprites would move them
+        Paint fill = style.getFill();
+        Paint contour = style.getContour();
+        if ((fill != null && !(fill instanceof Color))
+                || (contour != null && !(contour instanceof Color))) {
+            return false;
+        }
+        if (!isSourceOver(style.getFillComposite())
+                || !isSourceOver(style.getContourComposite())) {
+            return false;
+        }
+        // scaling and rotation would require a sprite at the device resolution
+        AffineTransform tx = graphics.getTransform();
+        return (tx.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0;
+    }
+
+    static boolean isSourceOver(Composite composite) {
+        return composite == null
+                || (composite instanceof AlphaComposite
+                        && ((AlphaComposite) composite).getRule() == AlphaComposite.SRC_OVER);
+    }
+
+    static Sprite createSprite(
+            MarkStyle2D style, float rotation, Object antialiasing, Object strokeControl) {
+        Shape shape = style.getTransformedShape(0, 0, 0, rotation);
+        if (shape == null) {
+            return null;
+        }
+        Rectangle2D bounds = shape.getBounds2D();
+        if (style.getContour() != null && style.getStroke() != null) {
+            bounds = style.getStroke().createStrokedShape(shape).getBounds2D();
+        }
+        // leave room for antialiasing
+        int x0 = (int) Math.floor(bounds.getMinX()) - 1;
+        int y0 = (int) Math.floor(bounds.getMinY()) - 1;
+        int x1 = (int) Math.ceil(bounds.getMaxX()) + 1;
+        int y1 = (int) Math.ceil(bounds.getMaxY()) + 1;
+        int width = x1 - x0;
+        int height = y1 - y0;
+        if (width > MAX_SPRITE_SIZE || height > MAX_SPRITE_SIZE) {
+            return null;
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = image.createGraphics();
+        try {
+            if (antialiasing != null) {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+            }
+            if (strokeControl != null) {
+                g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, strokeControl);
+            }
+            g.translate(-x0, -y0);
+            if (style.getFill() != null) {
+                g.setPaint(style.getFill());
+                g.setComposite(composite(style.getFillComposite()));
+                g.fill(shape);
+            }
+            if (style.getContour() != null) {
+                g.setPaint(style.getContour());
+                g.setStroke(style.getStroke());
+                g.setComposite(composite(style.getContourComposite()));
+                g.draw(shape);
+            }
+        } finally {
+            g.dispose();
+        }
+        return new Sprite(image, x0, y0);
+    }
+
+    private static Composite composite(Composite composite) {
+        return composite != null ? composite : AlphaComposite.SrcOver;
+    }
+
+    private synchronized void put(Key key, Sprite sprite) {
+        long size = (long) sprite.image.getWidth() * sprite.image.getHeight() * 4;
+        Sprite previous = sprites.put(key, sprite);
+        bytes += size;
+        if (previous != null) {
+            bytes -= (long) previous.image.getWidth() * previous.image.getHeight() * 4;
+        }
+        Iterator<Sprite> it = sprites.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Sprite eldest = it.next();
+            if (eldest == sprite) {
+                break;
+            }
+            it.remove();
+            bytes -= (long) eldest.image.getWidth() * eldest.image.getHeight() * 4;
+        }
+    }
+}
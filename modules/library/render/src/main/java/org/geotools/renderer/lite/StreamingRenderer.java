@@ -351,6 +351,19 @@ public class StreamingRenderer implements GTRenderer {
      */
     public static final String CONTINUOUS_MAP_WRAPPING = "continuousMapWrapping";
 
+    /**
+     * Boolean flag enabling approximate reprojection. When enabled, and the advanced projection
+     * handling is enabled as well, the transformation to the rendering CRS is replaced by an
+     * interpolation grid over the rendering area, with an error below half a pixel.
+     */
+    public static final String APPROXIMATE_REPROJECTION_KEY = "approximateReprojection";
+
+    /**
+     * Boolean flag enabling the painting of marks as pre-rasterized sprites, much faster for layers
+     * with many points, see {@link MarkSpriteCache}. Ignored when vector rendering is enabled.
+     */
+    public static final String MARK_SPRITES_KEY = "markSprites";
+
     /**
      * Boolean flag indicating whether vector rendering should be preferred when painting graphic
      * fills. See {@link SLDStyleFactory#isVectorRenderingEnabled()} for more details.
@@ -1507,6 +1520,24 @@ public class StreamingRenderer implements GTRenderer {
         return Boolean.TRUE.equals(result);
     }
 
+    /**
+     * Returns the maximum reprojection error allowed, in map units, or zero if the approximate
+     * reprojection is not enabled
+     */
+    private double getReprojectionTolerance(AffineTransform worldToScreen) {
+        if (rendererHints == null
+                || worldToScreen == null
+                || !Boolean.TRUE.equals(rendererHints.get(APPROXIMATE_REPROJECTION_KEY))) {
+            return 0;
+        }
+        // half of the smallest pixel side
+        double scale =
+                Math.max(
+                        XAffineTransform.getScaleX0(worldToScreen),
+                        XAffineTransform.getScaleY0(worldToScreen));
+        return scale > 0 ? 0.5 / scale : 0;
+    }
+
     /**
      * Checks if continuous map wrapping is enabled
      *
@@ -3018,6 +3049,13 @@ public class StreamingRenderer implements GTRenderer {
 
         // sets whether vector rendering is enabled in the SLDStyleFactory
         styleFactory.setVectorRenderingEnabled(isVectorRenderingEnabled());
+
+        // sprites are raster output, only use them if vector rendering is not required
+        boolean markSprites =
+                hints != null
+                        && Boolean.TRUE.equals(hints.get(MARK_SPRITES_KEY))
+                        && !isVectorRenderingEnabled();
+        painter.setMarkSpriteCache(markSprites ? MarkSpriteCache.getDefault() : null);
     }
 
     /*
@@ -3183,7 +3221,9 @@ public class StreamingRenderer implements GTRenderer {
                     sa.crsxform = crsTransform;
                     sa.axform = atTransform;
                     if (projectionHandler != null) {
-                        sa.rxform = projectionHandler.getRenderingTransform(sa.crsxform);
+                        sa.rxform =
+                                projectionHandler.getRenderingTransform(
+                                        sa.crsxform, getReprojectionTolerance(at));
                     } else {
                         sa.rxform = sa.crsxform;
                     }
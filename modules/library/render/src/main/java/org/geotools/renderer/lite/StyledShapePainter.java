@@ -93,6 +93,9 @@ public class StyledShapePainter {
      */
     LabelCache labelCache;
 
+    /** The cache of rasterized marks, if marks should be painted as sprites */
+    MarkSpriteCache markSprites;
+
     public StyledShapePainter() {
         // nothing do do, just needs to exist
     }
@@ -101,6 +104,22 @@ public class StyledShapePainter {
         this.labelCache = cache;
     }
 
+    /** The cache of rasterized marks, or null if marks are painted as vector shapes */
+    public MarkSpriteCache getMarkSpriteCache() {
+        return markSprites;
+    }
+
+    /**
+     * Sets the cache of rasterized marks. When set, marks are rasterized once and then copied at
+     * each point, which is a lot faster than painting them as vector shapes when there are many
+     * points, but should not be used when generating vector output, e.g. PDF or SVG.
+     *
+     * @param markSprites the cache, or null to paint marks as vector shapes
+     */
+    public void setMarkSpriteCache(MarkSpriteCache markSprites) {
+        this.markSprites = markSprites;
+    }
+
     public void paint(
             final Graphics2D graphics,
             final LiteShape2 shape,
@@ -189,6 +208,22 @@ public class StyledShapePainter {
             float[] coords = new float[2];
             MarkStyle2D ms2d = (MarkStyle2D) style;
 
+            MarkSpriteCache.Sprite sprite =
+                    markSprites != null ? markSprites.getSprite(ms2d, graphics) : null;
+            if (sprite != null) {
+                graphics.setComposite(AlphaComposite.SrcOver);
+                while (!(citer.isDone())) {
+                    if (citer.currentSegment(coords) != PathIterator.SEG_MOVETO) {
+                        sprite.paint(graphics, coords[0], coords[1]);
+                        if (isLabelObstacle) {
+                            labelCache.put(sprite.getBounds(coords[0], coords[1]));
+                        }
+                    }
+                    citer.next();
+                }
+                return;
+            }
+
             Shape transformedShape;
             while (!(citer.isDone())) {
                 if (citer.currentSegment(coords) != PathIterator.SEG_MOVETO) {
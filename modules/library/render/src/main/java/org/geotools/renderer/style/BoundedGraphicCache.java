@@ -0,0 +1,296 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.style;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.geotools.util.logging.Logging;
+
+/**
+ * A least recently used cache for decoded graphics, bounded by the memory they use rather than by
+ * their number, so that a style library with many large icons cannot exhaust the heap.
+ *
+ * <p>The memory used by each graphic is estimated by a weigher function, see for example {@link
+ * #getImageSize(BufferedImage)}. Graphics larger than the whole cache are not cached at all.
+ *
+ * <p>The caches used by the graphic factories are {@link #register() registered}, so that they can
+ * be inspected with {@link #getCaches()} or, once {@link #registerMBeans()} is called, through JMX.
+ *
+ * <p>The cache is thread safe.
+ *
+ * @since 20
+ */
+public class BoundedGraphicCache<K, V> implements BoundedGraphicCacheMBean {
+
+    static final Logger LOGGER = Logging.getLogger(BoundedGraphicCache.class);
+
+    /** The JMX domain the caches are registered under */
+    public static final String JMX_DOMAIN = "org.geotools.renderer.style";
+
+    static final List<BoundedGraphicCache<?, ?>> CACHES = new CopyOnWriteArrayList<>();
+
+    private final String name;
+
+    private final ToLongFunction<? super V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long maxBytes;
+
+    private long bytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    static final class Entry<V> {
+        final V value;
+
+        final long size;
+
+        Entry(V value, long size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Creates a new cache
+     *
+     * @param name the cache name, used to identify it in the management views
+     * @param maxBytes the maximum memory the cached graphics can use, in bytes
+     * @param weigher estimates the memory used by a graphic, in bytes
+     */
+    public BoundedGraphicCache(String name, long maxBytes, ToLongFunction<? super V> weigher) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("The maximum size cannot be negative");
+        }
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /** Estimates the memory used by an image, based on the size of its raster data */
+    public static long getImageSize(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        long elements = (long) buffer.getSize() * buffer.getNumBanks();
+        return elements * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    /** Returns the registered caches */
+    public static List<BoundedGraphicCache<?, ?>> getCaches() {
+        return Collections.unmodifiableList(CACHES);
+    }
+
+    /**
+     * Registers the {@link #getCaches() registered caches} with the platform MBean server, under
+     * {@link #JMX_DOMAIN}. Failures are logged, as the management view is not essential to
+     * rendering.
+     */
+    public static void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (BoundedGraphicCache<?, ?> cache : CACHES) {
+            try {
+                ObjectName name = cache.getObjectName();
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(cache, name);
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to register graphic cache " + cache.name, e);
+            }
+        }
+    }
+
+    /** Removes the registered caches from the platform MBean server */
+    public static void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (BoundedGraphicCache<?, ?> cache : CACHES) {
+            try {
+                ObjectName name = cache.getObjectName();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Failed to unregister graphic cache " + cache.name, e);
+            }
+        }
+    }
+
+    ObjectName getObjectName() throws Exception {
+        return new ObjectName(JMX_DOMAIN + ":type=GraphicCache,name=" + ObjectName.quote(name));
+    }
+
+    /** Adds this cache to the {@link #getCaches() registered caches} */
+    public BoundedGraphicCache<K, V> register() {
+        CACHES.add(this);
+        return this;
+    }
+
+    /** Returns the cached graphic, or null if not found */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /** Checks if the graphic is cached, without affecting the statistics nor the eviction order */
+    public synchronized boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Caches a graphic, evicting the least recently used ones if the memory bound is exceeded.
+     * Graphics larger than the whole cache are not stored.
+     */
+    public void put(K key, V value) {
+        long size = weigher.applyAsLong(value);
+        synchronized (this) {
+            Entry<V> previous = entries.remove(key);
+            if (previous != null) {
+                bytes -= previous.size;
+            }
+            if (size > maxBytes) {
+                return;
+            }
+            entries.put(key, new Entry<>(value, size));
+            bytes += size;
+            evict();
+        }
+    }
+
+    /** Removes a graphic from the cache, returning it */
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        bytes -= entry.size;
+        return entry.value;
+    }
+
+    private void evict() {
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().size;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /** Returns a snapshot of the cached keys, from the least to the most recently used */
+    public synchronized List<K> getKeys() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("The maximum size cannot be negative");
+        }
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BoundedGraphicCache[name="
+                + name
+                + ", count="
+                + entries.size()
+                + ", bytes="
+                + bytes
+                + ", maxBytes="
+                + maxBytes
+                + ", hits="
+                + hits
+                + ", misses="
+                + misses
+                + ", evictions="
+                + evictions
+                + "]";
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.style;
+
+/**
+ * Management view of a {@link BoundedGraphicCache}, see {@link
+ * BoundedGraphicCache#registerMBeans()}
+ *
+ * @since 20
+ */
+public interface BoundedGraphicCacheMBean {
+
+    /** The cache name */
+    String getName();
+
+    /** The number of cached graphics */
+    int getCount();
+
+    /** The estimated memory used by the cached graphics, in bytes */
+    long getBytes();
+
+    /** The maximum memory the cached graphics can use, in bytes */
+    long getMaxBytes();
+
+    /** Changes the maximum memory the cached graphics can use, evicting graphics as needed */
+    void setMaxBytes(long maxBytes);
+
+    /** The number of lookups that found a cached graphic */
+    long getHits();
+
+    /** The number of lookups that did not find a cached graphic */
+    long getMisses();
+
+    /** The number of graphics evicted to stay within the memory bound */
+    long getEvictions();
+
+    /** Empties the cache */
+    void clear();
+
+    /** Resets the hit, miss and eviction counters */
+    void resetStatistics();
+}
@@ -23,14 +23,13 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Logger;
 import javax.imageio.ImageIO;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import org.geotools.image.io.ImageIOExt;
-import org.geotools.util.SoftValueHashMap;
 import org.geotools.util.logging.Logging;
 import org.opengis.feature.Feature;
 import org.opengis.filter.expression.Expression;
@@ -47,9 +46,18 @@ public class ImageGraphicFactory implements ExternalGraphicFactory, GraphicCache
     /** The logger for the rendering module. */
     private static final Logger LOGGER = Logging.getLogger(ImageGraphicFactory.class);
 
-    /** Current way to load images */
-    static Map<URL, BufferedImage> imageCache =
-            Collections.synchronizedMap(new SoftValueHashMap<URL, BufferedImage>());
+    /** Default maximum memory used by the cached images, 64MB */
+    public static final long DEFAULT_CACHE_SIZE =
+            Long.getLong("org.geotools.renderer.style.imageCacheSize", 64 * 1024 * 1024);
+
+    /**
+     * Caches both the images as read, keyed by URL, and their rescaled versions, keyed by {@link
+     * RescaledKey}
+     */
+    static BoundedGraphicCache<Object, BufferedImage> imageCache =
+            new BoundedGraphicCache<Object, BufferedImage>(
+                            "images", DEFAULT_CACHE_SIZE, BoundedGraphicCache::getImageSize)
+                    .register();
 
     /** Holds the of graphic formats supported by the current jdk */
     static Set<String> supportedGraphicFormats =
@@ -74,19 +82,30 @@ public class ImageGraphicFactory implements ExternalGraphicFactory, GraphicCache
                 LOGGER.warning("Unable to read image at " + location + " : " + ioe.getMessage());
                 return null;
             }
+            if (image == null) {
+                LOGGER.warning("Unable to read image at " + location + " : no suitable reader");
+                return null;
+            }
             imageCache.put(location, image);
         }
 
         // if scaling is needed, perform it
         if (size > 0 && image.getHeight() != size) {
-            double dsize = (double) size;
+            RescaledKey key = new RescaledKey(location, size);
+            BufferedImage rescaled = imageCache.get(key);
+            if (rescaled == null) {
+                double dsize = (double) size;
 
-            double scaleY = dsize / image.getHeight(); // >1 if you're magnifying
-            double scaleX = scaleY; // keep aspect ratio!
+                double scaleY = dsize / image.getHeight(); // >1 if you're magnifying
+                double scaleX = scaleY; // keep aspect ratio!
 
-            AffineTransform scaleTx = AffineTransform.getScaleInstance(scaleX, scaleY);
-            AffineTransformOp ato = new AffineTransformOp(scaleTx, AffineTransformOp.TYPE_BILINEAR);
-            image = ato.filter(image, null);
+                AffineTransform scaleTx = AffineTransform.getScaleInstance(scaleX, scaleY);
+                AffineTransformOp ato =
+                        new AffineTransformOp(scaleTx, AffineTransformOp.TYPE_BILINEAR);
+                rescaled = ato.filter(image, null);
+                imageCache.put(key, rescaled);
+            }
+            image = rescaled;
         }
 
         return new ImageIcon(image);
@@ -110,4 +129,30 @@ public class ImageGraphicFactory implements ExternalGraphicFactory, GraphicCache
     public void clearCache() {
         resetCache();
     }
+
+    /** Identifies an image rescaled to a given height */
+    static final class RescaledKey {
+        final URL location;
+
+        final int size;
+
+        RescaledKey(URL location, int size) {
+            this.location = location;
+            this.size = size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(location, size);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof RescaledKey)) {
+                return false;
+            }
+            RescaledKey other = (RescaledKey) obj;
+            return size == other.size && Objects.equals(location, other.location);
+        }
+    }
 }
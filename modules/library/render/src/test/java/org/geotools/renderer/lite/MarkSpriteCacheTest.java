@@ -0,0 +1,207 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.MultiPoint;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import org.geotools.geometry.jts.Decimator;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.referencing.operation.transform.ProjectiveTransform;
+import org.geotools.renderer.style.MarkStyle2D;
+import org.junit.Test;
+import org.opengis.referencing.operation.MathTransform;
+
+public class MarkSpriteCacheTest {
+
+    static final GeneralPath TRIANGLE = new GeneralPath();
+
+    static {
+        TRIANGLE.moveTo(-0.5f, -0.5f);
+        TRIANGLE.lineTo(0.5f, -0.5f);
+        TRIANGLE.lineTo(0f, 0.5f);
+        TRIANGLE.closePath();
+    }
+
+    @Test
+    public void testVisualDiff() throws Exception {
+        MarkStyle2D style = createStyle(TRIANGLE, 12, 0);
+        style.setFillComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.7f));
+        LiteShape2 points = createPoints(200);
+
+        BufferedImage vector = paint(points, style, null);
+        MarkSpriteCache cache = new MarkSpriteCache(72, MarkSpriteCache.DEFAULT_MAX_BYTES);
+        BufferedImage sprites = paint(points, style, cache);
+        assertEquals(1, cache.getCount());
+
+        assertSimilar(vector, sprites);
+    }
+
+    @Test
+    public void testVisualDiffRotated() throws Exception {
+        // a rotation that is an exact step is not altered by the quantization
+        float rotation = (float) Math.toRadians(30);
+        MarkStyle2D style = createStyle(TRIANGLE, 16, rotation);
+        LiteShape2 points = createPoints(50);
+
+        MarkSpriteCache cache = new MarkSpriteCache(72, MarkSpriteCache.DEFAULT_MAX_BYTES);
+        assertSimilar(paint(points, style, null), paint(points, style, cache));
+    }
+
+    @Test
+    public void testRotationQuantization() throws Exception {
+        MarkSpriteCache cache = new MarkSpriteCache(36, MarkSpriteCache.DEFAULT_MAX_BYTES);
+        Graphics2D graphics = createImage().createGraphics();
+        MarkSpriteCache.Sprite s1 =
+                cache.getSprite(createStyle(TRIANGLE, 10, (float) Math.toRadians(1)), graphics);
+        MarkSpriteCache.Sprite s2 =
+                cache.getSprite(createStyle(TRIANGLE, 10, (float) Math.toRadians(-2)), graphics);
+        MarkSpriteCache.Sprite s3 =
+                cache.getSprite(createStyle(TRIANGLE, 10, (float) Math.toRadians(359)), graphics);
+        assertSame(s1, s2);
+        assertSame(s1, s3);
+        assertNotNull(
+                cache.getSprite(createStyle(TRIANGLE, 10, (float) Math.toRadians(10)), graphics));
+        assertEquals(2, cache.getCount());
+
+        // no quantization
+        MarkSpriteCache exact = new MarkSpriteCache(0, MarkSpriteCache.DEFAULT_MAX_BYTES);
+        exact.getSprite(createStyle(TRIANGLE, 10, (float) Math.toRadians(1)), graphics);
+        exact.getSprite(createStyle(TRIANGLE, 10, (float) Math.toRadians(2)), graphics);
+        assertEquals(2, exact.getCount());
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        MarkSpriteCache cache = new MarkSpriteCache(72, MarkSpriteCache.DEFAULT_MAX_BYTES);
+        Graphics2D graphics = createImage().createGraphics();
+
+        MarkStyle2D gradient = createStyle(TRIANGLE, 10, 0);
+        gradient.setFill(new GradientPaint(0, 0, Color.RED, 10, 10, Color.BLUE));
+        assertNull(cache.getSprite(gradient, graphics));
+
+        MarkStyle2D xor = createStyle(TRIANGLE, 10, 0);
+        xor.setFillComposite(AlphaComposite.Xor);
+        assertNull(cache.getSprite(xor, graphics));
+
+        MarkStyle2D huge = createStyle(TRIANGLE, 1000, 0);
+        assertNull(cache.getSprite(huge, graphics));
+
+        // scaled output, e.g. high DPI printing
+        graphics.scale(2, 2);
+        assertNull(cache.getSprite(createStyle(TRIANGLE, 10, 0), graphics));
+        assertEquals(0, cache.getCount());
+    }
+
+    @Test
+    public void testMemoryBound() throws Exception {
+        // room for a handful of sprites only
+        MarkSpriteCache cache = new MarkSpriteCache(72, 4 * 16 * 16 * 4);
+        Graphics2D graphics = createImage().createGraphics();
+        for (int i = 1; i < 20; i++) {
+            assertNotNull(cache.getSprite(createStyle(TRIANGLE, 10 + i * 0.1, 0), graphics));
+        }
+        assertTrue(cache.getCount() <= 4);
+    }
+
+    void assertSimilar(BufferedImage expected, BufferedImage actual) {
+        int differences = 0;
+        int painted = 0;
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                int e = expected.getRGB(x, y);
+                int a = actual.getRGB(x, y);
+                if (e != 0xFFFFFFFF) {
+                    painted++;
+                }
+                if (maxChannelDifference(e, a) > 8) {
+                    differences++;
+                }
+            }
+        }
+        assertTrue(painted > 0);
+        assertTrue(
+                "Too many different pixels: " + differences + " out of " + painted,
+                differences < painted / 100);
+    }
+
+    static int maxChannelDifference(int c1, int c2) {
+        int max = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            max = Math.max(max, Math.abs(((c1 >> shift) & 0xFF) - ((c2 >> shift) & 0xFF)));
+        }
+        return max;
+    }
+
+    BufferedImage paint(LiteShape2 points, MarkStyle2D style, MarkSpriteCache cache) {
+        BufferedImage image = createImage();
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        StyledShapePainter painter = new StyledShapePainter();
+        painter.setMarkSpriteCache(cache);
+        painter.paint(graphics, points, style, 1);
+        graphics.dispose();
+        return image;
+    }
+
+    BufferedImage createImage() {
+        return new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /** Points on integer coordinates, where sprites and vectors should match closely */
+    LiteShape2 createPoints(int count) throws Exception {
+        Coordinate[] coordinates = new Coordinate[count];
+        for (int i = 0; i < count; i++) {
+            coordinates[i] = new Coordinate(10 + (i * 37) % 280, 10 + (i * 53) % 280);
+        }
+        MultiPoint mp = new GeometryFactory().createMultiPoint(coordinates);
+        MathTransform identity = ProjectiveTransform.create(new AffineTransform());
+        return new LiteShape2(mp, identity, new Decimator(identity), false);
+    }
+
+    MarkStyle2D createStyle(Shape shape, double size, float rotation) {
+        MarkStyle2D style = new MarkStyle2D();
+        style.setShape(shape);
+        style.setSize(size);
+        style.setRotation(rotation);
+        style.setFill(Color.ORANGE);
+        style.setFillComposite(AlphaComposite.SrcOver);
+        style.setContour(Color.BLACK);
+        style.setStroke(new BasicStroke(1.5f));
+        style.setContourComposite(AlphaComposite.SrcOver);
+        return style;
+    }
+}
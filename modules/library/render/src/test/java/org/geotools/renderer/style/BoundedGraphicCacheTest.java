@@ -0,0 +1,146 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.style;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.geotools.factory.CommonFactoryFinder;
+import org.junit.Test;
+import org.opengis.filter.FilterFactory;
+
+public class BoundedGraphicCacheTest {
+
+    static final long IMAGE_SIZE = 10 * 10 * 4;
+
+    @Test
+    public void testImageSize() {
+        assertEquals(
+                IMAGE_SIZE,
+                BoundedGraphicCache.getImageSize(
+                        new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB)));
+        assertEquals(
+                10 * 10 * 3,
+                BoundedGraphicCache.getImageSize(
+                        new BufferedImage(10, 10, BufferedImage.TYPE_3BYTE_BGR)));
+    }
+
+    @Test
+    public void testLRUEviction() {
+        BoundedGraphicCache<String, BufferedImage> cache =
+                new BoundedGraphicCache<>(
+                        "test", IMAGE_SIZE * 2, BoundedGraphicCache::getImageSize);
+        cache.put("a", createImage());
+        cache.put("b", createImage());
+        assertNotNull(cache.get("a"));
+        cache.put("c", createImage());
+
+        // "b" was the least recently used one
+        assertEquals(2, cache.getCount());
+        assertEquals(IMAGE_SIZE * 2, cache.getBytes());
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.getHits());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getMisses());
+
+        // shrinking evicts
+        cache.setMaxBytes(IMAGE_SIZE);
+        assertEquals(1, cache.getCount());
+        assertEquals(2, cache.getEvictions());
+
+        cache.resetStatistics();
+        assertEquals(0, cache.getHits());
+        cache.clear();
+        assertTrue(cache.isEmpty());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testReplaceAndOversized() {
+        BoundedGraphicCache<String, BufferedImage> cache =
+                new BoundedGraphicCache<>(
+                        "test", IMAGE_SIZE * 2, BoundedGraphicCache::getImageSize);
+        cache.put("a", createImage());
+        BufferedImage replacement = createImage();
+        cache.put("a", replacement);
+        assertEquals(1, cache.getCount());
+        assertEquals(IMAGE_SIZE, cache.getBytes());
+        assertSame(replacement, cache.get("a"));
+
+        // larger than the whole cache, not stored, and not evicting the others
+        cache.put("big", new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB));
+        assertFalse(cache.containsKey("big"));
+        assertTrue(cache.containsKey("a"));
+        assertEquals(0, cache.getEvictions());
+        assertSame(replacement, cache.remove("a"));
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testRescaledImagesCached() {
+        FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+        URL url = getClass().getResource("test-data/test.png");
+        ImageGraphicFactory factory = new ImageGraphicFactory();
+        factory.clearCache();
+        factory.getIcon(null, ff.literal(url), "image/png", 40);
+        assertTrue(ImageGraphicFactory.imageCache.containsKey(url));
+        assertTrue(
+                ImageGraphicFactory.imageCache.containsKey(
+                        new ImageGraphicFactory.RescaledKey(url, 40)));
+        assertEquals(2, ImageGraphicFactory.imageCache.getCount());
+
+        long hits = ImageGraphicFactory.imageCache.getHits();
+        factory.getIcon(null, ff.literal(url), "image/png", 40);
+        assertEquals(hits + 2, ImageGraphicFactory.imageCache.getHits());
+        factory.clearCache();
+    }
+
+    @Test
+    public void testMBeans() throws Exception {
+        assertTrue(BoundedGraphicCache.getCaches().contains(ImageGraphicFactory.imageCache));
+        BoundedGraphicCache.registerMBeans();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = ImageGraphicFactory.imageCache.getObjectName();
+            assertTrue(server.isRegistered(name));
+            assertEquals(
+                    ImageGraphicFactory.imageCache.getMaxBytes(),
+                    server.getAttribute(name, "MaxBytes"));
+        } finally {
+            BoundedGraphicCache.unregisterMBeans();
+        }
+        assertFalse(
+                ManagementFactory.getPlatformMBeanServer()
+                        .isRegistered(ImageGraphicFactory.imageCache.getObjectName()));
+    }
+
+    BufferedImage createImage() {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -59,6 +59,7 @@ import org.geotools.feature.visitor.MinVisitor;
 import org.geotools.geometry.GeneralEnvelope;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.image.ImageWorker;
+import org.geotools.imageio.netcdf.SliceRangeIndex;
 import org.geotools.imageio.netcdf.utilities.NetCDFUtilities;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.operation.matrix.XAffineTransform;
@@ -257,44 +258,59 @@ class NetCDFResponse extends CoverageResponse {
         for (DateRange timeRange : tempSubset) {
             for (NumberRange<Double> elevation : vertSubset) {
 
-                Query query = new Query();
-                // handle time and elevation
-                createTimeElevationQuery(
-                        timeRange,
-                        elevation,
-                        query,
-                        requestFilter,
-                        timeFilterAttribute,
-                        elevationFilterAttribute);
-
-                // handle additional params
-                additionalParamsManagement(query, domainsSubset, dimensionDescriptors);
-
-                // set query typename
-                query.setTypeName(request.name);
-
-                // handle default params
-                if (timeRange == null && timeFilterAttribute != null) {
-                    defaultQuery(query, timeFilterAttribute);
-                }
-                if (elevation == null && elevationFilterAttribute != null) {
-                    defaultQuery(query, elevationFilterAttribute);
+                // try the slice range index first, it avoids a round trip to the catalog
+                List<Integer> indexes =
+                        lookupImageIndex(
+                                timeRange,
+                                elevation,
+                                requestFilter,
+                                timeFilterAttribute,
+                                elevationFilterAttribute,
+                                domainsSubset,
+                                dimensionDescriptors);
+                Query query = null;
+                if (indexes == null) {
+                    query = new Query();
+                    // handle time and elevation
+                    createTimeElevationQuery(
+                            timeRange,
+                            elevation,
+                            query,
+                            requestFilter,
+                            timeFilterAttribute,
+                            elevationFilterAttribute);
+
+                    // handle additional params
+                    additionalParamsManagement(query, domainsSubset, dimensionDescriptors);
+
+                    // set query typename
+                    query.setTypeName(request.name);
+
+                    // handle default params
+                    if (timeRange == null && timeFilterAttribute != null) {
+                        defaultQuery(query, timeFilterAttribute);
+                    }
+                    if (elevation == null && elevationFilterAttribute != null) {
+                        defaultQuery(query, elevationFilterAttribute);
+                    }
+                    defaultParamsManagement(query, domainsSubset, dimensionDescriptors);
+
+                    // bbox
+                    query.setFilter(
+                            FeatureUtilities.DEFAULT_FILTER_FACTORY.and(
+                                    query.getFilter(),
+                                    FeatureUtilities.DEFAULT_FILTER_FACTORY.bbox(
+                                            FeatureUtilities.DEFAULT_FILTER_FACTORY.property(
+                                                    "the_geom"),
+                                            targetBBox)));
+
+                    indexes = request.source.reader.getImageIndex(query);
                 }
-                defaultParamsManagement(query, domainsSubset, dimensionDescriptors);
-
-                // bbox
-                query.setFilter(
-                        FeatureUtilities.DEFAULT_FILTER_FACTORY.and(
-                                query.getFilter(),
-                                FeatureUtilities.DEFAULT_FILTER_FACTORY.bbox(
-                                        FeatureUtilities.DEFAULT_FILTER_FACTORY.property(
-                                                "the_geom"),
-                                        targetBBox)));
-
-                List<Integer> indexes = request.source.reader.getImageIndex(query);
                 if (indexes == null || indexes.isEmpty()) {
                     if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.fine(" No indexes found for this query: " + query.toString());
+                        LOGGER.fine(
+                                " No indexes found for this query: "
+                                        + (query != null ? query : timeRange + ", " + elevation));
                     }
                     continue;
                 }
@@ -324,6 +340,127 @@ class NetCDFResponse extends CoverageResponse {
         setStatus(Status.SUCCESS);
     }
 
+    /**
+     * Looks up the image indexes matching the request in the slice range index, applying the same
+     * constraints and default values as the catalog query. The slices of a coverage all share the
+     * coverage bounding box, which the request bbox already intersects, so no spatial check is
+     * needed.
+     *
+     * @return the matching image indexes, or null if the index is not available or cannot answer
+     *     the request, in which case the catalog has to be queried
+     */
+    private List<Integer> lookupImageIndex(
+            DateRange timeRange,
+            NumberRange<Double> elevation,
+            Filter requestFilter,
+            String timeFilterAttribute,
+            String elevationFilterAttribute,
+            Map<String, Set<?>> domainsSubset,
+            List<DimensionDescriptor> dimensionDescriptors) {
+        SliceRangeIndex index = request.source.reader.getSliceRangeIndex();
+        if (index == null
+                || !index.contains(request.name)
+                || (requestFilter != null && requestFilter != Filter.INCLUDE)
+                || (timeRange != null && timeFilterAttribute == null)
+                || (elevation != null && elevationFilterAttribute == null)) {
+            return null;
+        }
+        Map<String, Range<?>> ranges = new HashMap<>();
+        if (timeRange != null) {
+            ranges.put(timeFilterAttribute, timeRange);
+        }
+        if (elevation != null) {
+            ranges.put(elevationFilterAttribute, elevation);
+        }
+        for (Entry<String, Set<?>> entry : domainsSubset.entrySet()) {
+            String attribute = null;
+            for (DimensionDescriptor dim : dimensionDescriptors) {
+                if (dim.getName().equalsIgnoreCase(entry.getKey())) {
+                    attribute = dim.getStartAttribute();
+                    break;
+                }
+            }
+            Set<?> values = entry.getValue();
+            if (attribute == null || values.size() != 1) {
+                return null;
+            }
+            Object value = values.iterator().next();
+            if (!(value instanceof Date) && !(value instanceof Number)) {
+                return null;
+            }
+            double v = SliceRangeIndex.toDouble(value);
+            ranges.put(attribute, NumberRange.create(v, v));
+        }
+
+        List<SliceRangeIndex.Slice> slices = index.lookup(request.name, ranges);
+        if (slices == null) {
+            return null;
+        }
+
+        // default values, in the same order as the catalog query
+        List<String> defaults = new ArrayList<>();
+        if (timeRange == null && timeFilterAttribute != null) {
+            defaults.add(timeFilterAttribute);
+        }
+        if (elevation == null && elevationFilterAttribute != null) {
+            defaults.add(elevationFilterAttribute);
+        }
+        for (DimensionDescriptor dim : dimensionDescriptors) {
+            boolean notPresent = true;
+            for (String key : domainsSubset.keySet()) {
+                if (dim.getName().equalsIgnoreCase(key)) {
+                    notPresent = false;
+                }
+            }
+            if (notPresent) {
+                defaults.add(dim.getStartAttribute());
+            }
+        }
+        for (String attribute : defaults) {
+            slices = selectDefault(slices, attribute);
+        }
+
+        List<Integer> indexes = new ArrayList<>(slices.size());
+        for (SliceRangeIndex.Slice slice : slices) {
+            indexes.add(slice.getImageIndex());
+        }
+        return indexes;
+    }
+
+    /** Keeps the slices holding the default value (min or max) of the given attribute, if any */
+    private List<SliceRangeIndex.Slice> selectDefault(
+            List<SliceRangeIndex.Slice> slices, String attribute) {
+        boolean max;
+        switch (NetCDFUtilities.getParameterBehaviour(attribute)) {
+            case MAX:
+                max = true;
+                break;
+            case MIN:
+                max = false;
+                break;
+            default:
+                return slices;
+        }
+        double selected = Double.NaN;
+        for (SliceRangeIndex.Slice slice : slices) {
+            double value = slice.getValue(attribute);
+            if (!Double.isNaN(value)
+                    && (Double.isNaN(selected) || (max ? value > selected : value < selected))) {
+                selected = value;
+            }
+        }
+        if (Double.isNaN(selected)) {
+            return slices;
+        }
+        List<SliceRangeIndex.Slice> result = new ArrayList<>();
+        for (SliceRangeIndex.Slice slice : slices) {
+            if (slice.getValue(attribute) == selected) {
+                result.add(slice);
+            }
+        }
+        return result;
+    }
+
     /**
      * @param query
      * @param domainsSubset
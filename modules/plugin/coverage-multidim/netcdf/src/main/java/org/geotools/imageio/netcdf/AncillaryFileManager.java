@@ -65,6 +65,7 @@ import org.geotools.resources.coverage.CoverageUtilities;
 import org.geotools.util.URLs;
 import org.geotools.util.Utilities;
 import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.type.Name;
 
 /**
@@ -214,6 +215,12 @@ public class AncillaryFileManager implements FileSetManager {
     /** The Slice2D index manager */
     Slice2DIndexManager slicesIndexManager;
 
+    /** Collects the dimension values of the slices while indexing */
+    private SliceRangeIndex.Builder sliceRangeIndexBuilder = new SliceRangeIndex.Builder();
+
+    /** The dimension values to image index lookup, null if not available */
+    SliceRangeIndex sliceRangeIndex;
+
     /** The map of coverages elements */
     Map<String, Coverage> coveragesMapping = new HashMap<String, Coverage>();
 
@@ -237,6 +244,9 @@ public class AncillaryFileManager implements FileSetManager {
     /** File storing the slices index (index, Tsection, Zsection) */
     private File slicesIndexFile;
 
+    /** File storing the dimension values to image index lookup */
+    private File sliceRangeIndexFile;
+
     /** File storing the datastore properties */
     private File datastoreIndexFile;
 
@@ -301,6 +311,7 @@ public class AncillaryFileManager implements FileSetManager {
 
         // Init auxiliary file names
         slicesIndexFile = new File(destinationDir, baseName + ".idx");
+        sliceRangeIndexFile = new File(destinationDir, baseName + ".sdx");
         indexerFile = lookupFile(indexFilePath, baseName, AuxiliaryFileType.INDEXER_XML);
 
         if (!createdDir) {
@@ -388,6 +399,7 @@ public class AncillaryFileManager implements FileSetManager {
     public void writeToDisk() throws IOException, JAXBException {
         // Write collected information
         Slice2DIndexManager.writeIndexFile(slicesIndexFile, slicesIndexList);
+        sliceRangeIndexBuilder.write(sliceRangeIndexFile);
         if (!indexerFile.exists()) {
             storeIndexer(indexerFile, coveragesMapping);
         }
@@ -455,16 +467,19 @@ public class AncillaryFileManager implements FileSetManager {
     public void dispose() {
         try {
             slicesIndexList.clear();
+            sliceRangeIndexBuilder = new SliceRangeIndex.Builder();
 
             if (slicesIndexManager != null) {
                 slicesIndexManager.dispose();
             }
+            closeSliceRangeIndex();
         } catch (IOException e) {
             if (LOGGER.isLoggable(Level.WARNING)) {
                 LOGGER.warning("Errors Disposing the indexer." + e.getLocalizedMessage());
             }
         } finally {
             slicesIndexManager = null;
+            sliceRangeIndex = null;
         }
     }
 
@@ -489,6 +504,18 @@ public class AncillaryFileManager implements FileSetManager {
         return slicesIndexFile;
     }
 
+    public File getSliceRangeIndexFile() {
+        return sliceRangeIndexFile;
+    }
+
+    /**
+     * Return the lookup from dimension values to image indexes, or null if not available (e.g., the
+     * index has been created by a previous version)
+     */
+    public SliceRangeIndex getSliceRangeIndex() {
+        return sliceRangeIndex;
+    }
+
     public File getIndexerFile() {
         return indexerFile;
     }
@@ -505,6 +532,16 @@ public class AncillaryFileManager implements FileSetManager {
         slicesIndexList.add(variableIndex);
     }
 
+    /**
+     * Collects the dimension values of a slice, taken from its catalog feature
+     *
+     * @param coverageName the coverage the slice belongs to
+     * @param feature the slice feature, with its final image index
+     */
+    public void addSliceRange(final String coverageName, final SimpleFeature feature) {
+        sliceRangeIndexBuilder.add(coverageName, feature);
+    }
+
     public Coverage addCoverage(String varName) {
         // Create a new coverage to be added.
         Coverage coverage = OBJECT_FACTORY.createIndexerCoveragesCoverage();
@@ -525,8 +562,20 @@ public class AncillaryFileManager implements FileSetManager {
     }
 
     public void initSliceManager() throws IOException {
+        if (slicesIndexManager != null) {
+            slicesIndexManager.dispose();
+        }
+        closeSliceRangeIndex();
         slicesIndexManager = new Slice2DIndexManager(slicesIndexFile);
         slicesIndexManager.open();
+        if (sliceRangeIndexFile.exists()) {
+            try {
+                sliceRangeIndex = SliceRangeIndex.open(sliceRangeIndexFile);
+            } catch (IOException e) {
+                // not fatal, lookups will go through the slices catalog
+                LOGGER.log(Level.WARNING, "Failed to open the slice range index", e);
+            }
+        }
     }
 
     public void resetSliceManager() throws IOException {
@@ -535,6 +584,16 @@ public class AncillaryFileManager implements FileSetManager {
         }
         // clean existing index
         slicesIndexList.clear();
+        sliceRangeIndexBuilder = new SliceRangeIndex.Builder();
+        closeSliceRangeIndex();
+    }
+
+    /** Releases the slice range index, so that its file can be rewritten or deleted */
+    private void closeSliceRangeIndex() {
+        if (sliceRangeIndex != null) {
+            sliceRangeIndex.close();
+            sliceRangeIndex = null;
+        }
     }
 
     /**
@@ -0,0 +1,131 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.imageio.netcdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import ucar.nc2.dataset.NetcdfDataset;
+
+/**
+ * A small pool of additional handles on the same NetCDF dataset, allowing concurrent slice reads. A
+ * {@link NetcdfDataset} is not thread safe (it reads through a single random access file), so each
+ * handle is used by one thread at a time.
+ *
+ * <p>Handles are opened lazily, only when the existing ones are all busy, and up to a maximum
+ * number, so that single threaded usage does not pay for any extra open.
+ *
+ * @since 20
+ */
+class NetCDFDatasetPool implements Closeable {
+
+    static final Logger LOGGER = Logging.getLogger(NetCDFDatasetPool.class);
+
+    /** Opens a new handle on the dataset */
+    interface DatasetOpener {
+        NetcdfDataset open() throws IOException;
+    }
+
+    private final DatasetOpener opener;
+
+    private final int maxSize;
+
+    private final Deque<NetcdfDataset> idle = new ArrayDeque<>();
+
+    private int opened;
+
+    private boolean closed;
+
+    NetCDFDatasetPool(DatasetOpener opener, int maxSize) {
+        this.opener = opener;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns an idle handle, opening a new one if none is available and the pool is not full yet.
+     * Returns null if the pool is exhausted or closed.
+     */
+    NetcdfDataset tryBorrow() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return null;
+            }
+            if (!idle.isEmpty()) {
+                return idle.pop();
+            }
+            if (opened >= maxSize) {
+                return null;
+            }
+            opened++;
+        }
+        boolean success = false;
+        try {
+            NetcdfDataset dataset = opener.open();
+            success = dataset != null;
+            return dataset;
+        } finally {
+            if (!success) {
+                synchronized (this) {
+                    opened--;
+                }
+            }
+        }
+    }
+
+    /** Returns a handle to the pool, closing it if the pool has been closed in the meantime */
+    void release(NetcdfDataset dataset) {
+        synchronized (this) {
+            if (!closed) {
+                idle.push(dataset);
+                return;
+            }
+            opened--;
+        }
+        closeQuietly(dataset);
+    }
+
+    /** Number of handles currently open */
+    synchronized int getOpened() {
+        return opened;
+    }
+
+    @Override
+    public void close() {
+        Deque<NetcdfDataset> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            opened -= idle.size();
+            idle.clear();
+        }
+        for (NetcdfDataset dataset : toClose) {
+            closeQuietly(dataset);
+        }
+    }
+
+    private void closeQuietly(NetcdfDataset dataset) {
+        try {
+            dataset.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to close pooled NetCDF dataset", e);
+        }
+    }
+}
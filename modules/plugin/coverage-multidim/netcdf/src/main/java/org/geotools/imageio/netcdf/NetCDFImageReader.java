@@ -31,6 +31,7 @@ import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.imageio.IIOException;
@@ -157,6 +158,37 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
     /** The <code>ImageInputStream</code> (if any) associated to this reader. */
     private ImageInputStream imageInputStream = null;
 
+    /**
+     * Maximum number of additional dataset handles each reader may open to read slices
+     * concurrently, zero (the default) to serialize all reads on the main dataset.
+     *
+     * <p>Every additional handle keeps the file open and holds its own copy of the dataset
+     * structure, until the reader is disposed. An image mosaic keeps one reader per granule, so the
+     * number of open files can grow up to the number of granules times this value: only raise it,
+     * to a small value, when few files are read by many threads at once, checking the file
+     * descriptor limit of the process.
+     */
+    static final int READ_POOL_SIZE = Integer.getInteger("org.geotools.netcdf.readPoolSize", 0);
+
+    /** Maximum memory used by the cache of decoded slices, in bytes */
+    static final long SLICE_CACHE_SIZE =
+            Long.getLong("org.geotools.netcdf.sliceCacheSize", 64 * 1024 * 1024);
+
+    /** Decoded slices of compressed variables, shared among all readers */
+    static final SliceCache SLICE_CACHE = new SliceCache(SLICE_CACHE_SIZE);
+
+    /** Guards the access to the data of the main dataset, which is not thread safe */
+    private final ReentrantLock datasetLock = new ReentrantLock();
+
+    /** Maximum number of extra dataset handles, see {@link #READ_POOL_SIZE} */
+    int readPoolSize = READ_POOL_SIZE;
+
+    /** Extra dataset handles, used when the main one is busy reading */
+    NetCDFDatasetPool readPool;
+
+    /** Identifies the source in the slice cache, null if the slices are not to be cached */
+    private String sliceCacheSource;
+
     /** Internal Cache for CoverageSourceDescriptor.* */
     private final SoftValueHashMap<String, VariableAdapter> coverageSourceDescriptorsCache =
             new SoftValueHashMap<String, VariableAdapter>();
@@ -270,6 +302,16 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
         try {
             dataset = extractDataset(input);
             file = NetCDFUtilities.getFile(input);
+            if (readPoolSize > 0) {
+                final Object source = input;
+                readPool = new NetCDFDatasetPool(() -> extractDataset(source), readPoolSize);
+            }
+            // decompressing the chunks dominates the read time of NetCDF-4/HDF5 files
+            String fileTypeId = dataset.getFileTypeId();
+            if ("NetCDF-4".equals(fileTypeId) || "HDF5".equals(fileTypeId)) {
+                sliceCacheSource =
+                        dataset.getLocation() + (file != null ? "@" + file.lastModified() : "");
+            }
             if (file != null) {
                 ancillaryFileManager =
                         new AncillaryFileManager(
@@ -361,6 +403,7 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
                                 // the whole NetCDF dataset.
                                 updateFeaturesIndex(collection, variableImageStartIndex, isShared);
                             }
+                            addSliceRanges(coverageName, collection);
                             final int features = collection.size();
                             if (features > 0) {
                                 // adding granules to the catalog and updating the number of written
@@ -425,6 +468,28 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
         }
     }
 
+    /**
+     * Collects the dimension values of the features into the slice range index
+     *
+     * @param coverageName
+     * @param collection
+     */
+    private void addSliceRanges(final Name coverageName, final ListFeatureCollection collection) {
+        try (SimpleFeatureIterator featuresIt = collection.features()) {
+            while (featuresIt.hasNext()) {
+                ancillaryFileManager.addSliceRange(coverageName.toString(), featuresIt.next());
+            }
+        }
+    }
+
+    /**
+     * Return the lookup from dimension values to image indexes, or null if not available, in which
+     * case the slices catalog should be queried instead
+     */
+    public SliceRangeIndex getSliceRangeIndex() {
+        return ancillaryFileManager != null ? ancillaryFileManager.getSliceRangeIndex() : null;
+    }
+
     private Name getCoverageName(String varName) {
         Name coverageName = ancillaryFileManager.getCoverageName(varName);
         if (coverageName == null) {
@@ -447,6 +512,9 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
         georeferencing.dispose();
         numImages = -1;
         try {
+            if (readPool != null) {
+                readPool.close();
+            }
             if (dataset != null) {
                 dataset.close();
             }
@@ -464,6 +532,8 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
                 LOGGER.warning("Errors closing NetCDF dataset." + e.getLocalizedMessage());
         } finally {
             dataset = null;
+            readPool = null;
+            sliceCacheSource = null;
             ancillaryFileManager = null;
             imageInputStream = null;
         }
@@ -887,28 +957,71 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
         return image;
     }
 
-    private synchronized Array readSection(VariableAdapter wrapper, Section section)
+    private Array readSection(VariableAdapter wrapper, Section section)
             throws IIOException, IOException {
+        SliceCache.Key key = null;
+        if (sliceCacheSource != null) {
+            key =
+                    new SliceCache.Key(
+                            sliceCacheSource, wrapper.variableDS.getFullName(), section.toString());
+            Array cached = SLICE_CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Array array = readSectionUncached(wrapper, section);
+        if (key != null) {
+            SLICE_CACHE.put(key, array);
+        }
+        return array;
+    }
+
+    private Array readSectionUncached(VariableAdapter wrapper, Section section)
+            throws IIOException, IOException {
+        // Due to underlying NetCDF file system access (RAF based) and internal caching
+        // a dataset cannot be read concurrently. Use the main one if free, otherwise
+        // read from an additional handle on the same file, if the pool allows
+        boolean locked = datasetLock.tryLock();
         try {
-            // Due to underlying NetCDF file system access (RAF based)
-            // and internal caching we do this call within a
-            // synchronized block
+            if (!locked && readPool != null) {
+                NetcdfDataset pooled = readPool.tryBorrow();
+                if (pooled != null) {
+                    try {
+                        Variable variable =
+                                pooled.findVariable(wrapper.variableDS.getFullNameEscaped());
+                        if (variable != null) {
+                            return variable.read(section);
+                        }
+                    } finally {
+                        readPool.release(pooled);
+                    }
+                }
+            }
+            if (!locked) {
+                datasetLock.lock();
+                locked = true;
+            }
             return wrapper.variableDS.read(section);
         } catch (InvalidRangeException e) {
             throw netcdfFailure(e);
+        } finally {
+            if (locked) {
+                datasetLock.unlock();
+            }
         }
     }
 
     /**
-     * Check whether the Y axis need to be flipped. Note that the method is synchronized since it
-     * access the underlying Variable
+     * Check whether the Y axis need to be flipped. Note that the method locks the main dataset
+     * since it access the underlying Variable
      *
      * @param axis
      * @return
      * @throws IOException
      */
-    private synchronized boolean needFlipYAxis(CoordinateAxis axis) throws IOException {
+    private boolean needFlipYAxis(CoordinateAxis axis) throws IOException {
         boolean flipYAxis = false;
+        datasetLock.lock();
         try {
             Array yAxisStart = axis.read(new Section().appendRange(2));
             float y1 = yAxisStart.getFloat(0);
@@ -918,6 +1031,8 @@ public class NetCDFImageReader extends GeoSpatialImageReader implements FileSetM
             }
         } catch (InvalidRangeException e) {
             throw new RuntimeException(e);
+        } finally {
+            datasetLock.unlock();
         }
         return flipYAxis;
     }
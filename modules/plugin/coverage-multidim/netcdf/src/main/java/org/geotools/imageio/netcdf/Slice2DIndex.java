@@ -16,12 +16,20 @@
  */
 package org.geotools.imageio.netcdf;
 
-import it.geosolutions.imageio.stream.eraf.EnhancedRandomAccessFile;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.geotools.resources.NIOUtilities;
 
 /**
  * A bean that represents a row in the index used for mapping 2d grids to 2d slices in NetCDF files.
@@ -126,13 +134,16 @@ public class Slice2DIndex {
      * @author Andrea Antonello
      * @author Simone Giannecchini, GeoSolutions
      */
-    public static class Slice2DIndexManager {
+    public static class Slice2DIndexManager implements Closeable {
 
         private static final long ADDRESS_SIZE = 8l;
 
         private static long ADDRESS_POSITION = 4l;
 
-        private EnhancedRandomAccessFile raf;
+        /** Guards the buffer, so that it is not unmapped while being read */
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private volatile ByteBuffer buffer;
 
         private File file;
 
@@ -143,9 +154,20 @@ public class Slice2DIndex {
         }
 
         public void open() throws IOException {
-            raf = new EnhancedRandomAccessFile(file, "r");
-            raf.setByteOrder(ByteOrder.BIG_ENDIAN);
-            numberOfRecords = raf.readInt();
+            // the index is memory mapped and read with absolute gets only, so that concurrent
+            // lookups do not need to be serialized on a shared file pointer
+            ByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            mapped.order(ByteOrder.BIG_ENDIAN);
+            lock.writeLock().lock();
+            try {
+                numberOfRecords = mapped.getInt(0);
+                buffer = mapped;
+            } finally {
+                lock.writeLock().unlock();
+            }
         }
 
         /**
@@ -155,46 +177,76 @@ public class Slice2DIndex {
          * @return the {@link Slice2DIndex} for the picked image.
          * @throws IOException
          */
-        public synchronized Slice2DIndex getSlice2DIndex(int imageIndex) throws IOException {
-            // Synchronized these access due to the RAF usage.
-            // concurrent seeks and reads on the same RAF may
-            // may result into unexpected results
-            long addressPosition = ADDRESS_POSITION + imageIndex * ADDRESS_SIZE;
+        public Slice2DIndex getSlice2DIndex(int imageIndex) throws IOException {
+            lock.readLock().lock();
+            try {
+                final ByteBuffer buffer = this.buffer;
+                if (buffer == null) {
+                    throw new IOException("The slices index has not been opened: " + file);
+                }
+                return getSlice2DIndex(buffer, imageIndex);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
 
-            raf.seek(addressPosition);
-            long dataPosition = raf.readLong();
-            long endDataPosition = raf.readLong();
+        private static Slice2DIndex getSlice2DIndex(ByteBuffer buffer, int imageIndex) {
+            int addressPosition = (int) (ADDRESS_POSITION + imageIndex * ADDRESS_SIZE);
+            int dataPosition = (int) buffer.getLong(addressPosition);
+            int endDataPosition = (int) buffer.getLong(addressPosition + (int) ADDRESS_SIZE);
 
-            raf.seek(dataPosition);
-            int nextValue = raf.readInt();
+            int position = dataPosition;
+            int nextValue = buffer.getInt(position);
+            position += 4;
 
             int[] index;
             if (nextValue < 0) {
                 int dimensions = -nextValue;
                 index = new int[dimensions];
                 for (int i = 0; i < dimensions; i++) {
-                    index[i] = raf.readInt();
+                    index[i] = buffer.getInt(position);
+                    position += 4;
                 }
             } else { // backwards compatibility
                 index = new int[2];
                 index[VariableAdapter.T] = nextValue;
-                index[VariableAdapter.Z] = raf.readInt();
+                index[VariableAdapter.Z] = buffer.getInt(position);
+                position += 4;
             }
 
-            int stringSize = (int) (endDataPosition - raf.getFilePointer());
-            byte[] stringBytes = new byte[stringSize];
-            raf.read(stringBytes);
+            byte[] stringBytes = new byte[endDataPosition - position];
+            for (int i = 0; i < stringBytes.length; i++) {
+                stringBytes[i] = buffer.get(position + i);
+            }
             String varName = new String(stringBytes);
 
             return new Slice2DIndex(index, varName);
         }
 
-        public void dispose() throws IOException {
-            if (raf != null) {
-                raf.close();
+        /**
+         * Releases the memory mapping of the index file right away, instead of waiting for the
+         * buffer to be garbage collected, so that the file can be deleted or rewritten afterwards
+         * on platforms locking mapped files (e.g., Windows). Waits for the running lookups to
+         * complete before unmapping.
+         */
+        @Override
+        public void close() throws IOException {
+            lock.writeLock().lock();
+            try {
+                final ByteBuffer buffer = this.buffer;
+                this.buffer = null;
+                if (buffer != null) {
+                    NIOUtilities.clean(buffer);
+                }
+            } finally {
+                lock.writeLock().unlock();
             }
         }
 
+        public void dispose() throws IOException {
+            close();
+        }
+
         /**
          * Utility method to write an index file.
          *
@@ -204,43 +256,37 @@ public class Slice2DIndex {
          */
         public static void writeIndexFile(File file, List<Slice2DIndex> indexList)
                 throws IOException {
-            RandomAccessFile raf = null;
-            try {
-                raf = new RandomAccessFile(file, "rw");
-                int size = indexList.size();
-                // write number of records
-                raf.writeInt(size);
-                long dataPosition =
-                        ADDRESS_POSITION
-                                + (size + 1) * ADDRESS_SIZE; // the +1 is to have the end address
-
-                long[] pointer = new long[size];
-                raf.seek(dataPosition);
+            int size = indexList.size();
+            // compute the addresses upfront, so that the file can be written in a single
+            // sequential pass
+            byte[][] names = new byte[size][];
+            long[] pointer = new long[size + 1]; // the +1 is to have the end address
+            long dataPosition = ADDRESS_POSITION + (size + 1) * ADDRESS_SIZE;
+            for (int i = 0; i < size; i++) {
+                Slice2DIndex sliceNDIndex = indexList.get(i);
+                names[i] = sliceNDIndex.getVariableName().getBytes();
+                pointer[i] = dataPosition;
+                dataPosition += 4 * (1 + sliceNDIndex.getNCount()) + names[i].length;
+            }
+            pointer[size] = dataPosition;
 
+            try (DataOutputStream dos =
+                    new DataOutputStream(
+                            new BufferedOutputStream(new FileOutputStream(file), 65536))) {
+                // write number of records
+                dos.writeInt(size);
+                for (long address : pointer) {
+                    dos.writeLong(address);
+                }
                 for (int i = 0; i < size; i++) {
                     Slice2DIndex sliceNDIndex = indexList.get(i);
-                    long pos = raf.getFilePointer();
-                    pointer[i] = pos;
                     // write as negative value, so if negative is missing -> old file (backwards
                     // compatibility)
-                    raf.writeInt(-sliceNDIndex.getNCount());
+                    dos.writeInt(-sliceNDIndex.getNCount());
                     for (int j = 0; j < sliceNDIndex.getNCount(); j++) {
-                        raf.writeInt(sliceNDIndex.getNIndex(j));
+                        dos.writeInt(sliceNDIndex.getNIndex(j));
                     }
-                    raf.write(sliceNDIndex.getVariableName().getBytes());
-                }
-                long dataEnd = raf.getFilePointer();
-
-                raf.seek(ADDRESS_POSITION);
-                for (long address : pointer) {
-                    raf.writeLong(address);
-                }
-                // add also the data end position
-                raf.writeLong(dataEnd);
-
-            } finally {
-                if (raf != null) {
-                    raf.close();
+                    dos.write(names[i]);
                 }
             }
         }
@@ -0,0 +1,127 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.imageio.netcdf;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import ucar.ma2.Array;
+
+/**
+ * A least recently used cache of decoded slices, bounded by the memory they use. Used for
+ * compressed NetCDF-4/HDF5 variables, where decompressing the chunks is the bulk of the read cost.
+ *
+ * <p>The cached arrays are shared, callers must not modify them. The cache is thread safe.
+ *
+ * @since 20
+ */
+class SliceCache {
+
+    /** Identifies a slice, the source should change when the file gets modified */
+    static final class Key {
+        final String source;
+
+        final String variable;
+
+        final String section;
+
+        Key(String source, String variable, String section) {
+            this.source = source;
+            this.variable = variable;
+            this.section = section;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Key other = (Key) obj;
+            return source.equals(other.source)
+                    && variable.equals(other.variable)
+                    && section.equals(other.section);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(new Object[] {source, variable, section});
+        }
+
+        @Override
+        public String toString() {
+            return "Key[" + source + ", " + variable + ", " + section + "]";
+        }
+    }
+
+    static final class Slice {
+        final Array array;
+
+        final long size;
+
+        Slice(Array array, long size) {
+            this.array = array;
+            this.size = size;
+        }
+    }
+
+    private final LinkedHashMap<Key, Slice> slices = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long maxBytes;
+
+    private long bytes;
+
+    SliceCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Array get(Key key) {
+        Slice slice = slices.get(key);
+        return slice != null ? slice.array : null;
+    }
+
+    void put(Key key, Array array) {
+        long size = array.getSizeBytes();
+        synchronized (this) {
+            Slice previous = slices.remove(key);
+            if (previous != null) {
+                bytes -= previous.size;
+            }
+            if (size > maxBytes) {
+                return;
+            }
+            slices.put(key, new Slice(array, size));
+            bytes += size;
+            Iterator<Slice> it = slices.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().size;
+                it.remove();
+            }
+        }
+    }
+
+    synchronized int getCount() {
+        return slices.size();
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    synchronized void clear() {
+        slices.clear();
+        bytes = 0;
+    }
+}
@@ -0,0 +1,534 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.imageio.netcdf;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.geotools.coverage.io.catalog.CoverageSlice;
+import org.geotools.resources.NIOUtilities;
+import org.geotools.util.Range;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * A compact, read only index mapping the dimension values of the 2D slices (time, elevation and any
+ * additional domain) to the image index, allowing range lookups without going through the slices
+ * catalog.
+ *
+ * <p>For each coverage the index stores one record per slice (image index followed by the dimension
+ * values, dates as milliseconds and numbers as doubles, missing values as NaN) and, for each
+ * dimension, the record ids sorted by value. A lookup binary searches each constrained dimension,
+ * then scans the narrowest matching run checking the other constraints, so it costs O(d log n + k)
+ * for d dimensions and k candidates.
+ *
+ * <p>The index is built in a single pass while the slices are collected, persisted next to the
+ * slices index, and memory mapped when read back. Lookups use absolute reads only, so they are
+ * thread safe, and hold a read lock so that {@link #close()} cannot unmap the file under them.
+ *
+ * @since 20
+ */
+public class SliceRangeIndex implements Closeable {
+
+    static final int MAGIC = 0x4E435358; // NCSX
+
+    static final int VERSION = 1;
+
+    /** The slices of a single coverage */
+    static final class CoverageIndex {
+
+        final String[] attributes;
+
+        final int count;
+
+        /** Position of the first record */
+        final int records;
+
+        /** Position of the sorted record ids of the first dimension */
+        final int sorted;
+
+        CoverageIndex(String[] attributes, int count, int records, int sorted) {
+            this.attributes = attributes;
+            this.count = count;
+            this.records = records;
+            this.sorted = sorted;
+        }
+
+        int recordSize() {
+            return Integer.BYTES + attributes.length * Double.BYTES;
+        }
+
+        int dimension(String attribute) {
+            for (int i = 0; i < attributes.length; i++) {
+                if (attributes[i].equals(attribute)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** A slice returned by a lookup */
+    public static final class Slice {
+
+        private final int imageIndex;
+
+        private final String[] attributes;
+
+        private final double[] values;
+
+        Slice(int imageIndex, String[] attributes, double[] values) {
+            this.imageIndex = imageIndex;
+            this.attributes = attributes;
+            this.values = values;
+        }
+
+        public int getImageIndex() {
+            return imageIndex;
+        }
+
+        /**
+         * Returns the value of the given dimension attribute, dates as milliseconds since the
+         * epoch, or NaN if the slice has no value for it
+         */
+        public double getValue(String attribute) {
+            for (int i = 0; i < attributes.length; i++) {
+                if (attributes[i].equals(attribute)) {
+                    return values[i];
+                }
+            }
+            return Double.NaN;
+        }
+    }
+
+    /** Guards the buffer, which gets unmapped on close */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile ByteBuffer buffer;
+
+    private final Map<String, CoverageIndex> coverages;
+
+    SliceRangeIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        this.coverages = parse(this.buffer);
+    }
+
+    /**
+     * Memory maps the index stored in the given file. The mapping is held until {@link #close()} is
+     * called, the file cannot be deleted or rewritten before that on some platforms (e.g.,
+     * Windows).
+     */
+    public static SliceRangeIndex open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SliceRangeIndex(mapped);
+        }
+    }
+
+    private static Map<String, CoverageIndex> parse(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a slice range index");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported slice range index version: " + version);
+        }
+        int coverageCount = buffer.getInt(8);
+        Map<String, CoverageIndex> result = new LinkedHashMap<>();
+        int position = 12;
+        for (int i = 0; i < coverageCount; i++) {
+            int length = buffer.getInt(position);
+            String name = readString(buffer, position + 4, length);
+            position += 4 + length;
+            int dims = buffer.getInt(position);
+            position += 4;
+            String[] attributes = new String[dims];
+            for (int d = 0; d < dims; d++) {
+                length = buffer.getInt(position);
+                attributes[d] = readString(buffer, position + 4, length);
+                position += 4 + length;
+            }
+            int count = buffer.getInt(position);
+            position += 4;
+            int records = position;
+            int sorted = records + count * (Integer.BYTES + dims * Double.BYTES);
+            position = sorted + dims * count * Integer.BYTES;
+            if (position > buffer.limit()) {
+                throw new IOException("Truncated slice range index");
+            }
+            result.put(name, new CoverageIndex(attributes, count, records, sorted));
+        }
+        return result;
+    }
+
+    private static String readString(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Returns true if the index contains slices for the given coverage */
+    public boolean contains(String coverageName) {
+        return coverages.containsKey(coverageName);
+    }
+
+    /**
+     * Returns the dimension attributes indexed for the given coverage, or null if the coverage is
+     * not indexed
+     */
+    public List<String> getAttributes(String coverageName) {
+        CoverageIndex coverage = coverages.get(coverageName);
+        return coverage != null ? Arrays.asList(coverage.attributes) : null;
+    }
+
+    /**
+     * Returns the slices of the given coverage whose dimension values fall in the given ranges
+     * (bounds included, null bounds meaning unbounded), sorted by image index. Returns null if the
+     * coverage, or one of the constrained attributes, is not indexed.
+     *
+     * @param coverageName the coverage name
+     * @param ranges the ranges to match, by dimension attribute name, dates are compared in
+     *     milliseconds
+     */
+    public List<Slice> lookup(String coverageName, Map<String, ? extends Range<?>> ranges) {
+        lock.readLock().lock();
+        try {
+            ByteBuffer buffer = this.buffer;
+            if (buffer == null) {
+                throw new IllegalStateException("The slice range index has been closed");
+            }
+            return lookup(buffer, coverageName, ranges);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Slice> lookup(
+            ByteBuffer buffer, String coverageName, Map<String, ? extends Range<?>> ranges) {
+        CoverageIndex coverage = coverages.get(coverageName);
+        if (coverage == null) {
+            return null;
+        }
+        int dims = coverage.attributes.length;
+        double[] min = new double[dims];
+        double[] max = new double[dims];
+        Arrays.fill(min, Double.NEGATIVE_INFINITY);
+        Arrays.fill(max, Double.POSITIVE_INFINITY);
+        boolean[] constrained = new boolean[dims];
+        for (Map.Entry<String, ? extends Range<?>> entry : ranges.entrySet()) {
+            int d = coverage.dimension(entry.getKey());
+            if (d < 0) {
+                return null;
+            }
+            Range<?> range = entry.getValue();
+            if (range == null) {
+                continue;
+            }
+            constrained[d] = true;
+            if (range.getMinValue() != null) {
+                min[d] = Math.max(min[d], toDouble(range.getMinValue()));
+            }
+            if (range.getMaxValue() != null) {
+                max[d] = Math.min(max[d], toDouble(range.getMaxValue()));
+            }
+        }
+
+        // pick the narrowest run among the constrained dimensions
+        int scanDim = -1;
+        int scanFrom = 0;
+        int scanTo = coverage.count;
+        for (int d = 0; d < dims; d++) {
+            if (constrained[d]) {
+                int from = lowerBound(buffer, coverage, d, min[d]);
+                int to = upperBound(buffer, coverage, d, max[d]);
+                if (to <= from) {
+                    return Collections.emptyList();
+                }
+                if (scanDim < 0 || to - from < scanTo - scanFrom) {
+                    scanDim = d;
+                    scanFrom = from;
+                    scanTo = to;
+                }
+            }
+        }
+
+        List<Slice> result = new ArrayList<>(scanTo - scanFrom);
+        for (int i = scanFrom; i < scanTo; i++) {
+            int record = scanDim >= 0 ? sortedRecord(buffer, coverage, scanDim, i) : i;
+            double[] values = new double[dims];
+            boolean matches = true;
+            for (int d = 0; d < dims && matches; d++) {
+                values[d] = value(buffer, coverage, record, d);
+                // NaN fails both comparisons, slices without a value never match a constraint
+                matches = !constrained[d] || (values[d] >= min[d] && values[d] <= max[d]);
+            }
+            if (matches) {
+                result.add(
+                        new Slice(
+                                imageIndex(buffer, coverage, record), coverage.attributes, values));
+            }
+        }
+        if (scanDim >= 0) {
+            result.sort((a, b) -> Integer.compare(a.imageIndex, b.imageIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Releases the memory mapping of the index file, if any, waiting for the running lookups to
+     * complete. No lookup can be performed afterwards.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            ByteBuffer buffer = this.buffer;
+            this.buffer = null;
+            if (buffer != null) {
+                NIOUtilities.clean(buffer);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Converts a dimension value to the double stored in the index */
+    public static double toDouble(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        throw new IllegalArgumentException("Unsupported dimension value: " + value);
+    }
+
+    private static int imageIndex(ByteBuffer buffer, CoverageIndex coverage, int record) {
+        return buffer.getInt(coverage.records + record * coverage.recordSize());
+    }
+
+    private static double value(ByteBuffer buffer, CoverageIndex coverage, int record, int dim) {
+        return buffer.getDouble(
+                coverage.records
+                        + record * coverage.recordSize()
+                        + Integer.BYTES
+                        + dim * Double.BYTES);
+    }
+
+    private static int sortedRecord(ByteBuffer buffer, CoverageIndex coverage, int dim, int i) {
+        return buffer.getInt(coverage.sorted + (dim * coverage.count + i) * Integer.BYTES);
+    }
+
+    /** First position in the sorted run of the dimension whose value is >= the given one */
+    private static int lowerBound(
+            ByteBuffer buffer, CoverageIndex coverage, int dim, double value) {
+        int low = 0;
+        int high = coverage.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(
+                            value(buffer, coverage, sortedRecord(buffer, coverage, dim, mid), dim),
+                            value)
+                    < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** First position in the sorted run of the dimension whose value is > the given one */
+    private static int upperBound(
+            ByteBuffer buffer, CoverageIndex coverage, int dim, double value) {
+        int low = 0;
+        int high = coverage.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(
+                            value(buffer, coverage, sortedRecord(buffer, coverage, dim, mid), dim),
+                            value)
+                    <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects the slices while the catalog is being populated, and writes the index out once done.
+     */
+    public static class Builder {
+
+        private static final class CoverageBuilder {
+            final String[] attributes;
+
+            int count;
+
+            int[] indexes = new int[64];
+
+            double[] values;
+
+            CoverageBuilder(String[] attributes) {
+                this.attributes = attributes;
+                this.values = new double[64 * Math.max(1, attributes.length)];
+            }
+
+            void add(int imageIndex, double[] record) {
+                if (count == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, count * 2);
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                indexes[count] = imageIndex;
+                System.arraycopy(record, 0, values, count * attributes.length, attributes.length);
+                count++;
+            }
+        }
+
+        private final Map<String, CoverageBuilder> coverages = new LinkedHashMap<>();
+
+        /**
+         * Adds the slice described by a catalog feature. The dimensions are the non geometric
+         * attributes holding dates or numbers, other than the image index.
+         */
+        public void add(String coverageName, SimpleFeature feature) {
+            CoverageBuilder coverage = coverages.get(coverageName);
+            if (coverage == null) {
+                List<String> attributes = new ArrayList<>();
+                for (AttributeDescriptor ad : feature.getFeatureType().getAttributeDescriptors()) {
+                    Class<?> binding = ad.getType().getBinding();
+                    String name = ad.getLocalName();
+                    if (!(ad instanceof GeometryDescriptor)
+                            && !CoverageSlice.Attributes.INDEX.equals(name)
+                            && (Date.class.isAssignableFrom(binding)
+                                    || Number.class.isAssignableFrom(binding))) {
+                        attributes.add(name);
+                    }
+                }
+                coverage = new CoverageBuilder(attributes.toArray(new String[attributes.size()]));
+                coverages.put(coverageName, coverage);
+            }
+            double[] record = new double[coverage.attributes.length];
+            for (int i = 0; i < record.length; i++) {
+                Object value = feature.getAttribute(coverage.attributes[i]);
+                record[i] = value != null ? toDouble(value) : Double.NaN;
+            }
+            Integer index = (Integer) feature.getAttribute(CoverageSlice.Attributes.INDEX);
+            coverage.add(index, record);
+        }
+
+        /** Writes the index to the given file */
+        public void write(File file) throws IOException {
+            try (OutputStream os = new FileOutputStream(file)) {
+                write(os);
+            }
+        }
+
+        /** Builds an in memory index, for datasets that are not backed by a file */
+        public SliceRangeIndex build() throws IOException {
+            ByteArrayOutput bos = new ByteArrayOutput();
+            write(bos);
+            return new SliceRangeIndex(ByteBuffer.wrap(bos.buffer(), 0, bos.size()).slice());
+        }
+
+        private void write(OutputStream os) throws IOException {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 65536));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(coverages.size());
+            for (Map.Entry<String, CoverageBuilder> entry : coverages.entrySet()) {
+                CoverageBuilder coverage = entry.getValue();
+                int dims = coverage.attributes.length;
+                writeString(out, entry.getKey());
+                out.writeInt(dims);
+                for (String attribute : coverage.attributes) {
+                    writeString(out, attribute);
+                }
+                out.writeInt(coverage.count);
+                for (int r = 0; r < coverage.count; r++) {
+                    out.writeInt(coverage.indexes[r]);
+                    for (int d = 0; d < dims; d++) {
+                        out.writeDouble(coverage.values[r * dims + d]);
+                    }
+                }
+                for (int d = 0; d < dims; d++) {
+                    for (int record : sort(coverage, d)) {
+                        out.writeInt(record);
+                    }
+                }
+            }
+            out.flush();
+        }
+
+        private static int[] sort(CoverageBuilder coverage, int dim) {
+            int dims = coverage.attributes.length;
+            Integer[] records = new Integer[coverage.count];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = i;
+            }
+            // NaN sorts last, so it is never part of a bounded run
+            Arrays.sort(
+                    records,
+                    (a, b) ->
+                            Double.compare(
+                                    coverage.values[a * dims + dim],
+                                    coverage.values[b * dims + dim]));
+            int[] result = new int[records.length];
+            for (int i = 0; i < records.length; i++) {
+                result[i] = records[i];
+            }
+            return result;
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        /** Exposes the internal buffer, avoiding a copy when building in memory */
+        private static final class ByteArrayOutput extends ByteArrayOutputStream {
+            byte[] buffer() {
+                return buf;
+            }
+        }
+    }
+}
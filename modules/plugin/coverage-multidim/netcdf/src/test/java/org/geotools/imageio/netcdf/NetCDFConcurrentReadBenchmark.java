@@ -0,0 +1,83 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.imageio.netcdf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.geotools.coverage.io.netcdf.NetCDFBasicTest;
+import org.geotools.test.TestData;
+
+/**
+ * Measures the time needed by 16 threads to read the time slices of a NetCDF file through a single
+ * {@link NetCDFImageReader}, with the read pool disabled and with increasing pool sizes. Not a
+ * test, run it manually with the NetCDF file, the number of threads and the number of reads as
+ * optional arguments. The reader creates its ancillary files next to the NetCDF file.
+ */
+public class NetCDFConcurrentReadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        File file =
+                args.length > 0
+                        ? new File(args[0])
+                        : TestData.file(NetCDFBasicTest.class, "O3-NO2.nc");
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        final int reads = args.length > 2 ? Integer.parseInt(args[2]) : 320;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int poolSize : new int[] {0, 2, 4, threads}) {
+                NetCDFImageReader reader =
+                        (NetCDFImageReader) new NetCDFImageReaderSpi().createReaderInstance();
+                try {
+                    reader.readPoolSize = poolSize;
+                    reader.setInput(file);
+                    int numImages = reader.getNumImages(true);
+                    for (int run = 0; run < 3; run++) {
+                        long start = System.nanoTime();
+                        List<Future<?>> futures = new ArrayList<>();
+                        for (int i = 0; i < reads; i++) {
+                            final int imageIndex = i % numImages;
+                            futures.add(executor.submit(() -> reader.read(imageIndex, null)));
+                        }
+                        for (Future<?> future : futures) {
+                            future.get();
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        System.out.printf(
+                                "Pool size %d: %d reads of %d slices by %d threads in %d ms, "
+                                        + "%.1f reads/s, %d extra handles%n",
+                                poolSize,
+                                reads,
+                                numImages,
+                                threads,
+                                elapsed / 1000000,
+                                reads * 1e9 / elapsed,
+                                reader.readPool != null ? reader.readPool.getOpened() : 0);
+                    }
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
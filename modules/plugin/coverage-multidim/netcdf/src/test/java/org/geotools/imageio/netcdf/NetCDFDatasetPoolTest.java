@@ -0,0 +1,142 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.imageio.netcdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotools.coverage.io.netcdf.NetCDFBasicTest;
+import org.geotools.test.TestData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.nc2.dataset.NetcdfDataset;
+
+public class NetCDFDatasetPoolTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPoolOpensLazily() throws Exception {
+        AtomicInteger opens = new AtomicInteger();
+        NetCDFDatasetPool pool =
+                new NetCDFDatasetPool(
+                        () -> {
+                            opens.incrementAndGet();
+                            return null;
+                        },
+                        2);
+        // a failed open does not count against the pool size
+        assertNull(pool.tryBorrow());
+        assertEquals(1, opens.get());
+        assertEquals(0, pool.getOpened());
+        pool.close();
+        // once closed, nothing gets opened anymore
+        assertNull(pool.tryBorrow());
+        assertEquals(1, opens.get());
+    }
+
+    @Test
+    public void testBorrowAndRelease() throws Exception {
+        String location = TestData.url(this, "axistime.nc").toExternalForm();
+        NetCDFDatasetPool pool =
+                new NetCDFDatasetPool(() -> NetcdfDataset.openDataset(location), 2);
+        NetcdfDataset first = pool.tryBorrow();
+        NetcdfDataset second = pool.tryBorrow();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        // the pool is full
+        assertNull(pool.tryBorrow());
+        assertEquals(2, pool.getOpened());
+
+        // released handles are reused rather than opened again
+        pool.release(first);
+        assertSame(first, pool.tryBorrow());
+        assertEquals(2, pool.getOpened());
+
+        // idle handles are closed with the pool, busy ones when released
+        pool.release(first);
+        pool.close();
+        assertEquals(1, pool.getOpened());
+        pool.release(second);
+        assertEquals(0, pool.getOpened());
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        File source = TestData.file(NetCDFBasicTest.class, "O3-NO2.nc");
+        File file = new File(folder.getRoot(), "O3-NO2.nc");
+        Files.copy(source.toPath(), file.toPath());
+
+        NetCDFImageReader reader =
+                (NetCDFImageReader) new NetCDFImageReaderSpi().createReaderInstance();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            reader.readPoolSize = 4;
+            reader.setInput(file);
+            final int numImages = reader.getNumImages(true);
+            assertTrue(numImages > 0);
+
+            // reference values, read sequentially
+            List<double[]> expected = new ArrayList<>();
+            for (int i = 0; i < numImages; i++) {
+                expected.add(getPixels(reader.read(i, null)));
+            }
+
+            // the same slices read by 16 threads at once, several times each
+            List<Future<double[]>> futures = new ArrayList<>();
+            final int reads = Math.max(64, numImages * 4);
+            for (int i = 0; i < reads; i++) {
+                final int imageIndex = i % numImages;
+                Callable<double[]> read = () -> getPixels(reader.read(imageIndex, null));
+                futures.add(executor.submit(read));
+            }
+            for (int i = 0; i < reads; i++) {
+                double[] actual = futures.get(i).get(60, TimeUnit.SECONDS);
+                assertArrayEquals(expected.get(i % numImages), actual, 0d);
+            }
+            // never more extra handles than allowed
+            assertTrue(reader.readPool.getOpened() <= 4);
+        } finally {
+            executor.shutdownNow();
+            reader.dispose();
+        }
+    }
+
+    private static double[] getPixels(BufferedImage image) {
+        Raster raster = image.getRaster();
+        return raster.getPixels(0, 0, raster.getWidth(), raster.getHeight(), (double[]) null);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.imageio.netcdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import ucar.ma2.Array;
+
+public class SliceCacheTest {
+
+    private static Array slice(int size) {
+        return Array.factory(new int[size]);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        // room for two slices of 100 ints
+        SliceCache cache = new SliceCache(800);
+        SliceCache.Key k1 = new SliceCache.Key("file@1", "temp", "0:0,0:99");
+        SliceCache.Key k2 = new SliceCache.Key("file@1", "temp", "1:1,0:99");
+        SliceCache.Key k3 = new SliceCache.Key("file@1", "temp", "2:2,0:99");
+        Array a1 = slice(100);
+        cache.put(k1, a1);
+        cache.put(k2, slice(100));
+        // touch the first one, the second becomes the eldest
+        assertSame(a1, cache.get(k1));
+        cache.put(k3, slice(100));
+
+        assertEquals(2, cache.getCount());
+        assertEquals(800, cache.getBytes());
+        assertSame(a1, cache.get(k1));
+        assertNull(cache.get(k2));
+    }
+
+    @Test
+    public void testSkipsOversizedSlices() {
+        SliceCache cache = new SliceCache(100);
+        SliceCache.Key key = new SliceCache.Key("file@1", "temp", "0:0,0:99");
+        cache.put(key, slice(100));
+        assertNull(cache.get(key));
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testSourceChangeMisses() {
+        SliceCache cache = new SliceCache(1000);
+        cache.put(new SliceCache.Key("file@1", "temp", "0:0"), slice(10));
+        assertNull(cache.get(new SliceCache.Key("file@2", "temp", "0:0")));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.imageio.netcdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.geotools.coverage.io.catalog.CoverageSlice;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.imageio.netcdf.Slice2DIndex.Slice2DIndexManager;
+import org.geotools.util.DateRange;
+import org.geotools.util.NumberRange;
+import org.geotools.util.Range;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class SliceRangeIndexTest {
+
+    private static final long HOUR = 3600 * 1000;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    /** 24 times x 10 elevations, time being the outer dimension */
+    private SliceRangeIndex.Builder buildSlices() throws Exception {
+        SimpleFeatureType schema =
+                DataUtilities.createType(
+                        "temperature",
+                        CoverageSlice.Attributes.BASE_SCHEMA
+                                + ",time:java.util.Date,elevation:Double");
+        SliceRangeIndex.Builder builder = new SliceRangeIndex.Builder();
+        int imageIndex = 0;
+        for (int t = 0; t < 24; t++) {
+            for (int z = 0; z < 10; z++) {
+                builder.add(
+                        "temperature",
+                        SimpleFeatureBuilder.build(
+                                schema,
+                                new Object[] {null, imageIndex++, new Date(t * HOUR), z * 100d},
+                                null));
+            }
+        }
+        return builder;
+    }
+
+    private List<Integer> lookup(
+            SliceRangeIndex index, String coverage, Map<String, Range<?>> ranges) {
+        List<SliceRangeIndex.Slice> slices = index.lookup(coverage, ranges);
+        if (slices == null) {
+            return null;
+        }
+        List<Integer> result = new ArrayList<>();
+        for (SliceRangeIndex.Slice slice : slices) {
+            result.add(slice.getImageIndex());
+        }
+        return result;
+    }
+
+    private void assertLookups(SliceRangeIndex index) {
+        assertTrue(index.contains("temperature"));
+        assertEquals(Arrays.asList("time", "elevation"), index.getAttributes("temperature"));
+
+        // a single slice
+        Map<String, Range<?>> ranges = new HashMap<>();
+        ranges.put("time", new DateRange(new Date(5 * HOUR), new Date(5 * HOUR)));
+        ranges.put("elevation", NumberRange.create(300d, 300d));
+        assertEquals(Collections.singletonList(53), lookup(index, "temperature", ranges));
+
+        // a time range, bounds included, all elevations
+        ranges.clear();
+        ranges.put("time", new DateRange(new Date(2 * HOUR), new Date(3 * HOUR)));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 20; i < 40; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, lookup(index, "temperature", ranges));
+
+        // an elevation range across all times, sorted by image index
+        ranges.clear();
+        ranges.put("elevation", NumberRange.create(750d, 1000d));
+        List<Integer> indexes = lookup(index, "temperature", ranges);
+        assertEquals(48, indexes.size());
+        assertEquals(Arrays.asList(8, 9, 18), indexes.subList(0, 3));
+
+        // no constraint returns everything, out of range returns nothing
+        assertEquals(240, lookup(index, "temperature", new HashMap<>()).size());
+        ranges.clear();
+        ranges.put("time", new DateRange(new Date(100 * HOUR), new Date(200 * HOUR)));
+        assertTrue(lookup(index, "temperature", ranges).isEmpty());
+
+        // slice values are returned too
+        ranges.clear();
+        ranges.put("elevation", NumberRange.create(900d, 900d));
+        SliceRangeIndex.Slice last = index.lookup("temperature", ranges).get(23);
+        assertEquals(23 * HOUR, last.getValue("time"), 0d);
+        assertTrue(Double.isNaN(last.getValue("foo")));
+
+        // unknown coverage or attribute
+        assertNull(index.lookup("salinity", ranges));
+        ranges.put("foo", NumberRange.create(0d, 1d));
+        assertNull(index.lookup("temperature", ranges));
+    }
+
+    @Test
+    public void testMappedIndex() throws Exception {
+        File file = new File(folder.getRoot(), "test.sdx");
+        buildSlices().write(file);
+        try (SliceRangeIndex index = SliceRangeIndex.open(file)) {
+            assertLookups(index);
+        }
+    }
+
+    @Test
+    public void testCloseReleasesFiles() throws Exception {
+        File rangeFile = new File(folder.getRoot(), "test.sdx");
+        buildSlices().write(rangeFile);
+        SliceRangeIndex index = SliceRangeIndex.open(rangeFile);
+        index.close();
+        // the files are no longer mapped, they can be rewritten and deleted right away
+        buildSlices().write(rangeFile);
+        assertTrue(rangeFile.delete());
+
+        File slicesFile = new File(folder.getRoot(), "test.idx");
+        List<Slice2DIndex> slices =
+                Collections.singletonList(new Slice2DIndex(new int[] {0, 0}, "sst"));
+        Slice2DIndexManager.writeIndexFile(slicesFile, slices);
+        Slice2DIndexManager manager = new Slice2DIndexManager(slicesFile);
+        manager.open();
+        manager.close();
+        Slice2DIndexManager.writeIndexFile(slicesFile, slices);
+        assertTrue(slicesFile.delete());
+        assertFalse(slicesFile.exists());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLookupAfterClose() throws Exception {
+        File file = new File(folder.getRoot(), "test.sdx");
+        buildSlices().write(file);
+        SliceRangeIndex index = SliceRangeIndex.open(file);
+        index.close();
+        index.lookup("temperature", Collections.emptyMap());
+    }
+
+    @Test
+    public void testCloseWhileLookingUp() throws Exception {
+        File file = new File(folder.getRoot(), "test.sdx");
+        buildSlices().write(file);
+        SliceRangeIndex index = SliceRangeIndex.open(file);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    try {
+                                        while (true) {
+                                            assertLookups(index);
+                                        }
+                                    } catch (IllegalStateException e) {
+                                        // closed, lookups in flight completed before unmapping
+                                    }
+                                }));
+            }
+            Thread.sleep(50);
+            index.close();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInMemoryIndex() throws Exception {
+        assertLookups(buildSlices().build());
+    }
+
+    @Test
+    public void testSlicesIndexRoundTrip() throws Exception {
+        File file = new File(folder.getRoot(), "test.idx");
+        List<Slice2DIndex> slices = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            slices.add(new Slice2DIndex(new int[] {i / 10, i % 10}, i < 50 ? "sst" : "salinity"));
+        }
+        Slice2DIndexManager.writeIndexFile(file, slices);
+
+        Slice2DIndexManager manager = new Slice2DIndexManager(file);
+        manager.open();
+        try {
+            assertEquals(100, manager.getNumberOfRecords());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(slices.get(i), manager.getSlice2DIndex(i));
+            }
+        } finally {
+            manager.dispose();
+        }
+    }
+}
@@ -297,6 +297,42 @@ public class GeoPackage {
                     }
                 });
 
+        // envelope intersection, used to filter rows in tables without a spatial index,
+        // in a single call and without decoding the geometry if the header has an envelope
+        Function.create(
+                cx,
+                "ST_EnvIntersects",
+                new Function() {
+                    @Override
+                    protected void xFunc() throws SQLException {
+                        if (args() != 5) {
+                            throw new SQLException(
+                                    "ST_EnvIntersects expects a geometry and four coordinates.");
+                        }
+                        byte[] blob = value_blob(0);
+                        if (blob == null) {
+                            result(0);
+                            return;
+                        }
+                        try {
+                            GeoPkgGeomReader reader = new GeoPkgGeomReader(blob);
+                            if (reader.getHeader().getFlags().isEmpty()) {
+                                result(0);
+                                return;
+                            }
+                            Envelope envelope = reader.getEnvelope();
+                            boolean intersects =
+                                    envelope.getMaxX() >= value_double(1)
+                                            && envelope.getMaxY() >= value_double(2)
+                                            && envelope.getMinX() <= value_double(3)
+                                            && envelope.getMinY() <= value_double(4);
+                            result(intersects ? 1 : 0);
+                        } catch (IOException e) {
+                            throw new SQLException(e);
+                        }
+                    }
+                });
+
         // empty
         Function.create(
                 cx,
@@ -728,6 +764,28 @@ public class GeoPackage {
         entry.init(e);
     }
 
+    /**
+     * Adds a new feature dataset to the geopackage, optionally creating its spatial index.
+     *
+     * <p>The features are loaded in bulk by a {@link GeoPkgBulkLoader}, in a single transaction,
+     * keeping the durability settings of the GeoPackage. The spatial index is built in a single
+     * pass once all the features have been inserted, which is a lot faster than maintaining it row
+     * by row via triggers, as it happens when the index is created first and the features are
+     * written afterwards. If the entry has no bounds, they are computed while loading, instead of
+     * requiring an extra pass over the collection.
+     *
+     * @param entry Contains metadata about the feature entry.
+     * @param collection The simple feature collection to add to the geopackage.
+     * @param spatialIndex Whether to create a spatial index for the new feature dataset
+     * @throws IOException Any errors occurring while adding the new feature dataset.
+     */
+    public void add(FeatureEntry entry, SimpleFeatureCollection collection, boolean spatialIndex)
+            throws IOException {
+        GeoPkgBulkLoader loader = new GeoPkgBulkLoader(this);
+        loader.setSpatialIndex(spatialIndex);
+        loader.load(entry, collection, null);
+    }
+
     /**
      * Adds a new feature dataset to the geopackage.
      *
@@ -1328,6 +1386,35 @@ public class GeoPackage {
             Integer lowRow,
             Integer highRow)
             throws IOException {
+        return reader(entry, lowZoom, highZoom, lowCol, highCol, lowRow, highRow, true);
+    }
+
+    /**
+     * Retrieve tiles within certain zooms and column/row boundaries, optionally skipping the tile
+     * data. Tiles read without data only carry their zoom level, column and row, the data can be
+     * loaded later with {@link #readData(TileEntry, List)}, for example only for the tiles missing
+     * from a cache.
+     *
+     * @param entry the tile entry
+     * @param lowZoom low zoom boundary
+     * @param highZoom high zoom boundary
+     * @param lowCol low column boundary
+     * @param highCol high column boundary
+     * @param lowRow low row boundary
+     * @param highRow high row boundary
+     * @param data whether to read the tile data
+     * @since 20
+     */
+    public TileReader reader(
+            TileEntry entry,
+            Integer lowZoom,
+            Integer highZoom,
+            Integer lowCol,
+            Integer highCol,
+            Integer lowRow,
+            Integer highRow,
+            boolean data)
+            throws IOException {
 
         try {
             List<String> q = new ArrayList();
@@ -1350,7 +1437,11 @@ public class GeoPackage {
                 q.add("tile_row <= " + highRow);
             }
 
-            StringBuffer sql = new StringBuffer("SELECT * FROM ").append(entry.getTableName());
+            StringBuffer sql =
+                    new StringBuffer("SELECT ")
+                            .append(data ? "*" : "zoom_level, tile_column, tile_row")
+                            .append(" FROM ")
+                            .append(entry.getTableName());
             if (!q.isEmpty()) {
                 sql.append(" WHERE ");
                 for (String s : q) {
@@ -1364,13 +1455,58 @@ public class GeoPackage {
             Statement st = cx.createStatement();
             ResultSet rs = st.executeQuery(sql.toString());
 
-            return new TileReader(rs, cx);
+            return new TileReader(rs, cx, data);
 
         } catch (SQLException e) {
             throw new IOException(e);
         }
     }
 
+    /**
+     * Loads the data of tiles read without it, see {@link #reader(TileEntry, Integer, Integer,
+     * Integer, Integer, Integer, Integer, boolean)}. Tiles that are not found keep a null data.
+     *
+     * @param entry the tile entry
+     * @param tiles the tiles to load the data for
+     * @since 20
+     */
+    public void readData(TileEntry entry, List<Tile> tiles) throws IOException {
+        if (tiles.isEmpty()) {
+            return;
+        }
+        try {
+            Connection cx = connPool.getConnection();
+            try {
+                String sql =
+                        format(
+                                "SELECT tile_data FROM %s WHERE zoom_level = ?"
+                                        + " AND tile_column = ? AND tile_row = ?",
+                                entry.getTableName());
+                LOGGER.fine(sql);
+                PreparedStatement ps = cx.prepareStatement(sql);
+                try {
+                    for (Tile tile : tiles) {
+                        ps.setInt(1, tile.getZoom());
+                        ps.setInt(2, tile.getColumn());
+                        ps.setInt(3, tile.getRow());
+                        ResultSet rs = ps.executeQuery();
+                        try {
+                            tile.setData(rs.next() ? rs.getBytes(1) : null);
+                        } finally {
+                            close(rs);
+                        }
+                    }
+                } finally {
+                    close(ps);
+                }
+            } finally {
+                close(cx);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
     protected String getSpatialIndexName(FeatureEntry entry) {
 
         String spatial_index = "rtree_" + entry.getTableName() + "_" + entry.getGeometryColumn();
@@ -0,0 +1,364 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.geopkg;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.factory.Hints;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.jdbc.JDBCDataStore;
+import org.geotools.util.NullProgressListener;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.util.ProgressListener;
+
+/**
+ * Loads large feature collections into a new GeoPackage feature table.
+ *
+ * <p>Compared to going through the feature writers, the loader inserts all features in a single
+ * transaction, using batches of prepared statements and a large SQLite page cache for the duration
+ * of the load. The extent of the table is computed while loading, and the spatial index, if
+ * requested, is built in a single pass once all the features are in.
+ *
+ * <p>By default the load keeps the durability settings of the GeoPackage. Loads into new files can
+ * opt into {@link #setRelaxedDurability(boolean) relaxed durability} (in memory rollback journal,
+ * no disk synchronization), which is faster but means a crash during the load can leave the whole
+ * GeoPackage corrupted. The previous values of the tuned pragmas are restored once the load is
+ * complete.
+ *
+ * @since 20
+ */
+public class GeoPkgBulkLoader {
+
+    static final Logger LOGGER = Logging.getLogger(GeoPkgBulkLoader.class);
+
+    /** Default number of rows sent to the database in a single batch */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** Default page cache size used during the load, in KiB */
+    public static final int DEFAULT_CACHE_SIZE = 64 * 1024;
+
+    final GeoPackage geopkg;
+
+    int batchSize = DEFAULT_BATCH_SIZE;
+
+    int cacheSize = DEFAULT_CACHE_SIZE;
+
+    boolean spatialIndex = true;
+
+    boolean relaxedDurability = false;
+
+    public GeoPkgBulkLoader(GeoPackage geopkg) {
+        this.geopkg = geopkg;
+    }
+
+    /** The number of rows sent to the database in a single batch */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /** The SQLite page cache size used during the load, in KiB */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /** Whether the spatial index is created once the features have been loaded */
+    public boolean isSpatialIndex() {
+        return spatialIndex;
+    }
+
+    public void setSpatialIndex(boolean spatialIndex) {
+        this.spatialIndex = spatialIndex;
+    }
+
+    /**
+     * Whether the rollback journal is kept in memory and disk synchronization is disabled during
+     * the load. Defaults to false, enable it only when loading files that can be recreated, as a
+     * crash during the load can corrupt the GeoPackage.
+     */
+    public boolean isRelaxedDurability() {
+        return relaxedDurability;
+    }
+
+    public void setRelaxedDurability(boolean relaxedDurability) {
+        this.relaxedDurability = relaxedDurability;
+    }
+
+    /**
+     * Creates a new feature table and loads the collection into it. If the entry has no bounds,
+     * they are computed while loading.
+     *
+     * <p>The features are committed in a single transaction, if the listener gets canceled or an
+     * error occurs the transaction is rolled back, leaving the newly created table empty. The
+     * listener is notified of the progress and checked for cancellation after each batch. The
+     * collection size is only computed when a listener is provided, as it could require an
+     * additional scan of the features.
+     *
+     * @param entry Contains metadata about the feature entry, updated with the actual table name,
+     *     bounds and the like once the load is complete
+     * @param collection The features to load
+     * @param listener The progress listener, may be null
+     * @throws IOException Any errors occurring while loading the features
+     */
+    public void load(
+            FeatureEntry entry, SimpleFeatureCollection collection, ProgressListener listener)
+            throws IOException {
+        if (listener == null) {
+            listener = new NullProgressListener();
+        }
+
+        FeatureEntry e = new FeatureEntry();
+        e.init(entry);
+        SimpleFeatureType schema = collection.getSchema();
+        boolean computeBounds = e.getBounds() == null;
+        if (computeBounds) {
+            // placeholder, the actual extent is computed while loading
+            e.setBounds(new ReferencedEnvelope(schema.getCoordinateReferenceSystem()));
+        }
+        geopkg.create(e, schema);
+
+        JDBCDataStore dataStore = geopkg.dataStore();
+        GeoPkgDialect dialect = (GeoPkgDialect) dataStore.getSQLDialect();
+        SimpleFeatureType target = dataStore.getSchema(e.getTableName());
+        List<AttributeDescriptor> attributes = new ArrayList<>();
+        for (AttributeDescriptor ad : target.getAttributeDescriptors()) {
+            if (schema.getDescriptor(ad.getLocalName()) != null) {
+                attributes.add(ad);
+            }
+        }
+        String sql = insertSQL(dialect, e.getTableName(), attributes);
+        LOGGER.fine(sql);
+
+        listener.started();
+        Envelope bounds = new Envelope();
+        boolean canceled = false;
+        try (Connection cx = geopkg.getDataSource().getConnection()) {
+            Map<String, String> pragmas = tune(cx);
+            boolean autoCommit = cx.getAutoCommit();
+            cx.setAutoCommit(false);
+            try {
+                canceled = insert(cx, sql, dialect, e, attributes, collection, bounds, listener);
+                if (canceled) {
+                    cx.rollback();
+                } else {
+                    cx.commit();
+                }
+            } catch (Throwable ex) {
+                // roll back on errors too, restoring the auto commit would commit the partial load
+                try {
+                    cx.rollback();
+                } catch (SQLException rollbackEx) {
+                    ex.addSuppressed(rollbackEx);
+                }
+                throw ex;
+            } finally {
+                cx.setAutoCommit(autoCommit);
+                restore(cx, pragmas);
+            }
+
+            if (!canceled && computeBounds && !bounds.isNull()) {
+                e.setBounds(new ReferencedEnvelope(bounds, schema.getCoordinateReferenceSystem()));
+                updateBounds(cx, e);
+            }
+        } catch (SQLException ex) {
+            throw new IOException(ex);
+        }
+
+        if (!canceled && spatialIndex && e.getGeometryColumn() != null) {
+            geopkg.createSpatialIndex(e);
+        }
+        listener.complete();
+
+        entry.init(e);
+    }
+
+    boolean insert(
+            Connection cx,
+            String sql,
+            GeoPkgDialect dialect,
+            FeatureEntry e,
+            List<AttributeDescriptor> attributes,
+            SimpleFeatureCollection collection,
+            Envelope bounds,
+            ProgressListener listener)
+            throws SQLException, IOException {
+        // the collection size might require a full scan, only compute it if someone is listening
+        int size = listener instanceof NullProgressListener ? -1 : collection.size();
+        int count = 0;
+        try (PreparedStatement ps = cx.prepareStatement(sql);
+                SimpleFeatureIterator it = collection.features()) {
+            while (it.hasNext()) {
+                SimpleFeature f = it.next();
+                for (int i = 0; i < attributes.size(); i++) {
+                    AttributeDescriptor ad = attributes.get(i);
+                    Object value = f.getAttribute(ad.getLocalName());
+                    Class<?> binding = ad.getType().getBinding();
+                    if (ad instanceof GeometryDescriptor) {
+                        Geometry g = (Geometry) value;
+                        if (g != null && !g.isEmpty()) {
+                            bounds.expandToInclude(g.getEnvelopeInternal());
+                        }
+                        dialect.setGeometryValue(
+                                g, getDimension(ad), getSRID(ad, e), binding, ps, i + 1);
+                    } else if (value instanceof Boolean) {
+                        // geopkg spec requires booleans to be stored as SQLite integers
+                        dialect.setValue((Boolean) value ? 1 : 0, Integer.class, ps, i + 1, cx);
+                    } else {
+                        dialect.setValue(value, binding, ps, i + 1, cx);
+                    }
+                }
+                ps.addBatch();
+
+                if (++count % batchSize == 0) {
+                    ps.executeBatch();
+                    if (progress(listener, count, size)) {
+                        return true;
+                    }
+                }
+            }
+            ps.executeBatch();
+            listener.progress(100f);
+        }
+        return listener.isCanceled();
+    }
+
+    /** Reports the progress after a batch, returning true if the load has been canceled */
+    boolean progress(ProgressListener listener, int count, int size) {
+        if (size > 0) {
+            listener.progress(Math.min(100f, 100f * count / size));
+        }
+        return listener.isCanceled();
+    }
+
+    String insertSQL(
+            GeoPkgDialect dialect, String tableName, List<AttributeDescriptor> attributes) {
+        StringBuffer sql = new StringBuffer("INSERT INTO ");
+        dialect.encodeTableName(tableName, sql);
+        sql.append(" (");
+        for (int i = 0; i < attributes.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            dialect.encodeColumnName(null, attributes.get(i).getLocalName(), sql);
+        }
+        sql.append(") VALUES (");
+        for (int i = 0; i < attributes.size(); i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        sql.append(")");
+        return sql.toString();
+    }
+
+    int getDimension(AttributeDescriptor ad) {
+        Object dimension = ad.getUserData().get(Hints.COORDINATE_DIMENSION);
+        return dimension instanceof Integer ? (Integer) dimension : 2;
+    }
+
+    int getSRID(AttributeDescriptor ad, FeatureEntry e) {
+        Object srid = ad.getUserData().get(JDBCDataStore.JDBC_NATIVE_SRID);
+        if (srid instanceof Integer) {
+            return (Integer) srid;
+        }
+        return e.getSrid() != null ? e.getSrid() : -1;
+    }
+
+    /** Tunes the connection for bulk loading, returning the previous pragma values */
+    Map<String, String> tune(Connection cx) throws SQLException {
+        Map<String, String> previous = new LinkedHashMap<>();
+        try (Statement st = cx.createStatement()) {
+            String[] tuned =
+                    relaxedDurability
+                            ? new String[] {"journal_mode", "synchronous", "cache_size"}
+                            : new String[] {"cache_size"};
+            for (String pragma : tuned) {
+                try (ResultSet rs = st.executeQuery("PRAGMA " + pragma)) {
+                    if (rs.next()) {
+                        previous.put(pragma, rs.getString(1));
+                    }
+                }
+            }
+            if (relaxedDurability) {
+                pragma(st, "journal_mode", "MEMORY");
+                pragma(st, "synchronous", "OFF");
+            }
+            // negative values are in KiB rather than pages
+            pragma(st, "cache_size", String.valueOf(-cacheSize));
+        }
+        return previous;
+    }
+
+    void restore(Connection cx, Map<String, String> pragmas) {
+        try (Statement st = cx.createStatement()) {
+            for (Map.Entry<String, String> pragma : pragmas.entrySet()) {
+                pragma(st, pragma.getKey(), pragma.getValue());
+            }
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "Failed to restore the connection pragmas", ex);
+        }
+    }
+
+    void pragma(Statement st, String name, String value) throws SQLException {
+        String sql = "PRAGMA " + name + " = " + value;
+        LOGGER.fine(sql);
+        st.execute(sql);
+    }
+
+    void updateBounds(Connection cx, FeatureEntry e) throws SQLException {
+        String sql =
+                "UPDATE "
+                        + GeoPackage.GEOPACKAGE_CONTENTS
+                        + " SET min_x = ?, min_y = ?, max_x = ?, max_y = ? WHERE table_name = ?";
+        LOGGER.fine(sql);
+        ReferencedEnvelope bounds = e.getBounds();
+        try (PreparedStatement ps = cx.prepareStatement(sql)) {
+            ps.setDouble(1, bounds.getMinX());
+            ps.setDouble(2, bounds.getMinY());
+            ps.setDouble(3, bounds.getMaxX());
+            ps.setDouble(4, bounds.getMaxY());
+            ps.setString(5, e.getTableName());
+            ps.executeUpdate();
+        }
+    }
+}
@@ -123,8 +123,16 @@ public class GeoPkgDialect extends PreparedStatementSQLDialect {
     @Override
     public Envelope decodeGeometryEnvelope(ResultSet rs, int column, Connection cx)
             throws SQLException, IOException {
-        Geometry g = geometry(rs.getBytes(column));
-        return g != null ? g.getEnvelopeInternal() : null;
+        byte[] bytes = rs.getBytes(column);
+        if (bytes == null) {
+            return null;
+        }
+        // use the envelope in the header if available, no need to decode the geometry
+        GeoPkgGeomReader reader = new GeoPkgGeomReader(bytes);
+        if (reader.getHeader().getFlags().isEmpty()) {
+            return new Envelope();
+        }
+        return reader.getEnvelope();
     }
 
     @Override
@@ -183,10 +191,6 @@ public class GeoPkgDialect extends PreparedStatementSQLDialect {
         return bytes != null ? geoPkgGeomReader.get() : null;
     }
 
-    Geometry geometry(byte[] b) throws IOException {
-        return geometry(null, b, null, null);
-    }
-
     @Override
     public String getGeometryTypeName(Integer type) {
         return Geometries.getForSQLType(type).getName();
@@ -167,22 +167,22 @@ public class GeoPkgFilterToSQL extends PreparedFilterToSQL {
                 out.write(" AND r.miny <= " + envelope.getMaxY());
                 out.write(")");
             } else {
-                // fall back on direct BBOX tests, it's still faster than loading the whole geometry
-                // and to do BBOX in memory
+                // fall back on direct envelope tests, they use the envelope stored in the
+                // geometry header, without decoding the geometry
                 StringBuffer sb = new StringBuffer();
                 dialect.encodeColumnName(null, attribute.getLocalName(), sb);
-                String encodedPropertyName = sb.toString();
                 out.write(
-                        "(ST_MaxX("
-                                + encodedPropertyName
-                                + ") >= "
+                        "ST_EnvIntersects("
+                                + sb
+                                + ", "
                                 + envelope.getMinX()
-                                + " AND\n");
-                out.write(
-                        "ST_MinX(" + encodedPropertyName + ") <= " + envelope.getMaxX() + " AND\n");
-                out.write(
-                        "ST_MaxY(" + encodedPropertyName + ") >= " + envelope.getMinY() + " AND\n");
-                out.write("ST_MinY(" + encodedPropertyName + ") <= " + envelope.getMaxY() + ")\n");
+                                + ", "
+                                + envelope.getMinY()
+                                + ", "
+                                + envelope.getMaxX()
+                                + ", "
+                                + envelope.getMaxY()
+                                + ")");
             }
         } catch (IOException e) {
             throw new RuntimeException(
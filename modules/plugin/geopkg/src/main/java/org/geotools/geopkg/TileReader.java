@@ -35,10 +35,21 @@ public class TileReader implements Iterator<Tile>, Closeable {
     ResultSet rs;
     Connection cx;
     Boolean next;
+    boolean data;
 
     public TileReader(ResultSet rs, Connection cx) {
+        this(rs, cx, true);
+    }
+
+    /**
+     * @param data whether the result set contains the tile data, if not the tiles are returned with
+     *     a null data
+     * @since 20
+     */
+    public TileReader(ResultSet rs, Connection cx, boolean data) {
         this.rs = rs;
         this.cx = cx;
+        this.data = data;
     }
 
     @Override
@@ -61,7 +72,9 @@ public class TileReader implements Iterator<Tile>, Closeable {
             t.setZoom(rs.getInt("zoom_level"));
             t.setColumn(rs.getInt("tile_column"));
             t.setRow(rs.getInt("tile_row"));
-            t.setData(rs.getBytes("tile_data"));
+            if (data) {
+                t.setData(rs.getBytes("tile_data"));
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
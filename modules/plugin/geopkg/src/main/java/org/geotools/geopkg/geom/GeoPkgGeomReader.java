@@ -31,13 +31,17 @@ import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.io.ByteArrayInStream;
 import com.vividsolutions.jts.io.ByteOrderDataInStream;
+import com.vividsolutions.jts.io.ByteOrderValues;
 import com.vividsolutions.jts.io.InStream;
 import com.vividsolutions.jts.io.InputStreamInStream;
 import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBConstants;
 import com.vividsolutions.jts.io.WKBReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import org.geotools.factory.Hints;
+import org.geotools.geometry.jts.Decimator;
 import org.geotools.geometry.jts.JTS;
 
 /**
@@ -168,8 +172,12 @@ public class GeoPkgGeomReader {
     protected Geometry read() throws IOException { // header must be read!
         // read the geometry
         try {
-            WKBReader wkbReader = new WKBReader(factory);
-            Geometry g = wkbReader.read(input);
+            Geometry g;
+            if (simplificationDistance != null && simplificationDistance.doubleValue() > 0) {
+                g = readDecimated(simplificationDistance.doubleValue());
+            } else {
+                g = new WKBReader(factory).read(input);
+            }
             g.setSRID(header.getSrid());
             return g;
         } catch (ParseException e) {
@@ -177,6 +185,121 @@ public class GeoPkgGeomReader {
         }
     }
 
+    /**
+     * Reads 2D geometries straight out of the WKB, collapsing the points closer than the given
+     * distance before the coordinate sequences are built. Other geometries are handed over to the
+     * {@link WKBReader}.
+     */
+    Geometry readDecimated(double distance) throws IOException, ParseException {
+        byte[] prefix = new byte[5];
+        input.read(prefix);
+        int type = getWKBType(prefix);
+        if (type < WKBConstants.wkbPoint || type > WKBConstants.wkbMultiPolygon) {
+            // replay the bytes read so far
+            InStream replay =
+                    new InStream() {
+                        int position = 0;
+
+                        @Override
+                        public void read(byte[] buf) throws IOException {
+                            int n = Math.min(buf.length, prefix.length - position);
+                            System.arraycopy(prefix, position, buf, 0, n);
+                            position += n;
+                            if (n < buf.length) {
+                                byte[] rest = new byte[buf.length - n];
+                                input.read(rest);
+                                System.arraycopy(rest, 0, buf, n, rest.length);
+                            }
+                        }
+                    };
+            return new WKBReader(factory).read(replay);
+        }
+
+        ByteOrderDataInStream din = new ByteOrderDataInStream(input);
+        din.setOrder(getByteOrder(prefix[0]));
+        return readDecimated(din, type, distance);
+    }
+
+    private Geometry readDecimated(ByteOrderDataInStream din, int type, double distance)
+            throws IOException, ParseException {
+        switch (type) {
+            case WKBConstants.wkbPoint:
+                double x = din.readDouble();
+                double y = din.readDouble();
+                if (Double.isNaN(x) && Double.isNaN(y)) {
+                    return factory.createPoint((CoordinateSequence) null);
+                }
+                CoordinateSequence cs = JTS.createCS(factory.getCoordinateSequenceFactory(), 1, 2);
+                cs.setOrdinate(0, 0, x);
+                cs.setOrdinate(0, 1, y);
+                return factory.createPoint(cs);
+            case WKBConstants.wkbLineString:
+                return factory.createLineString(readDecimatedSequence(din, distance, false));
+            case WKBConstants.wkbPolygon:
+                int numRings = din.readInt();
+                if (numRings == 0) {
+                    return factory.createPolygon((LinearRing) null, null);
+                }
+                LinearRing shell =
+                        factory.createLinearRing(readDecimatedSequence(din, distance, true));
+                LinearRing[] holes = new LinearRing[numRings - 1];
+                for (int i = 0; i < holes.length; i++) {
+                    holes[i] = factory.createLinearRing(readDecimatedSequence(din, distance, true));
+                }
+                return factory.createPolygon(shell, holes);
+            default:
+                int numGeoms = din.readInt();
+                Geometry[] geoms = new Geometry[numGeoms];
+                for (int i = 0; i < numGeoms; i++) {
+                    din.setOrder(getByteOrder(din.readByte()));
+                    int childType = din.readInt();
+                    if (childType != type - 3) {
+                        throw new ParseException("Unexpected geometry type in collection");
+                    }
+                    geoms[i] = readDecimated(din, childType, distance);
+                }
+                if (type == WKBConstants.wkbMultiPoint) {
+                    return factory.createMultiPoint(
+                            GeometryFactory.toPointArray(Arrays.asList(geoms)));
+                } else if (type == WKBConstants.wkbMultiLineString) {
+                    return factory.createMultiLineString(
+                            GeometryFactory.toLineStringArray(Arrays.asList(geoms)));
+                } else {
+                    return factory.createMultiPolygon(
+                            GeometryFactory.toPolygonArray(Arrays.asList(geoms)));
+                }
+        }
+    }
+
+    private CoordinateSequence readDecimatedSequence(
+            ByteOrderDataInStream din, double distance, boolean ring) throws IOException {
+        int size = din.readInt();
+        double[] xy = new double[size * 2];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = din.readDouble();
+        }
+        int count = Decimator.decimate(xy, size, distance, distance, ring);
+        CoordinateSequence cs = JTS.createCS(factory.getCoordinateSequenceFactory(), count, 2);
+        for (int i = 0; i < count; i++) {
+            cs.setOrdinate(i, 0, xy[i * 2]);
+            cs.setOrdinate(i, 1, xy[i * 2 + 1]);
+        }
+        return cs;
+    }
+
+    private static int getByteOrder(byte wkbOrder) {
+        return wkbOrder == WKBConstants.wkbNDR
+                ? ByteOrderValues.LITTLE_ENDIAN
+                : ByteOrderValues.BIG_ENDIAN;
+    }
+
+    /** Returns the WKB type code, including the dimension flags, out of the first five bytes */
+    private static int getWKBType(byte[] prefix) {
+        byte[] type = new byte[4];
+        System.arraycopy(prefix, 1, type, 0, 4);
+        return ByteOrderValues.getInt(type, getByteOrder(prefix[0]));
+    }
+
     /*
     * OptimizedGeoPackageBinary {
     * byte[3] magic = 0x47504230; // 'GPB'
@@ -34,6 +34,10 @@ import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.media.jai.Interpolation;
@@ -58,6 +62,7 @@ import org.geotools.geopkg.TileMatrix;
 import org.geotools.geopkg.TileReader;
 import org.geotools.image.ImageWorker;
 import org.geotools.referencing.CRS;
+import org.geotools.renderer.style.BoundedGraphicCache;
 import org.geotools.util.Utilities;
 import org.geotools.util.logging.Logging;
 import org.opengis.coverage.grid.Format;
@@ -82,14 +87,48 @@ public class GeoPackageReader extends AbstractGridCoverage2DReader {
 
     protected static final int ZOOM_LEVEL_BASE = 2;
 
+    /** Maximum memory used by the decoded tile cache, in bytes */
+    static final long TILE_CACHE_SIZE =
+            Long.getLong("org.geotools.geopkg.tileCacheSize", 64 * 1024 * 1024);
+
+    /** Decoded tiles, shared among all readers */
+    static final BoundedGraphicCache<TileKey, BufferedImage> TILE_CACHE =
+            new BoundedGraphicCache<TileKey, BufferedImage>(
+                            "geopkg-tiles", TILE_CACHE_SIZE, BoundedGraphicCache::getImageSize)
+                    .register();
+
+    /** Image readers are not thread safe, keep one tile reader per decoding thread */
+    static final ThreadLocal<TileImageReader> TILE_READERS =
+            ThreadLocal.withInitial(TileImageReader::new);
+
+    /** Lazily creates the executor used to decode tiles when none is provided in the hints */
+    static class DefaultExecutorHolder {
+        static final ExecutorService EXECUTOR =
+                Executors.newFixedThreadPool(
+                        Runtime.getRuntime().availableProcessors(),
+                        r -> {
+                            Thread t = new Thread(r, "GeoPackageTileDecoder");
+                            t.setDaemon(true);
+                            return t;
+                        });
+    }
+
     protected GridCoverageFactory coverageFactory;
 
     protected File sourceFile;
 
     protected Map<String, TileEntry> tiles = new LinkedHashMap<String, TileEntry>();
 
+    /** Decodes tiles in parallel, if null tiles are decoded in the calling thread */
+    protected ExecutorService executor;
+
     public GeoPackageReader(Object source, Hints hints) throws IOException {
         coverageFactory = CoverageFactoryFinder.getGridCoverageFactory(this.hints);
+        if (hints != null && hints.get(Hints.EXECUTOR_SERVICE) instanceof ExecutorService) {
+            executor = (ExecutorService) hints.get(Hints.EXECUTOR_SERVICE);
+        } else if (Runtime.getRuntime().availableProcessors() > 1) {
+            executor = DefaultExecutorHolder.EXECUTOR;
+        }
 
         sourceFile = GeoPackageFormat.getFileFromSource(source);
         GeoPackage file = new GeoPackage(sourceFile);
@@ -327,7 +366,8 @@ public class GeoPackageReader extends AbstractGridCoverage2DReader {
                             leftTile,
                             rightTile,
                             topTile,
-                            bottomTile)) {
+                            bottomTile,
+                            false)) {
                 /**
                  * Composing the output is harder than it seems, GeoPackage does not mandate any
                  * uniformity in tiles, they can be in different formats (a mix of PNG and JPEG) and
@@ -335,13 +375,22 @@ public class GeoPackageReader extends AbstractGridCoverage2DReader {
                  * gray, RGB, RGBA. GDAL in particular defaults to generate a mix of PNG and JPEG to
                  * generate the slow and large PNG format only when transparency is actually needed
                  */
-                List<RenderedImage> sources = new ArrayList<>();
-                ImageWorker iw = new ImageWorker();
-                TileImageReader tileReader = new TileImageReader();
+                List<Tile> tileList = new ArrayList<>();
                 while (it.hasNext()) {
-                    Tile tile = it.next();
+                    tileList.add(it.next());
+                }
+                List<BufferedImage> tileImages = readTiles(file, entry, tileList);
 
-                    BufferedImage tileImage = tileReader.read(tile.getData());
+                List<RenderedImage> sources = new ArrayList<>();
+                ImageWorker iw = new ImageWorker();
+                for (int i = 0; i < tileList.size(); i++) {
+                    Tile tile = tileList.get(i);
+                    BufferedImage tileImage = tileImages.get(i);
+                    if (tileList.size() == 1) {
+                        // returned as is or just translated, which would share the raster with
+                        // the cached tile, and the caller might modify it
+                        tileImage = copy(tileImage);
+                    }
 
                     iw.setImage(tileImage);
                     int posx = (int) (tile.getColumn() - leftTile) * DEFAULT_TILE_SIZE;
@@ -390,6 +439,101 @@ public class GeoPackageReader extends AbstractGridCoverage2DReader {
         return coverageFactory.create(entry.getTableName(), image, resultEnvelope);
     }
 
+    /**
+     * Looks up the tiles in the decoded tile cache, then loads and decodes the missing ones, in
+     * parallel if an executor is available, populating the cache. The tiles are expected to have
+     * been read without their data, so that cache hits do not pay for the blob reads. The images
+     * are returned in the same order as the tiles.
+     */
+    List<BufferedImage> readTiles(GeoPackage file, TileEntry entry, List<Tile> tiles)
+            throws IOException {
+        List<BufferedImage> images = new ArrayList<>(tiles.size());
+        List<Integer> misses = new ArrayList<>();
+        for (Tile tile : tiles) {
+            BufferedImage image = TILE_CACHE.get(getKey(entry, tile));
+            if (image == null) {
+                misses.add(images.size());
+            }
+            images.add(image);
+        }
+        if (misses.isEmpty()) {
+            return images;
+        }
+
+        List<Tile> missing = new ArrayList<>(misses.size());
+        for (Integer i : misses) {
+            missing.add(tiles.get(i));
+        }
+        file.readData(entry, missing);
+
+        if (executor == null || misses.size() < 2) {
+            for (Integer i : misses) {
+                images.set(i, readTile(entry, tiles.get(i)));
+            }
+            return images;
+        }
+
+        List<Future<BufferedImage>> futures = new ArrayList<>(misses.size());
+        try {
+            for (Integer i : misses) {
+                Tile tile = tiles.get(i);
+                futures.add(executor.submit(() -> readTile(entry, tile)));
+            }
+            for (int i = 0; i < misses.size(); i++) {
+                images.set(misses.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decoding tiles", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to decode tiles", cause);
+        } finally {
+            for (Future<BufferedImage> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return images;
+    }
+
+    /** Decodes a tile whose data has been loaded, and caches it */
+    BufferedImage readTile(TileEntry entry, Tile tile) throws IOException {
+        if (tile.getData() == null) {
+            throw new IOException("Tile " + getKey(entry, tile) + " has no data");
+        }
+        BufferedImage image = TILE_READERS.get().read(tile.getData());
+        TILE_CACHE.put(getKey(entry, tile), image);
+        return image;
+    }
+
+    TileKey getKey(TileEntry entry, Tile tile) {
+        return new TileKey(
+                sourceFile, entry.getTableName(), tile.getZoom(), tile.getRow(), tile.getColumn());
+    }
+
+    /** Copies an image, so that the cached tiles cannot be modified by the callers */
+    static BufferedImage copy(BufferedImage image) {
+        Hashtable<String, Object> properties = null;
+        String[] names = image.getPropertyNames();
+        if (names != null) {
+            properties = new Hashtable<>();
+            for (String name : names) {
+                Object value = image.getProperty(name);
+                if (value != null) {
+                    properties.put(name, value);
+                }
+            }
+        }
+        return new BufferedImage(
+                image.getColorModel(),
+                image.copyData(null),
+                image.isAlphaPremultiplied(),
+                properties);
+    }
+
     private int normalizeTile(int tile, int min, int max) {
         if (tile < min) {
             return min;
@@ -449,6 +593,17 @@ public class GeoPackageReader extends AbstractGridCoverage2DReader {
         return getStartImage(BufferedImage.TYPE_CUSTOM, width, height);
     }
 
+    @Override
+    public void dispose() {
+        super.dispose();
+        // the file might get modified once the reader is disposed
+        for (TileKey key : TILE_CACHE.getKeys()) {
+            if (key.file.equals(sourceFile)) {
+                TILE_CACHE.remove(key);
+            }
+        }
+    }
+
     @Override
     public GridCoverage2D read(GeneralParameterValue[] parameters)
             throws IllegalArgumentException, IOException {
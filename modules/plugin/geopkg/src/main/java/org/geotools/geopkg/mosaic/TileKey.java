@@ -0,0 +1,67 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.geopkg.mosaic;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * Identifies a tile in a GeoPackage file, used as the key of the decoded tile cache.
+ *
+ * @since 20
+ */
+final class TileKey {
+    final File file;
+
+    final String table;
+
+    final int zoom;
+
+    final int row;
+
+    final int column;
+
+    TileKey(File file, String table, int zoom, int row, int column) {
+        this.file = file;
+        this.table = table;
+        this.zoom = zoom;
+        this.row = row;
+        this.column = column;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        TileKey other = (TileKey) obj;
+        return zoom == other.zoom
+                && row == other.row
+                && column == other.column
+                && table.equals(other.table)
+                && file.equals(other.file);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, table, zoom, row, column);
+    }
+
+    @Override
+    public String toString() {
+        return "TileKey[" + file + ", " + table + ", " + zoom + "/" + row + "/" + column + "]";
+    }
+}
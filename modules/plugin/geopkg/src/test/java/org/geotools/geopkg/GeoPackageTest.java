@@ -19,6 +19,7 @@ package org.geotools.geopkg;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -65,6 +66,7 @@ import org.geotools.data.simple.SimpleFeatureReader;
 import org.geotools.data.simple.SimpleFeatureWriter;
 import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.factory.Hints;
+import org.geotools.feature.collection.DecoratingSimpleFeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.geometry.jts.Geometries;
@@ -76,6 +78,7 @@ import org.geotools.parameter.Parameter;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.sql.SqlUtil;
+import org.geotools.util.DefaultProgressListener;
 import org.geotools.util.URLs;
 import org.junit.After;
 import org.junit.Before;
@@ -531,6 +534,161 @@ public class GeoPackageTest {
         }
     }
 
+    @Test
+    public void testAddWithSpatialIndex() throws Exception {
+        ShapefileDataStore shp = new ShapefileDataStore(setUpShapefile());
+        SimpleFeatureCollection coll = shp.getFeatureSource().getFeatures();
+
+        FeatureEntry entry = new FeatureEntry();
+        geopkg.add(entry, coll, true);
+        assertTrue(geopkg.hasSpatialIndex(entry));
+
+        // the index was filled in one pass after the inserts
+        try (Connection cx = geopkg.getDataSource().getConnection();
+                Statement st = cx.createStatement()) {
+            ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM rtree_bugsites_the_geom");
+            rs.next();
+            assertEquals(coll.size(), rs.getInt(1));
+
+            // envelope checks on the geometry header, as used on tables without index
+            rs =
+                    st.executeQuery(
+                            "SELECT COUNT(*) FROM bugsites WHERE "
+                                    + "ST_EnvIntersects(the_geom, 590230, 4915038, 590234, 4915040)");
+            rs.next();
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void testBulkLoad() throws Exception {
+        ShapefileDataStore shp = new ShapefileDataStore(setUpShapefile());
+        SimpleFeatureCollection coll = shp.getFeatureSource().getFeatures();
+
+        GeoPkgBulkLoader loader = new GeoPkgBulkLoader(geopkg);
+        loader.setBatchSize(7);
+        loader.setSpatialIndex(false);
+        DefaultProgressListener listener = new DefaultProgressListener();
+        FeatureEntry entry = new FeatureEntry();
+        loader.load(entry, coll, listener);
+        assertTrue(listener.isCompleted());
+        assertFalse(geopkg.hasSpatialIndex(entry));
+
+        // bounds computed while loading
+        ReferencedEnvelope bounds = coll.getBounds();
+        assertTrue(bounds.boundsEquals2D(entry.getBounds(), 1e-6));
+        assertTrue(bounds.boundsEquals2D(geopkg.feature("bugsites").getBounds(), 1e-6));
+
+        try (SimpleFeatureReader re = Features.simple(shp.getFeatureReader());
+                SimpleFeatureReader ra = geopkg.reader(entry, null, null)) {
+            while (re.hasNext()) {
+                assertTrue(ra.hasNext());
+                assertSimilar(re.next(), ra.next());
+            }
+            assertFalse(ra.hasNext());
+        }
+    }
+
+    @Test
+    public void testBulkLoadCanceled() throws Exception {
+        ShapefileDataStore shp = new ShapefileDataStore(setUpShapefile());
+        SimpleFeatureCollection coll = shp.getFeatureSource().getFeatures();
+
+        DefaultProgressListener listener = new DefaultProgressListener();
+        listener.setCanceled(true);
+        FeatureEntry entry = new FeatureEntry();
+        new GeoPkgBulkLoader(geopkg).load(entry, coll, listener);
+
+        // the table got created, but all inserts were rolled back
+        try (SimpleFeatureReader r = geopkg.reader(entry, null, null)) {
+            assertFalse(r.hasNext());
+        }
+    }
+
+    @Test
+    public void testBulkLoadProgress() throws Exception {
+        ShapefileDataStore shp = new ShapefileDataStore(setUpShapefile());
+        SimpleFeatureCollection coll = shp.getFeatureSource().getFeatures();
+
+        // cancels the load once the second batch got executed
+        List<Float> progress = new ArrayList<>();
+        DefaultProgressListener listener =
+                new DefaultProgressListener() {
+                    @Override
+                    public void progress(float percent) {
+                        super.progress(percent);
+                        progress.add(percent);
+                        if (progress.size() == 2) {
+                            setCanceled(true);
+                        }
+                    }
+                };
+        GeoPkgBulkLoader loader = new GeoPkgBulkLoader(geopkg);
+        loader.setBatchSize(3);
+        loader.setRelaxedDurability(true);
+        FeatureEntry entry = new FeatureEntry();
+        loader.load(entry, coll, listener);
+
+        int size = coll.size();
+        assertEquals(2, progress.size());
+        assertEquals(300f / size, progress.get(0), 1e-3);
+        assertEquals(600f / size, progress.get(1), 1e-3);
+        try (SimpleFeatureReader r = geopkg.reader(entry, null, null)) {
+            assertFalse(r.hasNext());
+        }
+    }
+
+    @Test
+    public void testBulkLoadErrorRollsBack() throws Exception {
+        ShapefileDataStore shp = new ShapefileDataStore(setUpShapefile());
+        SimpleFeatureCollection coll =
+                new DecoratingSimpleFeatureCollection(shp.getFeatureSource().getFeatures()) {
+                    @Override
+                    public SimpleFeatureIterator features() {
+                        SimpleFeatureIterator delegate = super.features();
+                        return new SimpleFeatureIterator() {
+                            int count = 0;
+
+                            @Override
+                            public boolean hasNext() {
+                                return delegate.hasNext();
+                            }
+
+                            @Override
+                            public SimpleFeature next() {
+                                if (++count > 10) {
+                                    throw new OutOfMemoryError("Simulated");
+                                }
+                                return delegate.next();
+                            }
+
+                            @Override
+                            public void close() {
+                                delegate.close();
+                            }
+                        };
+                    }
+                };
+
+        GeoPkgBulkLoader loader = new GeoPkgBulkLoader(geopkg);
+        loader.setBatchSize(3);
+        FeatureEntry entry = new FeatureEntry();
+        try {
+            loader.load(entry, coll, null);
+            fail("Should have failed with the simulated error");
+        } catch (OutOfMemoryError e) {
+            // expected
+        }
+
+        // the table got created, but the batches already executed were rolled back
+        try (Connection cx = geopkg.getDataSource().getConnection();
+                Statement st = cx.createStatement();
+                ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM bugsites")) {
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
     @Test
     public void testSpatialIndexReading() throws Exception {
         FilterFactory ff = CommonFactoryFinder.getFilterFactory();
@@ -579,6 +737,20 @@ public class GeoPackageTest {
         try (TileReader r = geopkg.reader(e, null, null, null, null, null, null)) {
             assertTiles(tiles, r);
         }
+
+        // read the keys first, then the data
+        List<Tile> keys = new ArrayList<>();
+        try (TileReader r = geopkg.reader(e, 1, 1, null, null, null, null, false)) {
+            while (r.hasNext()) {
+                Tile t = r.next();
+                assertNull(t.getData());
+                keys.add(t);
+            }
+        }
+        keys.add(new Tile(1, 5, 5, null));
+        geopkg.readData(e, keys);
+        assertEquals(tiles.subList(1, 5), keys.subList(0, 4));
+        assertNull(keys.get(4).getData());
     }
 
     @Test
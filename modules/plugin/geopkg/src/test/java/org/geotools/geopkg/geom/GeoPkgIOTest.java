@@ -20,7 +20,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
 import java.io.IOException;
+import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.GeometryBuilder;
 import org.junit.Test;
 
@@ -35,6 +40,44 @@ public class GeoPkgIOTest {
         assertTrue(g1.equals(g2));
     }
 
+    @Test
+    public void testReadDecimated() throws IOException, ParseException {
+        GeometryBuilder builder = new GeometryBuilder();
+        Geometry polygon = builder.point(0, 0).buffer(10, 100);
+        Geometry lines =
+                builder.multiLineString(
+                        builder.lineString(0, 0, 0.1, 0, 0.2, 0, 5, 0),
+                        builder.lineString(0, 10, 0.1, 10, 0.2, 10, 5, 10));
+        Geometry points = builder.multiPoint(0, 0, 0.1, 0.1);
+
+        Geometry decimated = readDecimated(polygon, 1);
+        assertTrue(decimated instanceof Polygon);
+        assertTrue(decimated.isValid());
+        assertTrue(decimated.getNumPoints() < polygon.getNumPoints() / 2);
+        assertEquals(polygon.getArea(), decimated.getArea(), polygon.getArea() * 0.05);
+
+        decimated = readDecimated(lines, 1);
+        assertTrue(decimated instanceof MultiLineString);
+        assertEquals(4, decimated.getNumPoints());
+
+        // points are not decimated
+        assertTrue(points.equalsExact(readDecimated(points, 1)));
+
+        // 3D geometries are read in full
+        Geometry line3d = new WKTReader().read("LINESTRING (0 0 0, 0.1 0 1, 0.2 0 2, 5 0 3)");
+        byte[] bytes = new GeoPkgGeomWriter(3).write(line3d);
+        GeoPkgGeomReader reader = new GeoPkgGeomReader(bytes);
+        reader.setHints(new Hints(Hints.GEOMETRY_DISTANCE, 1d));
+        assertEquals(4, reader.get().getNumPoints());
+    }
+
+    Geometry readDecimated(Geometry geometry, double distance) throws IOException {
+        byte[] bytes = new GeoPkgGeomWriter().write(geometry);
+        GeoPkgGeomReader reader = new GeoPkgGeomReader(bytes);
+        reader.setHints(new Hints(Hints.GEOMETRY_DISTANCE, distance));
+        return reader.get();
+    }
+
     @Test
     public void testHeader() throws IOException {
         Geometry g1 = new GeometryBuilder().point(0, 0).buffer(10);
@@ -19,18 +19,25 @@ package org.geotools.geopkg.mosaic;
 import static org.junit.Assert.*;
 
 import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
 import org.geotools.coverage.grid.GridCoverage2D;
 import org.geotools.coverage.grid.GridEnvelope2D;
 import org.geotools.coverage.grid.GridGeometry2D;
 import org.geotools.coverage.grid.io.AbstractGridFormat;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.geopkg.GeoPackageTest;
+import org.geotools.geopkg.Tile;
+import org.geotools.geopkg.TileEntry;
 import org.geotools.image.test.ImageAssert;
 import org.geotools.parameter.Parameter;
 import org.geotools.referencing.CRS;
+import org.geotools.renderer.style.BoundedGraphicCache;
 import org.geotools.util.URLs;
 import org.junit.Test;
 import org.opengis.parameter.GeneralParameterValue;
@@ -236,4 +243,72 @@ public class GeoPackageReaderTest {
         File referenceFull = new File("./src/test/resources/org/geotools/geopkg/giantPolyFull.png");
         ImageAssert.assertEquals(referenceFull, img, 1000);
     }
+
+    @Test
+    public void testParallelDecodingAndCache() throws IOException {
+        GeoPackageReader.TILE_CACHE.clear();
+        GeoPackageReader parallel =
+                new GeoPackageReader(GeoPackageTest.class.getResource("giantPoly.gpkg"), null);
+        parallel.executor = Executors.newFixedThreadPool(4);
+        GeoPackageReader sequential =
+                new GeoPackageReader(GeoPackageTest.class.getResource("giantPoly.gpkg"), null);
+        sequential.executor = null;
+        try {
+            RenderedImage img = parallel.read(null).getRenderedImage();
+            File referenceFull =
+                    new File("./src/test/resources/org/geotools/geopkg/giantPolyFull.png");
+            ImageAssert.assertEquals(referenceFull, img, 1000);
+
+            // decoded tiles are cached
+            int count = GeoPackageReader.TILE_CACHE.getCount();
+            assertTrue(count > 1);
+            assertTrue(GeoPackageReader.TILE_CACHE.getBytes() > 0);
+
+            // a second read hits the cache, and gives back the same output
+            RenderedImage cached = sequential.read(null).getRenderedImage();
+            assertEquals(count, GeoPackageReader.TILE_CACHE.getCount());
+            ImageAssert.assertEquals(img, cached, 0);
+        } finally {
+            parallel.executor.shutdown();
+            parallel.dispose();
+            sequential.dispose();
+        }
+
+        // tiles are evicted once the readers are disposed
+        assertEquals(0, GeoPackageReader.TILE_CACHE.getCount());
+    }
+
+    @Test
+    public void testCachedTilesSkipData() throws IOException {
+        GeoPackageReader.TILE_CACHE.clear();
+        GeoPackageReader reader =
+                new GeoPackageReader(GeoPackageTest.class.getResource("giantPoly.gpkg"), null);
+        try {
+            TileEntry entry = reader.tiles.values().iterator().next();
+            Tile tile = new Tile(0, 0, 0, null);
+            BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+            GeoPackageReader.TILE_CACHE.put(reader.getKey(entry, tile), image);
+
+            // cache hits do not load the tile data, there is not even a file to read from
+            List<BufferedImage> images = reader.readTiles(null, entry, Arrays.asList(tile));
+            assertSame(image, images.get(0));
+            assertNull(tile.getData());
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        BufferedImage copy = GeoPackageReader.copy(image);
+        copy.setRGB(0, 0, 0xFF0000);
+        assertEquals(0xFF0000, copy.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0, image.getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    @Test
+    public void testCacheRegistered() {
+        assertTrue(BoundedGraphicCache.getCaches().contains(GeoPackageReader.TILE_CACHE));
+    }
 }
@@ -28,12 +28,16 @@ import org.geotools.data.DataUtilities;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
+import org.geotools.data.ScreenMapFeatureReader;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureSource;
 import org.geotools.factory.Hints;
 import org.geotools.feature.SchemaException;
+import org.geotools.geometry.jts.CurvedGeometryFactory;
+import org.geotools.geometry.jts.DecimatingCoordinateSequenceFactory;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.geometry.jts.WKTReader2;
+import org.geotools.renderer.ScreenMap;
 import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -60,6 +64,9 @@ public class PropertyFeatureSource extends ContentFeatureSource {
         // mark the features as detached, that is, the user can directly alter them
         // without altering the state of the DataStore
         hints.add(Hints.FEATURE_DETACHED);
+        // geometries can be decimated while parsing, small ones skipped
+        hints.add(Hints.GEOMETRY_DISTANCE);
+        hints.add(Hints.SCREENMAP);
     }
 
     public PropertyDataStore getDataStore() {
@@ -148,12 +155,26 @@ public class PropertyFeatureSource extends ContentFeatureSource {
     protected FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(Query query)
             throws IOException {
         File file = new File(store.dir, typeName + ".properties");
+        GeometryFactory geometryFactory = getGeometryFactory(query);
+        Number distance = (Number) query.getHints().get(Hints.GEOMETRY_DISTANCE);
+        if (distance != null && distance.doubleValue() > 0) {
+            double d = distance.doubleValue();
+            geometryFactory = DecimatingCoordinateSequenceFactory.wrap(geometryFactory, d, d);
+        }
         PropertyFeatureReader reader =
-                new PropertyFeatureReader(store.getNamespaceURI(), file, getGeometryFactory(query));
+                new PropertyFeatureReader(store.getNamespaceURI(), file, geometryFactory);
 
         Double tolerance = (Double) query.getHints().get(Hints.LINEARIZATION_TOLERANCE);
         if (tolerance != null) {
-            reader.setWKTReader(new WKTReader2(tolerance));
+            reader.setWKTReader(
+                    new WKTReader2(new CurvedGeometryFactory(geometryFactory, tolerance)));
+        }
+
+        ScreenMap screenMap = (ScreenMap) query.getHints().get(Hints.SCREENMAP);
+        if (screenMap != null) {
+            // the filter is evaluated again by the caller, but the screenmap must only
+            // account for the features actually returned
+            return new ScreenMapFeatureReader(reader, query.getFilter(), screenMap);
         }
 
         return reader;
@@ -59,6 +59,9 @@ public class PropertyFeatureStore extends ContentFeatureStore {
         // mark the features as detached, that is, the user can directly alter them
         // without altering the state of the DataStore
         hints.add(Hints.FEATURE_DETACHED);
+        // reads are delegated to PropertyFeatureSource, that handles these too
+        hints.add(Hints.GEOMETRY_DISTANCE);
+        hints.add(Hints.SCREENMAP);
     }
 
     /** We handle events internally */
@@ -26,6 +26,7 @@ import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.PrecisionModel;
 import com.vividsolutions.jts.geom.impl.PackedCoordinateSequence;
 import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+import java.awt.geom.AffineTransform;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
@@ -61,6 +62,8 @@ import org.geotools.feature.NameImpl;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.geometry.jts.WKTReader2;
+import org.geotools.referencing.operation.transform.ProjectiveTransform;
+import org.geotools.renderer.ScreenMap;
 import org.opengis.feature.Feature;
 import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.IllegalAttributeException;
@@ -554,6 +557,71 @@ public class PropertyDataStoreTest extends TestCase {
                 null);
     }
 
+    public void testDecimationHint() throws Exception {
+        File file = new File("propertyTestData", "lines.properties");
+        BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        writer.write("_=id:Integer,geom:LineString");
+        writer.newLine();
+        StringBuilder wkt = new StringBuilder("LINESTRING(");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            wkt.append(i * 0.1).append(" ").append((i % 2) * 0.01);
+        }
+        wkt.append(")");
+        writer.write("l1=1|" + wkt);
+        writer.close();
+
+        SimpleFeatureSource lines = store.getFeatureSource("lines");
+        assertTrue(lines.getSupportedHints().contains(Hints.GEOMETRY_DISTANCE));
+        Query q = new Query("lines");
+        q.getHints().put(Hints.GEOMETRY_DISTANCE, 1d);
+        try (SimpleFeatureIterator it = lines.getFeatures(q).features()) {
+            assertTrue(it.hasNext());
+            Geometry g = (Geometry) it.next().getDefaultGeometry();
+            assertTrue(g.getNumPoints() < 20);
+            assertTrue(g.getNumPoints() >= 2);
+            assertFalse(it.hasNext());
+        }
+    }
+
+    public void testScreenMapHint() throws Exception {
+        SimpleFeatureSource road = store.getFeatureSource("road");
+        assertTrue(road.getSupportedHints().contains(Hints.SCREENMAP));
+
+        // all the points fall in the same pixel, only the first is returned
+        ScreenMap screenMap = new ScreenMap(0, 0, 2, 2);
+        screenMap.setTransform(
+                ProjectiveTransform.create(AffineTransform.getScaleInstance(0.25, 0.25)));
+        screenMap.setSpans(1, 1);
+        Query q = new Query("road");
+        q.getHints().put(Hints.SCREENMAP, screenMap);
+        List<String> fids = new ArrayList<>();
+        try (SimpleFeatureIterator it = road.getFeatures(q).features()) {
+            while (it.hasNext()) {
+                fids.add(it.next().getID());
+            }
+        }
+        // fid5 has no geometry, cannot be skipped
+        assertEquals(Arrays.asList("fid1", "fid5"), fids);
+
+        // the filter is evaluated before the screenmap is marked
+        screenMap = new ScreenMap(0, 0, 2, 2);
+        screenMap.setTransform(
+                ProjectiveTransform.create(AffineTransform.getScaleInstance(0.25, 0.25)));
+        screenMap.setSpans(1, 1);
+        q = new Query("road", ff.greater(ff.property("id"), ff.literal(2)));
+        q.getHints().put(Hints.SCREENMAP, screenMap);
+        fids.clear();
+        try (SimpleFeatureIterator it = road.getFeatures(q).features()) {
+            while (it.hasNext()) {
+                fids.add(it.next().getID());
+            }
+        }
+        assertEquals(Arrays.asList("fid3", "fid5"), fids);
+    }
+
     /**
      * In response to <a href="http://jira.codehaus.org/browse/GEOT-3540">GEOT-3540
      * PropertyDataStore doesn't support empty trailing spaces</a>.
@@ -34,6 +34,7 @@ import org.geotools.data.shapefile.fid.IndexedFidReader;
 import org.geotools.data.shapefile.shp.ShapeType;
 import org.geotools.data.shapefile.shp.ShapefileReader;
 import org.geotools.data.shapefile.shp.ShapefileReader.Record;
+import org.geotools.feature.simple.PrimitiveSimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.geometry.jts.LiteCoordinateSequence;
 import org.geotools.renderer.ScreenMap;
@@ -352,6 +353,7 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
      */
     public void setSimplificationDistance(double simplificationDistance) {
         this.simplificationDistance = simplificationDistance;
+        shp.setSimplificationDistance(simplificationDistance);
     }
 
     /**
@@ -363,6 +365,20 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
         this.screenMap = screenMap;
     }
 
+    /**
+     * Enables the flyweight mode, in which the same feature instance is recycled for each record
+     *
+     * @param flyweight
+     */
+    public void setFlyweight(boolean flyweight) {
+        if (flyweight != builder instanceof PrimitiveSimpleFeatureBuilder) {
+            this.builder =
+                    flyweight
+                            ? new PrimitiveSimpleFeatureBuilder(schema, true)
+                            : new SimpleFeatureBuilder(schema);
+        }
+    }
+
     void disableShxUsage() throws IOException {
         this.shp.disableShxUsage();
     }
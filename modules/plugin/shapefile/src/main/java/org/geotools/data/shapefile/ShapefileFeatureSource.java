@@ -197,6 +197,7 @@ class ShapefileFeatureSource extends ContentFeatureSource {
         hints.add(Hints.JTS_COORDINATE_SEQUENCE_FACTORY);
         hints.add(Hints.GEOMETRY_DISTANCE);
         hints.add(Hints.SCREENMAP);
+        hints.add(Hints.FEATURE_FLYWEIGHT);
         this.hints = Collections.unmodifiableSet(hints);
     }
 
@@ -404,6 +405,10 @@ class ShapefileFeatureSource extends ContentFeatureSource {
                 if (Boolean.TRUE.equals(hints.get(Hints.FEATURE_2D))) {
                     shapeReader.setFlatGeometry(true);
                 }
+
+                if (Boolean.TRUE.equals(hints.get(Hints.FEATURE_FLYWEIGHT))) {
+                    reader.setFlyweight(true);
+                }
             }
         }
 
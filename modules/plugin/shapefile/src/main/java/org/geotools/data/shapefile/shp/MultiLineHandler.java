@@ -23,6 +23,7 @@ import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.MultiLineString;
 import java.nio.ByteBuffer;
 import java.nio.DoubleBuffer;
+import org.geotools.geometry.jts.Decimator;
 import org.geotools.geometry.jts.JTS;
 
 /*
@@ -44,6 +45,8 @@ public class MultiLineHandler implements ShapeHandler {
 
     double[] z;
 
+    double simplificationDistance;
+
     /** Create a MultiLineHandler for ShapeType.ARC */
     public MultiLineHandler(GeometryFactory gf) {
         shapeType = ShapeType.ARC;
@@ -67,6 +70,14 @@ public class MultiLineHandler implements ShapeHandler {
         this.geometryFactory = gf;
     }
 
+    /**
+     * Sets the distance below which subsequent points are collapsed while reading 2D geometries,
+     * zero or negative to read all of them
+     */
+    public void setSimplificationDistance(double simplificationDistance) {
+        this.simplificationDistance = simplificationDistance;
+    }
+
     /** Get the type of shape stored (ShapeType.ARC,ShapeType.ARCM,ShapeType.ARCZ) */
     public ShapeType getShapeType() {
         return shapeType;
@@ -144,6 +155,18 @@ public class MultiLineHandler implements ShapeHandler {
 
             length = finish - start;
             int xyLength = length;
+            double[] xy = new double[xyLength * 2];
+            doubleBuffer.get(xy);
+            if (dimensions == 2 && simplificationDistance > 0) {
+                xyLength =
+                        Decimator.decimate(
+                                xy,
+                                xyLength,
+                                simplificationDistance,
+                                simplificationDistance,
+                                false);
+                length = xyLength;
+            }
             if (length == 1) {
                 length = 2;
                 clonePoint = true;
@@ -154,8 +177,6 @@ public class MultiLineHandler implements ShapeHandler {
             CoordinateSequence cs =
                     JTS.createCS(
                             geometryFactory.getCoordinateSequenceFactory(), length, dimensions);
-            double[] xy = new double[xyLength * 2];
-            doubleBuffer.get(xy);
             for (int i = 0; i < xyLength; i++) {
                 cs.setOrdinate(i, 0, xy[i * 2]);
                 cs.setOrdinate(i, 1, xy[i * 2 + 1]);
@@ -30,6 +30,7 @@ import java.nio.DoubleBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
+import org.geotools.geometry.jts.Decimator;
 import org.geotools.geometry.jts.JTS;
 import org.geotools.geometry.jts.coordinatesequence.CoordinateSequences;
 
@@ -49,6 +50,8 @@ public class PolygonHandler implements ShapeHandler {
 
     final ShapeType shapeType;
 
+    double simplificationDistance;
+
     public PolygonHandler(GeometryFactory gf) {
         shapeType = ShapeType.POLYGON;
         this.geometryFactory = gf;
@@ -66,6 +69,14 @@ public class PolygonHandler implements ShapeHandler {
         this.geometryFactory = gf;
     }
 
+    /**
+     * Sets the distance below which subsequent points are collapsed while reading 2D geometries,
+     * zero or negative to read all of them
+     */
+    public void setSimplificationDistance(double simplificationDistance) {
+        this.simplificationDistance = simplificationDistance;
+    }
+
     // returns true if testPoint is a point in the pointList list.
     boolean pointInList(Coordinate testPoint, Coordinate[] pointList) {
         Coordinate p;
@@ -141,7 +152,15 @@ public class PolygonHandler implements ShapeHandler {
 
         ArrayList shells = new ArrayList();
         ArrayList holes = new ArrayList();
-        CoordinateSequence coords = readCoordinates(buffer, numPoints, dimensions);
+        CoordinateSequence coords = null;
+        double[] ordinates = null;
+        if (dimensions == 2 && simplificationDistance > 0) {
+            // decimate the rings before building the coordinate sequences
+            ordinates = new double[numPoints * 2];
+            buffer.asDoubleBuffer().get(ordinates);
+        } else {
+            coords = readCoordinates(buffer, numPoints, dimensions);
+        }
 
         int offset = 0;
         int start;
@@ -158,37 +177,42 @@ public class PolygonHandler implements ShapeHandler {
             }
 
             length = finish - start;
-            int close = 0; // '1' if the ring must be closed, '0' otherwise
-            if ((coords.getOrdinate(start, 0) != coords.getOrdinate(finish - 1, 0))
-                    || (coords.getOrdinate(start, 1) != coords.getOrdinate(finish - 1, 1))) {
-                close = 1;
-            }
-            if (dimensions == 3) {
-                if (coords.getOrdinate(start, 2) != coords.getOrdinate(finish - 1, 2)) {
+            CoordinateSequence csRing;
+            if (ordinates != null) {
+                csRing = readDecimatedRing(ordinates, start, length);
+            } else {
+                int close = 0; // '1' if the ring must be closed, '0' otherwise
+                if ((coords.getOrdinate(start, 0) != coords.getOrdinate(finish - 1, 0))
+                        || (coords.getOrdinate(start, 1) != coords.getOrdinate(finish - 1, 1))) {
                     close = 1;
                 }
-            }
-
-            CoordinateSequence csRing =
-                    JTS.createCS(
-                            geometryFactory.getCoordinateSequenceFactory(),
-                            length + close,
-                            dimensions);
-            // double area = 0;
-            // int sx = offset;
-            for (int i = 0; i < length; i++) {
-                csRing.setOrdinate(i, 0, coords.getOrdinate(offset, 0));
-                csRing.setOrdinate(i, 1, coords.getOrdinate(offset, 1));
                 if (dimensions == 3) {
-                    csRing.setOrdinate(i, 2, coords.getOrdinate(offset, 2));
+                    if (coords.getOrdinate(start, 2) != coords.getOrdinate(finish - 1, 2)) {
+                        close = 1;
+                    }
                 }
-                offset++;
-            }
-            if (close == 1) {
-                csRing.setOrdinate(length, 0, coords.getOrdinate(start, 0));
-                csRing.setOrdinate(length, 1, coords.getOrdinate(start, 1));
-                if (dimensions == 3) {
-                    csRing.setOrdinate(length, 2, coords.getOrdinate(start, 2));
+
+                csRing =
+                        JTS.createCS(
+                                geometryFactory.getCoordinateSequenceFactory(),
+                                length + close,
+                                dimensions);
+                // double area = 0;
+                // int sx = offset;
+                for (int i = 0; i < length; i++) {
+                    csRing.setOrdinate(i, 0, coords.getOrdinate(offset, 0));
+                    csRing.setOrdinate(i, 1, coords.getOrdinate(offset, 1));
+                    if (dimensions == 3) {
+                        csRing.setOrdinate(i, 2, coords.getOrdinate(offset, 2));
+                    }
+                    offset++;
+                }
+                if (close == 1) {
+                    csRing.setOrdinate(length, 0, coords.getOrdinate(start, 0));
+                    csRing.setOrdinate(length, 1, coords.getOrdinate(start, 1));
+                    if (dimensions == 3) {
+                        csRing.setOrdinate(length, 2, coords.getOrdinate(start, 2));
+                    }
                 }
             }
             // REVISIT: polygons with only 1 or 2 points are not polygons -
@@ -226,6 +250,27 @@ public class PolygonHandler implements ShapeHandler {
         }
     }
 
+    /** Builds a closed 2D ring out of the given points, collapsing the ones that are too close */
+    private CoordinateSequence readDecimatedRing(double[] ordinates, int start, int length) {
+        // leave room for the closing point
+        double[] xy = new double[length * 2 + 2];
+        System.arraycopy(ordinates, start * 2, xy, 0, length * 2);
+        int count = length;
+        if (count > 0 && (xy[0] != xy[count * 2 - 2] || xy[1] != xy[count * 2 - 1])) {
+            xy[count * 2] = xy[0];
+            xy[count * 2 + 1] = xy[1];
+            count++;
+        }
+        count = Decimator.decimate(xy, count, simplificationDistance, simplificationDistance, true);
+        CoordinateSequence cs =
+                JTS.createCS(geometryFactory.getCoordinateSequenceFactory(), count, 2);
+        for (int i = 0; i < count; i++) {
+            cs.setOrdinate(i, 0, xy[i * 2]);
+            cs.setOrdinate(i, 1, xy[i * 2 + 1]);
+        }
+        return cs;
+    }
+
     /**
      * @param buffer
      * @param numPoints
@@ -223,6 +223,8 @@ public class ShapefileReader implements FileReader {
 
     private boolean flatGeometry;
 
+    private double simplificationDistance;
+
     /**
      * Creates a new instance of ShapeFile.
      *
@@ -749,6 +751,26 @@ public class ShapefileReader implements FileReader {
     /** @param handler The handler to set. */
     public void setHandler(ShapeHandler handler) {
         this.handler = handler;
+        applySimplificationDistance();
+    }
+
+    /**
+     * Sets the distance below which subsequent points of lines and polygons are collapsed while
+     * reading them, zero to read all of them. Only applies to 2D geometries.
+     *
+     * @param simplificationDistance
+     */
+    public void setSimplificationDistance(double simplificationDistance) {
+        this.simplificationDistance = simplificationDistance;
+        applySimplificationDistance();
+    }
+
+    private void applySimplificationDistance() {
+        if (handler instanceof MultiLineHandler) {
+            ((MultiLineHandler) handler).setSimplificationDistance(simplificationDistance);
+        } else if (handler instanceof PolygonHandler) {
+            ((PolygonHandler) handler).setSimplificationDistance(simplificationDistance);
+        }
     }
 
     public String id() {
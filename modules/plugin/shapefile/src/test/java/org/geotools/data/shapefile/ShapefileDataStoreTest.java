@@ -78,8 +78,10 @@ import org.geotools.data.simple.SimpleFeatureStore;
 import org.geotools.data.store.ContentFeatureSource;
 import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.factory.FactoryRegistryException;
+import org.geotools.factory.Hints;
 import org.geotools.feature.DefaultFeatureCollection;
 import org.geotools.feature.FeatureTypes;
+import org.geotools.feature.simple.PrimitiveSimpleFeature;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.feature.type.BasicFeatureTypes;
@@ -1539,6 +1541,40 @@ public class ShapefileDataStoreTest extends TestCaseSupport {
         s.dispose();
     }
 
+    @Test
+    public void testFlyweightReader() throws Exception {
+        URL url = TestData.url(STATE_POP);
+        ShapefileDataStore s = new ShapefileDataStore(url);
+        assertTrue(s.getFeatureSource().getSupportedHints().contains(Hints.FEATURE_FLYWEIGHT));
+
+        List<SimpleFeature> expected = new ArrayList<>();
+        Query query = new Query(s.getSchema().getTypeName());
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                s.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+            while (reader.hasNext()) {
+                expected.add(reader.next());
+            }
+        }
+
+        query.setHints(new Hints(Hints.FEATURE_FLYWEIGHT, Boolean.TRUE));
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                s.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+            SimpleFeature previous = null;
+            for (SimpleFeature original : expected) {
+                assertTrue(reader.hasNext());
+                SimpleFeature feature = reader.next();
+                assertTrue(feature instanceof PrimitiveSimpleFeature);
+                // the same instance is recycled over and over
+                assertTrue(previous == null || previous == feature);
+                assertEquals(original.getID(), feature.getID());
+                assertEquals(original.getAttributes(), feature.getAttributes());
+                previous = feature;
+            }
+            assertFalse(reader.hasNext());
+        }
+        s.dispose();
+    }
+
     @Test
     public void testWrite() throws Exception {
         // create feature type
@@ -39,6 +39,7 @@ import org.geotools.data.Query;
 import org.geotools.data.Transaction;
 import org.geotools.data.shapefile.files.ShpFiles;
 import org.geotools.data.shapefile.shp.IndexFile;
+import org.geotools.data.shapefile.shp.ShapefileHeader;
 import org.geotools.data.shapefile.shp.ShapefileReader;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureSource;
@@ -472,6 +473,46 @@ public class ShapefileTest extends TestCaseSupport {
         reader.close();
     }
 
+    @Test
+    public void testDecimateWhileReading() throws Exception {
+        for (String resource : new String[] {STATE_POP, STREAM}) {
+            int[] full = countPoints(resource, 0);
+            // roughly a pixel on a 200 pixels wide map
+            int[] decimated = countPoints(resource, 200);
+            // same geometries, far fewer points
+            assertEquals(full[0], decimated[0]);
+            assertTrue(resource, decimated[1] < full[1] / 2);
+        }
+    }
+
+    /**
+     * Returns the number of geometries and points read, decimating them so that the file bounds
+     * span the given number of steps
+     */
+    int[] countPoints(String resource, int steps) throws Exception {
+        ShapefileReader reader =
+                new ShapefileReader(
+                        new ShpFiles(TestData.url(resource)), false, false, new GeometryFactory());
+        if (steps > 0) {
+            ShapefileHeader header = reader.getHeader();
+            double size = Math.max(header.maxX() - header.minX(), header.maxY() - header.minY());
+            reader.setSimplificationDistance(size / steps);
+        }
+        int geometries = 0;
+        int points = 0;
+        try {
+            while (reader.hasNext()) {
+                Geometry geometry = (Geometry) reader.nextRecord().shape();
+                assertFalse(geometry.isEmpty());
+                geometries++;
+                points += geometry.getNumPoints();
+            }
+        } finally {
+            reader.close();
+        }
+        return new int[] {geometries, points};
+    }
+
     protected void loadMemoryMapped(String resource, int expected) throws Exception {
         final URL url = TestData.url(resource);
         ShapefileReader reader =
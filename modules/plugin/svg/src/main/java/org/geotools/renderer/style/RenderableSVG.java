@@ -21,14 +21,46 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 class RenderableSVG {
+    /**
+     * Rough memory used by each element once parsed and turned into a graphics node, which keeps
+     * the document alive as the bridge context is dynamic
+     */
+    static final int ELEMENT_SIZE = 1024;
+
     Rectangle2D bounds;
 
     GraphicsNode node;
 
+    /** The estimated memory used by the document and the graphics node, in bytes */
+    long size;
+
     public RenderableSVG(Document doc) {
         this.node = getGraphicNode(doc);
         this.bounds = getSvgDocBounds(doc);
         if (bounds == null) bounds = node.getBounds();
+        this.size = estimateSize(doc.getDocumentElement());
+    }
+
+    /** Estimates the memory used by an element and its descendants */
+    static long estimateSize(Node node) {
+        long size = ELEMENT_SIZE;
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                String value = attributes.item(i).getNodeValue();
+                size += value != null ? value.length() * 2 : 0;
+            }
+        }
+        NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                size += estimateSize(child);
+            } else if (child.getNodeValue() != null) {
+                size += child.getNodeValue().length() * 2;
+            }
+        }
+        return size;
     }
 
     /**
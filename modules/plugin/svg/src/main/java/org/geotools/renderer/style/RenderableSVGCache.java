@@ -35,7 +35,6 @@ import org.apache.batik.util.XMLResourceDescriptor;
 import org.geotools.factory.GeoTools;
 import org.geotools.factory.Hints;
 import org.geotools.util.Converters;
-import org.geotools.util.SoftValueHashMap;
 import org.geotools.xml.NullEntityResolver;
 import org.opengis.feature.Feature;
 import org.opengis.filter.expression.Expression;
@@ -53,9 +52,15 @@ public class RenderableSVGCache {
 
     private static final Pattern PARAMETER_PATTERN = Pattern.compile("param\\((.+)\\).*");
 
+    /** Default maximum memory used by the parsed SVG glyphs, 32MB */
+    public static final long DEFAULT_CACHE_SIZE =
+            Long.getLong("org.geotools.renderer.style.svgCacheSize", 32 * 1024 * 1024);
+
     /** Parsed SVG glyphs cache */
-    static Map<String, RenderableSVG> glyphCache =
-            Collections.synchronizedMap(new SoftValueHashMap<>());
+    static BoundedGraphicCache<String, RenderableSVG> glyphCache =
+            new BoundedGraphicCache<String, RenderableSVG>(
+                            "svg", DEFAULT_CACHE_SIZE, svg -> svg.size)
+                    .register();
 
     /** The possible mime types for SVG */
     static final Set<String> formats = new HashSet<String>();
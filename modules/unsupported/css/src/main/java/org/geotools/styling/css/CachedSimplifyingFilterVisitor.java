@@ -17,12 +17,15 @@
 package org.geotools.styling.css;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import org.geotools.styling.css.selector.Selector;
 import org.geotools.styling.css.util.UnboundSimplifyingFilterVisitor;
 import org.opengis.feature.type.FeatureType;
 import org.opengis.filter.And;
@@ -38,13 +41,43 @@ import org.opengis.filter.Or;
  */
 class CachedSimplifyingFilterVisitor extends UnboundSimplifyingFilterVisitor {
     // filters we know are already simplified
-    Map<Filter, Filter> cache = new WeakHashMap<Filter, Filter>();
+    Map<Filter, Filter> cache = Collections.synchronizedMap(new WeakHashMap<Filter, Filter>());
+
+    // selector pairs already combined, the same combinations show up over and over
+    // in the power sets of the different z-levels, and in the mixin expansions
+    Map<List<Selector>, Selector> combinations =
+            Collections.synchronizedMap(new HashMap<List<Selector>, Selector>());
 
     public CachedSimplifyingFilterVisitor(FeatureType ft) {
         setFeatureType(ft);
         setRangeSimplicationEnabled(true);
     }
 
+    /**
+     * Builds a visitor sharing the caches of another one. The visitors are not thread safe, but
+     * their caches are, this allows to use a visitor per thread without losing the results computed
+     * by the others.
+     */
+    CachedSimplifyingFilterVisitor(CachedSimplifyingFilterVisitor other) {
+        this(other.featureType);
+        this.cache = other.cache;
+        this.combinations = other.combinations;
+    }
+
+    /**
+     * Combines the two selectors in and, re-using the result of a previous combination of the same
+     * selectors, if any
+     */
+    Selector and(Selector s1, Selector s2) {
+        List<Selector> key = Arrays.asList(s1, s2);
+        Selector result = combinations.get(key);
+        if (result == null) {
+            result = Selector.and(s1, s2, this);
+            combinations.put(key, result);
+        }
+        return result;
+    }
+
     @Override
     public Object visit(And filter, Object extraData) {
         Filter result = cache.get(filter);
@@ -83,6 +83,7 @@ import org.geotools.styling.css.util.ScaleRangeExtractor;
 import org.geotools.styling.css.util.TypeNameExtractor;
 import org.geotools.styling.css.util.TypeNameSimplifier;
 import org.geotools.styling.css.util.UnboundSimplifyingFilterVisitor;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
 import org.geotools.util.Converters;
 import org.geotools.util.Range;
 import org.geotools.util.logging.Logging;
@@ -148,6 +149,30 @@ public class CssTranslator {
             Integer.valueOf(
                     System.getProperty("org.geotools.css." + DIRECTIVE_AUTO_THRESHOLD, "100"));
 
+    static final boolean PARALLEL_DEFAULT = Boolean.getBoolean("org.geotools.css.parallel");
+
+    /**
+     * The maximum number of translated styles kept in the {@link #STYLE_CACHE}, zero disables the
+     * cache
+     */
+    static final int STYLE_CACHE_SIZE_DEFAULT =
+            Integer.valueOf(System.getProperty("org.geotools.css.styleCacheSize", "32"));
+
+    /**
+     * The styles already translated, keyed by stylesheet, holding at most {@link
+     * #STYLE_CACHE_SIZE_DEFAULT} entries, the least recently used being evicted first. The cached
+     * styles are never returned directly, but copied, as the callers can modify them
+     */
+    static final Map<List<Object>, org.geotools.styling.Style> STYLE_CACHE =
+            Collections.synchronizedMap(
+                    new LinkedHashMap<List<Object>, org.geotools.styling.Style>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(
+                                Map.Entry<List<Object>, org.geotools.styling.Style> eldest) {
+                            return size() > STYLE_CACHE_SIZE_DEFAULT;
+                        }
+                    });
+
     static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
 
     /** Matches the title tag inside a rule comment */
@@ -268,6 +293,27 @@ public class CssTranslator {
     /** Limits how many output rules we are going to generate */
     int maxCombinations = MAX_OUTPUT_RULES_DEFAULT;
 
+    /** Builds the power sets of the different z-levels and feature types in parallel */
+    boolean parallel = PARALLEL_DEFAULT;
+
+    /**
+     * Returns true if the rule power sets of the different z-levels and feature types are built in
+     * parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Enables building the rule power sets of the different z-levels and feature types in parallel.
+     * The output is the same, but large styles with several z-levels are translated faster.
+     *
+     * @param parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     public int getMaxCombinations() {
         return maxCombinations;
     }
@@ -288,6 +334,30 @@ public class CssTranslator {
      * @return
      */
     public Style translate(Stylesheet stylesheet) {
+        if (STYLE_CACHE_SIZE_DEFAULT <= 0) {
+            return translateInternal(stylesheet);
+        }
+
+        // the output depends only on the stylesheet, and on the translator configuration
+        List<Object> key = Arrays.asList(getClass(), maxCombinations, stylesheet);
+        org.geotools.styling.Style style = STYLE_CACHE.get(key);
+        if (style == null) {
+            style = translateInternal(stylesheet);
+            STYLE_CACHE.put(key, style);
+        } else if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Reusing the translation of an equal stylesheet");
+        }
+        DuplicatingStyleVisitor copier = new DuplicatingStyleVisitor();
+        style.accept(copier);
+        return (Style) copier.getCopy();
+    }
+
+    /** Clears the cache of the translated styles */
+    public static void clearStyleCache() {
+        STYLE_CACHE.clear();
+    }
+
+    private org.geotools.styling.Style translateInternal(Stylesheet stylesheet) {
         // get the directives influencing translation
         int maxCombinations = getMaxCombinations(stylesheet);
         final TranslationMode mode = getTranslationMode(stylesheet);
@@ -346,13 +416,15 @@ public class CssTranslator {
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.fine("Split the rules into " + zIndexRules + "  sets after z-index separation");
         }
-        int translatedRuleCount = 0;
+        // the simplifiers are shared among z-levels, so that the simplified filters and
+        // the selector combinations computed for a level can be reused by the others
+        Map<FeatureType, CachedSimplifyingFilterVisitor> simplifiers = new HashMap<>();
+        List<PowerSetExpansion> expansions = new ArrayList<>();
         for (Map.Entry<Integer, List<CssRule>> zEntry : zIndexRules.entrySet()) {
             final Integer zIndex = zEntry.getKey();
             List<CssRule> rules = zEntry.getValue();
             Collections.sort(rules, CssRuleComparator.DESCENDING);
             Map<String, List<CssRule>> typenameRules = organizeByTypeName(rules);
-            // build the SLD
             for (Map.Entry<String, List<CssRule>> entry : typenameRules.entrySet()) {
                 String featureTypeName = entry.getKey();
                 List<CssRule> localRules = entry.getValue();
@@ -380,194 +452,251 @@ public class CssTranslator {
                 // and and of two selectors, that internally have ORs of scales, which could
                 // be quite complicated to un-tangle)
                 List<CssRule> flattenedRules = flattenScaleRanges(localRules);
-                if (LOGGER.isLoggable(Level.FINE)) {
-                    LOGGER.fine(
-                            "Preparing power set expansion with "
-                                    + flattenedRules.size()
-                                    + "  rules for feature type: "
-                                    + featureTypeName);
-                }
                 // The simplifying visitor that will cache the results to avoid re-computing
                 // over and over the same simplifications
                 CachedSimplifyingFilterVisitor cachedSimplifier =
-                        new CachedSimplifyingFilterVisitor(targetFeatureType);
-                RulePowerSetBuilder builder =
-                        new RulePowerSetBuilder(flattenedRules, cachedSimplifier, maxCombinations) {
-                            @Override
-                            protected java.util.List<CssRule> buildResult(
-                                    java.util.List<CssRule> rules) {
-                                if (zIndex != null && zIndex > 0) {
-                                    TreeSet<Integer> zIndexes = getZIndexesForRules(rules);
-                                    if (!zIndexes.contains(zIndex)) {
-                                        return null;
-                                    }
-                                }
-                                return super.buildResult(rules);
-                            }
-                        };
-                List<CssRule> combinedRules = builder.buildPowerSet();
-                if (combinedRules.isEmpty()) {
-                    continue;
+                        simplifiers.computeIfAbsent(
+                                targetFeatureType, ft -> new CachedSimplifyingFilterVisitor(ft));
+                if (parallel) {
+                    cachedSimplifier = new CachedSimplifyingFilterVisitor(cachedSimplifier);
                 }
-                // create the feature type style for this typename
-                FeatureTypeStyleBuilder ftsBuilder = styleBuilder.featureTypeStyle();
-                // regardless of the translation mode, the first rule matching is
-                // the only one that we want to be applied (in exclusive mode it will be
-                // the only one matching, the simple mode we want the evaluation to stop there)
-                ftsBuilder.option(
-                        FeatureTypeStyle.KEY_EVALUATION_MODE,
-                        FeatureTypeStyle.VALUE_EVALUATION_MODE_FIRST);
+                expansions.add(
+                        new PowerSetExpansion(
+                                zIndex,
+                                featureTypeName,
+                                targetFeatureType,
+                                flattenedRules,
+                                cachedSimplifier));
+            }
+        }
 
-                if (featureTypeName != null) {
-                    ftsBuilder.setFeatureTypeNames(
-                            Arrays.asList((Name) new NameImpl(featureTypeName)));
-                }
-                Collections.sort(combinedRules, CssRuleComparator.DESCENDING);
-                int rulesCount = combinedRules.size();
-                if (LOGGER.isLoggable(Level.FINE)) {
+        // the power set expansions are independent from each other, and are by far
+        // the most expensive part of the translation
+        if (parallel && expansions.size() > 1) {
+            expansions.parallelStream().forEach(e -> e.expand(maxCombinations));
+        } else {
+            expansions.forEach(e -> e.expand(maxCombinations));
+        }
+
+        // build the SLD, in z-level and feature type order
+        int translatedRuleCount = 0;
+        for (PowerSetExpansion expansion : expansions) {
+            String featureTypeName = expansion.featureTypeName;
+            FeatureType targetFeatureType = expansion.featureType;
+            CachedSimplifyingFilterVisitor cachedSimplifier = expansion.simplifier;
+            List<CssRule> combinedRules = expansion.result;
+            if (combinedRules.isEmpty()) {
+                continue;
+            }
+            // create the feature type style for this typename
+            FeatureTypeStyleBuilder ftsBuilder = styleBuilder.featureTypeStyle();
+            // regardless of the translation mode, the first rule matching is
+            // the only one that we want to be applied (in exclusive mode it will be
+            // the only one matching, the simple mode we want the evaluation to stop there)
+            ftsBuilder.option(
+                    FeatureTypeStyle.KEY_EVALUATION_MODE,
+                    FeatureTypeStyle.VALUE_EVALUATION_MODE_FIRST);
+
+            if (featureTypeName != null) {
+                ftsBuilder.setFeatureTypeNames(Arrays.asList((Name) new NameImpl(featureTypeName)));
+            }
+            Collections.sort(combinedRules, CssRuleComparator.DESCENDING);
+            int rulesCount = combinedRules.size();
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(
+                        "Generated "
+                                + rulesCount
+                                + " combined rules after filtered power set expansion");
+            }
+            String composite = null;
+            Boolean compositeBase = null;
+            String sortBy = null;
+            String sortByGroup = null;
+            Expression transform = null;
+            // setup the tool that will eliminate redundant rules (if necessary)
+            DomainCoverage coverage = new DomainCoverage(targetFeatureType, cachedSimplifier);
+            if (mode == TranslationMode.Exclusive) {
+                // create a SLD rule for each css one, making them exclusive, that is,
+                // remove from each rule the union of the zoom/data domain matched by previous
+                // rules
+                coverage.exclusiveRulesEnabled = true;
+            } else if (mode == TranslationMode.Auto) {
+                if (rulesCount < autoThreshold) {
                     LOGGER.fine(
-                            "Generated "
+                            "Sticking to Exclusive translation mode, rules number is "
                                     + rulesCount
-                                    + " combined rules after filtered power set expansion");
-                }
-                String composite = null;
-                Boolean compositeBase = null;
-                String sortBy = null;
-                String sortByGroup = null;
-                Expression transform = null;
-                // setup the tool that will eliminate redundant rules (if necessary)
-                DomainCoverage coverage = new DomainCoverage(targetFeatureType, cachedSimplifier);
-                if (mode == TranslationMode.Exclusive) {
-                    // create a SLD rule for each css one, making them exclusive, that is,
-                    // remove from each rule the union of the zoom/data domain matched by previous
-                    // rules
+                                    + " with a threshold of "
+                                    + autoThreshold);
                     coverage.exclusiveRulesEnabled = true;
-                } else if (mode == TranslationMode.Auto) {
-                    if (rulesCount < autoThreshold) {
-                        LOGGER.fine(
-                                "Sticking to Exclusive translation mode, rules number is "
-                                        + rulesCount
-                                        + " with a threshold of "
-                                        + autoThreshold);
-                        coverage.exclusiveRulesEnabled = true;
-                        coverage.complexityThreshold = autoThreshold;
-                    } else {
-                        LOGGER.info(
-                                "Switching to Simple translation mode, rules number is "
-                                        + rulesCount
-                                        + " with a threshold of "
-                                        + autoThreshold);
-                        coverage.exclusiveRulesEnabled = false;
-                        // switch the translation mode permanently from this point on
-                        mode = TranslationMode.Simple;
-                    }
-
+                    coverage.complexityThreshold = autoThreshold;
                 } else {
-                    // just skip rules with the same selector
+                    LOGGER.info(
+                            "Switching to Simple translation mode, rules number is "
+                                    + rulesCount
+                                    + " with a threshold of "
+                                    + autoThreshold);
                     coverage.exclusiveRulesEnabled = false;
+                    // switch the translation mode permanently from this point on
+                    mode = TranslationMode.Simple;
                 }
-                // generate the SLD rules
-                for (int i = 0; i < rulesCount; i++) {
-                    // skip eventual combinations that are not sporting any
-                    // root pseudo class
-                    CssRule cssRule = combinedRules.get(i);
-                    if (!cssRule.hasSymbolizerProperty()) {
-                        continue;
-                    }
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.fine("Current domain coverage: " + coverage);
-                        LOGGER.fine("Adding rule to domain coverage: " + cssRule);
-                        LOGGER.fine("Rules left to process: " + (rulesCount - i));
-                    }
-                    List<CssRule> derivedRules = coverage.addRule(cssRule);
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.fine(
-                                "Derived rules not yet covered in domain coverage: "
-                                        + derivedRules.size()
-                                        + "\n"
-                                        + derivedRules);
-                    }
-                    for (CssRule derived : derivedRules) {
-                        buildSldRule(derived, ftsBuilder, targetFeatureType);
-                        translatedRuleCount++;
-
-                        // Reminder about why this is done the way it's done. These are all rule
-                        // properties
-                        // in CSS and are subject to override. In SLD they contribute to containing
-                        // FeatureTypeStyle, so the first one found wins and controls this z-level
-
-                        // check if we have global composition going, and use the value of
-                        // the first rule providing the information (the one with the highest
-                        // priority)
-                        if (composite == null) {
-                            List<Value> values =
-                                    derived.getPropertyValues(PseudoClass.ROOT, COMPOSITE)
-                                            .get(COMPOSITE);
-                            if (values != null && !values.isEmpty()) {
-                                composite = values.get(0).toLiteral();
-                            }
+
+            } else {
+                // just skip rules with the same selector
+                coverage.exclusiveRulesEnabled = false;
+            }
+            // generate the SLD rules
+            for (int i = 0; i < rulesCount; i++) {
+                // skip eventual combinations that are not sporting any
+                // root pseudo class
+                CssRule cssRule = combinedRules.get(i);
+                if (!cssRule.hasSymbolizerProperty()) {
+                    continue;
+                }
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Current domain coverage: " + coverage);
+                    LOGGER.fine("Adding rule to domain coverage: " + cssRule);
+                    LOGGER.fine("Rules left to process: " + (rulesCount - i));
+                }
+                List<CssRule> derivedRules = coverage.addRule(cssRule);
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine(
+                            "Derived rules not yet covered in domain coverage: "
+                                    + derivedRules.size()
+                                    + "\n"
+                                    + derivedRules);
+                }
+                for (CssRule derived : derivedRules) {
+                    buildSldRule(derived, ftsBuilder, targetFeatureType);
+                    translatedRuleCount++;
+
+                    // Reminder about why this is done the way it's done. These are all rule
+                    // properties
+                    // in CSS and are subject to override. In SLD they contribute to containing
+                    // FeatureTypeStyle, so the first one found wins and controls this z-level
+
+                    // check if we have global composition going, and use the value of
+                    // the first rule providing the information (the one with the highest
+                    // priority)
+                    if (composite == null) {
+                        List<Value> values =
+                                derived.getPropertyValues(PseudoClass.ROOT, COMPOSITE)
+                                        .get(COMPOSITE);
+                        if (values != null && !values.isEmpty()) {
+                            composite = values.get(0).toLiteral();
                         }
-                        if (compositeBase == null) {
-                            List<Value> values =
-                                    derived.getPropertyValues(PseudoClass.ROOT, COMPOSITE_BASE)
-                                            .get(COMPOSITE_BASE);
-                            if (values != null && !values.isEmpty()) {
-                                compositeBase = Boolean.valueOf(values.get(0).toLiteral());
-                            }
+                    }
+                    if (compositeBase == null) {
+                        List<Value> values =
+                                derived.getPropertyValues(PseudoClass.ROOT, COMPOSITE_BASE)
+                                        .get(COMPOSITE_BASE);
+                        if (values != null && !values.isEmpty()) {
+                            compositeBase = Boolean.valueOf(values.get(0).toLiteral());
                         }
+                    }
 
-                        // check if we have any sort-by
-                        if (sortBy == null) {
-                            List<Value> values =
-                                    derived.getPropertyValues(PseudoClass.ROOT, SORT_BY)
-                                            .get(SORT_BY);
-                            if (values != null && !values.isEmpty()) {
-                                sortBy = values.get(0).toLiteral();
-                            }
+                    // check if we have any sort-by
+                    if (sortBy == null) {
+                        List<Value> values =
+                                derived.getPropertyValues(PseudoClass.ROOT, SORT_BY).get(SORT_BY);
+                        if (values != null && !values.isEmpty()) {
+                            sortBy = values.get(0).toLiteral();
                         }
+                    }
 
-                        // check if we have any sort-by-group
-                        if (sortByGroup == null) {
-                            List<Value> values =
-                                    derived.getPropertyValues(PseudoClass.ROOT, SORT_BY_GROUP)
-                                            .get(SORT_BY_GROUP);
-                            if (values != null && !values.isEmpty()) {
-                                sortByGroup = values.get(0).toLiteral();
-                            }
+                    // check if we have any sort-by-group
+                    if (sortByGroup == null) {
+                        List<Value> values =
+                                derived.getPropertyValues(PseudoClass.ROOT, SORT_BY_GROUP)
+                                        .get(SORT_BY_GROUP);
+                        if (values != null && !values.isEmpty()) {
+                            sortByGroup = values.get(0).toLiteral();
                         }
+                    }
 
-                        // check if we have a transform, apply it
-                        if (transform == null) {
-                            List<Value> values =
-                                    derived.getPropertyValues(PseudoClass.ROOT, TRANSFORM)
-                                            .get(TRANSFORM);
-                            if (values != null && !values.isEmpty()) {
-                                transform = values.get(0).toExpression();
-                            }
+                    // check if we have a transform, apply it
+                    if (transform == null) {
+                        List<Value> values =
+                                derived.getPropertyValues(PseudoClass.ROOT, TRANSFORM)
+                                        .get(TRANSFORM);
+                        if (values != null && !values.isEmpty()) {
+                            transform = values.get(0).toExpression();
                         }
                     }
+                }
 
-                    if (composite != null) {
-                        ftsBuilder.option(COMPOSITE, composite);
-                    }
-                    if (Boolean.TRUE.equals(compositeBase)) {
-                        ftsBuilder.option(COMPOSITE_BASE, "true");
-                    }
-                    if (sortBy != null) {
-                        ftsBuilder.option(FeatureTypeStyle.SORT_BY, sortBy);
-                    }
-                    if (sortByGroup != null) {
-                        ftsBuilder.option(FeatureTypeStyle.SORT_BY_GROUP, sortByGroup);
-                    }
-                    if (transform != null) {
-                        ftsBuilder.transformation(transform);
-                    }
+                if (composite != null) {
+                    ftsBuilder.option(COMPOSITE, composite);
+                }
+                if (Boolean.TRUE.equals(compositeBase)) {
+                    ftsBuilder.option(COMPOSITE_BASE, "true");
+                }
+                if (sortBy != null) {
+                    ftsBuilder.option(FeatureTypeStyle.SORT_BY, sortBy);
+                }
+                if (sortByGroup != null) {
+                    ftsBuilder.option(FeatureTypeStyle.SORT_BY_GROUP, sortByGroup);
+                }
+                if (transform != null) {
+                    ftsBuilder.transformation(transform);
                 }
             }
         }
         return translatedRuleCount;
     }
 
+    /** The power set expansion of the rules of a given z-level and feature type */
+    private class PowerSetExpansion {
+        final Integer zIndex;
+
+        final String featureTypeName;
+
+        final FeatureType featureType;
+
+        final List<CssRule> rules;
+
+        final CachedSimplifyingFilterVisitor simplifier;
+
+        List<CssRule> result;
+
+        PowerSetExpansion(
+                Integer zIndex,
+                String featureTypeName,
+                FeatureType featureType,
+                List<CssRule> rules,
+                CachedSimplifyingFilterVisitor simplifier) {
+            this.zIndex = zIndex;
+            this.featureTypeName = featureTypeName;
+            this.featureType = featureType;
+            this.rules = rules;
+            this.simplifier = simplifier;
+        }
+
+        void expand(int maxCombinations) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(
+                        "Preparing power set expansion with "
+                                + rules.size()
+                                + "  rules for feature type: "
+                                + featureTypeName);
+            }
+            RulePowerSetBuilder builder =
+                    new RulePowerSetBuilder(rules, simplifier, maxCombinations) {
+                        @Override
+                        protected java.util.List<CssRule> buildResult(
+                                java.util.List<CssRule> rules) {
+                            if (zIndex != null && zIndex > 0) {
+                                TreeSet<Integer> zIndexes = getZIndexesForRules(rules);
+                                if (!zIndexes.contains(zIndex)) {
+                                    return null;
+                                }
+                            }
+                            return super.buildResult(rules);
+                        }
+                    };
+            result = builder.buildPowerSet();
+        }
+    }
+
     private int translateFlat(List<CssRule> allRules, StyleBuilder styleBuilder) {
         List<CssRule> finalRules = new ArrayList<>();
         CssRule actualRule = null;
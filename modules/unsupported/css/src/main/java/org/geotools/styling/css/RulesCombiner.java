@@ -111,7 +111,11 @@ class RulesCombiner {
             s = rules.get(0).getSelector();
             for (int i = 1; i < rules.size() && s != Selector.REJECT; i++) {
                 CssRule rule = rules.get(i);
-                s = Selector.and(s, rule.getSelector(), simplifier);
+                if (simplifier instanceof CachedSimplifyingFilterVisitor) {
+                    s = ((CachedSimplifyingFilterVisitor) simplifier).and(s, rule.getSelector());
+                } else {
+                    s = Selector.and(s, rule.getSelector(), simplifier);
+                }
             }
         }
         this.lastRuleSet = rules;
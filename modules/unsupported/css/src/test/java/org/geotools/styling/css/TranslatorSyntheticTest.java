@@ -1618,4 +1618,48 @@ public class TranslatorSyntheticTest extends CssBaseTest {
         assertEquals(expectedValueCount, parameters.size() - 1);
         return f;
     }
+
+    @Test
+    public void testTranslationCache() throws Exception {
+        String css = "[a > 10] { stroke: red; z-index: 1 } [b < 3] { fill: blue; z-index: 0 }";
+        CssTranslator.clearStyleCache();
+        Style s1 = translate(css);
+        // parsed again, equal but not the same stylesheet
+        Style s2 = translate(css);
+        assertNotSame(s1, s2);
+        assertEquals(s1, s2);
+
+        // changing the returned style does not affect the cached one
+        ((org.geotools.styling.Style) s1).featureTypeStyles().clear();
+        Style s3 = translate(css);
+        assertEquals(s2, s3);
+    }
+
+    @Test
+    public void testTranslationCacheBounded() throws Exception {
+        CssTranslator.clearStyleCache();
+        for (int i = 0; i < CssTranslator.STYLE_CACHE_SIZE_DEFAULT + 10; i++) {
+            translate("[a > " + i + "] { stroke: red }");
+        }
+        assertEquals(CssTranslator.STYLE_CACHE_SIZE_DEFAULT, CssTranslator.STYLE_CACHE.size());
+        CssTranslator.clearStyleCache();
+    }
+
+    @Test
+    public void testParallelTranslation() throws Exception {
+        String css =
+                "[a > 10] { stroke: red; z-index: 0 } "
+                        + "[b < 3] { stroke: blue; stroke-width: 3; z-index: 1 } "
+                        + "[c = 'x'] { stroke: green; z-index: 2 } "
+                        + "[a > 20] { stroke-width: 5; }";
+        CssTranslator translator = new CssTranslator();
+        CssTranslator.clearStyleCache();
+        Style sequential = translator.translate(parse(css));
+
+        CssTranslator.clearStyleCache();
+        translator.setParallel(true);
+        Style parallel = translator.translate(parse(css));
+        assertTrue(parallel.featureTypeStyles().size() > 1);
+        assertEquals(sequential, parallel);
+    }
 }
@@ -23,6 +23,8 @@ import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
 import org.geotools.data.csv.parse.CSVIterator;
 import org.geotools.data.csv.parse.CSVStrategy;
+import org.geotools.factory.Hints;
+import org.geotools.feature.simple.PrimitiveSimpleFeatureBuilder;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 
@@ -38,7 +40,12 @@ public class CSVFeatureReader implements FeatureReader<SimpleFeatureType, Simple
 
     public CSVFeatureReader(CSVStrategy csvStrategy, Query query) throws IOException {
         this.featureType = csvStrategy.getFeatureType();
-        this.iterator = csvStrategy.iterator();
+        if (query != null && Boolean.TRUE.equals(query.getHints().get(Hints.FEATURE_FLYWEIGHT))) {
+            this.iterator =
+                    csvStrategy.iterator(new PrimitiveSimpleFeatureBuilder(featureType, true));
+        } else {
+            this.iterator = csvStrategy.iterator();
+        }
     }
 
     @Override
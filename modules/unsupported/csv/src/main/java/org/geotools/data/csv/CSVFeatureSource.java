@@ -18,10 +18,13 @@
 package org.geotools.data.csv;
 
 import java.io.IOException;
+import java.util.Set;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.factory.Hints;
+import org.geotools.factory.Hints.Key;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -45,6 +48,11 @@ public class CSVFeatureSource extends ContentFeatureSource {
         super(entry, query);
     }
 
+    @Override
+    protected void addHints(Set<Key> hints) {
+        hints.add(Hints.FEATURE_FLYWEIGHT);
+    }
+
     public CSVDataStore getDataStore() {
         return (CSVDataStore) super.getDataStore();
     }
@@ -81,8 +81,12 @@ public class CSVAttributesOnlyStrategy extends CSVStrategy {
 
     @Override
     public SimpleFeature decode(String recordId, String[] csvRecord) {
-        SimpleFeatureType featureType = getFeatureType();
-        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        return decode(recordId, csvRecord, new SimpleFeatureBuilder(getFeatureType()));
+    }
+
+    @Override
+    public SimpleFeature decode(
+            String recordId, String[] csvRecord, SimpleFeatureBuilder builder) {
         String[] headers;
         headers = csvFileState.getCSVHeaders();
         for (int i = 0; i < headers.length; i++) {
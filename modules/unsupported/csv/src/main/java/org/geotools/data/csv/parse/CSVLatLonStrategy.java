@@ -175,8 +175,13 @@ public class CSVLatLonStrategy extends CSVStrategy {
     // docs start decode
     @Override
     public SimpleFeature decode(String recordId, String[] csvRecord) {
+        return decode(recordId, csvRecord, new SimpleFeatureBuilder(getFeatureType()));
+    }
+
+    @Override
+    public SimpleFeature decode(
+            String recordId, String[] csvRecord, SimpleFeatureBuilder builder) {
         SimpleFeatureType featureType = getFeatureType();
-        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
         GeometryDescriptor geometryDescriptor = featureType.getGeometryDescriptor();
         GeometryFactory geometryFactory = new GeometryFactory();
         Double lat = null, lng = null;
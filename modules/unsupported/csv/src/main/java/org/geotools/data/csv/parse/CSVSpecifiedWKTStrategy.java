@@ -113,8 +113,13 @@ public class CSVSpecifiedWKTStrategy extends CSVStrategy {
     // docs start decode
     @Override
     public SimpleFeature decode(String recordId, String[] csvRecord) {
+        return decode(recordId, csvRecord, new SimpleFeatureBuilder(getFeatureType()));
+    }
+
+    @Override
+    public SimpleFeature decode(
+            String recordId, String[] csvRecord, SimpleFeatureBuilder builder) {
         SimpleFeatureType featureType = getFeatureType();
-        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
         GeometryDescriptor geometryDescriptor = featureType.getGeometryDescriptor();
         String[] headers = csvFileState.getCSVHeaders();
         for (int i = 0; i < headers.length; i++) {
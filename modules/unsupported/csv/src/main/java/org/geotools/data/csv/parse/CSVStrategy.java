@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.geotools.data.csv.CSVFileState;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -42,12 +43,29 @@ public abstract class CSVStrategy {
     }
     // docs end CSVStrategy
 
+    /**
+     * Returns an iterator decoding the records with the provided builder, which can be a {@link
+     * org.geotools.feature.simple.PrimitiveSimpleFeatureBuilder} in flyweight mode
+     */
+    public CSVIterator iterator(SimpleFeatureBuilder builder) throws IOException {
+        return new CSVIterator(csvFileState, this, builder);
+    }
+
     protected abstract SimpleFeatureType buildFeatureType();
 
     public abstract void createSchema(SimpleFeatureType featureType) throws IOException;
 
     public abstract SimpleFeature decode(String recordId, String[] csvRecord);
 
+    /**
+     * Decodes a record using the provided builder, so that it can be shared among all the records
+     * being read. The default implementation ignores the builder, subclasses should override.
+     */
+    public SimpleFeature decode(
+            String recordId, String[] csvRecord, SimpleFeatureBuilder builder) {
+        return decode(recordId, csvRecord);
+    }
+
     public abstract String[] encode(SimpleFeature feature);
 
     protected volatile SimpleFeatureType featureType = null;
@@ -16,6 +16,7 @@
  */
 package org.geotools.geojson.feature;
 
+import com.vividsolutions.jts.geom.GeometryFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +38,7 @@ public class FeatureCollectionHandler extends DelegatingHandler<SimpleFeature>
     SimpleFeature feature;
     CoordinateReferenceSystem crs;
     List stack;
+    GeometryFactory geometryFactory;
 
     public FeatureCollectionHandler() {
         this(null, null);
@@ -81,6 +83,9 @@ public class FeatureCollectionHandler extends DelegatingHandler<SimpleFeature>
                 // we have already seen a crs, ensure we set it
                 ((FeatureHandler) delegate).setCRS(crs);
             }
+            if (geometryFactory != null) {
+                ((FeatureHandler) delegate).setGeometryFactory(geometryFactory);
+            }
             // maintain a stack to track when the "features" array ends
             stack = new ArrayList();
 
@@ -152,6 +157,11 @@ public class FeatureCollectionHandler extends DelegatingHandler<SimpleFeature>
     //        return delegate != null;
     //    }
 
+    /** Sets the factory used to build the feature geometries */
+    public void setGeometryFactory(GeometryFactory geometryFactory) {
+        this.geometryFactory = geometryFactory;
+    }
+
     public CoordinateReferenceSystem getCRS() {
         return crs;
     }
@@ -60,6 +60,8 @@ public class FeatureHandler extends DelegatingHandler<SimpleFeature> {
     /** should we attempt to automatically build fids */
     private boolean autoFID = false;
 
+    GeometryFactory geometryFactory = new GeometryFactory();
+
     public FeatureHandler() {
         this(null, new DefaultAttributeIO());
     }
@@ -75,7 +77,7 @@ public class FeatureHandler extends DelegatingHandler<SimpleFeature> {
             properties = new ArrayList();
         } else if (properties != null) {
             // start of a new object in properties means a geometry
-            delegate = new GeometryHandler(new GeometryFactory());
+            delegate = new GeometryHandler(geometryFactory);
         }
 
         return super.startObject();
@@ -90,7 +92,7 @@ public class FeatureHandler extends DelegatingHandler<SimpleFeature> {
             return true;
         } else if ("geometry".equals(key)
                 && properties == null /* it's top level, not a property */) {
-            delegate = new GeometryHandler(new GeometryFactory());
+            delegate = new GeometryHandler(geometryFactory);
             return true;
         } else if ("properties".equals(key) && delegate == NULL) {
             properties = NULL_LIST;
@@ -215,6 +217,15 @@ public class FeatureHandler extends DelegatingHandler<SimpleFeature> {
         this.crs = crs;
     }
 
+    public GeometryFactory getGeometryFactory() {
+        return geometryFactory;
+    }
+
+    /** Sets the factory used to build the feature geometries */
+    public void setGeometryFactory(GeometryFactory geometryFactory) {
+        this.geometryFactory = geometryFactory;
+    }
+
     public void init() {
         feature = null;
     }
@@ -246,11 +246,11 @@ public class FeatureJSON {
      * @throws IOException In the event of a parsing error or if the input json is invalid.
      */
     public SimpleFeature readFeature(Object input) throws IOException {
-        return GeoJSONUtil.parse(
+        FeatureHandler handler =
                 new FeatureHandler(
-                        featureType != null ? new SimpleFeatureBuilder(featureType) : null, attio),
-                input,
-                false);
+                        featureType != null ? new SimpleFeatureBuilder(featureType) : null, attio);
+        handler.setGeometryFactory(gjson.getGeometryFactory());
+        return GeoJSONUtil.parse(handler, input, false);
     }
 
     /**
@@ -705,6 +705,7 @@ public class FeatureJSON {
 
             if (handler == null) {
                 handler = new FeatureCollectionHandler(featureType, attio);
+                handler.setGeometryFactory(gjson.getGeometryFactory());
                 // handler = GeoJSONUtil.trace(handler, IFeatureCollectionHandler.class);
             }
             next = readNext();
@@ -84,6 +84,19 @@ public class GeometryJSON {
         this.scale = Math.pow(10, decimals);
     }
 
+    /** Returns the factory used to build the parsed geometries. */
+    public GeometryFactory getGeometryFactory() {
+        return factory;
+    }
+
+    /**
+     * Sets the factory used to build the parsed geometries, e.g. one using a custom coordinate
+     * sequence factory.
+     */
+    public void setGeometryFactory(GeometryFactory factory) {
+        this.factory = factory;
+    }
+
     /** Sets trace flag. */
     public void setTrace(boolean trace) {
         this.trace = trace;
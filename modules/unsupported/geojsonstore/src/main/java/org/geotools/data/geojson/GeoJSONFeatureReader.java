@@ -1,11 +1,14 @@
 package org.geotools.data.geojson;
 
+import com.vividsolutions.jts.geom.GeometryFactory;
 import java.io.IOException;
 import java.util.NoSuchElementException;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
 import org.geotools.data.store.ContentState;
+import org.geotools.factory.Hints;
 import org.geotools.feature.FeatureIterator;
+import org.geotools.geometry.jts.DecimatingCoordinateSequenceFactory;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 
@@ -37,6 +40,12 @@ public class GeoJSONFeatureReader implements FeatureReader<SimpleFeatureType, Si
         this.state = contentState;
         GeoJSONDataStore ds = (GeoJSONDataStore) state.getEntry().getDataStore();
         reader = ds.read();
+        Number distance = (Number) query.getHints().get(Hints.GEOMETRY_DISTANCE);
+        if (distance != null && distance.doubleValue() > 0) {
+            double d = distance.doubleValue();
+            reader.setGeometryFactory(
+                    DecimatingCoordinateSequenceFactory.wrap(new GeometryFactory(), d, d));
+        }
     }
 
     @Override
@@ -18,15 +18,19 @@ package org.geotools.data.geojson;
  */
 
 import java.io.IOException;
+import java.util.Set;
 import java.util.logging.Logger;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
+import org.geotools.data.ScreenMapFeatureReader;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.factory.Hints;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.renderer.ScreenMap;
 import org.geotools.util.logging.Logging;
 import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.simple.SimpleFeature;
@@ -96,8 +100,22 @@ public class GeoJSONFeatureSource extends ContentFeatureSource {
     @Override
     protected FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(Query query)
             throws IOException {
+        FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                new GeoJSONFeatureReader(getState(), query);
+        ScreenMap screenMap = (ScreenMap) query.getHints().get(Hints.SCREENMAP);
+        if (screenMap != null) {
+            // the filter is evaluated again by the caller, but the screenmap must only
+            // account for the features actually returned
+            reader = new ScreenMapFeatureReader(reader, query.getFilter(), screenMap);
+        }
+        return reader;
+    }
 
-        return new GeoJSONFeatureReader(getState(), query);
+    @Override
+    protected void addHints(Set<Hints.Key> hints) {
+        // geometries can be decimated while parsing, small ones skipped
+        hints.add(Hints.GEOMETRY_DISTANCE);
+        hints.add(Hints.SCREENMAP);
     }
 
     @Override
@@ -18,6 +18,7 @@ package org.geotools.data.geojson;
  */
 
 import java.io.IOException;
+import java.util.Set;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureWriter;
 import org.geotools.data.Query;
@@ -27,6 +28,7 @@ import org.geotools.data.Transaction;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureStore;
 import org.geotools.data.store.ContentState;
+import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.simple.SimpleFeature;
@@ -82,6 +84,13 @@ public class GeoJSONFeatureStore extends ContentFeatureStore {
         return delegate.getReaderInternal(query);
     }
 
+    @Override
+    protected void addHints(Set<Hints.Key> hints) {
+        // reads are delegated to GeoJSONFeatureSource, that handles these too
+        hints.add(Hints.GEOMETRY_DISTANCE);
+        hints.add(Hints.SCREENMAP);
+    }
+
     @Override
     protected boolean handleVisitor(Query query, FeatureVisitor visitor) throws IOException {
         return delegate.handleVisitor(query, visitor);
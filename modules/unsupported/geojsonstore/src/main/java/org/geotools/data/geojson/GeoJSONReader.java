@@ -17,6 +17,7 @@ package org.geotools.data.geojson;
  *    Lesser General Public License for more details.
  */
 
+import com.vividsolutions.jts.geom.GeometryFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -25,6 +26,7 @@ import org.geotools.feature.DefaultFeatureCollection;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.FeatureIterator;
 import org.geotools.geojson.feature.FeatureJSON;
+import org.geotools.geojson.geom.GeometryJSON;
 import org.geotools.util.logging.Logging;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.type.FeatureType;
@@ -43,10 +45,29 @@ public class GeoJSONReader {
 
     private URL url;
 
+    private GeometryFactory geometryFactory;
+
     public GeoJSONReader(URL url) {
         this.url = url;
     }
 
+    /**
+     * Sets the factory used to build the feature geometries, e.g. one decimating the coordinates
+     * while parsing
+     */
+    public void setGeometryFactory(GeometryFactory geometryFactory) {
+        this.geometryFactory = geometryFactory;
+        this.reader = createFeatureJSON();
+    }
+
+    private FeatureJSON createFeatureJSON() {
+        GeometryJSON gjson = new GeometryJSON();
+        if (geometryFactory != null) {
+            gjson.setGeometryFactory(geometryFactory);
+        }
+        return new FeatureJSON(gjson);
+    }
+
     public boolean isConnected() {
         try {
             inputStream = url.openStream();
@@ -77,7 +98,7 @@ public class GeoJSONReader {
         if (!isConnected()) {
             throw new IOException("not connected to " + url.toExternalForm());
         }
-        reader = new FeatureJSON();
+        reader = createFeatureJSON();
         LOGGER.fine("reading features from " + url.toExternalForm() + " inputstream");
         FeatureCollection collection = reader.readFeatureCollection(inputStream);
         inputStream.close();
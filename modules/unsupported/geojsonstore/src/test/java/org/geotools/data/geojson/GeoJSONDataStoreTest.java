@@ -18,12 +18,17 @@ package org.geotools.data.geojson;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import com.vividsolutions.jts.geom.Geometry;
 import java.io.IOException;
 import java.net.URL;
 import org.geotools.data.DefaultQuery;
 import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureIterator;
 import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.test.TestData;
@@ -66,6 +71,34 @@ public class GeoJSONDataStoreTest {
         assertEquals(expected.getCoordinateReferenceSystem(), obs.getCoordinateReferenceSystem());
     }
 
+    @Test
+    public void testDecimationHint() throws IOException {
+        String type = ds.getNames().get(0).getLocalPart();
+        SimpleFeatureSource source = ds.getFeatureSource(type);
+        assertTrue(source.getSupportedHints().contains(Hints.GEOMETRY_DISTANCE));
+        assertTrue(source.getSupportedHints().contains(Hints.SCREENMAP));
+
+        Query query = new Query(type);
+        int[] full = countFeaturesAndPoints(source, query);
+        query.getHints().put(Hints.GEOMETRY_DISTANCE, 0.5);
+        int[] decimated = countFeaturesAndPoints(source, query);
+        assertEquals(full[0], decimated[0]);
+        assertTrue(decimated[1] < full[1] / 2);
+    }
+
+    int[] countFeaturesAndPoints(SimpleFeatureSource source, Query query) throws IOException {
+        int features = 0;
+        int points = 0;
+        try (SimpleFeatureIterator it = source.getFeatures(query).features()) {
+            while (it.hasNext()) {
+                Geometry g = (Geometry) it.next().getDefaultGeometry();
+                features++;
+                points += g.getNumPoints();
+            }
+        }
+        return new int[] {features, points};
+    }
+
     @Test
     public void testReader() throws IOException {
         String type = ds.getNames().get(0).getLocalPart();
@@ -11,6 +11,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -290,6 +291,78 @@ public class MBTilesFile implements AutoCloseable {
         }
     }
 
+    /**
+     * Store a batch of tiles, in a single transaction. Much faster than calling {@link
+     * #saveTile(MBTilesTile)} for each tile when bulk loading, as the statement is prepared once
+     * and the zoom level metadata is updated just once at the end. Tiles without data are removed,
+     * as in {@link #saveTile(MBTilesTile)}. The tiles are saved in iteration order, so the last
+     * entry wins when the same tile appears more than once.
+     *
+     * @throws IOException
+     */
+    public void saveTiles(Collection<MBTilesTile> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            Connection cx = connPool.getConnection();
+            try {
+                if (disableJournal) {
+                    disableJournal(cx);
+                }
+
+                boolean autoCommit = cx.getAutoCommit();
+                cx.setAutoCommit(false);
+                try (PreparedStatement insert =
+                                cx.prepareStatement(
+                                        format(
+                                                "INSERT OR REPLACE INTO %s VALUES (?,?,?,?)",
+                                                TABLE_TILES));
+                        PreparedStatement delete =
+                                cx.prepareStatement(
+                                        format(
+                                                "DELETE FROM %s WHERE zoom_level=? AND tile_column=? AND tile_row=?",
+                                                TABLE_TILES))) {
+                    // consecutive inserts and deletes are batched, switching between the two
+                    // flushes the pending batch to keep the operations in order
+                    PreparedStatement pending = null;
+                    for (MBTilesTile entry : entries) {
+                        PreparedStatement ps = entry.getData() != null ? insert : delete;
+                        if (pending != null && pending != ps) {
+                            pending.executeBatch();
+                        }
+                        pending = ps;
+                        ps.setLong(1, entry.getZoomLevel());
+                        ps.setLong(2, entry.getTileColumn());
+                        ps.setLong(3, entry.getTileRow());
+                        if (entry.getData() != null) {
+                            ps.setBytes(4, entry.getData());
+                        }
+                        ps.addBatch();
+                    }
+                    pending.executeBatch();
+                    cx.commit();
+                } catch (Throwable e) {
+                    // restoring the auto commit would otherwise commit a partial batch
+                    try {
+                        cx.rollback();
+                    } catch (SQLException rollbackException) {
+                        e.addSuppressed(rollbackException);
+                    }
+                    throw e;
+                } finally {
+                    cx.setAutoCommit(autoCommit);
+                }
+
+                saveMinMaxZoomMetadata((int) this.minZoom(), (int) this.maxZoom());
+            } finally {
+                cx.close();
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
     /**
      * Store a grid
      *
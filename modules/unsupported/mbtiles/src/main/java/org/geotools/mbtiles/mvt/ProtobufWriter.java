@@ -0,0 +1,139 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protocol buffers writer, supporting just what is needed to encode vector tiles, so that
+ * no protobuf runtime nor generated classes are needed.
+ */
+class ProtobufWriter {
+
+    static final int WIRE_VARINT = 0;
+
+    static final int WIRE_FIXED64 = 1;
+
+    static final int WIRE_LENGTH_DELIMITED = 2;
+
+    static final int WIRE_FIXED32 = 5;
+
+    /** Gives access to the buffer, to copy messages without creating intermediate arrays */
+    static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int size) {
+            super(size);
+        }
+
+        void copyTo(ByteArrayOutputStream other) {
+            other.write(buf, 0, count);
+        }
+    }
+
+    final Buffer out;
+
+    ProtobufWriter() {
+        this(256);
+    }
+
+    ProtobufWriter(int size) {
+        this.out = new Buffer(size);
+    }
+
+    /** ZigZag encodes a signed integer, so that small negative values use few bytes */
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    void writeTag(int field, int wireType) {
+        writeVarint((field << 3) | wireType);
+    }
+
+    void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    void writeVarint(int field, long value) {
+        writeTag(field, WIRE_VARINT);
+        writeVarint(value);
+    }
+
+    void writeBytes(int field, byte[] bytes) {
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        writeVarint(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    void writeString(int field, String value) {
+        writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeMessage(int field, ProtobufWriter message) {
+        writeTag(field, WIRE_LENGTH_DELIMITED);
+        writeVarint(message.out.size());
+        message.out.copyTo(out);
+    }
+
+    void writeDouble(int field, double value) {
+        writeTag(field, WIRE_FIXED64);
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (bits >>> (8 * i)) & 0xFF);
+        }
+    }
+
+    void writeFloat(int field, float value) {
+        writeTag(field, WIRE_FIXED32);
+        int bits = Float.floatToIntBits(value);
+        for (int i = 0; i < 4; i++) {
+            out.write((bits >>> (8 * i)) & 0xFF);
+        }
+    }
+
+    /** Writes a packed repeated field of unsigned 32 bit integers */
+    void writePacked(int field, int[] values, int length) {
+        if (length == 0) {
+            return;
+        }
+        ProtobufWriter packed = new ProtobufWriter(length * 2);
+        for (int i = 0; i < length; i++) {
+            packed.writeVarint(values[i] & 0xFFFFFFFFL);
+        }
+        writeMessage(field, packed);
+    }
+
+    /** Appends the contents of another writer, as is */
+    void writeRaw(ProtobufWriter other) {
+        other.out.copyTo(out);
+    }
+
+    int size() {
+        return out.size();
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes features in the <a href="https://github.com/mapbox/vector-tile-spec">Mapbox Vector
+ * Tile</a> format, version 2.
+ *
+ * <p>Geometries are expected in tile coordinates, that is, with the origin in the upper left corner
+ * of the tile, the Y axis pointing down, and the tile spanning from 0 to the {@link #getExtent()
+ * extent} on both axes (coordinates outside of this range can be used for the buffer area). The
+ * encoder quantizes the coordinates to integers, removes the repeated points this generates, drops
+ * the geometries that collapse, and orients the polygon rings as the specification requires.
+ * Attribute names and values are stored once per layer, in dictionaries.
+ *
+ * <p>The encoder is not thread safe, use one for each tile being built.
+ *
+ * @since 20
+ */
+public class VectorTileEncoder {
+
+    /** The default tile extent */
+    public static final int DEFAULT_EXTENT = 4096;
+
+    static final int VERSION = 2;
+
+    // geometry types
+    static final int UNKNOWN = 0;
+
+    static final int POINT = 1;
+
+    static final int LINESTRING = 2;
+
+    static final int POLYGON = 3;
+
+    // geometry commands
+    static final int MOVE_TO = 1;
+
+    static final int LINE_TO = 2;
+
+    static final int CLOSE_PATH = 7;
+
+    static final class Layer {
+        final String name;
+
+        final Map<String, Integer> keys = new LinkedHashMap<>();
+
+        final Map<Object, Integer> values = new LinkedHashMap<>();
+
+        final ProtobufWriter features = new ProtobufWriter(1024);
+
+        int featureCount;
+
+        Layer(String name) {
+            this.name = name;
+        }
+
+        int key(String key) {
+            return keys.computeIfAbsent(key, k -> keys.size());
+        }
+
+        int value(Object value) {
+            return values.computeIfAbsent(value, v -> values.size());
+        }
+    }
+
+    final int extent;
+
+    final Map<String, Layer> layers = new LinkedHashMap<>();
+
+    final GeometryEncoder geometryEncoder = new GeometryEncoder();
+
+    int[] tags = new int[16];
+
+    public VectorTileEncoder() {
+        this(DEFAULT_EXTENT);
+    }
+
+    public VectorTileEncoder(int extent) {
+        if (extent <= 0) {
+            throw new IllegalArgumentException("The tile extent must be positive: " + extent);
+        }
+        this.extent = extent;
+    }
+
+    /** The size of the tile in its own coordinate system */
+    public int getExtent() {
+        return extent;
+    }
+
+    /**
+     * Adds a feature to the specified layer, creating it if missing.
+     *
+     * @param layerName the layer name
+     * @param attributes the feature attributes, null values are skipped
+     * @param geometry the geometry, in tile coordinates
+     * @param id the feature identifier, or null if not available
+     * @return true if the feature has been added, false if its geometry is empty or collapsed once
+     *     quantized
+     */
+    public boolean addFeature(
+            String layerName, Map<String, ?> attributes, Geometry geometry, Long id) {
+        int type = geometryEncoder.encode(geometry);
+        if (type == UNKNOWN) {
+            return false;
+        }
+
+        Layer layer = layers.computeIfAbsent(layerName, Layer::new);
+        int tagCount = 0;
+        if (attributes != null) {
+            for (Map.Entry<String, ?> attribute : attributes.entrySet()) {
+                Object value = normalize(attribute.getValue());
+                if (value == null) {
+                    continue;
+                }
+                if (tagCount + 2 > tags.length) {
+                    tags = Arrays.copyOf(tags, tags.length * 2);
+                }
+                tags[tagCount++] = layer.key(attribute.getKey());
+                tags[tagCount++] = layer.value(value);
+            }
+        }
+
+        ProtobufWriter feature = new ProtobufWriter(geometryEncoder.size * 2 + tagCount * 2 + 16);
+        if (id != null && id >= 0) {
+            feature.writeVarint(1, id);
+        }
+        feature.writePacked(2, tags, tagCount);
+        feature.writeVarint(3, type);
+        feature.writePacked(4, geometryEncoder.commands, geometryEncoder.size);
+        layer.features.writeMessage(2, feature);
+        layer.featureCount++;
+        return true;
+    }
+
+    /** Returns true if no feature has been added so far */
+    public boolean isEmpty() {
+        return layers.isEmpty();
+    }
+
+    /** Returns the number of features added to the specified layer */
+    public int getFeatureCount(String layerName) {
+        Layer layer = layers.get(layerName);
+        return layer != null ? layer.featureCount : 0;
+    }
+
+    /** Encodes the tile */
+    public byte[] encode() {
+        ProtobufWriter tile = new ProtobufWriter(4096);
+        for (Layer layer : layers.values()) {
+            ProtobufWriter lw = new ProtobufWriter(layer.features.size() + 1024);
+            lw.writeString(1, layer.name);
+            lw.writeRaw(layer.features);
+            for (String key : layer.keys.keySet()) {
+                lw.writeString(3, key);
+            }
+            for (Object value : layer.values.keySet()) {
+                lw.writeMessage(4, encodeValue(value));
+            }
+            lw.writeVarint(5, extent);
+            lw.writeVarint(15, VERSION);
+            tile.writeMessage(3, lw);
+        }
+        return tile.toByteArray();
+    }
+
+    /**
+     * Maps the attribute values to the types supported by the format, integral numbers become
+     * longs, other numbers doubles (floats are kept as is), anything else but booleans and strings
+     * is converted to a string
+     */
+    static Object normalize(Object value) {
+        if (value == null
+                || value instanceof String
+                || value instanceof Boolean
+                || value instanceof Long
+                || value instanceof Double
+                || value instanceof Float) {
+            return value;
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else {
+            return value.toString();
+        }
+    }
+
+    static ProtobufWriter encodeValue(Object value) {
+        ProtobufWriter vw = new ProtobufWriter(16);
+        if (value instanceof String) {
+            vw.writeString(1, (String) value);
+        } else if (value instanceof Float) {
+            vw.writeFloat(2, (Float) value);
+        } else if (value instanceof Double) {
+            vw.writeDouble(3, (Double) value);
+        } else if (value instanceof Long) {
+            long l = (Long) value;
+            if (l >= 0) {
+                vw.writeVarint(5, l);
+            } else {
+                vw.writeVarint(6, ProtobufWriter.zigZag(l));
+            }
+        } else if (value instanceof Boolean) {
+            vw.writeVarint(7, (Boolean) value ? 1 : 0);
+        } else {
+            throw new IllegalArgumentException("Unsupported value type: " + value.getClass());
+        }
+        return vw;
+    }
+
+    /** Turns geometries into the command sequences of the vector tile format */
+    static class GeometryEncoder {
+
+        int[] commands = new int[256];
+
+        int size;
+
+        // the cursor, commands are relative to the previous position
+        int cx, cy;
+
+        // the current quantized path
+        int[] xs = new int[256];
+
+        int[] ys = new int[256];
+
+        int count;
+
+        /** Encodes the geometry, returning its type, or {@link #UNKNOWN} if nothing was encoded */
+        int encode(Geometry geometry) {
+            size = 0;
+            cx = 0;
+            cy = 0;
+            if (geometry == null || geometry.isEmpty()) {
+                return UNKNOWN;
+            }
+            if (geometry instanceof Point || geometry instanceof MultiPoint) {
+                return encodePoints(geometry) ? POINT : UNKNOWN;
+            } else if (geometry instanceof LineString || geometry instanceof MultiLineString) {
+                boolean encoded = false;
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    encoded |= encodeLine((LineString) geometry.getGeometryN(i));
+                }
+                return encoded ? LINESTRING : UNKNOWN;
+            } else if (geometry instanceof Polygon || geometry instanceof MultiPolygon) {
+                boolean encoded = false;
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    encoded |= encodePolygon((Polygon) geometry.getGeometryN(i));
+                }
+                return encoded ? POLYGON : UNKNOWN;
+            } else if (geometry instanceof GeometryCollection) {
+                // clipping can generate heterogeneous collections, keep the components of the
+                // highest dimension, as they are the ones that matter the most for rendering
+                return encode(homogenize((GeometryCollection) geometry));
+            }
+            return UNKNOWN;
+        }
+
+        Geometry homogenize(GeometryCollection collection) {
+            List<Geometry> components = new ArrayList<>();
+            collect(collection, components);
+            int dimension = -1;
+            for (Geometry g : components) {
+                dimension = Math.max(dimension, g.getDimension());
+            }
+            List<Geometry> selected = new ArrayList<>();
+            for (Geometry g : components) {
+                if (g.getDimension() == dimension) {
+                    selected.add(g);
+                }
+            }
+            return collection.getFactory().buildGeometry(selected);
+        }
+
+        void collect(Geometry g, List<Geometry> components) {
+            if (g instanceof GeometryCollection) {
+                for (int i = 0; i < g.getNumGeometries(); i++) {
+                    collect(g.getGeometryN(i), components);
+                }
+            } else if (!g.isEmpty()) {
+                components.add(g);
+            }
+        }
+
+        boolean encodePoints(Geometry geometry) {
+            int n = geometry.getNumGeometries();
+            ensureCommands(1 + n * 2);
+            int header = size++;
+            int points = 0;
+            for (int i = 0; i < n; i++) {
+                Point p = (Point) geometry.getGeometryN(i);
+                if (p.isEmpty()) {
+                    continue;
+                }
+                Coordinate c = p.getCoordinate();
+                moveCursor((int) Math.round(c.x), (int) Math.round(c.y));
+                points++;
+            }
+            if (points == 0) {
+                size = 0;
+                return false;
+            }
+            commands[header] = command(MOVE_TO, points);
+            return true;
+        }
+
+        boolean encodeLine(LineString line) {
+            quantize(line.getCoordinateSequence(), false);
+            if (count < 2) {
+                return false;
+            }
+            writePath(false);
+            return true;
+        }
+
+        boolean encodePolygon(Polygon polygon) {
+            quantize(polygon.getExteriorRing().getCoordinateSequence(), true);
+            long area = area();
+            if (count < 3 || area == 0) {
+                return false;
+            }
+            // exterior rings have a positive area in tile coordinates
+            if (area < 0) {
+                reverse();
+            }
+            writePath(true);
+
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                quantize(polygon.getInteriorRingN(i).getCoordinateSequence(), true);
+                area = area();
+                if (count < 3 || area == 0) {
+                    continue;
+                }
+                if (area > 0) {
+                    reverse();
+                }
+                writePath(true);
+            }
+            return true;
+        }
+
+        /** Rounds the coordinates to integers, skipping the repeated points */
+        void quantize(CoordinateSequence cs, boolean ring) {
+            int n = cs.size();
+            if (xs.length < n) {
+                xs = new int[n];
+                ys = new int[n];
+            }
+            count = 0;
+            for (int i = 0; i < n; i++) {
+                int x = (int) Math.round(cs.getX(i));
+                int y = (int) Math.round(cs.getY(i));
+                if (count > 0 && xs[count - 1] == x && ys[count - 1] == y) {
+                    continue;
+                }
+                xs[count] = x;
+                ys[count] = y;
+                count++;
+            }
+            // rings are closed by a command, not by repeating the first point
+            while (ring && count > 1 && xs[count - 1] == xs[0] && ys[count - 1] == ys[0]) {
+                count--;
+            }
+        }
+
+        /** Twice the signed area of the current ring, using the surveyor's formula */
+        long area() {
+            long area = 0;
+            for (int i = 0; i < count; i++) {
+                int j = (i + 1) % count;
+                area += (long) xs[i] * ys[j] - (long) xs[j] * ys[i];
+            }
+            return area;
+        }
+
+        void reverse() {
+            // keep the first point, reverse the rest, the ring is implicitly closed
+            for (int i = 1, j = count - 1; i < j; i++, j--) {
+                int tx = xs[i];
+                xs[i] = xs[j];
+                xs[j] = tx;
+                int ty = ys[i];
+                ys[i] = ys[j];
+                ys[j] = ty;
+            }
+        }
+
+        void writePath(boolean close) {
+            ensureCommands(count * 2 + 3);
+            commands[size++] = command(MOVE_TO, 1);
+            moveCursor(xs[0], ys[0]);
+            commands[size++] = command(LINE_TO, count - 1);
+            for (int i = 1; i < count; i++) {
+                moveCursor(xs[i], ys[i]);
+            }
+            if (close) {
+                commands[size++] = command(CLOSE_PATH, 1);
+            }
+        }
+
+        void moveCursor(int x, int y) {
+            commands[size++] = ProtobufWriter.zigZag(x - cx);
+            commands[size++] = ProtobufWriter.zigZag(y - cy);
+            cx = x;
+            cy = y;
+        }
+
+        void ensureCommands(int extra) {
+            if (size + extra > commands.length) {
+                commands = Arrays.copyOf(commands, Math.max(commands.length * 2, size + extra));
+            }
+        }
+
+        static int command(int id, int count) {
+            return (id & 0x7) | (count << 3);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.geometry.jts.Decimator;
+import org.geotools.geometry.jts.GeometryClipper;
+import org.geotools.geometry.jts.JTS;
+import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.operation.transform.AffineTransform2D;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * Builds vector tiles out of feature sources, following the same steps as the {@link
+ * org.geotools.renderer.lite.StreamingRenderer} when painting a map: features are queried in the
+ * tile area (plus a buffer), their geometries clipped with a {@link GeometryClipper}, generalized
+ * and transformed to the tile coordinate system with a {@link Decimator}, and then quantized and
+ * encoded by a {@link VectorTileEncoder}.
+ *
+ * <p>The producer is thread safe, as long as its configuration is not changed while tiles are being
+ * built.
+ *
+ * @since 20
+ */
+public class VectorTileProducer {
+
+    static final Logger LOGGER = Logging.getLogger(VectorTileProducer.class);
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    /** Default buffer around the tile, in tile units */
+    public static final int DEFAULT_BUFFER = 64;
+
+    /** Default generalization distance, in tile units */
+    public static final double DEFAULT_GENERALIZATION = 1;
+
+    final Map<String, SimpleFeatureSource> layers;
+
+    int extent = VectorTileEncoder.DEFAULT_EXTENT;
+
+    int buffer = DEFAULT_BUFFER;
+
+    double generalization = DEFAULT_GENERALIZATION;
+
+    /**
+     * Creates a new producer
+     *
+     * @param layers the feature sources, keyed by the name of the vector tile layer they populate
+     */
+    public VectorTileProducer(Map<String, SimpleFeatureSource> layers) {
+        this.layers = new LinkedHashMap<>(layers);
+    }
+
+    /** The layers the tiles are made of, keyed by name */
+    public Map<String, SimpleFeatureSource> getLayers() {
+        return layers;
+    }
+
+    /** The size of the tiles in their own coordinate system */
+    public int getExtent() {
+        return extent;
+    }
+
+    public void setExtent(int extent) {
+        this.extent = extent;
+    }
+
+    /** The amount of data included around the tile, in tile units */
+    public int getBuffer() {
+        return buffer;
+    }
+
+    public void setBuffer(int buffer) {
+        this.buffer = buffer;
+    }
+
+    /** The generalization distance, in tile units, use zero to disable generalization */
+    public double getGeneralization() {
+        return generalization;
+    }
+
+    public void setGeneralization(double generalization) {
+        this.generalization = generalization;
+    }
+
+    /**
+     * Builds the tile covering the specified envelope
+     *
+     * @param tileEnvelope the area covered by the tile, features are reprojected to its CRS if
+     *     necessary
+     * @return the encoded tile, or null if no feature falls in the tile
+     */
+    public byte[] produce(ReferencedEnvelope tileEnvelope) throws IOException {
+        VectorTileEncoder encoder = new VectorTileEncoder(extent);
+        for (Map.Entry<String, SimpleFeatureSource> layer : layers.entrySet()) {
+            encode(encoder, layer.getKey(), layer.getValue(), tileEnvelope);
+        }
+        return encoder.isEmpty() ? null : encoder.encode();
+    }
+
+    /** Adds the features of the source falling in the tile envelope to the encoder */
+    public void encode(
+            VectorTileEncoder encoder,
+            String layerName,
+            SimpleFeatureSource source,
+            ReferencedEnvelope tileEnvelope)
+            throws IOException {
+        SimpleFeatureType schema = source.getSchema();
+        GeometryDescriptor gd = schema.getGeometryDescriptor();
+        if (gd == null) {
+            return;
+        }
+
+        int extent = encoder.getExtent();
+        double scaleX = extent / tileEnvelope.getWidth();
+        double scaleY = extent / tileEnvelope.getHeight();
+        Envelope buffered = new Envelope(tileEnvelope);
+        buffered.expandBy(buffer / scaleX, buffer / scaleY);
+
+        // world to tile, the Y axis points down
+        MathTransform worldToTile =
+                new AffineTransform2D(
+                        new AffineTransform(
+                                scaleX,
+                                0,
+                                0,
+                                -scaleY,
+                                -tileEnvelope.getMinX() * scaleX,
+                                tileEnvelope.getMaxY() * scaleY));
+        Decimator decimator = null;
+        if (generalization > 0) {
+            try {
+                decimator =
+                        new Decimator(
+                                worldToTile.inverse(),
+                                new Rectangle(extent, extent),
+                                generalization);
+            } catch (Exception e) {
+                throw new IOException("Failed to set up the generalization", e);
+            }
+        }
+        GeometryClipper clipper = new GeometryClipper(buffered);
+        GeometryFactory liteFactory = new GeometryFactory(new LiteCoordinateSequenceFactory());
+
+        // the filter is expressed in the native CRS, reprojection happens after filtering
+        CoordinateReferenceSystem tileCRS = tileEnvelope.getCoordinateReferenceSystem();
+        CoordinateReferenceSystem nativeCRS = gd.getCoordinateReferenceSystem();
+        ReferencedEnvelope queryEnvelope = new ReferencedEnvelope(buffered, tileCRS);
+        boolean reproject =
+                tileCRS != null
+                        && nativeCRS != null
+                        && !CRS.equalsIgnoreMetadata(tileCRS, nativeCRS);
+        if (reproject) {
+            try {
+                queryEnvelope = queryEnvelope.transform(nativeCRS, true);
+            } catch (Exception e) {
+                throw new IOException("Failed to reproject the tile envelope", e);
+            }
+        }
+        Query query =
+                new Query(
+                        schema.getTypeName(),
+                        FF.bbox(FF.property(gd.getLocalName()), queryEnvelope));
+        if (reproject) {
+            query.setCoordinateSystemReproject(tileCRS);
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        try (SimpleFeatureIterator it = source.getFeatures(query).features()) {
+            while (it.hasNext()) {
+                SimpleFeature feature = it.next();
+                Geometry geometry = (Geometry) feature.getDefaultGeometry();
+                if (geometry == null || geometry.isEmpty()) {
+                    continue;
+                }
+
+                Geometry clipped = clipper.clip(geometry, false);
+                if (clipped == null || clipped.isEmpty()) {
+                    continue;
+                }
+                // copy over a lite coordinate sequence, the decimator works in place on those
+                Geometry tileGeometry = liteFactory.createGeometry(clipped);
+                try {
+                    if (decimator != null) {
+                        tileGeometry =
+                                decimator.decimateTransformGeneralize(tileGeometry, worldToTile);
+                    } else {
+                        tileGeometry = JTS.transform(tileGeometry, worldToTile);
+                    }
+                } catch (TransformException e) {
+                    LOGGER.log(
+                            Level.FINE,
+                            "Skipping feature " + feature.getID() + " that cannot be transformed",
+                            e);
+                    continue;
+                }
+                tileGeometry.geometryChanged();
+
+                attributes.clear();
+                for (AttributeDescriptor ad : schema.getAttributeDescriptors()) {
+                    if (!(ad instanceof GeometryDescriptor)) {
+                        String name = ad.getLocalName();
+                        attributes.put(name, feature.getAttribute(name));
+                    }
+                }
+                encoder.addFeature(layerName, attributes, tileGeometry, getId(feature));
+            }
+        }
+    }
+
+    /**
+     * Extracts a numeric identifier from the feature id, which is usually in the form {@code
+     * typeName.number}. Returns null if the id has no numeric part.
+     */
+    static Long getId(SimpleFeature feature) {
+        String fid = feature.getID();
+        if (fid == null) {
+            return null;
+        }
+        int idx = fid.lastIndexOf('.');
+        String number = idx >= 0 ? fid.substring(idx + 1) : fid;
+        try {
+            long id = Long.parseLong(number);
+            return id >= 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.mbtiles.MBTilesFile;
+import org.geotools.mbtiles.MBTilesMetadata;
+import org.geotools.mbtiles.MBTilesTile;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.util.logging.Logging;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Generates a pyramid of vector tiles into a {@link MBTilesFile}, using the spherical mercator
+ * tiling scheme (EPSG:3857) of the MBTiles specification.
+ *
+ * <p>Tiles are built in parallel by a {@link VectorTileProducer}, and written in batches from the
+ * calling thread, as SQLite allows a single writer at a time. Tiles without any feature are not
+ * stored. Following the common practice for vector MBTiles, tiles are gzip compressed, unless
+ * {@link #setCompress(boolean) configured otherwise}.
+ *
+ * @since 20
+ */
+public class VectorTilePyramidBuilder {
+
+    static final Logger LOGGER = Logging.getLogger(VectorTilePyramidBuilder.class);
+
+    /** Half the side of the spherical mercator world, in meters */
+    static final double WORLD_HALF_SIZE = 20037508.342789244;
+
+    /** Latitude limit of the spherical mercator world */
+    static final double MAX_LATITUDE = 85.0511287798066;
+
+    /** Statistics about a pyramid build */
+    public static class Statistics {
+        long tiles;
+
+        long emptyTiles;
+
+        long bytes;
+
+        long elapsed;
+
+        /** Number of tiles written */
+        public long getTiles() {
+            return tiles;
+        }
+
+        /** Number of tiles that have been built, but found to be empty */
+        public long getEmptyTiles() {
+            return emptyTiles;
+        }
+
+        /** Total size of the tiles written, in bytes */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /** Time spent building the pyramid, in milliseconds */
+        public long getElapsed() {
+            return elapsed;
+        }
+
+        /** Build throughput, counting both written and empty tiles */
+        public double getTilesPerSecond() {
+            return elapsed > 0 ? (tiles + emptyTiles) * 1000d / elapsed : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics[tiles="
+                    + tiles
+                    + ", emptyTiles="
+                    + emptyTiles
+                    + ", bytes="
+                    + bytes
+                    + ", elapsed="
+                    + elapsed
+                    + "ms, tilesPerSecond="
+                    + String.format("%.1f", getTilesPerSecond())
+                    + "]";
+        }
+    }
+
+    final VectorTileProducer producer;
+
+    ExecutorService executor;
+
+    int batchSize = 256;
+
+    boolean compress = true;
+
+    public VectorTilePyramidBuilder(VectorTileProducer producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * The executor building the tiles. If not set, a pool with as many threads as the available
+     * processors is created for each build.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /** The number of tiles written in a single transaction */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /** Whether the tiles are gzip compressed */
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * Builds the tiles covering the specified area, from the minimum to the maximum zoom level
+     * (included), and updates the file metadata accordingly. The file is initialized if needed.
+     *
+     * @param file the target file
+     * @param bounds the area to be covered, in any CRS
+     * @param minZoom the minimum zoom level
+     * @param maxZoom the maximum zoom level
+     * @return statistics about the build
+     */
+    public Statistics build(MBTilesFile file, ReferencedEnvelope bounds, int minZoom, int maxZoom)
+            throws IOException {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 30) {
+            throw new IllegalArgumentException(
+                    "Invalid zoom level range: " + minZoom + " - " + maxZoom);
+        }
+        long start = System.currentTimeMillis();
+        Statistics stats = new Statistics();
+
+        // clamp the area to the mercator world
+        ReferencedEnvelope geographic;
+        ReferencedEnvelope mercator;
+        CoordinateReferenceSystem mercatorCRS;
+        try {
+            mercatorCRS = CRS.decode("EPSG:3857", true);
+            geographic = bounds.transform(DefaultGeographicCRS.WGS84, true);
+            geographic =
+                    new ReferencedEnvelope(
+                            geographic.intersection(
+                                    new ReferencedEnvelope(
+                                            -180,
+                                            180,
+                                            -MAX_LATITUDE,
+                                            MAX_LATITUDE,
+                                            DefaultGeographicCRS.WGS84)),
+                            DefaultGeographicCRS.WGS84);
+            mercator = geographic.isEmpty() ? null : geographic.transform(mercatorCRS, true);
+        } catch (Exception e) {
+            throw new IOException("Failed to compute the pyramid area", e);
+        }
+
+        file.init();
+        MBTilesMetadata metadata = file.loadMetaData();
+        if (metadata.getName() == null) {
+            metadata.setName(String.join(",", producer.getLayers().keySet()));
+        }
+        metadata.setFormat(MBTilesMetadata.t_format.PBF);
+        metadata.setBounds(geographic);
+        metadata.setMinZoom(minZoom);
+        metadata.setMaxZoom(maxZoom);
+        file.saveMetaData(metadata);
+        if (mercator == null) {
+            return stats;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = this.executor;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+        try {
+            CompletionService<MBTilesTile> completion = new ExecutorCompletionService<>(executor);
+            // bound the tiles kept in memory waiting to be written
+            int maxPending = threads * 4;
+            int pending = 0;
+            List<MBTilesTile> batch = new ArrayList<>(batchSize);
+            for (int z = minZoom; z <= maxZoom; z++) {
+                int n = 1 << z;
+                double size = WORLD_HALF_SIZE * 2 / n;
+                int minCol = tile(mercator.getMinX(), size, n, false);
+                int maxCol = tile(mercator.getMaxX(), size, n, true);
+                // the MBTiles rows are numbered from the bottom
+                int minRow = tile(mercator.getMinY(), size, n, false);
+                int maxRow = tile(mercator.getMaxY(), size, n, true);
+                for (int col = minCol; col <= maxCol; col++) {
+                    for (int row = minRow; row <= maxRow; row++) {
+                        if (pending >= maxPending) {
+                            collect(completion, batch, stats);
+                            pending--;
+                            flush(file, batch, false);
+                        }
+                        ReferencedEnvelope envelope =
+                                new ReferencedEnvelope(
+                                        -WORLD_HALF_SIZE + col * size,
+                                        -WORLD_HALF_SIZE + (col + 1) * size,
+                                        -WORLD_HALF_SIZE + row * size,
+                                        -WORLD_HALF_SIZE + (row + 1) * size,
+                                        mercatorCRS);
+                        MBTilesTile tile = new MBTilesTile(z, col, row);
+                        completion.submit(() -> produce(tile, envelope));
+                        pending++;
+                    }
+                }
+            }
+            while (pending > 0) {
+                collect(completion, batch, stats);
+                pending--;
+                flush(file, batch, false);
+            }
+            flush(file, batch, true);
+        } finally {
+            if (this.executor == null) {
+                executor.shutdownNow();
+            }
+        }
+
+        stats.elapsed = System.currentTimeMillis() - start;
+        LOGGER.fine(() -> "Vector tile pyramid built: " + stats);
+        return stats;
+    }
+
+    /** Returns the column or row containing the ordinate, clamped to the valid range */
+    static int tile(double ordinate, double size, int n, boolean upper) {
+        double position = (ordinate + WORLD_HALF_SIZE) / size;
+        // an upper bound right on the tile edge does not cover the next tile
+        int tile = upper ? (int) Math.ceil(position) - 1 : (int) Math.floor(position);
+        return Math.max(0, Math.min(n - 1, tile));
+    }
+
+    MBTilesTile produce(MBTilesTile tile, ReferencedEnvelope envelope) throws IOException {
+        byte[] data = producer.produce(envelope);
+        if (data == null) {
+            return tile;
+        }
+        if (compress) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 2 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+                gzip.write(data);
+            }
+            data = bos.toByteArray();
+        }
+        tile.setData(data);
+        return tile;
+    }
+
+    void collect(
+            CompletionService<MBTilesTile> completion, List<MBTilesTile> batch, Statistics stats)
+            throws IOException {
+        MBTilesTile tile;
+        try {
+            tile = completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building the tile pyramid", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to build tile", cause);
+        }
+        if (tile.getData() == null) {
+            stats.emptyTiles++;
+        } else {
+            stats.tiles++;
+            stats.bytes += tile.getData().length;
+            batch.add(tile);
+        }
+    }
+
+    void flush(MBTilesFile file, List<MBTilesTile> batch, boolean force) throws IOException {
+        if (batch.size() >= batchSize || (force && !batch.isEmpty())) {
+            file.saveTiles(batch);
+            batch.clear();
+        }
+    }
+}
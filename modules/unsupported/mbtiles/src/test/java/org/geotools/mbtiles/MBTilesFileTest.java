@@ -3,6 +3,7 @@ package org.geotools.mbtiles;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -123,6 +124,37 @@ public class MBTilesFileTest {
         assertEquals(14, metadata.getMaxZoom());
     }
 
+    @Test
+    public void testSaveTilesInOrder() throws IOException, SQLException {
+        try (MBTilesFile file = new MBTilesFile()) {
+            file.init();
+
+            MBTilesTile saved = new MBTilesTile(1, 0, 0);
+            saved.setData("first".getBytes());
+            MBTilesTile replaced = new MBTilesTile(1, 0, 0);
+            replaced.setData("second".getBytes());
+            MBTilesTile removed = new MBTilesTile(1, 1, 0);
+            removed.setData("removed".getBytes());
+            MBTilesTile restored = new MBTilesTile(1, 1, 1);
+            restored.setData("restored".getBytes());
+
+            // the last operation on each tile wins
+            file.saveTiles(
+                    Arrays.asList(
+                            saved,
+                            removed,
+                            new MBTilesTile(1, 1, 1),
+                            replaced,
+                            new MBTilesTile(1, 1, 0),
+                            restored));
+
+            assertTrue(Arrays.equals("second".getBytes(), file.loadTile(1, 0, 0).getData()));
+            assertNull(file.loadTile(1, 1, 0).getData());
+            assertTrue(Arrays.equals("restored".getBytes(), file.loadTile(1, 1, 1).getData()));
+            assertEquals(2, file.numberOfTiles());
+        }
+    }
+
     @Test
     public void testMBTilesTile() throws IOException, SQLException {
 
@@ -0,0 +1,240 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class VectorTileEncoderTest {
+
+    WKTReader reader = new WKTReader();
+
+    int[] commands(String wkt) throws Exception {
+        VectorTileEncoder.GeometryEncoder encoder = new VectorTileEncoder.GeometryEncoder();
+        encoder.encode(reader.read(wkt));
+        return Arrays.copyOf(encoder.commands, encoder.size);
+    }
+
+    // expected commands are the examples of the vector tile specification, version 2.1
+
+    @Test
+    public void testPoint() throws Exception {
+        assertArrayEquals(new int[] {9, 50, 34}, commands("POINT(25 17)"));
+    }
+
+    @Test
+    public void testMultiPoint() throws Exception {
+        assertArrayEquals(new int[] {17, 10, 14, 3, 9}, commands("MULTIPOINT((5 7), (3 2))"));
+    }
+
+    @Test
+    public void testLineString() throws Exception {
+        assertArrayEquals(
+                new int[] {9, 4, 4, 18, 0, 16, 16, 0}, commands("LINESTRING(2 2, 2 10, 10 10)"));
+    }
+
+    @Test
+    public void testMultiLineString() throws Exception {
+        assertArrayEquals(
+                new int[] {9, 4, 4, 18, 0, 16, 16, 0, 9, 17, 17, 10, 4, 8},
+                commands("MULTILINESTRING((2 2, 2 10, 10 10), (1 1, 3 5))"));
+    }
+
+    @Test
+    public void testPolygon() throws Exception {
+        int[] expected = {9, 6, 12, 18, 10, 12, 24, 44, 15};
+        assertArrayEquals(expected, commands("POLYGON((3 6, 8 12, 20 34, 3 6))"));
+        // rings with the wrong orientation get reversed
+        assertArrayEquals(expected, commands("POLYGON((3 6, 20 34, 8 12, 3 6))"));
+    }
+
+    @Test
+    public void testMultiPolygon() throws Exception {
+        assertArrayEquals(
+                new int[] {
+                    9, 0, 0, 26, 20, 0, 0, 20, 19, 0, 15, 9, 22, 2, 26, 18, 0, 0, 18, 17, 0, 15, 9,
+                    4, 13, 26, 0, 8, 8, 0, 0, 7, 15
+                },
+                commands(
+                        "MULTIPOLYGON(((0 0, 10 0, 10 10, 0 10, 0 0)), "
+                                + "((11 11, 20 11, 20 20, 11 20, 11 11), "
+                                + "(13 13, 13 17, 17 17, 17 13, 13 13)))"));
+    }
+
+    @Test
+    public void testQuantization() throws Exception {
+        // repeated points after rounding are removed
+        assertArrayEquals(
+                new int[] {9, 4, 4, 18, 0, 16, 16, 0},
+                commands("LINESTRING(2.1 1.9, 2 2.2, 2 10, 2.3 9.8, 10 10)"));
+        // collapsed geometries are dropped
+        assertArrayEquals(new int[0], commands("LINESTRING(2.1 1.9, 2 2.2)"));
+        assertArrayEquals(new int[0], commands("POLYGON((0 0, 0.2 0, 0.2 0.2, 0 0.2, 0 0))"));
+    }
+
+    @Test
+    public void testMixedCollection() throws Exception {
+        // only the components of the highest dimension are kept
+        assertArrayEquals(
+                commands("LINESTRING(2 2, 2 10, 10 10)"),
+                commands("GEOMETRYCOLLECTION(POINT(1 1), LINESTRING(2 2, 2 10, 10 10))"));
+    }
+
+    @Test
+    public void testEncodeTile() throws Exception {
+        VectorTileEncoder encoder = new VectorTileEncoder();
+        assertTrue(encoder.isEmpty());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("name", "first");
+        attributes.put("count", 10);
+        attributes.put("missing", null);
+        assertTrue(encoder.addFeature("points", attributes, reader.read("POINT(25 17)"), 1L));
+        attributes.put("name", "second");
+        assertTrue(encoder.addFeature("points", attributes, reader.read("POINT(30 20)"), 2L));
+        assertFalse(
+                encoder.addFeature(
+                        "lines", Collections.emptyMap(), reader.read("LINESTRING EMPTY"), 3L));
+        assertEquals(2, encoder.getFeatureCount("points"));
+        assertEquals(0, encoder.getFeatureCount("lines"));
+
+        List<DecodedLayer> layers = decode(encoder.encode());
+        assertEquals(1, layers.size());
+        DecodedLayer layer = layers.get(0);
+        assertEquals("points", layer.name);
+        assertEquals(4096, layer.extent);
+        assertEquals(2, layer.version);
+        assertEquals(Arrays.asList("name", "count"), layer.keys);
+        assertEquals(3, layer.values);
+        assertEquals(Arrays.asList(1L, 2L), layer.ids);
+        assertArrayEquals(new int[] {9, 50, 34}, layer.geometries.get(0));
+    }
+
+    /** A vector tile layer, decoded just enough to check the encoder output */
+    static class DecodedLayer {
+        String name;
+
+        long extent;
+
+        long version;
+
+        List<String> keys = new ArrayList<>();
+
+        int values;
+
+        List<Long> ids = new ArrayList<>();
+
+        List<int[]> geometries = new ArrayList<>();
+    }
+
+    static List<DecodedLayer> decode(byte[] tile) throws IOException {
+        List<DecodedLayer> layers = new ArrayList<>();
+        DataInputStream tis = new DataInputStream(new ByteArrayInputStream(tile));
+        while (tis.available() > 0) {
+            long tag = readVarint(tis);
+            assertEquals((3 << 3) | 2, tag);
+            DataInputStream lis = new DataInputStream(new ByteArrayInputStream(readBytes(tis)));
+            DecodedLayer layer = new DecodedLayer();
+            while (lis.available() > 0) {
+                long ltag = readVarint(lis);
+                int field = (int) (ltag >>> 3);
+                if (field == 1) {
+                    layer.name = new String(readBytes(lis), StandardCharsets.UTF_8);
+                } else if (field == 2) {
+                    decodeFeature(readBytes(lis), layer);
+                } else if (field == 3) {
+                    layer.keys.add(new String(readBytes(lis), StandardCharsets.UTF_8));
+                } else if (field == 4) {
+                    readBytes(lis);
+                    layer.values++;
+                } else if (field == 5) {
+                    layer.extent = readVarint(lis);
+                } else if (field == 15) {
+                    layer.version = readVarint(lis);
+                }
+            }
+            layers.add(layer);
+        }
+        return layers;
+    }
+
+    static void decodeFeature(byte[] bytes, DecodedLayer layer) throws IOException {
+        DataInputStream fis = new DataInputStream(new ByteArrayInputStream(bytes));
+        while (fis.available() > 0) {
+            long tag = readVarint(fis);
+            int field = (int) (tag >>> 3);
+            if (field == 1) {
+                layer.ids.add(readVarint(fis));
+            } else if (field == 3) {
+                readVarint(fis);
+            } else if (field == 2 || field == 4) {
+                DataInputStream pis = new DataInputStream(new ByteArrayInputStream(readBytes(fis)));
+                List<Integer> values = new ArrayList<>();
+                while (pis.available() > 0) {
+                    values.add((int) readVarint(pis));
+                }
+                if (field == 4) {
+                    layer.geometries.add(values.stream().mapToInt(i -> i).toArray());
+                }
+            }
+        }
+    }
+
+    static long readVarint(DataInputStream is) throws IOException {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            int b = is.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+
+    static byte[] readBytes(DataInputStream is) throws IOException {
+        byte[] bytes = new byte[(int) readVarint(is)];
+        is.readFully(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testGeometryReuse() throws Exception {
+        // the same encoder can be used for many geometries
+        VectorTileEncoder.GeometryEncoder encoder = new VectorTileEncoder.GeometryEncoder();
+        Geometry line = reader.read("LINESTRING(2 2, 2 10, 10 10)");
+        assertEquals(VectorTileEncoder.LINESTRING, encoder.encode(line));
+        assertEquals(VectorTileEncoder.POINT, encoder.encode(reader.read("POINT(25 17)")));
+        assertArrayEquals(new int[] {9, 50, 34}, Arrays.copyOf(encoder.commands, encoder.size));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.vividsolutions.jts.io.WKTReader;
+import java.util.Collections;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.mbtiles.mvt.VectorTileEncoderTest.DecodedLayer;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class VectorTileProducerTest {
+
+    VectorTileProducer producer;
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureType type =
+                DataUtilities.createType("roads", "geom:LineString,name:String,lanes:Integer");
+        ListFeatureCollection roads = new ListFeatureCollection(type);
+        WKTReader reader = new WKTReader();
+        roads.add(
+                SimpleFeatureBuilder.build(
+                        type,
+                        new Object[] {reader.read("LINESTRING(-10 5, 20 5)"), "main", 2},
+                        "roads.1"));
+        roads.add(
+                SimpleFeatureBuilder.build(
+                        type,
+                        new Object[] {reader.read("LINESTRING(100 100, 110 110)"), "far", 1},
+                        "roads.2"));
+        SimpleFeatureSource source = DataUtilities.source(roads);
+        producer = new VectorTileProducer(Collections.singletonMap("roads", source));
+        producer.setExtent(16);
+        producer.setBuffer(0);
+        producer.setGeneralization(0);
+    }
+
+    @Test
+    public void testProduce() throws Exception {
+        byte[] tile = producer.produce(new ReferencedEnvelope(0, 16, 0, 16, null));
+        List<DecodedLayer> layers = VectorTileEncoderTest.decode(tile);
+        assertEquals(1, layers.size());
+        DecodedLayer layer = layers.get(0);
+        assertEquals("roads", layer.name);
+        assertEquals(16, layer.extent);
+        assertEquals(Collections.singletonList(1L), layer.ids);
+        // clipped to the tile, and flipped on the y axis, y = 16 - 5 = 11
+        assertArrayEquals(new int[] {9, 0, 22, 10, 32, 0}, layer.geometries.get(0));
+    }
+
+    @Test
+    public void testEmptyTile() throws Exception {
+        assertNull(producer.produce(new ReferencedEnvelope(30, 40, 30, 40, null)));
+    }
+
+    @Test
+    public void testGeneralization() throws Exception {
+        producer.setGeneralization(1);
+        byte[] tile = producer.produce(new ReferencedEnvelope(0, 16, 0, 16, null));
+        DecodedLayer layer = VectorTileEncoderTest.decode(tile).get(0);
+        assertArrayEquals(new int[] {9, 0, 22, 10, 32, 0}, layer.geometries.get(0));
+    }
+
+    @Test
+    public void testGetId() throws Exception {
+        SimpleFeatureType type = DataUtilities.createType("test", "geom:Point");
+        assertEquals(
+                Long.valueOf(12),
+                VectorTileProducer.getId(
+                        SimpleFeatureBuilder.build(type, new Object[] {null}, "test.12")));
+        assertNull(
+                VectorTileProducer.getId(
+                        SimpleFeatureBuilder.build(type, new Object[] {null}, "test.abc")));
+    }
+}
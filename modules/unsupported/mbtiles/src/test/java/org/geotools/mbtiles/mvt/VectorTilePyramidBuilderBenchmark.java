@@ -0,0 +1,164 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.mbtiles.MBTilesFile;
+import org.geotools.mbtiles.MBTilesTile;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Measures the throughput, in tiles per second, of {@link VectorTilePyramidBuilder} on synthetic
+ * point and line layers, and of {@link MBTilesFile#saveTiles} against one {@link
+ * MBTilesFile#saveTile} call per tile. Not a test, run it manually with the number of features and
+ * the maximum zoom level as optional arguments.
+ */
+public class VectorTilePyramidBuilderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int features = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        final int maxZoom = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        ReferencedEnvelope area =
+                new ReferencedEnvelope(-10, 30, 35, 60, DefaultGeographicCRS.WGS84);
+        Map<String, SimpleFeatureSource> layers = new HashMap<>();
+        layers.put("points", DataUtilities.source(buildPoints(area, features)));
+        layers.put("lines", DataUtilities.source(buildLines(area, features / 10)));
+        VectorTilePyramidBuilder builder =
+                new VectorTilePyramidBuilder(new VectorTileProducer(layers));
+
+        for (int run = 0; run < 3; run++) {
+            File file = File.createTempFile("pyramid", ".mbtiles");
+            try (MBTilesFile mbtiles = new MBTilesFile(file, true)) {
+                VectorTilePyramidBuilder.Statistics stats =
+                        builder.build(mbtiles, area, 0, maxZoom);
+                System.out.printf(
+                        "Pyramid 0-%d: %d tiles, %d empty, %d KB in %d ms, %.1f tiles/s%n",
+                        maxZoom,
+                        stats.getTiles(),
+                        stats.getEmptyTiles(),
+                        stats.getBytes() / 1024,
+                        stats.getElapsed(),
+                        stats.getTilesPerSecond());
+            } finally {
+                file.delete();
+            }
+        }
+
+        // raw storage throughput, tiles of a typical compressed vector tile size
+        List<MBTilesTile> tiles = new ArrayList<>();
+        byte[] data = new byte[8 * 1024];
+        new Random(0).nextBytes(data);
+        for (int x = 0; x < 128; x++) {
+            for (int y = 0; y < 64; y++) {
+                MBTilesTile tile = new MBTilesTile(7, x, y);
+                tile.setData(data);
+                tiles.add(tile);
+            }
+        }
+        for (int run = 0; run < 3; run++) {
+            File file = File.createTempFile("tiles", ".mbtiles");
+            try (MBTilesFile mbtiles = new MBTilesFile(file, true)) {
+                mbtiles.init();
+                long start = System.nanoTime();
+                for (MBTilesTile tile : tiles) {
+                    mbtiles.saveTile(tile);
+                }
+                long single = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < tiles.size(); i += 256) {
+                    mbtiles.saveTiles(tiles.subList(i, Math.min(tiles.size(), i + 256)));
+                }
+                long batched = System.nanoTime() - start;
+                System.out.printf(
+                        "%d tiles: saveTile %.1f tiles/s, saveTiles %.1f tiles/s%n",
+                        tiles.size(), tiles.size() * 1e9 / single, tiles.size() * 1e9 / batched);
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    static ListFeatureCollection buildPoints(ReferencedEnvelope area, int count) {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("points");
+        tb.add("geom", Point.class, DefaultGeographicCRS.WGS84);
+        tb.add("name", String.class);
+        tb.add("rank", Integer.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+        GeometryFactory gf = new GeometryFactory();
+        Random random = new Random(0);
+        ListFeatureCollection points = new ListFeatureCollection(type);
+        for (int i = 0; i < count; i++) {
+            Point p = gf.createPoint(random(area, random));
+            points.add(
+                    SimpleFeatureBuilder.build(
+                            type, new Object[] {p, "p" + i, random.nextInt(10)}, "points." + i));
+        }
+        return points;
+    }
+
+    static ListFeatureCollection buildLines(ReferencedEnvelope area, int count) {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("lines");
+        tb.add("geom", LineString.class, DefaultGeographicCRS.WGS84);
+        tb.add("kind", String.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+        GeometryFactory gf = new GeometryFactory();
+        Random random = new Random(1);
+        ListFeatureCollection lines = new ListFeatureCollection(type);
+        for (int i = 0; i < count; i++) {
+            // a random walk of 20 vertices
+            Coordinate[] coords = new Coordinate[20];
+            coords[0] = random(area, random);
+            for (int j = 1; j < coords.length; j++) {
+                coords[j] =
+                        new Coordinate(
+                                coords[j - 1].x + random.nextGaussian() * 0.05,
+                                coords[j - 1].y + random.nextGaussian() * 0.05);
+            }
+            LineString line = gf.createLineString(coords);
+            lines.add(
+                    SimpleFeatureBuilder.build(
+                            type, new Object[] {line, i % 2 == 0 ? "road" : "rail"}, "lines." + i));
+        }
+        return lines;
+    }
+
+    static Coordinate random(ReferencedEnvelope area, Random random) {
+        return new Coordinate(
+                area.getMinX() + random.nextDouble() * area.getWidth(),
+                area.getMinY() + random.nextDouble() * area.getHeight());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.mbtiles.mvt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.io.WKTReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.mbtiles.MBTilesFile;
+import org.geotools.mbtiles.MBTilesMetadata;
+import org.geotools.mbtiles.MBTilesTile;
+import org.geotools.mbtiles.mvt.VectorTileEncoderTest.DecodedLayer;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class VectorTilePyramidBuilderTest {
+
+    @Test
+    public void testTileRange() {
+        double size = VectorTilePyramidBuilder.WORLD_HALF_SIZE;
+        assertEquals(0, VectorTilePyramidBuilder.tile(-size, size, 2, false));
+        assertEquals(1, VectorTilePyramidBuilder.tile(size, size, 2, true));
+        // an upper bound on a tile edge does not spill into the next tile
+        assertEquals(0, VectorTilePyramidBuilder.tile(0, size, 2, true));
+        assertEquals(1, VectorTilePyramidBuilder.tile(0, size, 2, false));
+        // out of range values are clamped
+        assertEquals(1, VectorTilePyramidBuilder.tile(size * 3, size, 2, true));
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("cities");
+        tb.add("geom", Point.class, DefaultGeographicCRS.WGS84);
+        tb.add("name", String.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+        ListFeatureCollection cities = new ListFeatureCollection(type);
+        WKTReader reader = new WKTReader();
+        cities.add(
+                SimpleFeatureBuilder.build(
+                        type, new Object[] {reader.read("POINT(12.5 41.9)"), "Rome"}, "cities.1"));
+        cities.add(
+                SimpleFeatureBuilder.build(
+                        type,
+                        new Object[] {reader.read("POINT(-74 40.7)"), "New York"},
+                        "cities.2"));
+        VectorTileProducer producer =
+                new VectorTileProducer(
+                        Collections.singletonMap("cities", DataUtilities.source(cities)));
+
+        VectorTilePyramidBuilder builder = new VectorTilePyramidBuilder(producer);
+        builder.setBatchSize(2);
+        try (MBTilesFile file = new MBTilesFile()) {
+            VectorTilePyramidBuilder.Statistics stats =
+                    builder.build(
+                            file,
+                            new ReferencedEnvelope(-180, 180, -90, 90, DefaultGeographicCRS.WGS84),
+                            0,
+                            2);
+
+            // 1 + 4 + 16 tiles built, only the ones containing a city are stored
+            assertEquals(21, stats.getTiles() + stats.getEmptyTiles());
+            assertEquals(5, stats.getTiles());
+            assertEquals(stats.getTiles(), file.numberOfTiles());
+            assertTrue(stats.getTilesPerSecond() >= 0);
+
+            MBTilesMetadata metadata = file.loadMetaData();
+            assertEquals(MBTilesMetadata.t_format.PBF, metadata.getFormat());
+            assertEquals(0, metadata.getMinZoom());
+            assertEquals(2, metadata.getMaxZoom());
+
+            MBTilesTile root = file.loadTile(0, 0, 0);
+            assertNotNull(root.getData());
+            List<DecodedLayer> layers = VectorTileEncoderTest.decode(gunzip(root.getData()));
+            assertEquals("cities", layers.get(0).name);
+            assertEquals(2, layers.get(0).ids.size());
+
+            // no city in the south west quadrant at zoom level 1 (rows count from the bottom)
+            assertNull(file.loadTile(1, 0, 0).getData());
+        }
+    }
+
+    byte[] gunzip(byte[] data) throws Exception {
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                bos.write(buffer, 0, read);
+            }
+            return bos.toByteArray();
+        }
+    }
+}
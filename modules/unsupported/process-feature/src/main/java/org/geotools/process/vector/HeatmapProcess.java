@@ -366,8 +366,14 @@ public class HeatmapProcess implements VectorProcess {
                         null);
     }
 
+    /** Number of points transformed and added to the surface at once */
+    private static final int POINT_BATCH_SIZE = 4096;
+
     /**
-     * Extract points from a feature collection, and stores them in the heatmap
+     * Extract points from a feature collection, and stores them in the heatmap.
+     *
+     * <p>The point ordinates and weights are collected in primitive arrays and transformed in
+     * batches, to avoid allocating objects and calling the transform for every single point.
      *
      * @param obsPoints features to extract
      * @param attrName expression or property name used to evaluate the geometry from a feature
@@ -386,12 +392,11 @@ public class HeatmapProcess implements VectorProcess {
             attrExpr = ECQL.toExpression(attrName);
         }
 
-        SimpleFeatureIterator obsIt = obsPoints.features();
+        double[] ordinates = new double[2 * POINT_BATCH_SIZE];
+        double[] values = new double[POINT_BATCH_SIZE];
+        int count = 0;
 
-        double[] srcPt = new double[2];
-        double[] dstPt = new double[2];
-
-        int i = 0;
+        SimpleFeatureIterator obsIt = obsPoints.features();
         try {
             while (obsIt.hasNext()) {
                 SimpleFeature feature = obsIt.next();
@@ -406,23 +411,61 @@ public class HeatmapProcess implements VectorProcess {
                     // get the point location from the geometry
                     Geometry geom = (Geometry) feature.getDefaultGeometry();
                     Coordinate p = getPoint(geom);
-                    srcPt[0] = p.x;
-                    srcPt[1] = p.y;
-                    trans.transform(srcPt, 0, dstPt, 0, 1);
-                    Coordinate pobs = new Coordinate(dstPt[0], dstPt[1], val);
-
-                    heatMap.addPoint(pobs.x, pobs.y, val);
+                    ordinates[2 * count] = p.x;
+                    ordinates[2 * count + 1] = p.y;
+                    values[count] = val;
+                    count++;
                 } catch (Exception e) {
                     // just carry on for now (debugging)
                     // throw new ProcessException("Expression " + attrExpr +
                     // " failed to evaluate to a numeric value", e);
                 }
+
+                if (count == POINT_BATCH_SIZE) {
+                    addPoints(ordinates, values, count, trans, heatMap);
+                    count = 0;
+                }
             }
+            addPoints(ordinates, values, count, trans, heatMap);
         } finally {
             obsIt.close();
         }
     }
 
+    /**
+     * Transforms a batch of points and adds them to the heatmap. If the batch cannot be transformed
+     * as a whole, the points are transformed one by one skipping the failing ones.
+     */
+    private static void addPoints(
+            double[] ordinates,
+            double[] values,
+            int count,
+            MathTransform trans,
+            HeatmapSurface heatMap) {
+        if (count == 0) {
+            return;
+        }
+        if (trans.isIdentity()) {
+            heatMap.addPoints(ordinates, values, count);
+            return;
+        }
+        double[] dstPts = new double[2 * count];
+        try {
+            trans.transform(ordinates, 0, dstPts, 0, count);
+            heatMap.addPoints(dstPts, values, count);
+        } catch (Exception e) {
+            double[] dstPt = new double[2];
+            for (int i = 0; i < count; i++) {
+                try {
+                    trans.transform(ordinates, 2 * i, dstPt, 0, 1);
+                    heatMap.addPoint(dstPt[0], dstPt[1], values[i]);
+                } catch (Exception pe) {
+                    // skip the point, as done for features failing to evaluate
+                }
+            }
+        }
+    }
+
     /**
      * Gets a point to represent the Geometry. If the Geometry is a point, this is returned.
      * Otherwise, the centroid is used.
@@ -18,6 +18,14 @@
 package org.geotools.process.vector;
 
 import com.vividsolutions.jts.geom.Envelope;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.geotools.process.ProcessException;
 
 /**
  * Computes a Heat Map surface from a set of irregular data points, each containing a positive
@@ -28,6 +36,10 @@ import com.vividsolutions.jts.geom.Envelope;
  * stability, the compute grid is expanded by the kernel radius on all four sides. This avoids "edge
  * effects" from distorting the surface within the requested envelope.
  *
+ * <p>The grid is blurred in square tiles, processed in parallel. Each tile reads the data points
+ * within the kernel radius around it (its halo), so that tiles can be computed independently and
+ * still produce the same surface as a single pass over the whole grid.
+ *
  * <p>The values in the output surface are normalized to lie in the range [0, 1].
  *
  * @author Martin Davis, OpenGeo
@@ -36,6 +48,9 @@ public class HeatmapSurface {
     /** Number of iterations of box blur to approximate a Gaussian blur */
     private static final int GAUSSIAN_APPROX_ITER = 4;
 
+    /** Default size of the tiles the surface is computed in, in grid cells */
+    public static final int DEFAULT_TILE_SIZE = 512;
+
     private Envelope srcEnv;
 
     private int xSize;
@@ -44,10 +59,19 @@ public class HeatmapSurface {
 
     private GridTransform gridTrans;
 
-    private float[][] grid;
+    /** The expanded data grid, stored row by row */
+    private float[] grid;
+
+    private int xSizeExp;
+
+    private int ySizeExp;
 
     private int kernelRadiusGrid;
 
+    private int tileSize = DEFAULT_TILE_SIZE;
+
+    private ExecutorService executor;
+
     /**
      * Creates a new heatmap surface.
      *
@@ -76,10 +100,33 @@ public class HeatmapSurface {
          */
         gridTrans.setClamp(false);
 
-        int xSizeExp = xSize + 2 * kernelRadiusGrid;
-        int ySizeExp = ySize + 2 * kernelRadiusGrid;
+        xSizeExp = xSize + 2 * kernelRadiusGrid;
+        ySizeExp = ySize + 2 * kernelRadiusGrid;
+
+        grid = new float[xSizeExp * ySizeExp];
+    }
+
+    /**
+     * Sets the size of the tiles the surface is computed in. Tiles are never smaller than four
+     * times the kernel radius, to limit the overhead of the tile halos.
+     *
+     * @param tileSize the tile size, in grid cells
+     */
+    public void setTileSize(int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        this.tileSize = tileSize;
+    }
 
-        grid = new float[xSizeExp][ySizeExp];
+    /**
+     * Sets the executor used to compute the tiles in parallel. When not set, the common fork join
+     * pool is used.
+     *
+     * @param executor the executor, or null to use the common pool
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
     }
 
     /**
@@ -95,10 +142,22 @@ public class HeatmapSurface {
         int gj = gridTrans.j(y) + kernelRadiusGrid;
 
         // check if point falls outside grid - skip it if so
-        if (gi < 0 || gi > grid.length || gj < 0 || gj > grid[0].length) return;
+        if (gi < 0 || gi >= xSizeExp || gj < 0 || gj >= ySizeExp) return;
 
-        grid[gi][gj] += value;
-        // System.out.println("data[" + gi + ", " + gj + "] <- " + value);
+        grid[gj * xSizeExp + gi] += value;
+    }
+
+    /**
+     * Adds a batch of data points to the surface.
+     *
+     * @param ordinates the point ordinates, as a sequence of x,y pairs
+     * @param values the data values of the points, or null to use a value of 1 for all points
+     * @param count the number of points to add
+     */
+    public void addPoints(double[] ordinates, double[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            addPoint(ordinates[2 * i], ordinates[2 * i + 1], values == null ? 1 : values[i]);
+        }
     }
 
     /**
@@ -108,51 +167,127 @@ public class HeatmapSurface {
      * @return a grid representing the surface
      */
     public float[][] computeSurface() {
+        float[] surface = new float[grid.length];
 
-        computeHeatmap(grid, kernelRadiusGrid);
+        float max = computeHeatmap(surface);
 
-        float[][] gridOut = extractGrid(grid, kernelRadiusGrid, kernelRadiusGrid, xSize, ySize);
+        float[][] gridOut =
+                extractGrid(surface, 1.0f / max, kernelRadiusGrid, kernelRadiusGrid, xSize, ySize);
 
         return gridOut;
     }
 
-    private float[][] extractGrid(float[][] grid, int xBase, int yBase, int xSize, int ySize) {
+    /** Extracts the requested area of the surface, normalizing the values to the range [0,1] */
+    private float[][] extractGrid(
+            float[] surface, float normFactor, int xBase, int yBase, int xSize, int ySize) {
         float[][] gridExtract = new float[xSize][ySize];
-        for (int i = 0; i < xSize; i++) {
-            for (int j = 0; j < ySize; j++) {
-                gridExtract[i][j] = grid[xBase + i][yBase + j];
+        for (int j = 0; j < ySize; j++) {
+            int offset = (yBase + j) * xSizeExp + xBase;
+            for (int i = 0; i < xSize; i++) {
+                gridExtract[i][j] = surface[offset + i] * normFactor;
             }
         }
         return gridExtract;
     }
 
-    private float[][] computeHeatmap(float[][] grid, int kernelRadius) {
-        int xSize = grid.length;
-        int ySize = grid[0].length;
+    /**
+     * Computes the blurred grid into {@code surface}, one tile at a time, and returns the maximum
+     * surface value
+     */
+    private float computeHeatmap(final float[] surface) {
+        int step = Math.max(tileSize, 4 * kernelRadiusGrid);
+        List<Callable<Float>> tiles = new ArrayList<Callable<Float>>();
+        for (int y = 0; y < ySizeExp; y += step) {
+            for (int x = 0; x < xSizeExp; x += step) {
+                final int x0 = x;
+                final int y0 = y;
+                final int x1 = Math.min(x + step, xSizeExp);
+                final int y1 = Math.min(y + step, ySizeExp);
+                tiles.add(
+                        new Callable<Float>() {
+                            @Override
+                            public Float call() {
+                                return computeTile(x0, y0, x1, y1, surface);
+                            }
+                        });
+            }
+        }
+
+        float max = Float.NEGATIVE_INFINITY;
+        if (tiles.size() == 1) {
+            try {
+                return tiles.get(0).call();
+            } catch (Exception e) {
+                throw new ProcessException(e);
+            }
+        }
+        ExecutorService service = executor != null ? executor : ForkJoinPool.commonPool();
+        try {
+            for (Future<Float> tileMax : service.invokeAll(tiles)) {
+                max = Math.max(max, tileMax.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessException("Interrupted while computing the heatmap", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ProcessException(e.getCause());
+        }
+        return max;
+    }
+
+    /**
+     * Blurs the grid cells in [x0,x1) x [y0,y1), reading a halo of kernel radius cells around the
+     * tile, and returns the maximum value in the tile.
+     *
+     * <p>The blur is approximated by {@link #GAUSSIAN_APPROX_ITER} iterations of box blur in each
+     * direction. Box blur is linearly separable, and blurs along the two axes commute, so all the
+     * horizontal passes are done first and then all the vertical ones. The sum of the box radii is
+     * the kernel radius, so the cells in the tile are not affected by the truncated halo edges.
+     */
+    private float computeTile(int x0, int y0, int x1, int y1, float[] surface) {
+        int kernelRadius = kernelRadiusGrid;
+        int bx0 = Math.max(0, x0 - kernelRadius);
+        int by0 = Math.max(0, y0 - kernelRadius);
+        int width = Math.min(xSizeExp, x1 + kernelRadius) - bx0;
+        int height = Math.min(ySizeExp, y1 + kernelRadius) - by0;
+
+        float[] input = new float[width * height];
+        for (int j = 0; j < height; j++) {
+            System.arraycopy(grid, (by0 + j) * xSizeExp + bx0, input, j * width, width);
+        }
+        float[] output = new float[width * height];
 
         int baseBoxKernelRadius = kernelRadius / GAUSSIAN_APPROX_ITER;
         int radiusIncBreak = kernelRadius - baseBoxKernelRadius * GAUSSIAN_APPROX_ITER;
-
-        /**
-         * Since Box Blur is linearly separable, can implement it by doing 2 1-D box blurs in
-         * different directions. Using a flipped buffer grid allows the same code to compute each
-         * direction, as well as preserving input grid values.
-         */
-        // holds flipped copy of first box blur pass
-        float[][] grid2 = new float[ySize][xSize];
-        for (int count = 0; count < GAUSSIAN_APPROX_ITER; count++) {
+        for (int pass = 0; pass < 2 * GAUSSIAN_APPROX_ITER; pass++) {
+            int count = pass % GAUSSIAN_APPROX_ITER;
             int boxKernelRadius = baseBoxKernelRadius;
             /** If required, increment radius to ensure sum of radii equals total kernel radius */
             if (count < radiusIncBreak) boxKernelRadius++;
-            // System.out.println(boxKernelRadius);
 
-            boxBlur(boxKernelRadius, grid, grid2);
-            boxBlur(boxKernelRadius, grid2, grid);
+            if (pass < GAUSSIAN_APPROX_ITER) {
+                boxBlurRows(boxKernelRadius, input, output, width, height);
+            } else {
+                boxBlurColumns(boxKernelRadius, input, output, width, height);
+            }
+            float[] swap = input;
+            input = output;
+            output = swap;
         }
 
-        // testNormalizeFactor(baseBoxKernelRadius, radiusIncBreak);
-        normalize(grid);
-        return grid;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int y = y0; y < y1; y++) {
+            int offset = (y - by0) * width - bx0;
+            for (int x = x0; x < x1; x++) {
+                float value = input[offset + x];
+                surface[y * xSizeExp + x] = value;
+                if (value > max) max = value;
+            }
+        }
+        return max;
     }
 
     /**
@@ -188,67 +323,81 @@ public class HeatmapSurface {
         System.out.println("norm factor = " + val);
     }
 
-    /**
-     * Normalizes grid values to range [0,1]
-     *
-     * @param grid
-     */
-    private void normalize(float[][] grid) {
-        float max = Float.NEGATIVE_INFINITY;
-        for (int i = 0; i < grid.length; i++) {
-            for (int j = 0; j < grid[0].length; j++) {
-                if (grid[i][j] > max) max = grid[i][j];
-            }
-        }
-
-        float normFactor = 1.0f / max;
-
-        for (int i = 0; i < grid.length; i++) {
-            for (int j = 0; j < grid[0].length; j++) {
-                grid[i][j] *= normFactor;
-            }
-        }
-    }
-
     private float kernelVal(int kernelRadius) {
         // This kernel function has been confirmed to integrate to 1 over the full radius
         float val = (float) (1.0f / (2 * kernelRadius + 1));
         return val;
     }
 
-    private void boxBlur(int kernelRadius, float[][] input, float[][] output) {
-        int width = input.length;
-        int height = input[0].length;
-
-        // init moving average total
+    /** Box blurs each row of a width x height buffer */
+    private void boxBlurRows(
+            int kernelRadius, float[] input, float[] output, int width, int height) {
         float kernelVal = kernelVal(kernelRadius);
-        // System.out.println("boxblur: radius = " + kernelRadius + " kernel val = " + kernelVal);
 
         for (int j = 0; j < height; j++) {
+            int row = j * width;
 
+            // init moving average total
             double tot = 0.0;
-
             for (int i = -kernelRadius; i <= kernelRadius; i++) {
                 if (i < 0 || i >= width) continue;
-                tot += kernelVal * input[i][j];
+                tot += kernelVal * input[row + i];
             }
-
-            // System.out.println(tot);
-
-            output[j][0] = (float) tot;
+            output[row] = (float) tot;
 
             for (int i = 1; i < width; i++) {
-
                 // update box running total
                 int iprev = i - 1 - kernelRadius;
-                if (iprev >= 0) tot -= kernelVal * input[iprev][j];
+                if (iprev >= 0) tot -= kernelVal * input[row + iprev];
 
                 int inext = i + kernelRadius;
-                if (inext < width) tot += kernelVal * input[inext][j];
+                if (inext < width) tot += kernelVal * input[row + inext];
+
+                output[row + i] = (float) tot;
+            }
+        }
+    }
+
+    /**
+     * Box blurs each column of a width x height buffer, keeping a running total per column so that
+     * the buffer is scanned row by row
+     */
+    private void boxBlurColumns(
+            int kernelRadius, float[] input, float[] output, int width, int height) {
+        float kernelVal = kernelVal(kernelRadius);
 
-                output[j][i] = (float) tot;
-                // if (i==49 && j==147) System.out.println("val[ " + i + ", " + j + "] = " + tot);
+        // init moving average totals
+        double[] tot = new double[width];
+        for (int j = -kernelRadius; j <= kernelRadius; j++) {
+            if (j < 0 || j >= height) continue;
+            int row = j * width;
+            for (int i = 0; i < width; i++) {
+                tot[i] += kernelVal * input[row + i];
+            }
+        }
+        for (int i = 0; i < width; i++) {
+            output[i] = (float) tot[i];
+        }
 
+        for (int j = 1; j < height; j++) {
+            // update box running totals
+            int jprev = j - 1 - kernelRadius;
+            if (jprev >= 0) {
+                int row = jprev * width;
+                for (int i = 0; i < width; i++) {
+                    tot[i] -= kernelVal * input[row + i];
+                }
+            }
+            int jnext = j + kernelRadius;
+            if (jnext < height) {
+                int row = jnext * width;
+                for (int i = 0; i < width; i++) {
+                    tot[i] += kernelVal * input[row + i];
+                }
+            }
+            int row = j * width;
+            for (int i = 0; i < width; i++) {
+                output[row + i] = (float) tot[i];
             }
         }
     }
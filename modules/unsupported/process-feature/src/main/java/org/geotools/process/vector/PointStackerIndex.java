@@ -0,0 +1,581 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.process.vector;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.referencing.CRS;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * A pre-aggregated, multi resolution stacking index for the {@link PointStackerProcess}.
+ *
+ * <p>The index is built once from a feature collection, and holds for each cell of a grid pyramid
+ * the number of points, the number of unique point locations, the bounds of the points, and the
+ * locations used to place the stacked point. The finest level has the given cell size, each
+ * following level doubles it. Requests whose cell size matches the one of a level, up to a relative
+ * difference of 1e-6, are then answered from memory, without reading the data; any other cell size
+ * requires a scan.
+ *
+ * <p>Indexes can be saved to and loaded from a side file, and are registered by name for the
+ * process to use them:
+ *
+ * <pre>
+ * PointStackerIndex index = PointStackerIndex.build(features, mapCrs, 10, 16);
+ * index.write(file);
+ * PointStackerIndex.register("cities", file);
+ * </pre>
+ *
+ * <p>The answers of the index can differ from the ones of a scan: the grid uses floor rounding also
+ * for negative ordinates, weighted stacked positions are the mean of the cell points rather than
+ * the running weighted average computed by the scan, and above the finest level the position
+ * nearest to the cell center is picked among the nearest ones of the finer cells, rather than among
+ * all the points of the cell.
+ *
+ * @since 20
+ */
+public class PointStackerIndex {
+
+    private static final int MAGIC = 0x47545053; // GTPS
+
+    private static final int VERSION = 1;
+
+    /** Relative difference allowed between a requested cell size and the one of a level */
+    private static final double LEVEL_TOLERANCE = 1e-6;
+
+    private static final Map<String, Registration> REGISTRY =
+            new ConcurrentHashMap<String, Registration>();
+
+    private static final Comparator<Cell> CELL_ORDER =
+            (c1, c2) -> {
+                int result = Long.compare(c1.row, c2.row);
+                return result != 0 ? result : Long.compare(c1.col, c2.col);
+            };
+
+    /** The aggregated points of a grid cell */
+    public static final class Cell {
+
+        final double cellSize;
+
+        final long row;
+
+        final long col;
+
+        int count;
+
+        int countUnique;
+
+        double minX = Double.POSITIVE_INFINITY;
+
+        double minY = Double.POSITIVE_INFINITY;
+
+        double maxX = Double.NEGATIVE_INFINITY;
+
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        double sumX;
+
+        double sumY;
+
+        double nearestX;
+
+        double nearestY;
+
+        double nearestDistance = Double.POSITIVE_INFINITY;
+
+        double firstX;
+
+        double firstY;
+
+        Cell(double cellSize, long row, long col) {
+            this.cellSize = cellSize;
+            this.row = row;
+            this.col = col;
+        }
+
+        /** The number of points in the cell */
+        public int getCount() {
+            return count;
+        }
+
+        /** The number of unique point locations in the cell */
+        public int getCountUnique() {
+            return countUnique;
+        }
+
+        /** The bounds of the points in the cell */
+        public Envelope getBounds() {
+            return new Envelope(minX, maxX, minY, maxY);
+        }
+
+        /** The center of the cell */
+        public Coordinate getCenter() {
+            return new Coordinate((col + 0.5) * cellSize, (row + 0.5) * cellSize);
+        }
+
+        /** The point nearest to the cell center */
+        public Coordinate getNearest() {
+            return new Coordinate(nearestX, nearestY);
+        }
+
+        /** The average location of the points in the cell */
+        public Coordinate getAverage() {
+            return new Coordinate(sumX / count, sumY / count);
+        }
+
+        /** The location of the points when they are all superimposed, null otherwise */
+        public Coordinate getUniqueLocation() {
+            return countUnique == 1 ? new Coordinate(firstX, firstY) : null;
+        }
+
+        void add(double x, double y, boolean unique) {
+            if (count == 0) {
+                firstX = x;
+                firstY = y;
+            }
+            count++;
+            if (unique) {
+                countUnique++;
+            }
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            sumX += x;
+            sumY += y;
+            pickNearest(x, y);
+        }
+
+        void add(Cell child) {
+            if (count == 0) {
+                firstX = child.firstX;
+                firstY = child.firstY;
+            }
+            count += child.count;
+            countUnique += child.countUnique;
+            minX = Math.min(minX, child.minX);
+            minY = Math.min(minY, child.minY);
+            maxX = Math.max(maxX, child.maxX);
+            maxY = Math.max(maxY, child.maxY);
+            sumX += child.sumX;
+            sumY += child.sumY;
+            pickNearest(child.nearestX, child.nearestY);
+        }
+
+        private void pickNearest(double x, double y) {
+            double dx = x - (col + 0.5) * cellSize;
+            double dy = y - (row + 0.5) * cellSize;
+            double distance = dx * dx + dy * dy;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearestX = x;
+                nearestY = y;
+            }
+        }
+    }
+
+    private final CoordinateReferenceSystem crs;
+
+    /** The cells of each level, sorted by row and column */
+    private final Cell[][] levels;
+
+    private final double[] cellSizes;
+
+    private PointStackerIndex(CoordinateReferenceSystem crs, double[] cellSizes, Cell[][] levels) {
+        this.crs = crs;
+        this.cellSizes = cellSizes;
+        this.levels = levels;
+    }
+
+    /**
+     * Builds an index over the given features. For non point geometries the centroid is used.
+     *
+     * @param data the features to index
+     * @param crs the CRS the points are stacked in, should be the one of the maps the index is used
+     *     for. If null, the CRS of the data is used
+     * @param cellSize the cell size of the finest level, in units of the CRS
+     * @param levelCount the number of levels, each one doubling the cell size of the previous
+     */
+    public static PointStackerIndex build(
+            SimpleFeatureCollection data,
+            CoordinateReferenceSystem crs,
+            double cellSize,
+            int levelCount)
+            throws FactoryException, TransformException {
+        if (cellSize <= 0 || levelCount <= 0) {
+            throw new IllegalArgumentException(
+                    "Cell size and level count must be positive: " + cellSize + ", " + levelCount);
+        }
+        CoordinateReferenceSystem dataCrs = data.getSchema().getCoordinateReferenceSystem();
+        if (crs == null) {
+            crs = dataCrs;
+        }
+        MathTransform transform =
+                dataCrs == null || crs == null ? null : CRS.findMathTransform(dataCrs, crs);
+
+        Map<Coordinate, Cell> cells = new HashMap<Coordinate, Cell>();
+        PointSet points = new PointSet();
+        Coordinate key = new Coordinate();
+        double[] pt = new double[2];
+        SimpleFeatureIterator it = data.features();
+        try {
+            while (it.hasNext()) {
+                SimpleFeature feature = it.next();
+                Geometry geom = (Geometry) feature.getDefaultGeometry();
+                if (geom == null || geom.isEmpty()) {
+                    continue;
+                }
+                Coordinate p =
+                        geom.getNumPoints() == 1
+                                ? geom.getCoordinate()
+                                : geom.getCentroid().getCoordinate();
+                pt[0] = p.x;
+                pt[1] = p.y;
+                if (transform != null && !transform.isIdentity()) {
+                    transform.transform(pt, 0, pt, 0, 1);
+                }
+                if (Double.isNaN(pt[0]) || Double.isNaN(pt[1])) {
+                    continue;
+                }
+                key.x = Math.floor(pt[0] / cellSize);
+                key.y = Math.floor(pt[1] / cellSize);
+                Cell cell = cells.get(key);
+                if (cell == null) {
+                    cell = new Cell(cellSize, (long) key.y, (long) key.x);
+                    cells.put(new Coordinate(key), cell);
+                }
+                cell.add(pt[0], pt[1], points.add(pt[0], pt[1]));
+            }
+        } finally {
+            it.close();
+        }
+
+        double[] cellSizes = new double[levelCount];
+        Cell[][] levels = new Cell[levelCount][];
+        cellSizes[0] = cellSize;
+        levels[0] = sort(cells.values());
+        for (int level = 1; level < levelCount; level++) {
+            cellSizes[level] = cellSizes[level - 1] * 2;
+            cells = new HashMap<Coordinate, Cell>();
+            for (Cell child : levels[level - 1]) {
+                key.x = Math.floorDiv(child.col, 2);
+                key.y = Math.floorDiv(child.row, 2);
+                Cell cell = cells.get(key);
+                if (cell == null) {
+                    cell = new Cell(cellSizes[level], (long) key.y, (long) key.x);
+                    cells.put(new Coordinate(key), cell);
+                }
+                cell.add(child);
+            }
+            levels[level] = sort(cells.values());
+        }
+        return new PointStackerIndex(crs, cellSizes, levels);
+    }
+
+    private static Cell[] sort(Collection<Cell> cells) {
+        Cell[] result = cells.toArray(new Cell[cells.size()]);
+        Arrays.sort(result, CELL_ORDER);
+        return result;
+    }
+
+    /** The CRS the points are stacked in */
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /** The cell size of each level, from the finest to the coarsest */
+    public double[] getCellSizes() {
+        return cellSizes.clone();
+    }
+
+    /**
+     * Returns the level whose cell size matches the given one, up to rounding errors, or -1 if the
+     * index has no such level. Other cell sizes would stack the points differently, the data has to
+     * be scanned for them.
+     */
+    public int getLevel(double cellSize) {
+        if (!(cellSize > 0)) {
+            return -1;
+        }
+        long level = Math.round(Math.log(cellSize / cellSizes[0]) / Math.log(2));
+        if (level < 0 || level >= levels.length) {
+            return -1;
+        }
+        double expected = cellSizes[(int) level];
+        return Math.abs(cellSize - expected) <= expected * LEVEL_TOLERANCE ? (int) level : -1;
+    }
+
+    /**
+     * Returns the cells of a level intersecting the given envelope.
+     *
+     * @param level the level, as returned by {@link #getLevel(double)}
+     * @param envelope the area of interest, in the index CRS
+     */
+    public List<Cell> query(int level, Envelope envelope) {
+        Cell[] cells = levels[level];
+        double cellSize = cellSizes[level];
+        long minRow = (long) Math.floor(envelope.getMinY() / cellSize);
+        long maxRow = (long) Math.floor(envelope.getMaxY() / cellSize);
+        long minCol = (long) Math.floor(envelope.getMinX() / cellSize);
+        long maxCol = (long) Math.floor(envelope.getMaxX() / cellSize);
+
+        List<Cell> result = new ArrayList<Cell>();
+        int idx = search(cells, minRow, minCol);
+        while (idx < cells.length && cells[idx].row <= maxRow) {
+            Cell cell = cells[idx];
+            if (cell.col < minCol) {
+                idx = search(cells, cell.row, minCol);
+            } else if (cell.col > maxCol) {
+                idx = search(cells, cell.row + 1, minCol);
+            } else {
+                result.add(cell);
+                idx++;
+            }
+        }
+        return result;
+    }
+
+    /** Returns the index of the first cell at or after the given row and column */
+    private static int search(Cell[] cells, long row, long col) {
+        int low = 0;
+        int high = cells.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Cell cell = cells[mid];
+            if (cell.row < row || (cell.row == row && cell.col < col)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Writes the index to a side file */
+    public void write(File file) throws IOException {
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(crs == null ? "" : crs.toWKT());
+            out.writeInt(levels.length);
+            for (int level = 0; level < levels.length; level++) {
+                out.writeDouble(cellSizes[level]);
+                out.writeInt(levels[level].length);
+                for (Cell cell : levels[level]) {
+                    out.writeLong(cell.row);
+                    out.writeLong(cell.col);
+                    out.writeInt(cell.count);
+                    out.writeInt(cell.countUnique);
+                    out.writeDouble(cell.minX);
+                    out.writeDouble(cell.minY);
+                    out.writeDouble(cell.maxX);
+                    out.writeDouble(cell.maxY);
+                    out.writeDouble(cell.sumX);
+                    out.writeDouble(cell.sumY);
+                    out.writeDouble(cell.nearestX);
+                    out.writeDouble(cell.nearestY);
+                    out.writeDouble(cell.firstX);
+                    out.writeDouble(cell.firstY);
+                }
+            }
+        }
+    }
+
+    /** Reads an index from a side file written by {@link #write(File)} */
+    public static PointStackerIndex read(File file) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a point stacker index");
+            }
+            String wkt = in.readUTF();
+            CoordinateReferenceSystem crs;
+            try {
+                crs = wkt.isEmpty() ? null : CRS.parseWKT(wkt);
+            } catch (FactoryException e) {
+                throw new IOException("Cannot parse the index CRS", e);
+            }
+            int levelCount = in.readInt();
+            double[] cellSizes = new double[levelCount];
+            Cell[][] levels = new Cell[levelCount][];
+            for (int level = 0; level < levelCount; level++) {
+                cellSizes[level] = in.readDouble();
+                Cell[] cells = new Cell[in.readInt()];
+                for (int i = 0; i < cells.length; i++) {
+                    Cell cell = new Cell(cellSizes[level], in.readLong(), in.readLong());
+                    cell.count = in.readInt();
+                    cell.countUnique = in.readInt();
+                    cell.minX = in.readDouble();
+                    cell.minY = in.readDouble();
+                    cell.maxX = in.readDouble();
+                    cell.maxY = in.readDouble();
+                    cell.sumX = in.readDouble();
+                    cell.sumY = in.readDouble();
+                    cell.nearestX = in.readDouble();
+                    cell.nearestY = in.readDouble();
+                    cell.firstX = in.readDouble();
+                    cell.firstY = in.readDouble();
+                    cells[i] = cell;
+                }
+                levels[level] = cells;
+            }
+            return new PointStackerIndex(crs, cellSizes, levels);
+        }
+    }
+
+    /** Registers an in memory index under the given name */
+    public static void register(String name, PointStackerIndex index) {
+        REGISTRY.put(name, new Registration(index, null));
+    }
+
+    /**
+     * Registers an index side file under the given name. The file is read on first use, and read
+     * again if modified.
+     */
+    public static void register(String name, File file) {
+        REGISTRY.put(name, new Registration(null, file));
+    }
+
+    /** Removes an index from the registry */
+    public static void unregister(String name) {
+        REGISTRY.remove(name);
+    }
+
+    /** Returns the index registered under the given name, or null if there is none */
+    public static PointStackerIndex lookup(String name) throws IOException {
+        Registration registration = REGISTRY.get(name);
+        return registration == null ? null : registration.get();
+    }
+
+    private static class Registration {
+
+        private final PointStackerIndex index;
+
+        private final File file;
+
+        private SoftReference<PointStackerIndex> loaded;
+
+        private long lastModified;
+
+        Registration(PointStackerIndex index, File file) {
+            this.index = index;
+            this.file = file;
+        }
+
+        synchronized PointStackerIndex get() throws IOException {
+            if (index != null) {
+                return index;
+            }
+            PointStackerIndex result = loaded == null ? null : loaded.get();
+            long modified = file.lastModified();
+            if (result == null || modified != lastModified) {
+                result = read(file);
+                loaded = new SoftReference<PointStackerIndex>(result);
+                lastModified = modified;
+            }
+            return result;
+        }
+    }
+
+    /** An open addressing hash set of point locations, used to count the unique points */
+    private static class PointSet {
+
+        private long[] xs;
+
+        private long[] ys;
+
+        private boolean[] used;
+
+        private int size;
+
+        PointSet() {
+            allocate(1024);
+        }
+
+        private void allocate(int capacity) {
+            xs = new long[capacity];
+            ys = new long[capacity];
+            used = new boolean[capacity];
+            size = 0;
+        }
+
+        /** Adds a point, returns true if it was not already in the set */
+        boolean add(double x, double y) {
+            // adding zero turns -0.0 into 0.0, as they are the same location
+            long xb = Double.doubleToLongBits(x + 0.0);
+            long yb = Double.doubleToLongBits(y + 0.0);
+            if (!insert(xb, yb)) {
+                return false;
+            }
+            if (++size * 2 > used.length) {
+                long[] oldXs = xs;
+                long[] oldYs = ys;
+                boolean[] oldUsed = used;
+                allocate(oldUsed.length * 2);
+                for (int i = 0; i < oldUsed.length; i++) {
+                    if (oldUsed[i]) {
+                        insert(oldXs[i], oldYs[i]);
+                        size++;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean insert(long xb, long yb) {
+            int mask = used.length - 1;
+            long hash = xb * 31 + yb;
+            int idx = (int) (hash ^ (hash >>> 32)) * 0x9E3779B9 & mask;
+            while (used[idx]) {
+                if (xs[idx] == xb && ys[idx] == yb) {
+                    return false;
+                }
+                idx = (idx + 1) & mask;
+            }
+            used[idx] = true;
+            xs[idx] = xb;
+            ys[idx] = yb;
+            return true;
+        }
+    }
+}
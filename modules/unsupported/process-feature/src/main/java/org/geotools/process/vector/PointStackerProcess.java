@@ -24,11 +24,19 @@ import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 import org.geotools.data.collection.ListFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
@@ -40,6 +48,7 @@ import org.geotools.process.factory.DescribeParameter;
 import org.geotools.process.factory.DescribeProcess;
 import org.geotools.process.factory.DescribeResult;
 import org.geotools.referencing.CRS;
+import org.geotools.util.logging.Logging;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.referencing.FactoryException;
@@ -112,6 +121,11 @@ public class PointStackerProcess implements VectorProcess {
 
     public static final String ATTR_NORM_COUNT_UNIQUE = "normCountUnique";
 
+    private static final Logger LOGGER = Logging.getLogger(PointStackerProcess.class);
+
+    /** Number of points read before being stacked, possibly in parallel */
+    private static final int STACK_BATCH_SIZE = 16384;
+
     // TODO: add ability to pick index point selection strategy
     // TODO: add ability to set attribute name containing value to be aggregated
     // TODO: add ability to specify aggregation method (COUNT, SUM, AVG)
@@ -124,6 +138,31 @@ public class PointStackerProcess implements VectorProcess {
     // no process state is defined, since RenderingTransformation processes must
     // be stateless
 
+    /** Stacks the points of the input collection, without using a pre-aggregated index */
+    public SimpleFeatureCollection execute(
+            SimpleFeatureCollection data,
+            Integer cellSize,
+            Boolean argWeightClusterPosition,
+            Boolean argNormalize,
+            PreserveLocation preserveLocation,
+            ReferencedEnvelope outputEnv,
+            Integer outputWidth,
+            Integer outputHeight,
+            ProgressListener monitor)
+            throws ProcessException, TransformException {
+        return execute(
+                data,
+                cellSize,
+                argWeightClusterPosition,
+                argNormalize,
+                preserveLocation,
+                outputEnv,
+                outputWidth,
+                outputHeight,
+                null,
+                monitor);
+    }
+
     @DescribeResult(name = "result", description = "Aggregated feature collection")
     public SimpleFeatureCollection execute(
 
@@ -177,6 +216,13 @@ public class PointStackerProcess implements VectorProcess {
                         minValue = 1
                     )
                     Integer outputHeight,
+            @DescribeParameter(
+                        name = "index",
+                        description =
+                                "Name of a registered pre-aggregated stacking index, built from all the features of the input collection. Passing it states that the input is not filtered: the request is then answered from the index, ignoring the input, when the index has a level for the requested cell size",
+                        min = 0
+                    )
+                    String indexName,
             ProgressListener monitor)
             throws ProcessException, TransformException {
 
@@ -205,15 +251,24 @@ public class PointStackerProcess implements VectorProcess {
         // assume same CRS for now...
         double cellSizeSrc = cellSize * outputEnv.getWidth() / outputWidth;
 
+        // use the pre-aggregated index if one is available for this request
+        Collection<StackedPoint> stackedPts = null;
+        if (indexName != null) {
+            stackedPts =
+                    stackIndexedPoints(
+                            indexName, dstCRS, cellSizeSrc, weightClusterPosition, outputEnv);
+        }
         // create cluster points, based on cellSize and width and height of the viewd area.
-        Collection<StackedPoint> stackedPts =
-                stackPoints(
-                        data,
-                        crsTransform,
-                        cellSizeSrc,
-                        weightClusterPosition,
-                        outputEnv.getMinX(),
-                        outputEnv.getMinY());
+        if (stackedPts == null) {
+            stackedPts =
+                    stackPoints(
+                            data,
+                            crsTransform,
+                            cellSizeSrc,
+                            weightClusterPosition,
+                            outputEnv.getMinX(),
+                            outputEnv.getMinY());
+        }
 
         SimpleFeatureType schema = createType(srcCRS, normalize);
         ListFeatureCollection result = new ListFeatureCollection(schema);
@@ -300,10 +355,58 @@ public class PointStackerProcess implements VectorProcess {
         return pt;
     }
 
+    /**
+     * Gets the stacked points from a registered {@link PointStackerIndex}, in place of the input
+     * data, which the caller stated the index has been built from. Returns null if the index cannot
+     * answer the request, because of a different CRS or no level matching the cell size.
+     */
+    private Collection<StackedPoint> stackIndexedPoints(
+            String indexName,
+            CoordinateReferenceSystem dstCRS,
+            double cellSize,
+            boolean weightClusterPosition,
+            Envelope outputEnv) {
+        PointStackerIndex index;
+        try {
+            index = PointStackerIndex.lookup(indexName);
+        } catch (IOException e) {
+            throw new ProcessException("Failed to load point stacker index " + indexName, e);
+        }
+        if (index == null) {
+            throw new ProcessException("Unknown point stacker index " + indexName);
+        }
+        int level = index.getLevel(cellSize);
+        if (level < 0 || !CRS.equalsIgnoreMetadata(index.getCoordinateReferenceSystem(), dstCRS)) {
+            LOGGER.fine(
+                    "Point stacker index " + indexName + " cannot answer the request, scanning");
+            return null;
+        }
+
+        List<StackedPoint> result = new ArrayList<StackedPoint>();
+        for (PointStackerIndex.Cell cell : index.query(level, outputEnv)) {
+            Coordinate location =
+                    weightClusterPosition
+                            ? cell.getAverage()
+                            : StackedPoint.average(cell.getCenter(), cell.getNearest());
+            result.add(
+                    new StackedPoint(
+                            location,
+                            cell.getUniqueLocation(),
+                            cell.getCount(),
+                            cell.getCountUnique(),
+                            cell.getBounds()));
+        }
+        return result;
+    }
+
     /**
      * Computes the stacked points for the given data collection. All geometry types are handled -
      * for non-point geometries, the centroid is used.
      *
+     * <p>Points are read in batches. Unless the cluster position is weighted, which depends on the
+     * order the points are added in, the batches are stacked in parallel and the partial results
+     * merged in reading order.
+     *
      * @param data
      * @param cellSize
      * @param minX
@@ -313,54 +416,139 @@ public class PointStackerProcess implements VectorProcess {
      */
     private Collection<StackedPoint> stackPoints(
             SimpleFeatureCollection data,
-            MathTransform crsTransform,
-            double cellSize,
+            final MathTransform crsTransform,
+            final double cellSize,
             boolean weightClusterPosition,
             double minX,
             double minY)
             throws TransformException {
-        SimpleFeatureIterator featureIt = data.features();
-
         Map<Coordinate, StackedPoint> stackedPts = new HashMap<Coordinate, StackedPoint>();
 
-        double[] srcPt = new double[2];
-        double[] dstPt = new double[2];
+        ForkJoinPool executor = ForkJoinPool.commonPool();
+        boolean parallel = !weightClusterPosition && executor.getParallelism() > 1;
+        LinkedList<Future<Map<Coordinate, StackedPoint>>> pending =
+                new LinkedList<Future<Map<Coordinate, StackedPoint>>>();
 
-        Coordinate indexPt = new Coordinate();
+        double[] batch = new double[2 * STACK_BATCH_SIZE];
+        int size = 0;
+        SimpleFeatureIterator featureIt = data.features();
         try {
             while (featureIt.hasNext()) {
                 SimpleFeature feature = featureIt.next();
                 // get the point location from the geometry
                 Geometry geom = (Geometry) feature.getDefaultGeometry();
                 Coordinate p = getRepresentativePoint(geom);
+                batch[2 * size] = p.x;
+                batch[2 * size + 1] = p.y;
+                size++;
+
+                if (size == STACK_BATCH_SIZE) {
+                    if (parallel) {
+                        final double[] points = batch;
+                        pending.add(
+                                executor.submit(
+                                        () ->
+                                                stackBatch(
+                                                        points,
+                                                        STACK_BATCH_SIZE,
+                                                        crsTransform,
+                                                        cellSize,
+                                                        false,
+                                                        new HashMap<Coordinate, StackedPoint>())));
+                        batch = new double[2 * STACK_BATCH_SIZE];
+                        // limit the number of batches held in memory
+                        if (pending.size() > 2 * executor.getParallelism()) {
+                            merge(stackedPts, getStackedBatch(pending.removeFirst()));
+                        }
+                    } else {
+                        stackBatch(
+                                batch,
+                                size,
+                                crsTransform,
+                                cellSize,
+                                weightClusterPosition,
+                                stackedPts);
+                    }
+                    size = 0;
+                }
+            }
+            while (!pending.isEmpty()) {
+                merge(stackedPts, getStackedBatch(pending.removeFirst()));
+            }
+            stackBatch(batch, size, crsTransform, cellSize, weightClusterPosition, stackedPts);
+        } finally {
+            featureIt.close();
+            for (Future<?> future : pending) {
+                future.cancel(true);
+            }
+        }
+        return stackedPts.values();
+    }
 
-                // reproject data point to output CRS, if required
-                srcPt[0] = p.x;
-                srcPt[1] = p.y;
-                crsTransform.transform(srcPt, 0, dstPt, 0, 1);
-                Coordinate pout = new Coordinate(dstPt[0], dstPt[1]);
+    /** Stacks a batch of points, given as x,y pairs in the source CRS, into a map of cells */
+    private Map<Coordinate, StackedPoint> stackBatch(
+            double[] points,
+            int size,
+            MathTransform crsTransform,
+            double cellSize,
+            boolean weightClusterPosition,
+            Map<Coordinate, StackedPoint> stackedPts)
+            throws TransformException {
+        // reproject data points to output CRS, if required
+        crsTransform.transform(points, 0, points, 0, size);
 
-                indexPt.x = pout.x;
-                indexPt.y = pout.y;
-                gridIndex(indexPt, cellSize);
+        Coordinate indexPt = new Coordinate();
+        for (int i = 0; i < size; i++) {
+            Coordinate pout = new Coordinate(points[2 * i], points[2 * i + 1]);
 
-                StackedPoint stkPt = stackedPts.get(indexPt);
-                if (stkPt == null) {
+            indexPt.x = pout.x;
+            indexPt.y = pout.y;
+            gridIndex(indexPt, cellSize);
 
-                    /** Note that we compute the cluster position in the middle of the grid */
-                    double centreX = indexPt.x * cellSize + cellSize / 2;
-                    double centreY = indexPt.y * cellSize + cellSize / 2;
+            StackedPoint stkPt = stackedPts.get(indexPt);
+            if (stkPt == null) {
 
-                    stkPt = new StackedPoint(indexPt, new Coordinate(centreX, centreY));
-                    stackedPts.put(stkPt.getKey(), stkPt);
-                }
-                stkPt.add(pout, weightClusterPosition);
+                /** Note that we compute the cluster position in the middle of the grid */
+                double centreX = indexPt.x * cellSize + cellSize / 2;
+                double centreY = indexPt.y * cellSize + cellSize / 2;
+
+                stkPt = new StackedPoint(indexPt, new Coordinate(centreX, centreY));
+                stackedPts.put(stkPt.getKey(), stkPt);
             }
+            stkPt.add(pout, weightClusterPosition);
+        }
+        return stackedPts;
+    }
 
-        } finally {
-            featureIt.close();
+    private Map<Coordinate, StackedPoint> getStackedBatch(
+            Future<Map<Coordinate, StackedPoint>> future) throws TransformException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessException("Interrupted while stacking points", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransformException) {
+                throw (TransformException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ProcessException(cause);
+        }
+    }
+
+    /** Merges stacked points computed over later points into the given ones */
+    private void merge(
+            Map<Coordinate, StackedPoint> stackedPts, Map<Coordinate, StackedPoint> others) {
+        for (StackedPoint other : others.values()) {
+            StackedPoint stkPt = stackedPts.get(other.getKey());
+            if (stkPt == null) {
+                stackedPts.put(other.getKey(), other);
+            } else {
+                stkPt.merge(other);
+            }
         }
-        return stackedPts.values();
     }
 
     /**
@@ -426,10 +614,18 @@ public class PointStackerProcess implements VectorProcess {
 
         private Coordinate location = null;
 
+        /** The point nearest to the cell center, when not weighting the cluster position */
+        private Coordinate nearest = null;
+
         private int count = 0;
 
         private Set<Coordinate> uniquePts;
 
+        /** Unique points count and location, when not tracking the unique points */
+        private int countUnique = 1;
+
+        private Coordinate uniqueLocation;
+
         private Envelope boundingBox = null;
         /**
          * Creates a new stacked point grid cell. The center point of the cell is supplied so that
@@ -443,6 +639,20 @@ public class PointStackerProcess implements VectorProcess {
             this.centerPt = centerPt;
         }
 
+        /** Creates a stacked point from pre-aggregated values */
+        public StackedPoint(
+                Coordinate location,
+                Coordinate uniqueLocation,
+                int count,
+                int countUnique,
+                Envelope boundingBox) {
+            this.location = location;
+            this.uniqueLocation = uniqueLocation;
+            this.count = count;
+            this.countUnique = countUnique;
+            this.boundingBox = boundingBox;
+        }
+
         public Coordinate getKey() {
             return key;
         }
@@ -456,7 +666,7 @@ public class PointStackerProcess implements VectorProcess {
         }
 
         public int getCountUnique() {
-            if (uniquePts == null) return 1;
+            if (uniquePts == null) return countUnique;
             return uniquePts.size();
         }
         /**
@@ -486,7 +696,6 @@ public class PointStackerProcess implements VectorProcess {
          * @param weightClusterPosition
          */
         public void add(Coordinate pt, boolean weightClusterPosition) {
-            GeometryFactory factory = new GeometryFactory(new PackedCoordinateSequenceFactory());
             count++;
             /**
              * Only create set if this is the second point seen (and assum the first pt is in
@@ -503,7 +712,7 @@ public class PointStackerProcess implements VectorProcess {
                 pickNearestLocation(pt);
             }
             if (boundingBox == null) {
-                boundingBox = new Envelope();
+                boundingBox = new Envelope(pt);
             } else {
                 boundingBox.expandToInclude(pt);
             }
@@ -519,11 +728,37 @@ public class PointStackerProcess implements VectorProcess {
         public Coordinate getOriginalLocation() {
             if (uniquePts != null && uniquePts.size() == 1) {
                 return uniquePts.iterator().next();
+            } else if (uniquePts == null && countUnique == 1) {
+                return uniqueLocation;
             } else {
                 return null;
             }
         }
 
+        /**
+         * Merges a stacked point of the same cell, computed over points following the ones of this
+         * one. Only supported when not weighting the cluster position.
+         *
+         * @param other
+         */
+        public void merge(StackedPoint other) {
+            count += other.count;
+            if (uniquePts == null) {
+                uniquePts = new HashSet<Coordinate>();
+            }
+            if (other.uniquePts != null) {
+                uniquePts.addAll(other.uniquePts);
+            }
+            if (other.nearest != null) {
+                pickNearestLocation(other.nearest);
+            }
+            if (boundingBox == null) {
+                boundingBox = other.boundingBox;
+            } else if (other.boundingBox != null) {
+                boundingBox.expandToInclude(other.boundingBox);
+            }
+        }
+
         /**
          * Calcultate the weighted position of the cluster based on points which it holds.
          *
@@ -547,11 +782,8 @@ public class PointStackerProcess implements VectorProcess {
          */
         private void pickNearestLocation(Coordinate pt) {
             // strategy - pick most central point
-            if (location == null) {
-                location = average(centerPt, pt);
-                return;
-            }
-            if (pt.distance(centerPt) < location.distance(centerPt)) {
+            if (nearest == null || pt.distance(centerPt) < nearest.distance(centerPt)) {
+                nearest = pt;
                 location = average(centerPt, pt);
             }
         }
@@ -585,7 +817,7 @@ public class PointStackerProcess implements VectorProcess {
             }
         }
 
-        private static Coordinate average(Coordinate p1, Coordinate p2) {
+        static Coordinate average(Coordinate p1, Coordinate p2) {
             double x = (p1.x + p2.x) / 2;
             double y = (p1.y + p2.y) / 2;
             return new Coordinate(x, y);
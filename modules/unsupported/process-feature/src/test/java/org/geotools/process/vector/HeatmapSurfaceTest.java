@@ -0,0 +1,154 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.process.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import com.vividsolutions.jts.geom.Envelope;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+public class HeatmapSurfaceTest {
+
+    static final Envelope ENV = new Envelope(0, 100, 0, 50);
+
+    static final int WIDTH = 200;
+
+    static final int HEIGHT = 100;
+
+    static final int RADIUS = 11;
+
+    @Test
+    public void testTiledMatchesSingleTile() {
+        double[] points = randomPoints(5000);
+
+        HeatmapSurface single = surface(points, Integer.MAX_VALUE);
+        HeatmapSurface tiled = surface(points, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            tiled.setExecutor(executor);
+            assertGridEquals(single.computeSurface(), tiled.computeSurface());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatchesInterleavedBoxBlur() {
+        double[] points = randomPoints(500);
+
+        float[][] expected = referenceSurface(points);
+        float[][] actual = surface(points, 1).computeSurface();
+        assertGridEquals(expected, actual);
+    }
+
+    @Test
+    public void testPointsOnGridEdges() {
+        HeatmapSurface surface = new HeatmapSurface(0, ENV, WIDTH, HEIGHT);
+        // the last cell along both axes, and points outside the expanded grid
+        surface.addPoint(ENV.getMaxX(), ENV.getMaxY(), 1);
+        surface.addPoint(ENV.getMaxX() * 2, ENV.getMaxY(), 1);
+        surface.addPoint(-ENV.getMaxX(), -ENV.getMaxY(), 1);
+        float[][] grid = surface.computeSurface();
+        assertEquals(1f, grid[WIDTH - 1][HEIGHT - 1], 0f);
+        assertEquals(0f, grid[0][0], 0f);
+    }
+
+    private double[] randomPoints(int count) {
+        Random random = new Random(42);
+        double[] points = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            // include points in the grid expansion and outside of it
+            points[2 * i] = ENV.getMinX() - 20 + random.nextDouble() * (ENV.getWidth() + 40);
+            points[2 * i + 1] = ENV.getMinY() - 20 + random.nextDouble() * (ENV.getHeight() + 40);
+        }
+        return points;
+    }
+
+    private HeatmapSurface surface(double[] points, int tileSize) {
+        HeatmapSurface surface = new HeatmapSurface(RADIUS, ENV, WIDTH, HEIGHT);
+        surface.setTileSize(tileSize);
+        surface.addPoints(points, null, points.length / 2);
+        return surface;
+    }
+
+    private void assertGridEquals(float[][] expected, float[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].length, actual[i].length);
+            for (int j = 0; j < expected[i].length; j++) {
+                assertEquals("At " + i + "," + j, expected[i][j], actual[i][j], 1e-5);
+            }
+        }
+    }
+
+    /**
+     * Computes the surface over a single grid, alternating horizontal and vertical box blurs as the
+     * surface was originally computed
+     */
+    private float[][] referenceSurface(double[] points) {
+        GridTransform gridTrans = new GridTransform(ENV, WIDTH, HEIGHT);
+        gridTrans.setClamp(false);
+        float[][] grid = new float[WIDTH + 2 * RADIUS][HEIGHT + 2 * RADIUS];
+        for (int k = 0; k < points.length; k += 2) {
+            int i = gridTrans.i(points[k]) + RADIUS;
+            int j = gridTrans.j(points[k + 1]) + RADIUS;
+            if (i >= 0 && i < grid.length && j >= 0 && j < grid[0].length) {
+                grid[i][j] += 1;
+            }
+        }
+
+        float[][] flipped = new float[grid[0].length][grid.length];
+        for (int count = 0; count < 4; count++) {
+            int radius = RADIUS / 4 + (count < RADIUS % 4 ? 1 : 0);
+            boxBlur(radius, grid, flipped);
+            boxBlur(radius, flipped, grid);
+        }
+
+        float max = Float.NEGATIVE_INFINITY;
+        for (float[] column : grid) {
+            for (float value : column) {
+                max = Math.max(max, value);
+            }
+        }
+        float[][] result = new float[WIDTH][HEIGHT];
+        for (int i = 0; i < WIDTH; i++) {
+            for (int j = 0; j < HEIGHT; j++) {
+                result[i][j] = grid[i + RADIUS][j + RADIUS] * (1.0f / max);
+            }
+        }
+        return result;
+    }
+
+    private void boxBlur(int radius, float[][] input, float[][] output) {
+        float kernelVal = 1.0f / (2 * radius + 1);
+        for (int j = 0; j < input[0].length; j++) {
+            for (int i = 0; i < input.length; i++) {
+                double tot = 0;
+                for (int k = i - radius; k <= i + radius; k++) {
+                    if (k >= 0 && k < input.length) {
+                        tot += kernelVal * input[k][j];
+                    }
+                }
+                output[j][i] = (float) tot;
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.process.vector;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import java.io.File;
+import java.util.List;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.feature.DefaultFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class PointStackerIndexTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBuildAndQuery() throws Exception {
+        PointStackerIndex index = buildIndex();
+        assertArrayEquals(new double[] {1, 2, 4}, index.getCellSizes(), 0d);
+        assertEquals(0, index.getLevel(1));
+        assertEquals(1, index.getLevel(2));
+        assertEquals(1, index.getLevel(2 * (1 + 1e-12)));
+        // in range, but stacking on a different grid
+        assertEquals(-1, index.getLevel(2.5));
+        assertEquals(-1, index.getLevel(3));
+        assertEquals(2, index.getLevel(4));
+        assertEquals(-1, index.getLevel(0.5));
+        assertEquals(-1, index.getLevel(10));
+
+        List<PointStackerIndex.Cell> cells = index.query(0, new Envelope(-1, 10, -1, 10));
+        assertEquals(4, cells.size());
+        PointStackerIndex.Cell cell = cells.get(0);
+        assertEquals(1, cell.getCount());
+        assertEquals(new Coordinate(-0.5, -0.5), cell.getCenter());
+        assertEquals(new Coordinate(-0.5, -0.5), cell.getUniqueLocation());
+
+        // two superimposed points and a third one
+        cell = cells.get(2);
+        assertEquals(3, cell.getCount());
+        assertEquals(2, cell.getCountUnique());
+        assertNull(cell.getUniqueLocation());
+        assertEquals(new Envelope(1.2, 1.6, 1.2, 1.6), cell.getBounds());
+        assertEquals(new Coordinate(1.6, 1.6), cell.getNearest());
+
+        // the coarser levels sum up the finer cells
+        cells = index.query(2, new Envelope(-1, 10, -1, 10));
+        assertEquals(2, cells.size());
+        assertEquals(6, cells.get(1).getCount());
+        assertEquals(5, cells.get(1).getCountUnique());
+        assertEquals(new Envelope(0.5, 3.5, 0, 3.5), cells.get(1).getBounds());
+        assertEquals(1, index.query(2, new Envelope(0, 10, 0, 10)).size());
+
+        // only the cells within the area of interest
+        cells = index.query(0, new Envelope(3, 4, 3, 4));
+        assertEquals(1, cells.size());
+        assertEquals(2, cells.get(0).getCount());
+        assertEquals(0, index.query(0, new Envelope(5, 6, 5, 6)).size());
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        PointStackerIndex index = buildIndex();
+        File file = folder.newFile("points.idx");
+        index.write(file);
+
+        PointStackerIndex read = PointStackerIndex.read(file);
+        assertArrayEquals(index.getCellSizes(), read.getCellSizes(), 0d);
+        for (int level = 0; level < 3; level++) {
+            Envelope all = new Envelope(-100, 100, -100, 100);
+            List<PointStackerIndex.Cell> expected = index.query(level, all);
+            List<PointStackerIndex.Cell> actual = read.query(level, all);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getCount(), actual.get(i).getCount());
+                assertEquals(expected.get(i).getCountUnique(), actual.get(i).getCountUnique());
+                assertEquals(expected.get(i).getBounds(), actual.get(i).getBounds());
+                assertEquals(expected.get(i).getNearest(), actual.get(i).getNearest());
+                assertEquals(expected.get(i).getAverage(), actual.get(i).getAverage());
+            }
+        }
+
+        PointStackerIndex.register("testWriteRead", file);
+        try {
+            PointStackerIndex registered = PointStackerIndex.lookup("testWriteRead");
+            assertEquals(3, registered.query(0, new Envelope(0, 10, 0, 10)).size());
+            assertSame(registered, PointStackerIndex.lookup("testWriteRead"));
+        } finally {
+            PointStackerIndex.unregister("testWriteRead");
+        }
+        assertNull(PointStackerIndex.lookup("testWriteRead"));
+    }
+
+    private PointStackerIndex buildIndex() throws Exception {
+        return PointStackerIndex.build(
+                createPoints(
+                        new Coordinate(-0.5, -0.5),
+                        new Coordinate(1.2, 1.2),
+                        new Coordinate(1.2, 1.2),
+                        new Coordinate(1.6, 1.6),
+                        new Coordinate(3.2, 3.2),
+                        new Coordinate(3.5, 3.5),
+                        new Coordinate(0.5, 0)),
+                null,
+                1,
+                3);
+    }
+
+    private SimpleFeatureCollection createPoints(Coordinate... pts) {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("data");
+        tb.setCRS(DefaultGeographicCRS.WGS84);
+        tb.add("shape", Point.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(type);
+        DefaultFeatureCollection fc = new DefaultFeatureCollection();
+        GeometryFactory factory = new GeometryFactory();
+        for (Coordinate p : pts) {
+            fb.add(factory.createPoint(p));
+            fc.add(fb.buildFeature(null));
+        }
+        return fc;
+    }
+}
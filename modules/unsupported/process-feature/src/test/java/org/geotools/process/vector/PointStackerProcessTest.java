@@ -24,6 +24,8 @@ import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.MultiPoint;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+import java.util.Random;
+import org.geotools.data.collection.ListFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
 import org.geotools.feature.DefaultFeatureCollection;
@@ -197,6 +199,127 @@ public class PointStackerProcessTest {
         checkStackedPoint(null, 2, 2, getResultPoint(result, new Coordinate(8, 8)));
     }
 
+    @Test
+    public void testIndexed() throws Exception {
+        ReferencedEnvelope bounds =
+                new ReferencedEnvelope(0, 10, 0, 10, DefaultGeographicCRS.WGS84);
+        Coordinate[] data =
+                new Coordinate[] {
+                    new Coordinate(4, 4),
+                    new Coordinate(4.1, 4.1),
+                    new Coordinate(4.1, 4.1),
+                    new Coordinate(8, 8)
+                };
+        SimpleFeatureCollection fc = createPoints(data, bounds);
+        PointStackerIndex.register(
+                "testIndexed", PointStackerIndex.build(fc, DefaultGeographicCRS.WGS84, 0.5, 4));
+        try {
+            // the data is not read, the index answers
+            SimpleFeatureCollection empty = new ListFeatureCollection(fc.getSchema());
+            PointStackerProcess psp = new PointStackerProcess();
+            SimpleFeatureCollection result =
+                    psp.execute(
+                            empty,
+                            100, // cellSize
+                            null, // weightClusterPosition
+                            true, // normalize
+                            PreserveLocation.Single, // preserve location
+                            bounds, // outputBBOX
+                            1000, // outputWidth
+                            1000, // outputHeight
+                            "testIndexed", // index
+                            null);
+
+            checkSchemaCorrect(result.getSchema(), true);
+            assertEquals(2, result.size());
+            checkResultPoint(result, new Coordinate(4, 4), 3, 2, 1.0d, 1.0d);
+            checkResultPoint(result, new Coordinate(8, 8), 1, 1, 1.0d / 3, 1.0d / 2);
+            checkStackedPoint(
+                    new Coordinate(8, 8), 1, 1, getResultPoint(result, new Coordinate(8, 8)));
+
+            // cell size finer than the index, the data is scanned
+            result =
+                    psp.execute(
+                            empty,
+                            10, // cellSize
+                            null, // weightClusterPosition
+                            null, // normalize
+                            null, // preserve location
+                            bounds, // outputBBOX
+                            1000, // outputWidth
+                            1000, // outputHeight
+                            "testIndexed", // index
+                            null);
+            assertEquals(0, result.size());
+
+            // cell size within the index range, but not matching a level, the data is scanned
+            result =
+                    psp.execute(
+                            empty,
+                            150, // cellSize
+                            null, // weightClusterPosition
+                            null, // normalize
+                            null, // preserve location
+                            bounds, // outputBBOX
+                            1000, // outputWidth
+                            1000, // outputHeight
+                            "testIndexed", // index
+                            null);
+            assertEquals(0, result.size());
+        } finally {
+            PointStackerIndex.unregister("testIndexed");
+        }
+    }
+
+    @Test
+    public void testManyPoints() throws ProcessException, TransformException {
+        ReferencedEnvelope bounds =
+                new ReferencedEnvelope(0, 10, 0, 10, DefaultGeographicCRS.WGS84);
+        // enough points to be stacked in several batches
+        Random random = new Random(42);
+        Coordinate[] data = new Coordinate[50000];
+        int[][] expected = new int[10][10];
+        int[][] expectedUnique = new int[10][10];
+        boolean[][] seen = new boolean[100][100];
+        for (int i = 0; i < data.length; i++) {
+            int x = random.nextInt(100);
+            int y = random.nextInt(100);
+            data[i] = new Coordinate(x / 10d, y / 10d);
+            expected[x / 10][y / 10]++;
+            if (!seen[x][y]) {
+                seen[x][y] = true;
+                expectedUnique[x / 10][y / 10]++;
+            }
+        }
+
+        PointStackerProcess psp = new PointStackerProcess();
+        SimpleFeatureCollection result =
+                psp.execute(
+                        createPoints(data, bounds),
+                        100, // cellSize
+                        false, // weightClusterPosition
+                        null, // normalize
+                        null, // preserve location
+                        bounds, // outputBBOX
+                        1000, // outputWidth
+                        1000, // outputHeight
+                        null);
+
+        assertEquals(100, result.size());
+        try (SimpleFeatureIterator it = result.features()) {
+            while (it.hasNext()) {
+                SimpleFeature f = it.next();
+                Coordinate c = ((Point) f.getDefaultGeometry()).getCoordinate();
+                assertEquals(
+                        expected[(int) c.x][(int) c.y],
+                        f.getAttribute(PointStackerProcess.ATTR_COUNT));
+                assertEquals(
+                        expectedUnique[(int) c.x][(int) c.y],
+                        f.getAttribute(PointStackerProcess.ATTR_COUNT_UNIQUE));
+            }
+        }
+    }
+
     private void checkStackedPoint(
             Coordinate expectedCoordinate, int count, int countUnique, SimpleFeature f) {
         if (expectedCoordinate != null) {
@@ -0,0 +1,456 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.data.wfs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.geotools.data.ows.DelegateHTTPClient;
+import org.geotools.data.ows.HTTPClient;
+import org.geotools.data.ows.HTTPResponse;
+import org.geotools.data.wfs.internal.Loggers;
+
+/**
+ * An {@link HTTPClient} keeping a persistent, on disk copy of the GetCapabilities and
+ * DescribeFeatureType documents fetched through {@code GET} requests, so that reconnecting to a WFS
+ * does not need to download them again.
+ *
+ * <p>A cached document younger than the configured max age is returned without contacting the
+ * server. Older documents are revalidated with a conditional request ({@code If-None-Match} or
+ * {@code If-Modified-Since}) when the delegate client is a {@link ConditionalHTTPClient} and the
+ * server provided an {@code ETag} or {@code Last-Modified} header, and fetched again otherwise. All
+ * other requests are passed through to the delegate client. Service exception reports are never
+ * cached, whatever their content type.
+ *
+ * <p>The cache directory can be shared by several clients, also in different processes, entries are
+ * always replaced atomically. The documents superseded by a new version are not deleted right away,
+ * as other clients might be about to read them, but {@link #sweep() swept} once they are older than
+ * {@link #STALE_AGE_MILLIS}.
+ *
+ * @since 20
+ */
+public class CachingHTTPClient extends DelegateHTTPClient {
+
+    static final String URL_KEY = "url";
+
+    static final String BODY_KEY = "body";
+
+    static final String FETCHED_KEY = "fetched";
+
+    static final String CONTENT_TYPE_KEY = "contentType";
+
+    static final String CHARSET_KEY = "charset";
+
+    static final String ETAG_KEY = "etag";
+
+    static final String LAST_MODIFIED_KEY = "lastModified";
+
+    private static final Set<String> CACHEABLE_REQUESTS =
+            new HashSet<String>(Arrays.asList("getcapabilities", "describefeaturetype"));
+
+    /** Root elements of the OGC service exception reports, never cached */
+    private static final Set<String> EXCEPTION_REPORTS =
+            new HashSet<String>(Arrays.asList("ExceptionReport", "ServiceExceptionReport"));
+
+    /** How long documents no entry refers to are kept, before being swept */
+    public static final long STALE_AGE_MILLIS = 10 * 60 * 1000;
+
+    private static final XMLInputFactory XML_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    private final File cacheDirectory;
+
+    private final long maxAgeMillis;
+
+    /**
+     * @param delegate the client actually performing the requests
+     * @param cacheDirectory the directory holding the cached documents, created if missing
+     * @param maxAgeMillis how long a cached document is used before being revalidated against the
+     *     server, zero to revalidate it on each request
+     */
+    public CachingHTTPClient(HTTPClient delegate, File cacheDirectory, long maxAgeMillis)
+            throws IOException {
+        super(delegate);
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            throw new IOException("Cannot create the response cache directory " + cacheDirectory);
+        }
+        this.cacheDirectory = cacheDirectory;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    @Override
+    public HTTPResponse get(URL url) throws IOException {
+        if (!isCacheable(url)) {
+            return delegate.get(url);
+        }
+        final File entryFile = new File(cacheDirectory, getKey(url) + ".properties");
+        final Properties entry = read(entryFile);
+        final File body =
+                entry == null ? null : new File(cacheDirectory, entry.getProperty(BODY_KEY));
+        if (body != null && body.exists()) {
+            long age = System.currentTimeMillis() - Long.parseLong(entry.getProperty(FETCHED_KEY));
+            if (age >= 0 && age < maxAgeMillis) {
+                return new CachedHTTPResponse(entry, body);
+            }
+            Map<String, String> conditions = getConditions(entry);
+            if (!conditions.isEmpty() && delegate instanceof ConditionalHTTPClient) {
+                HTTPResponse response = ((ConditionalHTTPClient) delegate).get(url, conditions);
+                if (response == null) {
+                    Loggers.MODULE.fine("Cached response still valid for " + url);
+                    entry.setProperty(FETCHED_KEY, String.valueOf(System.currentTimeMillis()));
+                    write(entryFile, entry);
+                    return new CachedHTTPResponse(entry, body);
+                }
+                return cache(url, entryFile, response);
+            }
+        }
+        return cache(url, entryFile, delegate.get(url));
+    }
+
+    /** Removes all the cached documents */
+    public void clear() {
+        File[] files = cacheDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the documents no entry refers to anymore, and the temporary files left behind by
+     * interrupted writes, once they are older than {@link #STALE_AGE_MILLIS}. Called each time a
+     * new document is cached.
+     */
+    public void sweep() {
+        sweep(System.currentTimeMillis() - STALE_AGE_MILLIS);
+    }
+
+    /**
+     * Removes the unreferenced documents and temporary files last modified before the given time
+     */
+    void sweep(long olderThan) {
+        File[] files = cacheDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Set<String> referenced = new HashSet<String>();
+        for (File file : files) {
+            if (file.getName().endsWith(".properties")) {
+                Properties entry = read(file);
+                if (entry != null) {
+                    referenced.add(entry.getProperty(BODY_KEY));
+                }
+            }
+        }
+        for (File file : files) {
+            String name = file.getName();
+            boolean stale =
+                    (name.endsWith(".xml") && !referenced.contains(name)) || name.endsWith(".tmp");
+            // files still open cannot be deleted on some platforms, they will be on the next sweep
+            if (stale && file.lastModified() < olderThan && file.delete()) {
+                Loggers.MODULE.fine("Swept stale cache file " + file);
+            }
+        }
+    }
+
+    /** Only GetCapabilities and DescribeFeatureType KVP requests are cached */
+    static boolean isCacheable(URL url) {
+        String query = url.getQuery();
+        if (query == null) {
+            return false;
+        }
+        for (String kvp : query.split("&")) {
+            int idx = kvp.indexOf('=');
+            if (idx > 0 && "REQUEST".equalsIgnoreCase(kvp.substring(0, idx))) {
+                try {
+                    String request = URLDecoder.decode(kvp.substring(idx + 1), "UTF-8");
+                    return CACHEABLE_REQUESTS.contains(request.trim().toLowerCase(Locale.ENGLISH));
+                } catch (IllegalArgumentException | IOException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Map<String, String> getConditions(Properties entry) {
+        Map<String, String> conditions = new LinkedHashMap<String, String>();
+        String etag = entry.getProperty(ETAG_KEY);
+        if (etag != null) {
+            conditions.put("If-None-Match", etag);
+        }
+        String lastModified = entry.getProperty(LAST_MODIFIED_KEY);
+        if (lastModified != null) {
+            conditions.put("If-Modified-Since", lastModified);
+        }
+        return conditions;
+    }
+
+    /** Stores the response contents in the cache and returns a response reading them back */
+    private HTTPResponse cache(URL url, File entryFile, HTTPResponse response) throws IOException {
+        String contentType = response.getContentType();
+        if (contentType != null && contentType.contains("se_xml")) {
+            // service exception report, do not keep it around
+            return response;
+        }
+
+        final String key = entryFile.getName().substring(0, entryFile.getName().indexOf('.'));
+        final MessageDigest digest = newDigest();
+        final File tmp = File.createTempFile(key, ".tmp", cacheDirectory);
+        try {
+            try (InputStream in = response.getResponseStream();
+                    OutputStream out =
+                            new DigestOutputStream(
+                                    new BufferedOutputStream(new FileOutputStream(tmp)), digest)) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+            }
+
+            Properties entry = new Properties();
+            entry.setProperty(URL_KEY, url.toExternalForm());
+            entry.setProperty(BODY_KEY, key + "-" + toHex(digest.digest()) + ".xml");
+            entry.setProperty(FETCHED_KEY, String.valueOf(System.currentTimeMillis()));
+            setProperty(entry, CONTENT_TYPE_KEY, contentType);
+            setProperty(entry, CHARSET_KEY, response.getResponseCharset());
+            setProperty(entry, ETAG_KEY, response.getResponseHeader("ETag"));
+            setProperty(entry, LAST_MODIFIED_KEY, response.getResponseHeader("Last-Modified"));
+
+            if (isExceptionReport(tmp)) {
+                // servers often return exception reports with a 200 status and a generic XML
+                // content type, hand it over without replacing the cached document
+                Loggers.MODULE.fine("Not caching the exception report returned for " + url);
+                return new CachedHTTPResponse(entry, Files.readAllBytes(tmp.toPath()));
+            }
+
+            File body = new File(cacheDirectory, entry.getProperty(BODY_KEY));
+            move(tmp, body);
+            write(entryFile, entry);
+            // the previous document might be in use, it is left to the sweep
+            sweep();
+            return new CachedHTTPResponse(entry, body);
+        } finally {
+            response.dispose();
+            tmp.delete();
+        }
+    }
+
+    /** Returns true if the root element of the document is an OGC exception report */
+    static boolean isExceptionReport(File document) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(document))) {
+            XMLStreamReader reader = XML_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamReader.START_ELEMENT) {
+                        return EXCEPTION_REPORTS.contains(reader.getLocalName());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IOException e) {
+            // not XML, cannot be an exception report
+            Loggers.MODULE.log(Level.FINEST, "Could not read the root element of " + document, e);
+        }
+        return false;
+    }
+
+    private static void setProperty(Properties entry, String key, String value) {
+        if (value != null) {
+            entry.setProperty(key, value);
+        }
+    }
+
+    private Properties read(File entryFile) {
+        if (!entryFile.exists()) {
+            return null;
+        }
+        Properties entry = new Properties();
+        try (InputStream in = new FileInputStream(entryFile)) {
+            entry.load(in);
+        } catch (IOException e) {
+            Loggers.MODULE.log(Level.FINE, "Failed to read cache entry " + entryFile, e);
+            return null;
+        }
+        if (entry.getProperty(BODY_KEY) == null || entry.getProperty(FETCHED_KEY) == null) {
+            return null;
+        }
+        return entry;
+    }
+
+    private void write(File entryFile, Properties entry) throws IOException {
+        File tmp = File.createTempFile(entryFile.getName(), ".tmp", cacheDirectory);
+        try {
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                entry.store(out, null);
+            }
+            move(tmp, entryFile);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** The cache key, hashing the URL and user, as credentials might change the response */
+    private String getKey(URL url) {
+        MessageDigest digest = newDigest();
+        String user = getUser();
+        try {
+            digest.update((user == null ? "" : user + "@").getBytes("UTF-8"));
+            digest.update(url.toExternalForm().getBytes("UTF-8"));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /** A response reading back a cached document, or a document kept in memory */
+    private static class CachedHTTPResponse implements HTTPResponse {
+
+        private final Properties entry;
+
+        private final File body;
+
+        private final byte[] contents;
+
+        private InputStream responseStream;
+
+        CachedHTTPResponse(Properties entry, File body) {
+            this.entry = entry;
+            this.body = body;
+            this.contents = null;
+        }
+
+        CachedHTTPResponse(Properties entry, byte[] contents) {
+            this.entry = entry;
+            this.body = null;
+            this.contents = contents;
+        }
+
+        @Override
+        public void dispose() {
+            if (responseStream != null) {
+                try {
+                    responseStream.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+                responseStream = null;
+            }
+        }
+
+        @Override
+        public String getContentType() {
+            return entry.getProperty(CONTENT_TYPE_KEY);
+        }
+
+        @Override
+        public String getResponseHeader(String headerName) {
+            if ("Content-Type".equalsIgnoreCase(headerName)) {
+                return getContentType();
+            } else if ("ETag".equalsIgnoreCase(headerName)) {
+                return entry.getProperty(ETAG_KEY);
+            } else if ("Last-Modified".equalsIgnoreCase(headerName)) {
+                return entry.getProperty(LAST_MODIFIED_KEY);
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream getResponseStream() throws IOException {
+            if (responseStream == null) {
+                responseStream =
+                        contents != null
+                                ? new ByteArrayInputStream(contents)
+                                : new BufferedInputStream(new FileInputStream(body));
+            }
+            return responseStream;
+        }
+
+        @Override
+        public String getResponseCharset() {
+            return entry.getProperty(CHARSET_KEY);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.data.wfs;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import org.geotools.data.ows.HTTPClient;
+import org.geotools.data.ows.HTTPResponse;
+
+/**
+ * An {@link HTTPClient} able to issue GET requests with additional request headers, used to
+ * revalidate cached responses with conditional requests ({@code If-None-Match}, {@code
+ * If-Modified-Since}).
+ *
+ * @since 20
+ * @see CachingHTTPClient
+ */
+public interface ConditionalHTTPClient extends HTTPClient {
+
+    /**
+     * Issues a GET request with the given additional request headers.
+     *
+     * @param url the request URL
+     * @param headers the request headers to add to the request
+     * @return the response, or {@code null} if the server replied {@code 304 Not Modified}
+     */
+    HTTPResponse get(URL url, Map<String, String> headers) throws IOException;
+}
@@ -19,6 +19,8 @@ package org.geotools.data.wfs;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
 import java.util.logging.Logger;
 import org.apache.commons.httpclient.Credentials;
 import org.apache.commons.httpclient.Header;
@@ -51,7 +53,7 @@ import org.geotools.util.logging.Logging;
  * @author groldan
  * @see AbstractOpenWebService#setHttpClient(HTTPClient)
  */
-public class MultithreadedHttpClient implements HTTPClient {
+public class MultithreadedHttpClient implements ConditionalHTTPClient {
 
     private static final Logger LOGGER = Logging.getLogger(MultithreadedHttpClient.class);
 
@@ -145,11 +147,23 @@ public class MultithreadedHttpClient implements HTTPClient {
 
     @Override
     public HTTPResponse get(final URL url) throws IOException {
+        return get(url, Collections.<String, String>emptyMap());
+    }
+
+    @Override
+    public HTTPResponse get(final URL url, final Map<String, String> headers) throws IOException {
 
         GetMethod getMethod = new GetMethod(url.toExternalForm());
         getMethod.setDoAuthentication(user != null && password != null);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            getMethod.setRequestHeader(header.getKey(), header.getValue());
+        }
 
         int responseCode = client.executeMethod(getMethod);
+        if (304 == responseCode) {
+            getMethod.releaseConnection();
+            return null;
+        }
         if (200 != responseCode) {
             getMethod.releaseConnection();
             throw new IOException(
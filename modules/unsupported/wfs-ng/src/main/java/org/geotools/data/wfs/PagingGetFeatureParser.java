@@ -0,0 +1,295 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.data.wfs;
+
+import com.vividsolutions.jts.geom.GeometryFactory;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.geotools.data.wfs.internal.GetFeatureParser;
+import org.geotools.data.wfs.internal.GetFeatureRequest;
+import org.geotools.data.wfs.internal.GetFeatureResponse;
+import org.geotools.data.wfs.internal.WFSClient;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.type.FeatureType;
+
+/**
+ * A {@link GetFeatureParser} splitting a GetFeature request in pages (start index and count),
+ * requesting and parsing up to a given number of pages concurrently, while returning the features
+ * in the same order as a single request would.
+ *
+ * <p>The first page is read before any other request is issued. If it is not full there are no
+ * other pages, otherwise the following ones are requested ahead of the consumer, up to the number
+ * of features the server advertised as matched in the first page, when available, and up to the
+ * request max features. As soon as a page is consumed another one is requested, until a page
+ * returns less features than requested. At most {@code maxConcurrentPages} pages are in flight or
+ * held in memory at any time.
+ *
+ * <p>Closing the parser cancels the pending pages, disposing the HTTP responses of the ones being
+ * read so that their connections are not kept busy until the whole page is received.
+ *
+ * @since 20
+ */
+class PagingGetFeatureParser implements GetFeatureParser {
+
+    private final WFSClient client;
+
+    private final GetFeatureRequest request;
+
+    private final ExecutorService executor;
+
+    private final int pageSize;
+
+    private final int maxConcurrentPages;
+
+    /**
+     * Index past the last feature to request, the request max features or the number of matched
+     * features advertised by the server, if any, otherwise unbounded
+     */
+    private long limit;
+
+    private final LinkedList<PageReader> pending = new LinkedList<PageReader>();
+
+    private volatile GeometryFactory geometryFactory;
+
+    private long nextStartIndex;
+
+    private boolean exhausted;
+
+    private Iterator<SimpleFeature> current;
+
+    private FeatureType featureType;
+
+    /** The parsed contents of a page */
+    private static class Page {
+        int requested;
+
+        int numberMatched;
+
+        FeatureType featureType;
+
+        List<SimpleFeature> features;
+    }
+
+    /** Reads a page on the executor, keeping track of its response so that it can be aborted */
+    private class PageReader implements Callable<Page> {
+
+        final GetFeatureRequest pageRequest;
+
+        Future<Page> future;
+
+        private GetFeatureResponse response;
+
+        private boolean aborted;
+
+        PageReader(GetFeatureRequest pageRequest) {
+            this.pageRequest = pageRequest;
+        }
+
+        @Override
+        public Page call() throws Exception {
+            return readPage(pageRequest, this);
+        }
+
+        /** Returns false if the page has been aborted while the request was being issued */
+        synchronized boolean started(GetFeatureResponse response) {
+            if (aborted) {
+                return false;
+            }
+            this.response = response;
+            return true;
+        }
+
+        synchronized void abort() {
+            aborted = true;
+            future.cancel(true);
+            if (response != null) {
+                // closes the connection, a thread blocked reading it is not woken up by interrupts
+                response.dispose();
+            }
+        }
+    }
+
+    /**
+     * @param client the client used to issue the page requests
+     * @param request the request to split in pages
+     * @param geometryFactory the geometry factory used to parse the pages
+     * @param executor the executor used to request and parse the pages
+     * @param pageSize the number of features per page
+     * @param maxConcurrentPages the maximum number of pages requested concurrently
+     */
+    public PagingGetFeatureParser(
+            WFSClient client,
+            GetFeatureRequest request,
+            GeometryFactory geometryFactory,
+            ExecutorService executor,
+            int pageSize,
+            int maxConcurrentPages)
+            throws IOException {
+        this.client = client;
+        this.request = request;
+        this.geometryFactory = geometryFactory;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.maxConcurrentPages = Math.max(1, maxConcurrentPages);
+        this.limit = request.getMaxFeatures() == null ? Long.MAX_VALUE : request.getMaxFeatures();
+
+        // the first page tells if there are more, and how many, before fanning out
+        int count = (int) Math.min(pageSize, limit);
+        nextStartIndex = count;
+        Page first = readPage(request.page(0, count), null);
+        featureType = first.featureType;
+        if (first.numberMatched >= 0) {
+            limit = Math.min(limit, first.numberMatched);
+        }
+        consume(first);
+    }
+
+    /** Requests the next page, returns false if there are no more pages to request */
+    private boolean requestNextPage() {
+        if (exhausted || nextStartIndex >= limit || nextStartIndex > Integer.MAX_VALUE) {
+            return false;
+        }
+        final int startIndex = (int) nextStartIndex;
+        final int count = (int) Math.min(pageSize, limit - nextStartIndex);
+        nextStartIndex += count;
+        PageReader reader = new PageReader(request.page(startIndex, count));
+        reader.future = executor.submit(reader);
+        pending.add(reader);
+        return true;
+    }
+
+    private Page readPage(GetFeatureRequest pageRequest, PageReader reader) throws IOException {
+        GetFeatureResponse response = client.issueRequest(pageRequest);
+        if (reader != null && !reader.started(response)) {
+            response.dispose();
+            throw new InterruptedIOException("GetFeature page canceled");
+        }
+        GetFeatureParser parser = response.getSimpleFeatures(geometryFactory);
+        try {
+            Page page = new Page();
+            page.requested = pageRequest.getMaxFeatures();
+            page.numberMatched = parser.getNumberMatched();
+            page.featureType = parser.getFeatureType();
+            page.features = new ArrayList<SimpleFeature>(page.requested);
+            SimpleFeature feature;
+            while ((feature = parser.parse()) != null) {
+                page.features.add(feature);
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // the page might be incomplete, and would be taken for the last one
+                throw new InterruptedIOException("Interrupted while reading a GetFeature page");
+            }
+            return page;
+        } finally {
+            parser.close();
+        }
+    }
+
+    /** Makes the page the current one, and requests the following ones if needed */
+    private void consume(Page page) {
+        if (page.features.size() < page.requested) {
+            // last page, the ones requested after it are empty
+            exhausted = true;
+            cancelPending();
+        } else {
+            while (pending.size() < maxConcurrentPages && requestNextPage()) {
+                // keep the pipeline full
+            }
+        }
+        current = page.features.iterator();
+    }
+
+    /** Waits for the next page in order, returns false if there are no more pages */
+    private boolean nextPage() throws IOException {
+        if (pending.isEmpty()) {
+            current = null;
+            return false;
+        }
+        Page page;
+        try {
+            page = pending.removeFirst().future.get();
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            InterruptedIOException ie =
+                    new InterruptedIOException("Interrupted while waiting for a GetFeature page");
+            ie.initCause(e);
+            throw ie;
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to read a GetFeature page", cause);
+        }
+        consume(page);
+        return true;
+    }
+
+    @Override
+    public SimpleFeature parse() throws IOException {
+        while (current != null) {
+            if (current.hasNext()) {
+                return current.next();
+            }
+            nextPage();
+        }
+        return null;
+    }
+
+    @Override
+    public int getNumberOfFeatures() {
+        return -1;
+    }
+
+    @Override
+    public FeatureType getFeatureType() {
+        return featureType;
+    }
+
+    @Override
+    public void setGeometryFactory(GeometryFactory geometryFactory) {
+        this.geometryFactory = geometryFactory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        exhausted = true;
+        current = null;
+        cancelPending();
+    }
+
+    private void cancelPending() {
+        for (PageReader page : pending) {
+            page.abort();
+        }
+        pending.clear();
+    }
+}
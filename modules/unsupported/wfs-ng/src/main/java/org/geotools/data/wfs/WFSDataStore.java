@@ -29,6 +29,12 @@ import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.xml.namespace.QName;
@@ -70,6 +76,9 @@ public class WFSDataStore extends ContentDataStore {
 
     protected Map<String, String> configuredStoredQueries = new ConcurrentHashMap<String, String>();
 
+    /** Requests and parses GetFeature pages, created on first use */
+    private ExecutorService pagingExecutor;
+
     public WFSDataStore(final WFSClient client) {
         this.client = client;
         this.names = new ConcurrentHashMap<Name, QName>();
@@ -317,4 +326,46 @@ public class WFSDataStore extends ContentDataStore {
     public URL getCapabilitiesURL() {
         return client.getCapabilitiesURL();
     }
+
+    /**
+     * Returns the executor used to request and parse GetFeature pages, bounded to the configured
+     * maximum number of concurrent pages.
+     */
+    synchronized ExecutorService getPagingExecutor() {
+        if (pagingExecutor == null) {
+            int threads = Math.max(1, client.getConfig().getMaxConcurrentPages());
+            ThreadPoolExecutor executor =
+                    new ThreadPoolExecutor(
+                            threads,
+                            threads,
+                            60L,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(),
+                            new ThreadFactory() {
+                                final AtomicInteger count = new AtomicInteger();
+
+                                @Override
+                                public Thread newThread(Runnable r) {
+                                    Thread thread =
+                                            new Thread(r, "WFS-paging-" + count.incrementAndGet());
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }
+                            });
+            executor.allowCoreThreadTimeOut(true);
+            pagingExecutor = executor;
+        }
+        return pagingExecutor;
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            if (pagingExecutor != null) {
+                pagingExecutor.shutdownNow();
+                pagingExecutor = null;
+            }
+        }
+        super.dispose();
+    }
 }
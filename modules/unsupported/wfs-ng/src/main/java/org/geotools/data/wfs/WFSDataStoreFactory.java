@@ -94,7 +94,7 @@ public class WFSDataStoreFactory extends WFSDataAccessFactory implements DataSto
 
         final URL capabilitiesURL = (URL) URL.lookUp(params);
 
-        final HTTPClient http = getHttpClient(params);
+        final HTTPClient http = config.wrapWithResponseCache(getHttpClient(params));
         http.setTryGzip(config.isTryGZIP());
         http.setUser(config.getUser());
         http.setPassword(config.getPassword());
@@ -254,10 +254,21 @@ class WFSFeatureSource extends ContentFeatureSource {
                 getQueryType(localQuery, (SimpleFeatureType) request.getFullType());
         request.setQueryType(contentType);
 
-        GetFeatureResponse response = client.issueRequest(request);
-
         GeometryFactory geometryFactory = findGeometryFactory(localQuery.getHints());
-        GetFeatureParser features = response.getSimpleFeatures(geometryFactory);
+        GetFeatureParser features;
+        if (isPaged(request)) {
+            features =
+                    new PagingGetFeatureParser(
+                            client,
+                            request,
+                            geometryFactory,
+                            getDataStore().getPagingExecutor(),
+                            client.getConfig().getPageSize(),
+                            client.getConfig().getMaxConcurrentPages());
+        } else {
+            GetFeatureResponse response = client.issueRequest(request);
+            features = response.getSimpleFeatures(geometryFactory);
+        }
 
         FeatureReader<SimpleFeatureType, SimpleFeature> reader;
         reader = new WFSFeatureReader(features);
@@ -296,6 +307,18 @@ class WFSFeatureSource extends ContentFeatureSource {
         return reader;
     }
 
+    /**
+     * Paging is used when configured, supported by the server and the request may return more than
+     * one page.
+     */
+    private boolean isPaged(GetFeatureRequest request) {
+        int pageSize = client.getConfig().getPageSize();
+        return pageSize > 0
+                && !request.isStoredQuery()
+                && (request.getMaxFeatures() == null || request.getMaxFeatures() > pageSize)
+                && client.supportsPaging();
+    }
+
     protected String getSupportedSrsName(GetFeatureRequest request, Query query) {
         String epsgCode = GML2EncodingUtils.epsgCode(query.getCoordinateSystem());
         Set<String> supported =
@@ -147,7 +147,7 @@ public class WFSDataAccessFactory implements DataAccessFactory {
     }
 
     /** Access with {@link WFSDataStoreFactory#getParametersInfo()  */
-    private static final WFSFactoryParam<?>[] parametersInfo = new WFSFactoryParam[21];
+    private static final WFSFactoryParam<?>[] parametersInfo = new WFSFactoryParam[25];
 
     private static final int GMLComplianceLevel = 2;
 
@@ -574,6 +574,79 @@ public class WFSDataAccessFactory implements DataAccessFactory {
                         new WFSFactoryParam<Boolean>(name, Boolean.class, title, description, true);
     }
 
+    /**
+     * Optional {@code Integer} number of features requested per GetFeature page, for servers
+     * supporting result paging. A value of zero or not providing this parameter disables paging.
+     */
+    public static final WFSFactoryParam<Integer> PAGE_SIZE;
+
+    static {
+        String name = "WFSDataStoreFactory:PAGE_SIZE";
+        String title = "Page size";
+        String description =
+                "Number of features requested per GetFeature page from servers supporting result"
+                        + " paging. A value of zero or not providing this parameter disables paging.";
+        parametersInfo[21] =
+                PAGE_SIZE =
+                        new WFSFactoryParam<Integer>(
+                                name, Integer.class, title, description, 0, "advanced");
+    }
+
+    /**
+     * Optional {@code Integer} maximum number of GetFeature pages requested concurrently for a
+     * single query, when paging is enabled.
+     */
+    public static final WFSFactoryParam<Integer> MAX_CONCURRENT_PAGES;
+
+    static {
+        String name = "WFSDataStoreFactory:MAX_CONCURRENT_PAGES";
+        String title = "Maximum concurrent pages";
+        String description =
+                "Maximum number of GetFeature pages requested and parsed concurrently for a"
+                        + " single query, when paging is enabled.";
+        parametersInfo[22] =
+                MAX_CONCURRENT_PAGES =
+                        new WFSFactoryParam<Integer>(
+                                name, Integer.class, title, description, 4, "advanced");
+    }
+
+    /**
+     * Optional {@code String} path of a directory used to keep the GetCapabilities and
+     * DescribeFeatureType documents across data store instances. Not providing this parameter
+     * disables the response cache.
+     */
+    public static final WFSFactoryParam<String> RESPONSE_CACHE_LOCATION;
+
+    static {
+        String name = "WFSDataStoreFactory:RESPONSE_CACHE_LOCATION";
+        String title = "Response cache location";
+        String description =
+                "Directory where the GetCapabilities and DescribeFeatureType documents are cached"
+                        + " across connections. Not providing it disables the response cache.";
+        parametersInfo[23] =
+                RESPONSE_CACHE_LOCATION =
+                        new WFSFactoryParam<String>(
+                                name, String.class, title, description, null, "advanced");
+    }
+
+    /**
+     * Optional {@code Integer} number of seconds a cached response is used without checking with
+     * the server whether it changed.
+     */
+    public static final WFSFactoryParam<Integer> RESPONSE_CACHE_MAX_AGE;
+
+    static {
+        String name = "WFSDataStoreFactory:RESPONSE_CACHE_MAX_AGE";
+        String title = "Response cache max age";
+        String description =
+                "Number of seconds a cached GetCapabilities or DescribeFeatureType document is"
+                        + " used before checking with the server whether it changed.";
+        parametersInfo[24] =
+                RESPONSE_CACHE_MAX_AGE =
+                        new WFSFactoryParam<Integer>(
+                                name, Integer.class, title, description, 0, "advanced");
+    }
+
     /**
      * Checks whether {@code params} contains a valid set of parameters to connect to a WFS.
      *
@@ -699,8 +772,9 @@ public class WFSDataAccessFactory implements DataAccessFactory {
             }
         }
 
-        final HTTPClient http = new SimpleHttpClient(); // new
+        HTTPClient http = new SimpleHttpClient(); // new
         // MultithreadedHttpClient();
+        http = config.wrapWithResponseCache(http);
 
         // TODO: let HTTPClient be configured for gzip
         // http.setTryGzip(tryGZIP);
@@ -22,18 +22,33 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.math.BigInteger;
 import java.net.URL;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import javax.xml.namespace.QName;
 import org.apache.commons.io.IOUtils;
 import org.geotools.data.ows.HTTPResponse;
 import org.geotools.data.wfs.internal.parsers.EmfAppSchemaParser;
 import org.geotools.ows.ServiceException;
+import org.geotools.util.SoftValueHashMap;
 import org.geotools.xml.Configuration;
 import org.opengis.feature.type.FeatureType;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
 public class DescribeFeatureTypeResponse extends WFSResponse {
 
+    /**
+     * Parsed feature types keyed by the schema document digest and the parsing settings, so that
+     * the same schema is not parsed again when reconnecting to a server
+     */
+    private static final Map<List<Object>, FeatureType> PARSED_TYPES =
+            new SoftValueHashMap<List<Object>, FeatureType>(100);
+
     private FeatureType parsed;
 
     public DescribeFeatureTypeResponse(
@@ -51,7 +66,10 @@ public class DescribeFeatureTypeResponse extends WFSResponse {
         InputStream responseStream = httpResponse.getResponseStream();
         try {
             File tmpSchemaFile = File.createTempFile(remoteTypeName.getLocalPart(), ".xsd");
-            OutputStream output = new BufferedOutputStream(new FileOutputStream(tmpSchemaFile));
+            MessageDigest digest = newDigest();
+            OutputStream output =
+                    new DigestOutputStream(
+                            new BufferedOutputStream(new FileOutputStream(tmpSchemaFile)), digest);
             try {
                 IOUtils.copy(responseStream, output);
             } finally {
@@ -59,14 +77,25 @@ public class DescribeFeatureTypeResponse extends WFSResponse {
                 IOUtils.closeQuietly(output);
             }
             try {
-                URL schemaLocation = tmpSchemaFile.toURI().toURL();
-                this.parsed =
-                        EmfAppSchemaParser.parse(
-                                wfsConfiguration,
+                List<Object> key =
+                        Arrays.asList(
+                                new BigInteger(1, digest.digest()),
                                 remoteTypeName,
-                                schemaLocation,
                                 defaultCrs,
-                                strategy.getFieldTypeMappings());
+                                strategy.getFieldTypeMappings(),
+                                wfsConfiguration.getClass());
+                this.parsed = PARSED_TYPES.get(key);
+                if (this.parsed == null) {
+                    URL schemaLocation = tmpSchemaFile.toURI().toURL();
+                    this.parsed =
+                            EmfAppSchemaParser.parse(
+                                    wfsConfiguration,
+                                    remoteTypeName,
+                                    schemaLocation,
+                                    defaultCrs,
+                                    strategy.getFieldTypeMappings());
+                    PARSED_TYPES.put(key, this.parsed);
+                }
             } finally {
                 tmpSchemaFile.delete();
             }
@@ -76,6 +105,14 @@ public class DescribeFeatureTypeResponse extends WFSResponse {
         }
     }
 
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
     public FeatureType getFeatureType() {
         return parsed;
     }
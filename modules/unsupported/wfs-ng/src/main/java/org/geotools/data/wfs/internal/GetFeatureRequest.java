@@ -40,6 +40,8 @@ public class GetFeatureRequest extends WFSRequest {
 
     private Integer maxFeatures;
 
+    private Integer startIndex;
+
     private ResultType resultType;
 
     private SortBy[] sortBy;
@@ -88,6 +90,10 @@ public class GetFeatureRequest extends WFSRequest {
         return maxFeatures;
     }
 
+    public Integer getStartIndex() {
+        return startIndex;
+    }
+
     public ResultType getResultType() {
         return resultType;
     }
@@ -117,6 +123,10 @@ public class GetFeatureRequest extends WFSRequest {
     }
 
     /** @param resultType the resultType to set */
+    public void setStartIndex(Integer startIndex) {
+        this.startIndex = startIndex;
+    }
+
     public void setResultType(ResultType resultType) {
         this.resultType = resultType;
     }
@@ -173,4 +183,32 @@ public class GetFeatureRequest extends WFSRequest {
     public void setStoredQueryDescriptionType(StoredQueryDescriptionType desc) {
         this.storedQueryDescriptionType = desc;
     }
+
+    /**
+     * Creates a copy of this request fetching a single page of its results.
+     *
+     * @param startIndex the index of the first feature of the page
+     * @param count the maximum number of features in the page
+     * @return a new request, with its own handle
+     */
+    public GetFeatureRequest page(int startIndex, int count) {
+        GetFeatureRequest page = new GetFeatureRequest(config, strategy);
+        page.setTypeName(getTypeName());
+        page.setOutputFormat(getOutputFormat());
+        page.setRequestHints(getRequestHints());
+        page.propertyNames = propertyNames;
+        page.srsName = srsName;
+        page.filter = filter;
+        page.resultType = resultType;
+        page.sortBy = sortBy;
+        page.fullType = fullType;
+        page.queryType = queryType;
+        page.unsupportedFilter = unsupportedFilter;
+        page.storedQuery = storedQuery;
+        page.storedQueryDescriptionType = storedQueryDescriptionType;
+        page.hints = hints;
+        page.startIndex = startIndex;
+        page.maxFeatures = count;
+        return page;
+    }
 }
@@ -36,6 +36,18 @@ public interface GetParser<F extends Feature> {
      */
     public int getNumberOfFeatures();
 
+    /**
+     * Returns the total number of features matching the request, regardless of paging, if
+     * advertised by the server, for example in the WFS 2.0 {@code wfs:FeatureCollection}
+     * "numberMatched" xml attribute, or {@code -1} if unknown.
+     *
+     * @return number of matched features advertised by server, or {@code -1} if unknown
+     * @since 20
+     */
+    public default int getNumberMatched() {
+        return -1;
+    }
+
     /**
      * @return the next feature in the stream or {@code null} if there are no more features to
      *     parse.
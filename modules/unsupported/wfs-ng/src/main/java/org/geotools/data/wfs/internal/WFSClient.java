@@ -265,6 +265,10 @@ public class WFSClient extends AbstractOpenWebService<WFSGetCapabilities, QName>
         }
     }
 
+    public boolean supportsPaging() {
+        return getStrategy().supportsPaging();
+    }
+
     public boolean supportsStoredQueries() {
         return getStrategy()
                         .supportsOperation(WFSOperationType.LIST_STORED_QUERIES, HttpMethod.POST)
@@ -25,21 +25,28 @@ import static org.geotools.data.wfs.WFSDataStoreFactory.FILTER_COMPLIANCE;
 import static org.geotools.data.wfs.WFSDataStoreFactory.GML_COMPATIBLE_TYPENAMES;
 import static org.geotools.data.wfs.WFSDataStoreFactory.LENIENT;
 import static org.geotools.data.wfs.WFSDataStoreFactory.MAXFEATURES;
+import static org.geotools.data.wfs.WFSDataStoreFactory.MAX_CONCURRENT_PAGES;
 import static org.geotools.data.wfs.WFSDataStoreFactory.NAMESPACE;
 import static org.geotools.data.wfs.WFSDataStoreFactory.OUTPUTFORMAT;
+import static org.geotools.data.wfs.WFSDataStoreFactory.PAGE_SIZE;
 import static org.geotools.data.wfs.WFSDataStoreFactory.PASSWORD;
 import static org.geotools.data.wfs.WFSDataStoreFactory.PROTOCOL;
+import static org.geotools.data.wfs.WFSDataStoreFactory.RESPONSE_CACHE_LOCATION;
+import static org.geotools.data.wfs.WFSDataStoreFactory.RESPONSE_CACHE_MAX_AGE;
 import static org.geotools.data.wfs.WFSDataStoreFactory.TIMEOUT;
 import static org.geotools.data.wfs.WFSDataStoreFactory.TRY_GZIP;
 import static org.geotools.data.wfs.WFSDataStoreFactory.USERNAME;
 import static org.geotools.data.wfs.WFSDataStoreFactory.USE_HTTP_CONNECTION_POOLING;
 import static org.geotools.data.wfs.WFSDataStoreFactory.WFS_STRATEGY;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Map;
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
+import org.geotools.data.ows.HTTPClient;
+import org.geotools.data.wfs.CachingHTTPClient;
 import org.geotools.data.wfs.WFSDataStoreFactory;
 import org.geotools.factory.Hints;
 import org.geotools.referencing.CRS;
@@ -87,6 +94,14 @@ public class WFSConfig {
 
     protected EntityResolver entityResolver;
 
+    protected int pageSize;
+
+    protected int maxConcurrentPages;
+
+    protected String responseCacheLocation;
+
+    protected int responseCacheMaxAge;
+
     public static enum PreferredHttpMethod {
         AUTO,
         HTTP_GET,
@@ -111,6 +126,9 @@ public class WFSConfig {
         gmlCompatibleTypenames = (Boolean) GML_COMPATIBLE_TYPENAMES.getDefaultValue();
         entityResolver = (EntityResolver) ENTITY_RESOLVER.getDefaultValue();
         useHttpConnectionPooling = (Boolean) USE_HTTP_CONNECTION_POOLING.getDefaultValue();
+        pageSize = (Integer) PAGE_SIZE.getDefaultValue();
+        maxConcurrentPages = (Integer) MAX_CONCURRENT_PAGES.getDefaultValue();
+        responseCacheMaxAge = (Integer) RESPONSE_CACHE_MAX_AGE.getDefaultValue();
     }
 
     public static WFSConfig fromParams(Map<?, ?> params) throws IOException {
@@ -155,6 +173,10 @@ public class WFSConfig {
                         : GML_COMPATIBLE_TYPENAMES.lookUp(params);
         config.entityResolver = ENTITY_RESOLVER.lookUp(params);
         config.useHttpConnectionPooling = USE_HTTP_CONNECTION_POOLING.lookUp(params);
+        config.pageSize = PAGE_SIZE.lookUp(params);
+        config.maxConcurrentPages = MAX_CONCURRENT_PAGES.lookUp(params);
+        config.responseCacheLocation = RESPONSE_CACHE_LOCATION.lookUp(params);
+        config.responseCacheMaxAge = RESPONSE_CACHE_MAX_AGE.lookUp(params);
         return config;
     }
 
@@ -257,6 +279,38 @@ public class WFSConfig {
         return useHttpConnectionPooling;
     }
 
+    /** @return the number of features requested per GetFeature page, 0 if paging is disabled */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** @return the maximum number of GetFeature pages requested concurrently for a query */
+    public int getMaxConcurrentPages() {
+        return maxConcurrentPages;
+    }
+
+    /** @return the directory caching capabilities and schemas, null if the cache is disabled */
+    public String getResponseCacheLocation() {
+        return responseCacheLocation;
+    }
+
+    /** @return the number of seconds a cached response is used without revalidating it */
+    public int getResponseCacheMaxAge() {
+        return responseCacheMaxAge;
+    }
+
+    /**
+     * Wraps the given client with a {@link CachingHTTPClient} when a response cache location is
+     * configured, returns it unchanged otherwise.
+     */
+    public HTTPClient wrapWithResponseCache(HTTPClient http) throws IOException {
+        if (responseCacheLocation == null || responseCacheLocation.trim().isEmpty()) {
+            return http;
+        }
+        return new CachingHTTPClient(
+                http, new File(responseCacheLocation), responseCacheMaxAge * 1000L);
+    }
+
     /**
      * Checks if axis flipping is needed comparing axis order requested for the DataStore with query
      * crs.
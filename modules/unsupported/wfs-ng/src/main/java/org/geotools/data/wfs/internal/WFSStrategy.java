@@ -141,6 +141,16 @@ public abstract class WFSStrategy extends Specification {
 
     public abstract boolean supportsTransaction(QName typeName);
 
+    /**
+     * Returns whether the server supports paging GetFeature results through the start index and
+     * count request parameters.
+     *
+     * @return {@code false} by default, strategies for servers implementing result paging override
+     */
+    public boolean supportsPaging() {
+        return false;
+    }
+
     /**
      * Returns the URL for the given operation name and HTTP protocol as stated in the WFS
      * capabilities.
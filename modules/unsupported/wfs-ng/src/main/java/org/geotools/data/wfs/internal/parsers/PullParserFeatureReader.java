@@ -17,8 +17,12 @@
 package org.geotools.data.wfs.internal.parsers;
 
 import com.vividsolutions.jts.geom.GeometryFactory;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import org.geotools.data.wfs.internal.GetFeatureParser;
@@ -43,11 +47,23 @@ public class PullParserFeatureReader implements GetFeatureParser {
 
     private FeatureType featureType;
 
+    private int numberMatched;
+
+    /** How many bytes are looked at to find the attributes of the root element */
+    static final int HEADER_SIZE = 8192;
+
+    static final Pattern NUMBER_MATCHED =
+            Pattern.compile("\\snumberMatched\\s*=\\s*[\"'](\\d+)[\"']");
+
     public PullParserFeatureReader(
             final Configuration wfsConfiguration,
-            final InputStream getFeatureResponseStream,
+            InputStream getFeatureResponseStream,
             final FeatureType featureType)
             throws IOException {
+        if (!getFeatureResponseStream.markSupported()) {
+            getFeatureResponseStream = new BufferedInputStream(getFeatureResponseStream);
+        }
+        this.numberMatched = readNumberMatched(getFeatureResponseStream);
         this.inputStream = getFeatureResponseStream;
         this.featureType = featureType;
 
@@ -60,6 +76,52 @@ public class PullParserFeatureReader implements GetFeatureParser {
                                 featureType.getName().getLocalPart()));
     }
 
+    /**
+     * Peeks at the root element for the WFS 2.0 numberMatched attribute, without consuming the
+     * stream
+     */
+    static int readNumberMatched(InputStream in) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        int length = 0;
+        in.mark(HEADER_SIZE);
+        try {
+            int read;
+            while (length < HEADER_SIZE
+                    && (read = in.read(header, length, HEADER_SIZE - length)) > 0) {
+                length += read;
+            }
+        } finally {
+            in.reset();
+        }
+        // the attribute is plain ASCII, whatever the actual encoding of the other contents
+        return getNumberMatched(new String(header, 0, length, StandardCharsets.ISO_8859_1));
+    }
+
+    /** Returns the numberMatched attribute of the root element, or -1 if not found */
+    static int getNumberMatched(String header) {
+        int start = header.indexOf('<');
+        // skip the xml declaration, processing instructions and comments
+        while (start >= 0
+                && start + 1 < header.length()
+                && (header.charAt(start + 1) == '?' || header.charAt(start + 1) == '!')) {
+            start = header.indexOf('<', start + 1);
+        }
+        int end = start >= 0 ? header.indexOf('>', start) : -1;
+        if (end < 0) {
+            return -1;
+        }
+        Matcher matcher = NUMBER_MATCHED.matcher(header.substring(start, end));
+        if (!matcher.find()) {
+            // "unknown", or not a WFS 2.0 response
+            return -1;
+        }
+        try {
+            return Integer.parseInt(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /** @see GetFeatureParser#close() */
     public void close() throws IOException {
         if (inputStream != null) {
@@ -89,6 +151,11 @@ public class PullParserFeatureReader implements GetFeatureParser {
         return -1;
     }
 
+    @Override
+    public int getNumberMatched() {
+        return numberMatched;
+    }
+
     @Override
     public FeatureType getFeatureType() {
         return featureType;
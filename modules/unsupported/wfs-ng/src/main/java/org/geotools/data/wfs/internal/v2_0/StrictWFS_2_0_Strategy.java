@@ -258,6 +258,9 @@ public class StrictWFS_2_0_Strategy extends AbstractWFSStrategy {
                 String count = kvp.remove("MAXFEATURES");
                 kvp.put("COUNT", count);
             }
+            if (query.getStartIndex() != null) {
+                kvp.put("STARTINDEX", String.valueOf(query.getStartIndex()));
+            }
         }
 
         return kvp;
@@ -307,6 +310,10 @@ public class StrictWFS_2_0_Strategy extends AbstractWFSStrategy {
         if (maxFeatures != null) {
             getFeature.setCount(BigInteger.valueOf(maxFeatures.intValue()));
         }
+        Integer startIndex = query.getStartIndex();
+        if (startIndex != null) {
+            getFeature.setStartIndex(BigInteger.valueOf(startIndex.intValue()));
+        }
 
         ResultType resultType = query.getResultType();
         getFeature.setResultType(
@@ -569,6 +576,24 @@ public class StrictWFS_2_0_Strategy extends AbstractWFSStrategy {
         return outputFormats;
     }
 
+    /** Checks the ImplementsResultPaging constraint advertised in the capabilities */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean supportsPaging() {
+        OperationsMetadataType operationsMetadata = capabilities.getOperationsMetadata();
+        if (operationsMetadata == null) {
+            return false;
+        }
+        for (DomainType constraint : (List<DomainType>) operationsMetadata.getConstraint()) {
+            if ("ImplementsResultPaging".equals(constraint.getName())
+                    && constraint.getDefaultValue() != null
+                    && constraint.getDefaultValue().getValue() != null) {
+                return Boolean.parseBoolean(constraint.getDefaultValue().getValue().trim());
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean supportsTransaction(QName typeName) {
         try {
@@ -0,0 +1,247 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+
+package org.geotools.data.wfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.ows.HTTPResponse;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CachingHTTPClientTest {
+
+    static final String CAPABILITIES_URL =
+            "http://localhost:8080/geoserver/wfs?service=WFS&request=GetCapabilities";
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    CountingHTTPClient server;
+
+    File cacheDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new CountingHTTPClient();
+        cacheDirectory = folder.newFolder("cache");
+    }
+
+    @Test
+    public void testCacheableRequests() throws Exception {
+        assertTrue(CachingHTTPClient.isCacheable(new URL(CAPABILITIES_URL)));
+        assertTrue(
+                CachingHTTPClient.isCacheable(
+                        new URL("http://localhost/wfs?REQUEST=DescribeFeatureType&TYPENAME=a:b")));
+        assertFalse(
+                CachingHTTPClient.isCacheable(
+                        new URL("http://localhost/wfs?request=GetFeature&typeName=a:b")));
+        assertFalse(CachingHTTPClient.isCacheable(new URL("http://localhost/wfs")));
+    }
+
+    @Test
+    public void testServedFromCacheWithinMaxAge() throws Exception {
+        CachingHTTPClient client = new CachingHTTPClient(server, cacheDirectory, 60000);
+        assertEquals("v1", read(client.get(new URL(CAPABILITIES_URL))));
+        server.body = "v2";
+        assertEquals("v1", read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals(1, server.requests.size());
+
+        // the cache is persistent, a new client reuses it
+        CachingHTTPClient other = new CachingHTTPClient(server, cacheDirectory, 60000);
+        HTTPResponse response = other.get(new URL(CAPABILITIES_URL));
+        assertEquals("text/xml", response.getContentType());
+        assertEquals("\"v1\"", response.getResponseHeader("ETag"));
+        assertEquals("v1", read(response));
+        assertEquals(1, server.requests.size());
+    }
+
+    @Test
+    public void testConditionalRevalidation() throws Exception {
+        CachingHTTPClient client = new CachingHTTPClient(server, cacheDirectory, 0);
+        assertEquals("v1", read(client.get(new URL(CAPABILITIES_URL))));
+        assertNull(server.requests.get(0));
+
+        // not modified, the server answers 304
+        assertEquals("v1", read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals("\"v1\"", server.requests.get(1).get("If-None-Match"));
+
+        // modified, the new document replaces the cached one
+        server.body = "v2";
+        assertEquals("v2", read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals("v2", read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals(4, server.requests.size());
+        // one entry, the new body, and the previous one kept for the readers still using it
+        assertEquals(3, cacheDirectory.listFiles().length);
+
+        // recent documents are not swept
+        client.sweep();
+        assertEquals(3, cacheDirectory.listFiles().length);
+        // older ones are, if no entry refers to them
+        client.sweep(Long.MAX_VALUE);
+        assertEquals(2, cacheDirectory.listFiles().length);
+        assertEquals("v2", read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals(5, server.requests.size());
+    }
+
+    @Test
+    public void testSupersededBodyStillReadable() throws Exception {
+        CachingHTTPClient client = new CachingHTTPClient(server, cacheDirectory, 0);
+        read(client.get(new URL(CAPABILITIES_URL)));
+
+        // a reader got the cached document, but has not opened it yet
+        CachingHTTPClient other = new CachingHTTPClient(server, cacheDirectory, 60000);
+        HTTPResponse pending = other.get(new URL(CAPABILITIES_URL));
+
+        server.body = "v2";
+        assertEquals("v2", read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals("v1", read(pending));
+    }
+
+    @Test
+    public void testOtherRequestsNotCached() throws Exception {
+        CachingHTTPClient client = new CachingHTTPClient(server, cacheDirectory, 60000);
+        URL url = new URL("http://localhost/wfs?request=GetFeature&typeName=a:b");
+        HTTPResponse response = client.get(url);
+        assertSame(server.lastResponse, response);
+        client.get(url);
+        assertEquals(2, server.requests.size());
+        assertEquals(0, cacheDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testExceptionReportNotCached() throws Exception {
+        CachingHTTPClient client = new CachingHTTPClient(server, cacheDirectory, 60000);
+        String report =
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                        + "<ows:ExceptionReport xmlns:ows=\"http://www.opengis.net/ows/1.1\""
+                        + " version=\"2.0.0\"><ows:Exception exceptionCode=\"NoApplicableCode\">"
+                        + "<ows:ExceptionText>Out of memory</ows:ExceptionText></ows:Exception>"
+                        + "</ows:ExceptionReport>";
+        server.body = report;
+        server.contentType = "application/xml";
+        HTTPResponse response = client.get(new URL(CAPABILITIES_URL));
+        assertEquals("application/xml", response.getContentType());
+        assertEquals(report, read(response));
+        assertEquals(0, cacheDirectory.listFiles().length);
+
+        // the next request goes to the server, and its answer gets cached
+        server.body = "<wfs:WFS_Capabilities xmlns:wfs=\"http://www.opengis.net/wfs/2.0\"/>";
+        server.contentType = "text/xml";
+        assertEquals(server.body, read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals(server.body, read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals(2, server.requests.size());
+        assertEquals(2, cacheDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testExceptionReportKeepsCachedDocument() throws Exception {
+        CachingHTTPClient client = new CachingHTTPClient(server, cacheDirectory, 0);
+        assertEquals("v1", read(client.get(new URL(CAPABILITIES_URL))));
+
+        server.body = "<ServiceExceptionReport version=\"1.2.0\"/>";
+        assertEquals(server.body, read(client.get(new URL(CAPABILITIES_URL))));
+        server.body = "v1";
+        // still validated against the previous document
+        assertEquals("v1", read(client.get(new URL(CAPABILITIES_URL))));
+        assertEquals("\"v1\"", server.requests.get(2).get("If-None-Match"));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        CachingHTTPClient client = new CachingHTTPClient(server, cacheDirectory, 60000);
+        read(client.get(new URL(CAPABILITIES_URL)));
+        client.clear();
+        assertEquals(0, cacheDirectory.listFiles().length);
+        read(client.get(new URL(CAPABILITIES_URL)));
+        assertEquals(2, server.requests.size());
+    }
+
+    private String read(HTTPResponse response) throws IOException {
+        try {
+            InputStream in = response.getResponseStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                out.write(b);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            response.dispose();
+        }
+    }
+
+    /** Serves {@link #body} with an ETag, recording the conditional request headers */
+    static class CountingHTTPClient extends AbstractTestHTTPClient
+            implements ConditionalHTTPClient {
+
+        String body = "v1";
+
+        String contentType = "text/xml";
+
+        List<Map<String, String>> requests = new ArrayList<Map<String, String>>();
+
+        HTTPResponse lastResponse;
+
+        @Override
+        public HTTPResponse get(URL url) throws IOException {
+            requests.add(null);
+            return response();
+        }
+
+        @Override
+        public HTTPResponse get(URL url, Map<String, String> headers) throws IOException {
+            requests.add(headers);
+            if (etag().equals(headers.get("If-None-Match"))) {
+                return null;
+            }
+            return response();
+        }
+
+        private String etag() {
+            return "\"" + body + "\"";
+        }
+
+        private HTTPResponse response() {
+            final String etag = etag();
+            lastResponse =
+                    new TestHttpResponse(contentType, "UTF-8", body) {
+                        @Override
+                        public String getResponseHeader(String headerName) {
+                            if ("ETag".equalsIgnoreCase(headerName)) {
+                                return etag;
+                            }
+                            return super.getResponseHeader(headerName);
+                        }
+                    };
+            return lastResponse;
+        }
+    }
+}
@@ -312,6 +312,14 @@ public class WFSTestData {
         public void setGmlCompatibleTypeNames(boolean gmlCompatibleTypeNames) {
             this.gmlCompatibleTypenames = gmlCompatibleTypeNames;
         }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public void setMaxConcurrentPages(int maxConcurrentPages) {
+            this.maxConcurrentPages = maxConcurrentPages;
+        }
     }
 
     public static WFSConfig getGmlCompatibleConfig() {
@@ -320,6 +328,14 @@ public class WFSTestData {
         return config;
     }
 
+    public static WFSConfig getGmlCompatiblePagingConfig(int pageSize, int maxConcurrentPages) {
+        MutableWFSConfig config = new MutableWFSConfig();
+        config.setGmlCompatibleTypeNames(true);
+        config.setPageSize(pageSize);
+        config.setMaxConcurrentPages(maxConcurrentPages);
+        return config;
+    }
+
     public static class TestWFSClient extends WFSClient {
 
         private URL describeFeatureTypeUrlOverride;
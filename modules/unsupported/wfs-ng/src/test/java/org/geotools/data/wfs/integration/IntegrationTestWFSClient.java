@@ -228,6 +228,21 @@ public class IntegrationTestWFSClient extends WFSClient {
             }
         }
 
+        // replay a single page of the canned features for paged requests, advertising the
+        // number of matched features as a WFS 2.0 server would
+        final int numberMatched = request.getStartIndex() != null ? originalFeatures.size() : -1;
+        if (request.getStartIndex() != null) {
+            int from = Math.min(request.getStartIndex(), originalFeatures.size());
+            int to = originalFeatures.size();
+            if (request.getMaxFeatures() != null) {
+                to = Math.min(to, from + request.getMaxFeatures());
+            }
+            List<SimpleFeature> page =
+                    new ArrayList<SimpleFeature>(originalFeatures.subList(from, to));
+            originalFeatures.clear();
+            originalFeatures.addAll(page);
+        }
+
         FeatureReader<SimpleFeatureType, SimpleFeature> allFeaturesReader = null;
         if (originalFeatures.size() > 0) {
             allFeaturesReader = DataUtilities.reader(originalFeatures);
@@ -288,6 +303,11 @@ public class IntegrationTestWFSClient extends WFSClient {
                         return -1;
                     }
 
+                    @Override
+                    public int getNumberMatched() {
+                        return numberMatched;
+                    }
+
                     @Override
                     public FeatureType getFeatureType() {
                         return allFeatures.getFeatureType();
@@ -22,14 +22,26 @@ import static org.junit.Assert.assertTrue;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.geotools.data.DataStore;
 import org.geotools.data.DataUtilities;
 import org.geotools.data.ResourceInfo;
+import org.geotools.data.ows.Response;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.data.simple.SimpleFeatureStore;
 import org.geotools.data.wfs.WFSDataStore;
 import org.geotools.data.wfs.WFSTestData;
 import org.geotools.data.wfs.integration.AbstractIntegrationTest;
 import org.geotools.data.wfs.integration.IntegrationTestWFSClient;
+import org.geotools.data.wfs.internal.GetFeatureRequest;
 import org.geotools.data.wfs.internal.WFSClient;
 import org.geotools.data.wfs.internal.WFSConfig;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
@@ -129,6 +141,65 @@ public class GeoServerIntegrationTest extends AbstractIntegrationTest {
         assertEquals("EPSG:NAD27 / UTM zone 13N", info.getCRS().getName().toString());
     }
 
+    @Test
+    public void testPagedGetFeature() throws Exception {
+        final List<Integer> startIndexes = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        // the pages after the first one only complete once they are all in flight
+        final CountDownLatch fanOut = new CountDownLatch(2);
+        WFSClient pagingClient =
+                new IntegrationTestWFSClient(
+                        "GeoServer_2.2.x/2.0.0/", WFSTestData.getGmlCompatiblePagingConfig(1, 2)) {
+                    @Override
+                    protected Response mockGetFeature(GetFeatureRequest request)
+                            throws IOException {
+                        startIndexes.add(request.getStartIndex());
+                        int running = inFlight.incrementAndGet();
+                        maxInFlight.accumulateAndGet(running, Math::max);
+                        try {
+                            if (request.getStartIndex() != null && request.getStartIndex() > 0) {
+                                fanOut.countDown();
+                                fanOut.await(5, TimeUnit.SECONDS);
+                            }
+                            return super.mockGetFeature(request);
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException();
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    }
+                };
+        assertTrue(pagingClient.supportsPaging());
+
+        WFSDataStore pagingStore = new WFSDataStore(pagingClient);
+        try {
+            List<String> expected = getFeatureIds(data.getFeatureSource(first.typeName));
+            List<String> paged = getFeatureIds(pagingStore.getFeatureSource(first.typeName));
+            assertEquals(3, expected.size());
+            assertEquals(expected, paged);
+            // one feature per page, the first page is read alone and advertises 3 matched
+            // features, so the other two are requested concurrently and no empty page follows
+            assertEquals(Integer.valueOf(0), startIndexes.get(0));
+            List<Integer> requested = new ArrayList<Integer>(startIndexes);
+            Collections.sort(requested);
+            assertEquals(Arrays.asList(0, 1, 2), requested);
+            assertEquals(2, maxInFlight.get());
+        } finally {
+            pagingStore.dispose();
+        }
+    }
+
+    private List<String> getFeatureIds(SimpleFeatureSource source) throws IOException {
+        List<String> ids = new ArrayList<String>();
+        try (SimpleFeatureIterator it = source.getFeatures().features()) {
+            while (it.hasNext()) {
+                ids.add(it.next().getID());
+            }
+        }
+        return ids;
+    }
+
     @Override
     @Ignore
     @Test
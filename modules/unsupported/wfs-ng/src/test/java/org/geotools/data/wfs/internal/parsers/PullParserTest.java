@@ -16,13 +16,17 @@
  */
 package org.geotools.data.wfs.internal.parsers;
 
+import static org.junit.Assert.assertEquals;
+
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import javax.xml.namespace.QName;
 import org.geotools.data.wfs.internal.GetFeatureParser;
 import org.geotools.wfs.v1_1.WFSConfiguration;
+import org.junit.Test;
 import org.opengis.feature.simple.SimpleFeatureType;
 
 /** @source $URL$ */
@@ -46,6 +50,30 @@ public class PullParserTest extends AbstractGetFeatureParserTest {
         return parser;
     }
 
+    @Test
+    public void testNumberMatched() throws IOException {
+        String wfs20 =
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<!-- served by a test -->\n"
+                        + "<wfs:FeatureCollection xmlns:wfs=\"http://www.opengis.net/wfs/2.0\"\n"
+                        + "    numberMatched=\"1234\" numberReturned=\"10\">\n"
+                        + "<wfs:member numberMatched=\"5\"/>";
+        assertEquals(1234, PullParserFeatureReader.getNumberMatched(wfs20));
+        assertEquals(
+                -1,
+                PullParserFeatureReader.getNumberMatched(
+                        wfs20.replace("numberMatched=\"1234\"", "numberMatched=\"unknown\"")));
+        assertEquals(
+                -1,
+                PullParserFeatureReader.getNumberMatched(
+                        "<wfs:FeatureCollection numberOfFeatures=\"3\">"));
+
+        // the stream is left untouched
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(wfs20.getBytes("UTF-8")));
+        assertEquals(1234, PullParserFeatureReader.readNumberMatched(in));
+        assertEquals('<', in.read());
+    }
+
     public void testParseGeoServer_States_100() {
         // TODO: support custom number format parsing in coordinates, such as
         // <gml:coordinates xmlns:gml="http://www.opengis.net/gml" decimal="#" cs="$" ts="_">